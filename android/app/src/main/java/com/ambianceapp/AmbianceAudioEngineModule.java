@@ -1,103 +1,106 @@
 /**
  * AmbianceAudioEngineModule.java
  * 《静界》Android 原生音频引擎
- * 
+ *
  * 使用 AAudio + Oboe 实现高性能多音轨混音
+ * 命令逻辑在 AmbianceEngine 中，本模块只负责桥接：转换参数与结果，
+ * 并提供设备上的资源、主线程调度、事件发送与音频输出
  */
 
 package com.ambianceapp;
 
 import android.content.Context;
-import android.content.res.AssetFileDescriptor;
+import android.content.SharedPreferences;
 import android.media.AudioManager;
-import android.media.MediaPlayer;
 import android.os.Handler;
 import android.os.Looper;
+import android.os.Process;
 import android.util.Log;
 
+import com.ambianceapp.audio.AudioClock;
+import com.ambianceapp.audio.AudioSink;
+import com.ambianceapp.audio.PcmCache;
+import com.ambianceapp.audio.ResamplingSink;
+import com.ambianceapp.audio.SincResampler;
+import com.ambianceapp.audio.TrackBatchLoader;
+import com.ambianceapp.engine.AmbianceEngine;
+import com.ambianceapp.engine.EngineLog;
+import com.ambianceapp.scene.Scene;
+import com.ambianceapp.scene.SceneStore;
 import com.facebook.react.bridge.Arguments;
 import com.facebook.react.bridge.Promise;
 import com.facebook.react.bridge.ReactApplicationContext;
 import com.facebook.react.bridge.ReactContextBaseJavaModule;
 import com.facebook.react.bridge.ReactMethod;
-import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
 import com.facebook.react.modules.core.DeviceEventManagerModule;
 
+import org.json.JSONException;
+import org.json.JSONObject;
+
 import java.io.IOException;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 public class AmbianceAudioEngineModule extends ReactContextBaseJavaModule {
-    
+
     private static final String TAG = "AmbianceAudioEngine";
     private static final String MODULE_NAME = "AmbianceAudioEngine";
-    
-    // 音频管理
-    private AudioManager audioManager;
-    private Map<String, MediaPlayer> players = new HashMap<>();
-    private Map<String, TrackConfig> trackConfigs = new HashMap<>();
-    
-    // 状态管理
-    private boolean isInitialized = false;
-    private boolean isPlaying = false;
-    private float masterVolume = 1.0f;
-    
-    // 定时器
-    private Handler timerHandler;
-    private Runnable timerRunnable;
-    private TimerConfig timerConfig;
-    private long timerStartTime;
-    
-    // 线程池
-    private ExecutorService executorService;
-    
-    /**
-     * 音轨配置数据结构
-     */
-    private static class TrackConfig {
-        String id;
-        String name;
-        String audioFile;
-        float volume = 0.5f;
-        float pan = 0.0f;
-        boolean isPlaying = false;
-        
-        TrackConfig(String id, String name, String audioFile) {
-            this.id = id;
-            this.name = name;
-            this.audioFile = audioFile;
+
+    // 解码后 PCM 缓存：进程级，模块重新创建 (JS 重载) 后仍可复用
+    private static final PcmCache pcmCache = new PcmCache(AmbianceEngine.PCM_CACHE_BUDGET_BYTES);
+
+    // 采样率转换：混音总线实时转换到设备原生采样率
+    private static final SincResampler.Quality BUS_RESAMPLER_QUALITY = SincResampler.Quality.MEDIUM;
+
+    // 旧版本保存在 SharedPreferences 中的场景，首次打开场景日志时迁移
+    private static final String LEGACY_SCENE_PREFS = "ambiance_scenes";
+
+    private static final EngineLog LOGCAT = new EngineLog() {
+        @Override
+        public void d(String message) {
+            Log.d(TAG, message);
         }
-    }
-    
-    /**
-     * 定时器配置
-     */
-    private static class TimerConfig {
-        long duration;          // 毫秒
-        boolean fadeOut;
-        long fadeOutDuration;   // 毫秒
-        
-        TimerConfig(long duration, boolean fadeOut, long fadeOutDuration) {
-            this.duration = duration;
-            this.fadeOut = fadeOut;
-            this.fadeOutDuration = fadeOutDuration;
+
+        @Override
+        public void w(String message, Throwable error) {
+            Log.w(TAG, message, error);
         }
-    }
-    
+
+        @Override
+        public void e(String message, Throwable error) {
+            Log.e(TAG, message, error);
+        }
+    };
+
+    private final AudioManager audioManager;
+    private final AmbianceEngine engine;
+
     public AmbianceAudioEngineModule(ReactApplicationContext reactContext) {
         super(reactContext);
         this.audioManager = (AudioManager) reactContext.getSystemService(Context.AUDIO_SERVICE);
-        this.timerHandler = new Handler(Looper.getMainLooper());
-        this.executorService = Executors.newCachedThreadPool();
+        this.engine = new AmbianceEngine(
+            new AndroidAssetProvider(reactContext.getAssets()),
+            new HandlerScheduler(new Handler(Looper.getMainLooper())),
+            this::emitEventBatch,
+            createOutputSink(),
+            AudioClock.SYSTEM,
+            reactContext.getFilesDir(),
+            pcmCache);
+        this.engine.setLog(LOGCAT);
+        this.engine.setRenderThreadInitializer(
+            () -> Process.setThreadPriority(Process.THREAD_PRIORITY_URGENT_AUDIO));
+        this.engine.setSceneStoreListener(this::migrateLegacyScenes);
     }
-    
+
     @Override
     public String getName() {
         return MODULE_NAME;
     }
-    
+
     /**
      * 初始化音频引擎
      */
@@ -105,471 +108,295 @@ public class AmbianceAudioEngineModule extends ReactContextBaseJavaModule {
     public void initialize(Promise promise) {
         try {
             setupAudioSession();
-            isInitialized = true;
-            
-            Log.d(TAG, "Audio engine initialized successfully");
-            promise.resolve(true);
-            
-            // 发送初始化完成事件
-            sendEvent("onInitialized", null);
-            
         } catch (Exception e) {
             Log.e(TAG, "Failed to initialize audio engine", e);
             promise.reject("INIT_FAILED", "Failed to initialize audio engine: " + e.getMessage(), e);
+            return;
         }
+        engine.initialize(bridge(promise));
     }
-    
+
     /**
      * 添加音轨
+     * audioFile 为 assets 中的音频文件，或合成噪音 URI (noise://white、noise://pink、noise://brown)
      */
     @ReactMethod
     public void addTrack(String trackId, String audioFile, Promise promise) {
-        if (!isInitialized) {
-            promise.reject("ENGINE_NOT_INITIALIZED", "Audio engine not initialized", null);
-            return;
-        }
-        
-        executorService.execute(() -> {
-            try {
-                // 创建MediaPlayer
-                MediaPlayer player = new MediaPlayer();
-                
-                // 从assets加载音频文件
-                AssetFileDescriptor afd = getReactApplicationContext().getAssets().openFd(audioFile);
-                player.setDataSource(afd.getFileDescriptor(), afd.getStartOffset(), afd.getLength());
-                afd.close();
-                
-                // 配置播放器
-                player.setAudioStreamType(AudioManager.STREAM_MUSIC);
-                player.setLooping(true);  // 循环播放
-                player.prepare();
-                
-                // 设置事件监听
-                setupPlayerListeners(player, trackId);
-                
-                // 保存引用
-                players.put(trackId, player);
-                trackConfigs.put(trackId, new TrackConfig(trackId, audioFile, audioFile));
-                
-                Log.d(TAG, "Track added successfully: " + trackId);
-                
-                // 在主线程返回结果
-                new Handler(Looper.getMainLooper()).post(() -> {
-                    promise.resolve(true);
-                    
-                    // 发送音轨添加事件
-                    WritableMap eventData = Arguments.createMap();
-                    eventData.putString("trackId", trackId);
-                    eventData.putString("audioFile", audioFile);
-                    sendEvent("onTrackAdded", eventData);
-                });
-                
-            } catch (IOException e) {
-                Log.e(TAG, "Failed to add track: " + trackId, e);
-                new Handler(Looper.getMainLooper()).post(() -> {
-                    promise.reject("TRACK_ADD_FAILED", "Failed to add track: " + e.getMessage(), e);
-                });
+        engine.addTrack(trackId, audioFile, bridge(promise));
+    }
+
+    /**
+     * 批量添加音轨，所有音轨并行加载，全部完成后一次性返回每条音轨的结果
+     * @param tracks [{ trackId, audioFile }, ...]
+     */
+    @ReactMethod
+    public void addTracks(ReadableArray tracks, Promise promise) {
+        List<TrackBatchLoader.Request> requests = new ArrayList<>();
+        for (int i = 0; i < tracks.size(); i++) {
+            ReadableMap item = tracks.getMap(i);
+            if (item == null || !item.hasKey("trackId") || !item.hasKey("audioFile")) {
+                promise.reject("INVALID_PARAMETER", "Track at index " + i + " needs trackId and audioFile", null);
+                return;
             }
-        });
+            requests.add(new TrackBatchLoader.Request(item.getString("trackId"), item.getString("audioFile")));
+        }
+        engine.addTracks(requests, bridge(promise));
     }
-    
+
+    /**
+     * 移除音轨，解码器与缓冲区归还音源池供之后添加的音轨复用
+     */
+    @ReactMethod
+    public void removeTrack(String trackId, Promise promise) {
+        engine.removeTrack(trackId, bridge(promise));
+    }
+
     /**
      * 设置音轨音量
      */
     @ReactMethod
     public void setVolume(String trackId, float volume, Promise promise) {
-        MediaPlayer player = players.get(trackId);
-        if (player == null) {
-            promise.reject("TRACK_NOT_FOUND", "Track not found: " + trackId, null);
-            return;
-        }
-        
-        try {
-            // 验证音量范围 (0.0 - 1.0)
-            float clampedVolume = Math.max(0.0f, Math.min(1.0f, volume));
-            
-            // MediaPlayer使用左右声道分别设置音量
-            player.setVolume(clampedVolume * masterVolume, clampedVolume * masterVolume);
-            
-            // 更新配置
-            TrackConfig config = trackConfigs.get(trackId);
-            if (config != null) {
-                config.volume = clampedVolume;
-            }
-            
-            Log.d(TAG, "Volume set for track " + trackId + ": " + clampedVolume);
-            promise.resolve(true);
-            
-        } catch (Exception e) {
-            Log.e(TAG, "Failed to set volume for track: " + trackId, e);
-            promise.reject("VOLUME_SET_FAILED", "Failed to set volume: " + e.getMessage(), e);
-        }
+        engine.setVolume(trackId, volume, bridge(promise));
     }
-    
+
     /**
-     * 设置立体声平衡 (Android MediaPlayer限制，简化实现)
+     * 设置立体声平衡
      */
     @ReactMethod
     public void setPanning(String trackId, float pan, Promise promise) {
-        MediaPlayer player = players.get(trackId);
-        if (player == null) {
-            promise.reject("TRACK_NOT_FOUND", "Track not found: " + trackId, null);
-            return;
-        }
-        
-        try {
-            // 验证立体声平衡范围 (-1.0 到 1.0)
-            float clampedPan = Math.max(-1.0f, Math.min(1.0f, pan));
-            
-            // 计算左右声道音量
-            TrackConfig config = trackConfigs.get(trackId);
-            if (config != null) {
-                float baseVolume = config.volume * masterVolume;
-                
-                float leftVolume, rightVolume;
-                if (clampedPan < 0) {
-                    // 偏左
-                    leftVolume = baseVolume;
-                    rightVolume = baseVolume * (1.0f + clampedPan);
-                } else {
-                    // 偏右
-                    leftVolume = baseVolume * (1.0f - clampedPan);
-                    rightVolume = baseVolume;
-                }
-                
-                player.setVolume(leftVolume, rightVolume);
-                config.pan = clampedPan;
-            }
-            
-            Log.d(TAG, "Panning set for track " + trackId + ": " + clampedPan);
-            promise.resolve(true);
-            
-        } catch (Exception e) {
-            Log.e(TAG, "Failed to set panning for track: " + trackId, e);
-            promise.reject("PANNING_SET_FAILED", "Failed to set panning: " + e.getMessage(), e);
-        }
+        engine.setPanning(trackId, pan, bridge(promise));
     }
-    
+
+    /**
+     * 设置主总线限幅器
+     * @param ceilingDb 输出峰值上限 (dBFS，-20 ~ 0)
+     * @param releaseMs 增益回升时间 (10 ~ 2000ms)
+     */
+    @ReactMethod
+    public void setLimiter(double ceilingDb, double releaseMs, Promise promise) {
+        engine.setLimiter(ceilingDb, releaseMs, bridge(promise));
+    }
+
+    /**
+     * 开启或关闭电平表，开启后约每 33ms 发送一次 onMeters 事件
+     */
+    @ReactMethod
+    public void setMeteringEnabled(boolean enabled, Promise promise) {
+        engine.setMeteringEnabled(enabled, bridge(promise));
+    }
+
     /**
      * 开始播放所有音轨
      */
     @ReactMethod
     public void play(Promise promise) {
-        if (!isInitialized) {
-            promise.reject("ENGINE_NOT_INITIALIZED", "Audio engine not initialized", null);
-            return;
-        }
-        
-        try {
-            for (Map.Entry<String, MediaPlayer> entry : players.entrySet()) {
-                String trackId = entry.getKey();
-                MediaPlayer player = entry.getValue();
-                TrackConfig config = trackConfigs.get(trackId);
-                
-                if (config != null && config.volume > 0 && !player.isPlaying()) {
-                    player.start();
-                    config.isPlaying = true;
-                    Log.d(TAG, "Started playing track: " + trackId);
-                }
-            }
-            
-            isPlaying = true;
-            promise.resolve(true);
-            
-            // 发送播放开始事件
-            sendEvent("onPlaybackStarted", null);
-            
-        } catch (Exception e) {
-            Log.e(TAG, "Failed to start playback", e);
-            promise.reject("PLAYBACK_FAILED", "Failed to start playback: " + e.getMessage(), e);
-        }
+        engine.play(bridge(promise));
     }
-    
+
     /**
      * 暂停播放
      */
     @ReactMethod
     public void pause(Promise promise) {
-        try {
-            for (Map.Entry<String, MediaPlayer> entry : players.entrySet()) {
-                String trackId = entry.getKey();
-                MediaPlayer player = entry.getValue();
-                TrackConfig config = trackConfigs.get(trackId);
-                
-                if (player.isPlaying()) {
-                    player.pause();
-                    if (config != null) {
-                        config.isPlaying = false;
-                    }
-                }
-            }
-            
-            isPlaying = false;
-            promise.resolve(true);
-            
-            // 发送暂停事件
-            sendEvent("onPlaybackPaused", null);
-            
-        } catch (Exception e) {
-            Log.e(TAG, "Failed to pause playback", e);
-            promise.reject("PAUSE_FAILED", "Failed to pause playback: " + e.getMessage(), e);
-        }
+        engine.pause(bridge(promise));
     }
-    
+
     /**
      * 停止播放
      */
     @ReactMethod
     public void stop(Promise promise) {
-        try {
-            for (Map.Entry<String, MediaPlayer> entry : players.entrySet()) {
-                String trackId = entry.getKey();
-                MediaPlayer player = entry.getValue();
-                TrackConfig config = trackConfigs.get(trackId);
-                
-                if (player.isPlaying()) {
-                    player.stop();
-                    player.prepare(); // 重新准备以便下次播放
-                }
-                
-                if (config != null) {
-                    config.isPlaying = false;
-                }
-            }
-            
-            // 取消定时器
-            cancelTimer();
-            
-            isPlaying = false;
-            promise.resolve(true);
-            
-            // 发送停止事件
-            sendEvent("onPlaybackStopped", null);
-            
-        } catch (Exception e) {
-            Log.e(TAG, "Failed to stop playback", e);
-            promise.reject("STOP_FAILED", "Failed to stop playback: " + e.getMessage(), e);
-        }
+        engine.stop(bridge(promise));
     }
-    
+
     /**
      * 设置定时器
      */
     @ReactMethod
     public void setTimer(double duration, boolean fadeOut, double fadeOutDuration, Promise promise) {
-        try {
-            // 取消现有定时器
-            cancelTimer();
-            
-            // 创建新的定时器配置
-            timerConfig = new TimerConfig(
-                (long)(duration * 60 * 1000),           // 转换为毫秒
-                fadeOut,
-                (long)(fadeOutDuration * 60 * 1000)     // 转换为毫秒
-            );
-            
-            timerStartTime = System.currentTimeMillis();
-            
-            // 启动定时器 (每秒检查一次)
-            timerRunnable = new Runnable() {
-                @Override
-                public void run() {
-                    handleTimerTick();
-                    timerHandler.postDelayed(this, 1000);
-                }
-            };
-            timerHandler.post(timerRunnable);
-            
-            Log.d(TAG, "Timer set for " + duration + " minutes");
-            promise.resolve(true);
-            
-        } catch (Exception e) {
-            Log.e(TAG, "Failed to set timer", e);
-            promise.reject("TIMER_SET_FAILED", "Failed to set timer: " + e.getMessage(), e);
-        }
+        engine.setTimer(duration, fadeOut, fadeOutDuration, bridge(promise));
     }
-    
+
+    /**
+     * 获取引擎状态
+     */
+    @ReactMethod
+    public void getStatus(Promise promise) {
+        engine.getStatus(bridge(promise));
+    }
+
     /**
      * 保存当前场景
      */
     @ReactMethod
     public void saveScene(String sceneName, Promise promise) {
-        try {
-            // 生成场景ID
-            String sceneId = "scene_" + System.currentTimeMillis() + "_" + 
-                           Integer.toHexString((int)(Math.random() * 0x10000));
-            
-            // 构建场景数据
-            WritableMap sceneData = Arguments.createMap();
-            sceneData.putString("id", sceneId);
-            sceneData.putString("sceneName", sceneName);
-            sceneData.putDouble("createdAt", System.currentTimeMillis());
-            
-            WritableMap tracksData = Arguments.createMap();
-            for (Map.Entry<String, TrackConfig> entry : trackConfigs.entrySet()) {
-                TrackConfig config = entry.getValue();
-                if (config.volume > 0) {
-                    WritableMap trackData = Arguments.createMap();
-                    trackData.putString("audioFile", config.audioFile);
-                    trackData.putDouble("volume", config.volume);
-                    trackData.putDouble("pan", config.pan);
-                    tracksData.putMap(config.id, trackData);
-                }
+        engine.saveScene(sceneName, bridge(promise));
+    }
+
+    /**
+     * 加载场景：与当前音轨比较，只加载缺少的音轨，已加载的音轨保留解码器、只调整参数，
+     * 全部就绪后在同一个缓冲区边界上切换。
+     * scene.tracks 中每项需要 id、file (或 audioFile)，可选 volume、pan；
+     * 可选 scene.crossfadeMs 指定新旧场景交叉淡化的时长
+     */
+    @ReactMethod
+    public void loadScene(ReadableMap scene, Promise promise) {
+        ReadableArray tracks = scene.hasKey("tracks") ? scene.getArray("tracks") : null;
+        if (tracks == null) {
+            promise.reject("INVALID_PARAMETER", "Scene needs a tracks array", null);
+            return;
+        }
+
+        List<Scene.Track> sceneTracks = new ArrayList<>();
+        for (int i = 0; i < tracks.size(); i++) {
+            ReadableMap item = tracks.getMap(i);
+            String trackId = item == null ? null : item.hasKey("id") ? item.getString("id") : null;
+            String audioFile = item == null ? null
+                : item.hasKey("file") ? item.getString("file")
+                : item.hasKey("audioFile") ? item.getString("audioFile") : null;
+            if (trackId == null || audioFile == null) {
+                promise.reject("INVALID_PARAMETER", "Scene track at index " + i + " needs id and file", null);
+                return;
             }
-            sceneData.putMap("tracks", tracksData);
-            
-            // 简单存储到SharedPreferences
-            // 实际项目中应该使用更完善的存储方案
-            getReactApplicationContext()
-                .getSharedPreferences("ambiance_scenes", Context.MODE_PRIVATE)
-                .edit()
-                .putString(sceneId, sceneData.toString())
-                .apply();
-            
-            Log.d(TAG, "Scene saved: " + sceneId);
-            promise.resolve(sceneId);
-            
-        } catch (Exception e) {
-            Log.e(TAG, "Failed to save scene", e);
-            promise.reject("SCENE_SAVE_FAILED", "Failed to save scene: " + e.getMessage(), e);
+            float volume = item.hasKey("volume") ? (float) item.getDouble("volume") : 0.5f;
+            float pan = item.hasKey("pan") ? (float) item.getDouble("pan") : 0.0f;
+            sceneTracks.add(new Scene.Track(trackId, audioFile, volume, pan));
         }
+        engine.loadScene(sceneTracks, crossfadeMs(scene), bridge(promise));
     }
-    
-    // ==================== 私有方法 ====================
-    
-    private void setupAudioSession() {
-        // 请求音频焦点
-        audioManager.requestAudioFocus(
-            null,
-            AudioManager.STREAM_MUSIC,
-            AudioManager.AUDIOFOCUS_GAIN
-        );
+
+    /**
+     * 按 ID 加载已保存的场景
+     * @param options 可选 crossfadeMs，可为 null
+     */
+    @ReactMethod
+    public void loadSceneById(String sceneId, ReadableMap options, Promise promise) {
+        engine.loadSceneById(sceneId, crossfadeMs(options), bridge(promise));
     }
-    
-    private void setupPlayerListeners(MediaPlayer player, String trackId) {
-        player.setOnErrorListener((mp, what, extra) -> {
-            Log.e(TAG, "MediaPlayer error for track " + trackId + ": what=" + what + ", extra=" + extra);
-            
-            WritableMap errorData = Arguments.createMap();
-            errorData.putString("trackId", trackId);
-            errorData.putString("error", "MediaPlayer error: " + what);
-            sendEvent("onError", errorData);
-            
-            return true;
-        });
-        
-        player.setOnCompletionListener(mp -> {
-            Log.d(TAG, "Track completed: " + trackId);
-            TrackConfig config = trackConfigs.get(trackId);
-            if (config != null) {
-                config.isPlaying = false;
-            }
-        });
+
+    /**
+     * 把已保存的场景离线渲染为 WAV 文件 (16 位立体声，混音采样率)
+     * 使用独立的混音器，不影响正在播放的声音，渲染速度只受 CPU 限制
+     * @param durationMinutes 导出时长 (分钟，最长 240)
+     * @param fileName 文件名 (不含路径)，为空时使用场景 ID
+     */
+    @ReactMethod
+    public void exportSceneToWav(String sceneId, double durationMinutes, String fileName, Promise promise) {
+        engine.exportSceneToWav(sceneId, durationMinutes, fileName, bridge(promise));
     }
-    
-    private void handleTimerTick() {
-        if (timerConfig == null) return;
-        
-        long elapsedTime = System.currentTimeMillis() - timerStartTime;
-        long remainingTime = timerConfig.duration - elapsedTime;
-        
-        if (remainingTime <= 0) {
-            // 定时器结束
-            handleTimerExpired();
-        } else if (timerConfig.fadeOut && remainingTime <= timerConfig.fadeOutDuration) {
-            // 开始淡出
-            float fadeProgress = 1.0f - ((float)remainingTime / timerConfig.fadeOutDuration);
-            float targetVolume = 1.0f - fadeProgress;
-            
-            // 应用淡出效果到所有音轨
-            for (Map.Entry<String, TrackConfig> entry : trackConfigs.entrySet()) {
-                String trackId = entry.getKey();
-                TrackConfig config = entry.getValue();
-                MediaPlayer player = players.get(trackId);
-                
-                if (player != null && config.isPlaying) {
-                    float fadeVolume = config.volume * targetVolume * masterVolume;
-                    player.setVolume(fadeVolume, fadeVolume);
-                }
-            }
-        }
+
+    // ==================== 私有方法 ====================
+
+    private static Double crossfadeMs(ReadableMap options) {
+        return options == null || !options.hasKey("crossfadeMs") ? null : options.getDouble("crossfadeMs");
     }
-    
-    private void handleTimerExpired() {
-        cancelTimer();
-        
-        // 停止播放
-        stop(new Promise() {
+
+    /**
+     * 把引擎的结果转换为桥接类型后交给 JS 的 Promise
+     */
+    @SuppressWarnings("unchecked")
+    private static AmbianceEngine.Promise bridge(Promise promise) {
+        return new AmbianceEngine.Promise() {
             @Override
             public void resolve(Object value) {
-                // 发送定时器结束事件
-                sendEvent("onTimerExpired", null);
-            }
-            
-            @Override
-            public void reject(String code, String message) {
-                Log.e(TAG, "Failed to stop playback on timer expired");
+                if (value instanceof Map) {
+                    promise.resolve(Arguments.makeNativeMap((Map<String, Object>) value));
+                } else if (value instanceof List) {
+                    promise.resolve(Arguments.makeNativeArray((List<?>) value));
+                } else {
+                    promise.resolve(value);
+                }
             }
-            
+
             @Override
-            public void reject(String code, String message, Throwable e) {
-                Log.e(TAG, "Failed to stop playback on timer expired", e);
+            public void reject(String code, String message, Throwable error) {
+                promise.reject(code, message, error);
             }
-            
-            @Override
-            public void reject(String code, Throwable e) {
-                Log.e(TAG, "Failed to stop playback on timer expired", e);
+        };
+    }
+
+    /**
+     * 把旧版本保存在 SharedPreferences 中的场景 (JSON) 写入场景日志，
+     * 迁移成功的条目从 SharedPreferences 中删除，因此只会执行一次
+     */
+    private void migrateLegacyScenes(SceneStore store) {
+        SharedPreferences prefs = getReactApplicationContext()
+            .getSharedPreferences(LEGACY_SCENE_PREFS, Context.MODE_PRIVATE);
+        Map<String, ?> legacy = prefs.getAll();
+        if (legacy.isEmpty()) {
+            return;
+        }
+
+        SharedPreferences.Editor editor = prefs.edit();
+        int migrated = 0;
+        for (Map.Entry<String, ?> entry : legacy.entrySet()) {
+            try {
+                JSONObject json = new JSONObject(String.valueOf(entry.getValue()));
+                List<Scene.Track> tracks = new ArrayList<>();
+                JSONObject tracksJson = json.optJSONObject("tracks");
+                if (tracksJson != null) {
+                    Iterator<String> ids = tracksJson.keys();
+                    while (ids.hasNext()) {
+                        String trackId = ids.next();
+                        JSONObject track = tracksJson.getJSONObject(trackId);
+                        tracks.add(new Scene.Track(trackId, track.getString("audioFile"),
+                            (float) track.getDouble("volume"), (float) track.optDouble("pan", 0)));
+                    }
+                }
+                store.put(new Scene(entry.getKey(), json.optString("sceneName", ""),
+                    (long) json.optDouble("createdAt", 0), tracks));
+                editor.remove(entry.getKey());
+                migrated++;
+            } catch (JSONException | IOException e) {
+                Log.w(TAG, "Failed to migrate scene " + entry.getKey(), e);
             }
-        });
+        }
+        editor.apply();
+        Log.d(TAG, "Migrated " + migrated + " of " + legacy.size() + " legacy scenes");
     }
-    
-    private void cancelTimer() {
-        if (timerRunnable != null) {
-            timerHandler.removeCallbacks(timerRunnable);
-            timerRunnable = null;
+
+    /**
+     * 设备原生采样率与混音采样率不同时，在总线上转换一次，避免系统对输出流重采样
+     */
+    private AudioSink createOutputSink() {
+        AudioSink sink = new AudioTrackSink();
+        int nativeRate = 0;
+        String property = audioManager.getProperty(AudioManager.PROPERTY_OUTPUT_SAMPLE_RATE);
+        if (property != null) {
+            try {
+                nativeRate = Integer.parseInt(property);
+            } catch (NumberFormatException e) {
+                Log.w(TAG, "Invalid native output sample rate: " + property);
+            }
+        }
+        if (nativeRate <= 0 || nativeRate == AmbianceEngine.SAMPLE_RATE) {
+            return sink;
         }
-        timerConfig = null;
-        timerStartTime = 0;
+        Log.d(TAG, "Resampling mixer output " + AmbianceEngine.SAMPLE_RATE + " -> " + nativeRate);
+        return new ResamplingSink(sink, nativeRate, BUS_RESAMPLER_QUALITY);
     }
-    
-    private void sendEvent(String eventName, WritableMap params) {
+
+    private void setupAudioSession() {
+        // 请求音频焦点
+        audioManager.requestAudioFocus(
+            null,
+            AudioManager.STREAM_MUSIC,
+            AudioManager.AUDIOFOCUS_GAIN
+        );
+    }
+
+    private void emitEventBatch(String eventName, List<Map<String, Object>> batch) {
         getReactApplicationContext()
             .getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class)
-            .emit(eventName, params);
+            .emit(eventName, Arguments.makeNativeArray(batch));
     }
-    
+
     /**
      * 清理资源
      */
     @Override
     public void onCatalystInstanceDestroy() {
         super.onCatalystInstanceDestroy();
-        
-        // 停止所有播放器并释放资源
-        for (MediaPlayer player : players.values()) {
-            if (player != null) {
-                try {
-                    if (player.isPlaying()) {
-                        player.stop();
-                    }
-                    player.release();
-                } catch (Exception e) {
-                    Log.e(TAG, "Error releasing MediaPlayer", e);
-                }
-            }
-        }
-        
-        players.clear();
-        trackConfigs.clear();
-        
-        // 取消定时器
-        cancelTimer();
-        
-        // 关闭线程池
-        if (executorService != null) {
-            executorService.shutdown();
-        }
-        
-        Log.d(TAG, "AmbianceAudioEngine destroyed");
+        engine.release();
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,58 @@
+/**
+ * AndroidAssetProvider.java
+ * 《静界》从 APK assets 读取音频资源
+ */
+
+package com.ambianceapp;
+
+import android.content.res.AssetFileDescriptor;
+import android.content.res.AssetManager;
+
+import com.ambianceapp.audio.ByteSource;
+import com.ambianceapp.audio.PcmData;
+import com.ambianceapp.audio.PcmFile;
+import com.ambianceapp.engine.AssetProvider;
+
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+
+public class AndroidAssetProvider implements AssetProvider {
+
+    private final AssetManager assets;
+
+    public AndroidAssetProvider(AssetManager assets) {
+        this.assets = assets;
+    }
+
+    @Override
+    public ByteSource open(String path) {
+        return new AssetByteSource(assets, path);
+    }
+
+    /**
+     * 映射 convertPcmAssets 生成的 .pcm 资源 (APK 中不压缩存放)
+     */
+    @Override
+    public PcmData mapPcm(String path) throws IOException {
+        AssetFileDescriptor afd;
+        try {
+            afd = assets.openFd(PcmFile.nameFor(path));
+        } catch (FileNotFoundException e) {
+            return null;
+        }
+        try (FileInputStream input = afd.createInputStream()) {
+            return PcmFile.map(input.getChannel(), afd.getStartOffset(), afd.getLength());
+        } finally {
+            afd.close();
+        }
+    }
+
+    /**
+     * 其他格式用 MediaCodec 一次性解码
+     */
+    @Override
+    public PcmData decode(String path) throws IOException {
+        return MediaCodecDecoder.decodeAsset(assets, path);
+    }
+}
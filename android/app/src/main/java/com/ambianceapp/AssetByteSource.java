@@ -0,0 +1,34 @@
+/**
+ * AssetByteSource.java
+ * 《静界》从 APK assets 读取的字节来源
+ */
+
+package com.ambianceapp;
+
+import android.content.res.AssetManager;
+
+import com.ambianceapp.audio.ByteSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public class AssetByteSource implements ByteSource {
+
+    private final AssetManager assets;
+    private final String path;
+
+    public AssetByteSource(AssetManager assets, String path) {
+        this.assets = assets;
+        this.path = path;
+    }
+
+    @Override
+    public InputStream open() throws IOException {
+        return assets.open(path, AssetManager.ACCESS_STREAMING);
+    }
+
+    @Override
+    public String getName() {
+        return path;
+    }
+}
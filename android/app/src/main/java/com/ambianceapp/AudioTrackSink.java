@@ -0,0 +1,117 @@
+/**
+ * AudioTrackSink.java
+ * 《静界》基于 android.media.AudioTrack 的混音输出
+ *
+ * 整个混音器只占用一条 AudioTrack，取代每个音轨一个 MediaPlayer
+ * 按最大写入大小分配容量；缓冲区自适应调整时 (setBufferFrames) 把实际使用的缓冲区
+ * 调整为两次写入的大小，较小的写入同时带来较低的输出延迟。
+ * 经过 ResamplingSink 时每次写入的帧数逐次浮动，因此不按写入帧数调整。
+ */
+
+package com.ambianceapp;
+
+import android.media.AudioAttributes;
+import android.media.AudioFormat;
+import android.media.AudioTrack;
+
+import com.ambianceapp.audio.AudioSink;
+import com.ambianceapp.audio.PcmConverter;
+
+import java.io.IOException;
+
+public class AudioTrackSink implements AudioSink {
+
+    private AudioTrack audioTrack;
+    private short[] pcm;
+    private int channelCount;
+    private int minBufferFrames;
+
+    @Override
+    public void open(int sampleRate, int channelCount, int bufferFrames) throws IOException {
+        this.channelCount = channelCount;
+        this.pcm = new short[bufferFrames * channelCount];
+
+        int channelMask = channelCount == 1
+            ? AudioFormat.CHANNEL_OUT_MONO
+            : AudioFormat.CHANNEL_OUT_STEREO;
+        int minBufferBytes = AudioTrack.getMinBufferSize(
+            sampleRate, channelMask, AudioFormat.ENCODING_PCM_16BIT);
+        // 至少容纳两个混音缓冲区，避免写入与播放互相等待
+        int bufferBytes = Math.max(minBufferBytes, bufferFrames * channelCount * 2 * 2);
+        this.minBufferFrames = minBufferBytes / (channelCount * 2);
+
+        try {
+            audioTrack = new AudioTrack.Builder()
+                .setAudioAttributes(new AudioAttributes.Builder()
+                    .setUsage(AudioAttributes.USAGE_MEDIA)
+                    .setContentType(AudioAttributes.CONTENT_TYPE_MUSIC)
+                    .build())
+                .setAudioFormat(new AudioFormat.Builder()
+                    .setSampleRate(sampleRate)
+                    .setChannelMask(channelMask)
+                    .setEncoding(AudioFormat.ENCODING_PCM_16BIT)
+                    .build())
+                .setBufferSizeInBytes(bufferBytes)
+                .setTransferMode(AudioTrack.MODE_STREAM)
+                .build();
+        } catch (IllegalArgumentException | UnsupportedOperationException e) {
+            throw new IOException("Failed to create AudioTrack: " + e.getMessage(), e);
+        }
+        audioTrack.play();
+    }
+
+    @Override
+    public void write(float[] buffer, int frames) throws IOException {
+        int samples = frames * channelCount;
+        PcmConverter.floatToPcm16(buffer, pcm, samples);
+
+        int offset = 0;
+        while (offset < samples) {
+            int written = audioTrack.write(pcm, offset, samples - offset);
+            if (written < 0) {
+                throw new IOException("AudioTrack write failed: " + written);
+            }
+            offset += written;
+        }
+    }
+
+    @Override
+    public boolean isBlocking() {
+        return true;
+    }
+
+    @Override
+    public void setBufferFrames(int frames) {
+        if (audioTrack != null) {
+            audioTrack.setBufferSizeInFrames(Math.max(minBufferFrames, frames * 2));
+        }
+    }
+
+    @Override
+    public long getUnderrunCount() {
+        return audioTrack != null ? audioTrack.getUnderrunCount() : -1;
+    }
+
+    @Override
+    public void pause() {
+        // 只在渲染线程上、阻塞写入返回之后调用：暂停的 AudioTrack 不再消耗数据，进行中的写入会一直阻塞
+        if (audioTrack != null) {
+            audioTrack.pause();
+        }
+    }
+
+    @Override
+    public void resume() {
+        if (audioTrack != null) {
+            audioTrack.play();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (audioTrack != null) {
+            audioTrack.release();
+            audioTrack = null;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+/**
+ * HandlerScheduler.java
+ * 《静界》在 Handler 所在线程 (主线程) 上执行引擎的任务
+ */
+
+package com.ambianceapp;
+
+import android.os.Handler;
+
+import com.ambianceapp.engine.Scheduler;
+
+public class HandlerScheduler implements Scheduler {
+
+    private final Handler handler;
+
+    public HandlerScheduler(Handler handler) {
+        this.handler = handler;
+    }
+
+    @Override
+    public void post(Runnable task) {
+        handler.post(task);
+    }
+
+    @Override
+    public void postDelayed(Runnable task, long delayMs) {
+        handler.postDelayed(task, delayMs);
+    }
+
+    @Override
+    public void remove(Runnable task) {
+        handler.removeCallbacks(task);
+    }
+}
@@ -0,0 +1,127 @@
+/**
+ * MediaCodecDecoder.java
+ * 《静界》使用 MediaExtractor + MediaCodec 把音频资源完整解码为 PCM
+ */
+
+package com.ambianceapp;
+
+import android.content.res.AssetFileDescriptor;
+import android.content.res.AssetManager;
+import android.media.MediaCodec;
+import android.media.MediaExtractor;
+import android.media.MediaFormat;
+
+import com.ambianceapp.audio.PcmData;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.util.Arrays;
+
+final class MediaCodecDecoder {
+
+    private static final long TIMEOUT_US = 10_000;
+
+    private MediaCodecDecoder() {
+    }
+
+    /**
+     * 解码 assets 中的音频文件
+     */
+    static PcmData decodeAsset(AssetManager assets, String audioFile) throws IOException {
+        MediaExtractor extractor = new MediaExtractor();
+        try {
+            AssetFileDescriptor afd = assets.openFd(audioFile);
+            try {
+                extractor.setDataSource(afd.getFileDescriptor(), afd.getStartOffset(), afd.getLength());
+            } finally {
+                afd.close();
+            }
+            return decode(extractor, audioFile);
+        } finally {
+            extractor.release();
+        }
+    }
+
+    private static PcmData decode(MediaExtractor extractor, String audioFile) throws IOException {
+        MediaFormat format = null;
+        for (int i = 0; i < extractor.getTrackCount(); i++) {
+            MediaFormat candidate = extractor.getTrackFormat(i);
+            String mime = candidate.getString(MediaFormat.KEY_MIME);
+            if (mime != null && mime.startsWith("audio/")) {
+                extractor.selectTrack(i);
+                format = candidate;
+                break;
+            }
+        }
+        if (format == null) {
+            throw new IOException("No audio track in " + audioFile);
+        }
+
+        int sampleRate = format.getInteger(MediaFormat.KEY_SAMPLE_RATE);
+        int channelCount = format.getInteger(MediaFormat.KEY_CHANNEL_COUNT);
+
+        MediaCodec codec = MediaCodec.createDecoderByType(format.getString(MediaFormat.KEY_MIME));
+        short[] samples = new short[sampleRate * channelCount * 4];
+        int sampleCount = 0;
+
+        try {
+            codec.configure(format, null, null, 0);
+            codec.start();
+
+            MediaCodec.BufferInfo info = new MediaCodec.BufferInfo();
+            boolean inputDone = false;
+            boolean outputDone = false;
+
+            while (!outputDone) {
+                if (!inputDone) {
+                    int inIndex = codec.dequeueInputBuffer(TIMEOUT_US);
+                    if (inIndex >= 0) {
+                        ByteBuffer input = codec.getInputBuffer(inIndex);
+                        int size = extractor.readSampleData(input, 0);
+                        if (size < 0) {
+                            codec.queueInputBuffer(inIndex, 0, 0, 0, MediaCodec.BUFFER_FLAG_END_OF_STREAM);
+                            inputDone = true;
+                        } else {
+                            codec.queueInputBuffer(inIndex, 0, size, extractor.getSampleTime(), 0);
+                            extractor.advance();
+                        }
+                    }
+                }
+
+                int outIndex = codec.dequeueOutputBuffer(info, TIMEOUT_US);
+                if (outIndex >= 0) {
+                    ByteBuffer output = codec.getOutputBuffer(outIndex);
+                    if (output != null && info.size > 0) {
+                        output.position(info.offset);
+                        output.limit(info.offset + info.size);
+                        ShortBuffer pcm = output.order(ByteOrder.LITTLE_ENDIAN).asShortBuffer();
+                        int count = pcm.remaining();
+                        if (sampleCount + count > samples.length) {
+                            samples = Arrays.copyOf(samples, Math.max(samples.length * 2, sampleCount + count));
+                        }
+                        pcm.get(samples, sampleCount, count);
+                        sampleCount += count;
+                    }
+                    codec.releaseOutputBuffer(outIndex, false);
+                    if ((info.flags & MediaCodec.BUFFER_FLAG_END_OF_STREAM) != 0) {
+                        outputDone = true;
+                    }
+                } else if (outIndex == MediaCodec.INFO_OUTPUT_FORMAT_CHANGED) {
+                    MediaFormat outputFormat = codec.getOutputFormat();
+                    sampleRate = outputFormat.getInteger(MediaFormat.KEY_SAMPLE_RATE);
+                    channelCount = outputFormat.getInteger(MediaFormat.KEY_CHANNEL_COUNT);
+                }
+            }
+
+            codec.stop();
+        } catch (IllegalStateException e) {
+            throw new IOException("Failed to decode " + audioFile + ": " + e.getMessage(), e);
+        } finally {
+            codec.release();
+        }
+
+        return new PcmData(sampleRate, channelCount, Arrays.copyOf(samples, sampleCount));
+    }
+}
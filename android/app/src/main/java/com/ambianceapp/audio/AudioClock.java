@@ -0,0 +1,32 @@
+/**
+ * AudioClock.java
+ * 《静界》渲染线程使用的时钟
+ *
+ * 生产环境使用 System.nanoTime()，测试中可替换为模拟时钟
+ */
+
+package com.ambianceapp.audio;
+
+import java.util.concurrent.locks.LockSupport;
+
+public interface AudioClock {
+
+    AudioClock SYSTEM = new AudioClock() {
+        @Override
+        public long nanoTime() {
+            return System.nanoTime();
+        }
+
+        @Override
+        public void sleepNanos(long nanos) {
+            LockSupport.parkNanos(nanos);
+        }
+    };
+
+    long nanoTime();
+
+    /**
+     * 休眠指定时长，模拟时钟直接把时间向前推进
+     */
+    void sleepNanos(long nanos);
+}
@@ -0,0 +1,324 @@
+/**
+ * AudioEngine.java
+ * 《静界》混音引擎
+ *
+ * 由一条专用的高优先级渲染线程独占 AudioMixer，循环渲染并写入 AudioSink。
+ * 每个缓冲区有明确的交付时限 (bufferFrames / sampleRate)，按首个缓冲区交付时刻锚定的实时节拍计算。
+ * 欠载的判断：输出端报告断流计数时 (AudioSink.getUnderrunCount()) 以计数增加为准；
+ * 否则只对不阻塞的输出端 (按渲染线程自己的节拍播放) 把晚于时限交付记为欠载。
+ * 阻塞输出端按设备时钟播放，墙上时钟的延迟不能说明断流。晚于时限时都会重新锚定节拍。统计见 RenderStats。
+ * 设置 BufferSizeController 后每个缓冲区的帧数按欠载统计在 bufferFrames 以内调整，时限随之变化；
+ * 只在控制器给出新的大小时通知输出端 (AudioSink.setBufferFrames)。
+ *
+ * 暂停与恢复输出端都由渲染线程在两次写入之间执行：阻塞写入期间从其他线程暂停输出端
+ * (AudioTrack.pause()) 会让这次写入无法返回，渲染线程也就无法在暂停期间执行参数命令。
+ *
+ * 时钟可替换：测试中使用 SimulatedClock 并直接调用 renderNextBuffer()。
+ */
+
+package com.ambianceapp.audio;
+
+import java.io.IOException;
+
+public class AudioEngine {
+
+    private static final long PAUSED_DRAIN_INTERVAL_MS = 20;
+
+    private final AudioMixer mixer;
+    private final AudioSink sink;
+    private final AudioClock clock;
+    private final int sampleRate;
+    private final int bufferFrames;
+    private final float[] buffer;
+
+    private final long periodNanos;
+    private final RenderStats stats;
+    private volatile BufferSizeController sizeController;
+    private volatile int currentFrames;
+
+    // 实时节拍，仅渲染线程访问：已交付音频的总时长与最近一个缓冲区的时长
+    private long scheduleStart = -1;
+    private long scheduledNanos;
+    private long lastPeriodNanos;
+    private long lastSinkUnderruns = -1;
+
+    private final Object lock = new Object();
+    private Thread renderThread;
+    private Runnable threadInitializer;
+    private boolean running = false;
+    private boolean released = false;
+    private volatile IOException lastError;
+
+    public AudioEngine(AudioMixer mixer, AudioSink sink, int sampleRate, int bufferFrames) {
+        this(mixer, sink, sampleRate, bufferFrames, AudioClock.SYSTEM);
+    }
+
+    public AudioEngine(AudioMixer mixer, AudioSink sink, int sampleRate, int bufferFrames, AudioClock clock) {
+        if (bufferFrames > mixer.getMaxFrames()) {
+            throw new IllegalArgumentException("bufferFrames exceeds mixer capacity");
+        }
+        this.mixer = mixer;
+        this.sink = sink;
+        this.clock = clock;
+        this.sampleRate = sampleRate;
+        this.bufferFrames = bufferFrames;
+        this.buffer = new float[bufferFrames * AudioMixer.OUTPUT_CHANNELS];
+        this.periodNanos = bufferFrames * 1_000_000_000L / sampleRate;
+        this.currentFrames = bufferFrames;
+        this.stats = new RenderStats(periodNanos);
+    }
+
+    public AudioMixer getMixer() {
+        return mixer;
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * 缓冲区容量 (输出端按此大小打开)
+     */
+    public int getBufferFrames() {
+        return bufferFrames;
+    }
+
+    /**
+     * 当前每个缓冲区的帧数
+     */
+    public int getCurrentBufferFrames() {
+        return currentFrames;
+    }
+
+    /**
+     * 当前每个缓冲区的交付时限
+     */
+    public long getDeadlineNanos() {
+        return periodNanos(currentFrames);
+    }
+
+    public RenderStats getStats() {
+        return stats;
+    }
+
+    /**
+     * 渲染线程启动时在该线程上执行，例如设置平台相关的线程优先级
+     */
+    public void setThreadInitializer(Runnable initializer) {
+        synchronized (lock) {
+            this.threadInitializer = initializer;
+        }
+    }
+
+    /**
+     * 按欠载统计自适应调整缓冲区大小，在渲染开始前设置，null 时固定使用 bufferFrames
+     */
+    public void setBufferSizeController(BufferSizeController controller) {
+        if (controller != null && controller.getMaxFrames() > bufferFrames) {
+            throw new IllegalArgumentException("Controller max frames exceeds bufferFrames");
+        }
+        this.sizeController = controller;
+        this.currentFrames = controller != null ? controller.getFrames() : bufferFrames;
+        stats.setDeadlineNanos(periodNanos(currentFrames));
+    }
+
+    public BufferSizeController getBufferSizeController() {
+        return sizeController;
+    }
+
+    /**
+     * 开始或恢复渲染
+     */
+    public void start() throws IOException {
+        synchronized (lock) {
+            if (released) {
+                throw new IllegalStateException("Engine released");
+            }
+            if (renderThread == null) {
+                sink.open(sampleRate, AudioMixer.OUTPUT_CHANNELS, bufferFrames);
+                if (currentFrames != bufferFrames) {
+                    // 输出端按容量打开，自适应调整从控制器的初始大小开始
+                    sink.setBufferFrames(currentFrames);
+                }
+                renderThread = new Thread(this::renderLoop, "AmbianceRender");
+                renderThread.setPriority(Thread.MAX_PRIORITY);
+                running = true;
+                renderThread.start();
+            } else if (!running) {
+                // 渲染线程醒来后恢复输出端
+                running = true;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * 暂停渲染，线程保持存活；渲染线程完成当前写入后暂停输出端
+     */
+    public void pause() {
+        synchronized (lock) {
+            running = false;
+        }
+    }
+
+    public boolean isRunning() {
+        synchronized (lock) {
+            return running;
+        }
+    }
+
+    /**
+     * 渲染线程尚未启动时，在调用线程上执行已投递的命令 (例如首次播放前移除音轨)；
+     * 启动之后由渲染线程执行，本方法不做任何事
+     */
+    public void drainCommandsBeforeStart() {
+        synchronized (lock) {
+            if (renderThread == null) {
+                mixer.drainCommands();
+            }
+        }
+    }
+
+    /**
+     * 渲染线程最近一次写入失败的原因
+     */
+    public IOException getLastError() {
+        return lastError;
+    }
+
+    /**
+     * 停止线程并关闭输出
+     */
+    public void release() {
+        Thread thread;
+        synchronized (lock) {
+            if (released) {
+                return;
+            }
+            released = true;
+            running = false;
+            thread = renderThread;
+            lock.notifyAll();
+        }
+        if (thread != null) {
+            try {
+                thread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        sink.close();
+    }
+
+    /**
+     * 渲染并写出一个缓冲区，记录耗时与是否按时交付 (渲染线程或测试调用)
+     * @return 该缓冲区是否欠载
+     */
+    public boolean renderNextBuffer() throws IOException {
+        int frames = currentFrames;
+        long period = periodNanos(frames);
+        long start = clock.nanoTime();
+        mixer.render(buffer, frames);
+        long rendered = clock.nanoTime();
+        sink.write(buffer, frames);
+        long delivered = clock.nanoTime();
+
+        boolean underrun = false;
+        long sinkUnderruns = sink.getUnderrunCount();
+        if (sinkUnderruns >= 0) {
+            underrun = lastSinkUnderruns >= 0 && sinkUnderruns > lastSinkUnderruns;
+            lastSinkUnderruns = sinkUnderruns;
+        }
+        if (scheduleStart >= 0 && delivered > scheduleStart + scheduledNanos) {
+            // 须在之前交付的缓冲区播完之前交付，否则按自己节拍播放的输出端已经断流；从当前缓冲区重新锚定节拍
+            if (sinkUnderruns < 0 && !sink.isBlocking()) {
+                underrun = true;
+            }
+            scheduleStart = -1;
+        }
+        if (scheduleStart < 0) {
+            // 输出从第一个缓冲区交付时开始播放
+            scheduleStart = delivered;
+            scheduledNanos = 0;
+        }
+        scheduledNanos += period;
+        lastPeriodNanos = period;
+
+        stats.record(rendered - start, underrun);
+        if (mixer.wasLastRenderInTransition()) {
+            stats.recordTransition(rendered - start, mixer.getTransitionSerial());
+        }
+
+        BufferSizeController controller = sizeController;
+        if (controller != null) {
+            int next = controller.onBuffer(frames, underrun);
+            if (next != frames) {
+                currentFrames = next;
+                stats.setDeadlineNanos(periodNanos(next));
+                sink.setBufferFrames(next);
+            }
+        }
+        return underrun;
+    }
+
+    private long periodNanos(int frames) {
+        return frames == bufferFrames ? periodNanos : frames * 1_000_000_000L / sampleRate;
+    }
+
+    private void renderLoop() {
+        Runnable initializer;
+        synchronized (lock) {
+            initializer = threadInitializer;
+        }
+        if (initializer != null) {
+            initializer.run();
+        }
+
+        while (true) {
+            boolean paused;
+            synchronized (lock) {
+                if (released) {
+                    return;
+                }
+                paused = !running;
+            }
+            if (paused) {
+                // 上一次写入已经返回，此时暂停输出端不会卡住渲染线程
+                sink.pause();
+                synchronized (lock) {
+                    while (!running && !released) {
+                        try {
+                            lock.wait(PAUSED_DRAIN_INTERVAL_MS);
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                        // 暂停期间继续执行参数命令，避免队列积压
+                        mixer.drainCommands();
+                    }
+                    if (released) {
+                        return;
+                    }
+                }
+                sink.resume();
+                // 暂停期间不计入时限
+                scheduleStart = -1;
+            }
+
+            try {
+                renderNextBuffer();
+            } catch (IOException e) {
+                lastError = e;
+                pause();
+                continue;
+            }
+
+            if (!sink.isBlocking()) {
+                // 输出端不阻塞时自行按实时节拍限速，最多领先一个缓冲区
+                long ahead = scheduleStart + scheduledNanos - lastPeriodNanos - clock.nanoTime();
+                if (scheduleStart >= 0 && ahead > 0) {
+                    clock.sleepNanos(ahead);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,973 @@
+/**
+ * AudioMixer.java
+ * 《静界》软件混音核心
+ *
+ * 将所有音轨解码后的 PCM 叠加到一个立体声 float 缓冲区，再交给单一输出端。
+ * 不依赖 Android，可在桌面 JVM 上测试和压测。
+ *
+ * render() 在稳定状态下不产生任何堆分配：缓冲区全部预分配，
+ * 音轨列表以数组快照形式发布，遍历时不创建迭代器。
+ *
+ * 音量、平衡、播放状态等参数变化经 MixerCommandQueue 投递，
+ * 在每个缓冲区开始时由渲染线程按顺序执行，控制线程与渲染线程之间没有锁。
+ *
+ * 可选的前瞻限幅器接在主音量之后，防止多条音轨叠加后超出满刻度。
+ *
+ * 移除音轨分两步：retireTrack() 让渲染线程把音轨淡出并停止，之后不再读取其音源 (isRetired())；
+ * 控制侧看到后再调用 removeTrack() 把它从快照中去掉，音源即可回收复用。
+ *
+ * 设置宽限期后，有效增益 (音轨音量与主音量，斜坡结束后) 连续为零超过宽限期的音轨被挂起：
+ * 不再读取音源，只累计虚拟位置；增益开始回升的缓冲区里先把音源推进到连续读取时的位置再读取，
+ * 输出与不挂起时相同。只有 SuspendableSource 会被挂起。
+ *
+ * 开启电平表后，每条音轨的峰值与均方值由刚读出的输入按左右增益换算 (音量斜坡期间在叠加时逐采样计算)，
+ * 主输出在限幅后计算，
+ * 每个缓冲区按表头特性 (峰值保持后按固定 dB/s 回落，RMS 按时间常数平滑) 更新一次。
+ * 结果以顺序锁发布：渲染线程从不等待，读取方在写入中途读到时重试。
+ */
+
+package com.ambianceapp.audio;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.LockSupport;
+
+public class AudioMixer {
+
+    public static final int OUTPUT_CHANNELS = 2;
+
+    public static final int DEFAULT_COMMAND_CAPACITY = 1024;
+
+    // 每个电平表的值：左右峰值、左右 RMS (线性)
+    public static final int METER_VALUES = 4;
+    public static final int METER_PEAK_LEFT = 0;
+    public static final int METER_PEAK_RIGHT = 1;
+    public static final int METER_RMS_LEFT = 2;
+    public static final int METER_RMS_RIGHT = 3;
+
+    private static final double METER_PEAK_FALL_DB_PER_SECOND = 20.0;
+    private static final double METER_RMS_TIME_CONSTANT_SECONDS = 0.3;
+    private static final int METER_READ_ATTEMPTS = 100;
+
+    private static final MixerTrack[] NO_TRACKS = new MixerTrack[0];
+
+    // 队列满时投递方等待渲染线程取走命令的上限
+    private static final long POST_TIMEOUT_NANOS = 1_000_000_000L;
+    private static final long POST_BACKOFF_NANOS = 100_000L;
+
+    private final int maxFrames;
+    private final float[] scratch;
+
+    // 写时复制的音轨快照，渲染线程只读
+    private volatile MixerTrack[] tracks = NO_TRACKS;
+
+    private final MixerCommandQueue commands;
+    private final MixerCommandQueue.Handler commandHandler = this::applyCommand;
+
+    private volatile float masterVolume = 1.0f;
+    private volatile LookaheadLimiter limiter;
+    private volatile long suspendGraceFrames;
+
+    // 电平表：采样率为 0 表示关闭
+    private volatile int meterSampleRate;
+    private final AtomicInteger meterSequence = new AtomicInteger();
+    private final float[] masterMeterState = new float[METER_VALUES];
+    private final AtomicIntegerArray masterMeterLevels = new AtomicIntegerArray(METER_VALUES);
+    private final float[] bufferLevels = new float[METER_VALUES];
+    private int meterFrames;
+    private int meterRate;
+    private float meterPeakFall;
+    private float meterRmsAlpha;
+
+    // 渲染线程独占
+    private final GainRamp masterRamp = new GainRamp(1.0f);
+    private long transitionRemaining;
+    private int transitionSerial;
+    private boolean lastRenderInTransition;
+
+    /**
+     * @param maxFrames 单次渲染的最大帧数
+     */
+    public AudioMixer(int maxFrames) {
+        this(maxFrames, DEFAULT_COMMAND_CAPACITY);
+    }
+
+    /**
+     * @param maxFrames 单次渲染的最大帧数
+     * @param commandCapacity 两次渲染之间最多积压的参数命令数
+     */
+    public AudioMixer(int maxFrames, int commandCapacity) {
+        this.maxFrames = maxFrames;
+        this.scratch = new float[maxFrames * OUTPUT_CHANNELS];
+        this.commands = new MixerCommandQueue(commandCapacity);
+    }
+
+    public int getMaxFrames() {
+        return maxFrames;
+    }
+
+    // ==================== 音轨管理 ====================
+
+    public MixerTrack addTrack(String trackId, AudioSource source) {
+        if (source.getChannelCount() > OUTPUT_CHANNELS) {
+            throw new IllegalArgumentException("Unsupported channel count: " + source.getChannelCount());
+        }
+        MixerTrack track = new MixerTrack(trackId, source, this);
+        synchronized (this) {
+            MixerTrack[] current = tracks;
+            MixerTrack[] next = Arrays.copyOf(current, current.length + 1);
+            next[current.length] = track;
+            tracks = next;
+        }
+        return track;
+    }
+
+    public synchronized boolean removeTrack(MixerTrack track) {
+        MixerTrack[] current = tracks;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == track) {
+                MixerTrack[] next = new MixerTrack[current.length - 1];
+                System.arraycopy(current, 0, next, 0, i);
+                System.arraycopy(current, i + 1, next, i, current.length - i - 1);
+                tracks = next;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 在 rampSamples 个采样内淡出并停止音轨，之后渲染线程不再读取其音源、也不再执行它的其他命令。
+     * 已停止、已挂起或 rampSamples 为 0 时在下一次执行命令时立即完成。
+     * 完成后 MixerTrack.isRetired() 为 true，此时可以 removeTrack() 并回收音源。
+     */
+    public void retireTrack(MixerTrack track, long rampSamples) {
+        post(MixerCommandQueue.RETIRE, track, 0.0f, rampSamples, GainRamp.Shape.EQUAL_POWER);
+    }
+
+    public List<MixerTrack> getTracks() {
+        return Collections.unmodifiableList(Arrays.asList(tracks));
+    }
+
+    public float getMasterVolume() {
+        return masterVolume;
+    }
+
+    /**
+     * 立即设置主音量
+     */
+    public void setMasterVolume(float volume) {
+        rampMasterVolume(volume, 0, GainRamp.Shape.LINEAR);
+    }
+
+    /**
+     * 在 samples 个采样内把主音量过渡到目标值，例如定时器淡出
+     */
+    public void rampMasterVolume(float volume, long samples, GainRamp.Shape shape) {
+        float clamped = Math.max(0.0f, Math.min(1.0f, volume));
+        this.masterVolume = clamped;
+        post(MixerCommandQueue.SET_MASTER_GAIN, null, clamped, samples, shape);
+    }
+
+    /**
+     * 渲染线程上当前实际的主音量 (斜坡进行中时为中间值)
+     */
+    public float getCurrentMasterGain() {
+        return masterRamp.getValue();
+    }
+
+    // ==================== 静音挂起 ====================
+
+    /**
+     * @param frames 有效增益连续为零多少帧后挂起音轨，0 表示不挂起 (已挂起的音轨仍在增益回升时恢复)
+     */
+    public void setSuspendGraceFrames(long frames) {
+        this.suspendGraceFrames = Math.max(0, frames);
+    }
+
+    public long getSuspendGraceFrames() {
+        return suspendGraceFrames;
+    }
+
+    /**
+     * 更新音轨的挂起状态 (渲染线程)，需要时恢复并推进音源
+     * @return 本缓冲区是否跳过该音轨
+     */
+    private static boolean updateSuspension(MixerTrack track, int frames, boolean masterSilent, long grace) {
+        GainRamp ramp = track.gainRamp;
+        boolean silent = masterSilent || (ramp.getValue() == 0.0f && !ramp.isRamping());
+        if (!silent) {
+            if (track.suspended) {
+                ((SuspendableSource) track.getSource()).advance(track.virtualFrames);
+                track.virtualFrames = 0;
+                track.suspended = false;
+            }
+            track.silentFrames = 0;
+            return false;
+        }
+        if (track.suspended) {
+            track.virtualFrames += frames;
+            return true;
+        }
+        if (grace <= 0 || !(track.getSource() instanceof SuspendableSource)) {
+            return false;
+        }
+        if (track.silentFrames >= grace) {
+            track.suspended = true;
+            track.virtualFrames = frames;
+            return true;
+        }
+        track.silentFrames += frames;
+        return false;
+    }
+
+    /**
+     * 挂起的音轨不读取音源，但音量与声像斜坡照常前进：
+     * 主音量静音期间的淡入淡出按时完成，淡出在挂起中结束时同样停止音轨
+     */
+    private static void skipSuspended(MixerTrack track, int frames) {
+        GainRamp ramp = track.gainRamp;
+        ramp.skip(frames);
+        track.panRamp.skip(frames);
+        if (track.stopWhenSilent && !ramp.isRamping()) {
+            track.renderPlaying = false;
+            track.stopWhenSilent = false;
+            track.retired = track.retiring;
+        }
+    }
+
+    // ==================== 限幅器 ====================
+
+    /**
+     * 在主音量之后接入限幅器，null 表示不限幅。应在开始渲染之前设置，
+     * 渲染中切换会因延迟线不同产生跳变；之后通过 configureLimiter() 调整参数。
+     */
+    public void setLimiter(LookaheadLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    public LookaheadLimiter getLimiter() {
+        return limiter;
+    }
+
+    /**
+     * 修改限幅器的上限与释放时间，在下一个缓冲区边界生效
+     * @param ceiling 输出峰值上限 (线性，0 ~ 1]
+     */
+    public void configureLimiter(float ceiling, float releaseMs) {
+        if (!(ceiling > 0.0f) || ceiling > 1.0f) {
+            throw new IllegalArgumentException("Invalid ceiling: " + ceiling);
+        }
+        // 释放时间以 1/1000 毫秒为单位经 samples 字段传递
+        post(MixerCommandQueue.SET_LIMITER, null, ceiling, Math.round(releaseMs * 1000.0), null);
+    }
+
+    // ==================== 电平表 ====================
+
+    /**
+     * 开启电平表
+     * @param sampleRate 渲染采样率，用于换算表头的回落速度和时间常数
+     */
+    public void enableMetering(int sampleRate) {
+        if (sampleRate <= 0) {
+            throw new IllegalArgumentException("Invalid sample rate: " + sampleRate);
+        }
+        meterSampleRate = sampleRate;
+    }
+
+    public void disableMetering() {
+        meterSampleRate = 0;
+    }
+
+    public boolean isMeteringEnabled() {
+        return meterSampleRate > 0;
+    }
+
+    /**
+     * 读取一份一致的电平快照 (任意线程，不阻塞渲染线程)
+     * @param tracks 要读取的音轨
+     * @param trackLevels 每条音轨 METER_VALUES 个值，按 tracks 顺序排列
+     * @param masterLevels 主输出的 METER_VALUES 个值
+     * @return 渲染线程持续写入、多次重试仍未读到一致快照时返回 false
+     */
+    public boolean readMeters(MixerTrack[] tracks, float[] trackLevels, float[] masterLevels) {
+        for (int attempt = 0; attempt < METER_READ_ATTEMPTS; attempt++) {
+            int before = meterSequence.get();
+            if ((before & 1) != 0) {
+                Thread.yield();
+                continue;
+            }
+            for (int t = 0; t < tracks.length; t++) {
+                copyLevels(tracks[t].meterLevels, trackLevels, t * METER_VALUES);
+            }
+            copyLevels(masterMeterLevels, masterLevels, 0);
+            if (meterSequence.get() == before) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void copyLevels(AtomicIntegerArray source, float[] target, int offset) {
+        for (int i = 0; i < METER_VALUES; i++) {
+            target[offset + i] = Float.intBitsToFloat(source.get(i));
+        }
+    }
+
+    /**
+     * 按表头特性更新一个电平表的状态 (渲染线程)
+     * @param levels 本缓冲区的左右峰值与左右平方和
+     */
+    private void applyBallistics(float[] state, float[] levels, int frames) {
+        float peakFall = meterPeakFall;
+        float alpha = meterRmsAlpha;
+        state[METER_PEAK_LEFT] = Math.max(levels[METER_PEAK_LEFT], state[METER_PEAK_LEFT] * peakFall);
+        state[METER_PEAK_RIGHT] = Math.max(levels[METER_PEAK_RIGHT], state[METER_PEAK_RIGHT] * peakFall);
+        // RMS 状态保存均方值
+        float inverseFrames = frames > 0 ? 1.0f / frames : 0.0f;
+        state[METER_RMS_LEFT] += (levels[METER_RMS_LEFT] * inverseFrames - state[METER_RMS_LEFT]) * alpha;
+        state[METER_RMS_RIGHT] += (levels[METER_RMS_RIGHT] * inverseFrames - state[METER_RMS_RIGHT]) * alpha;
+    }
+
+    private static void publishMeter(float[] state, AtomicIntegerArray published) {
+        published.lazySet(METER_PEAK_LEFT, Float.floatToRawIntBits(state[METER_PEAK_LEFT]));
+        published.lazySet(METER_PEAK_RIGHT, Float.floatToRawIntBits(state[METER_PEAK_RIGHT]));
+        published.lazySet(METER_RMS_LEFT, Float.floatToRawIntBits((float) Math.sqrt(state[METER_RMS_LEFT])));
+        published.lazySet(METER_RMS_RIGHT, Float.floatToRawIntBits((float) Math.sqrt(state[METER_RMS_RIGHT])));
+    }
+
+    /**
+     * 缓冲区长度或采样率变化时重新计算表头系数 (渲染线程)
+     */
+    private void prepareMeterBallistics(int sampleRate, int frames) {
+        if (sampleRate == meterRate && frames == meterFrames) {
+            return;
+        }
+        double seconds = (double) frames / sampleRate;
+        meterPeakFall = (float) Math.pow(10.0, -METER_PEAK_FALL_DB_PER_SECOND * seconds / 20.0);
+        meterRmsAlpha = (float) (1.0 - Math.exp(-seconds / METER_RMS_TIME_CONSTANT_SECONDS));
+        meterRate = sampleRate;
+        meterFrames = frames;
+    }
+
+    // ==================== 命令 ====================
+
+    /**
+     * 投递一条参数命令。队列满时短暂退避等待渲染线程取走，
+     * 超时说明渲染线程已停止消费，抛出 IllegalStateException。
+     */
+    void post(int type, MixerTrack track, float value, long samples, GainRamp.Shape shape) {
+        post(type, track, value, samples, shape, null);
+    }
+
+    private void post(int type, MixerTrack track, float value, long samples, GainRamp.Shape shape,
+                      Object payload) {
+        if (commands.offer(type, track, value, samples, shape, payload)) {
+            return;
+        }
+        long deadline = System.nanoTime() + POST_TIMEOUT_NANOS;
+        do {
+            LockSupport.parkNanos(POST_BACKOFF_NANOS);
+            if (commands.offer(type, track, value, samples, shape, payload)) {
+                return;
+            }
+        } while (System.nanoTime() < deadline);
+        throw new IllegalStateException("Mixer command queue full");
+    }
+
+    /**
+     * 原子地应用一组音轨变化：所有音轨在同一个缓冲区边界开始过渡。
+     * 新开始播放的音轨从静音淡入，停止的音轨淡出到静音后停止。
+     * @param rampSamples 过渡长度 (采样数)，0 表示立即切换
+     */
+    public void applySceneChange(SceneChange change, long rampSamples) {
+        applySceneChange(change, rampSamples, 0);
+    }
+
+    /**
+     * @param staggerFrames 新加入的音轨依次推迟启动的间隔 (帧)
+     */
+    public void applySceneChange(SceneChange change, long rampSamples, int staggerFrames) {
+        for (SceneChange.Entry entry : change.entries) {
+            entry.track.setRequested(entry.volume, entry.pan, entry.playing);
+        }
+        post(MixerCommandQueue.APPLY_SCENE, null, staggerFrames, rampSamples, null, change);
+    }
+
+    /**
+     * 执行所有已投递的命令 (渲染线程)。
+     * render() 开始时自动调用；输出暂停期间由引擎定期调用，避免队列积压。
+     */
+    public void drainCommands() {
+        commands.drain(commandHandler);
+    }
+
+    private void applyCommand(int type, MixerTrack track, float value, long samples,
+                              GainRamp.Shape shape, Object payload) {
+        if (track != null && track.retiring) {
+            // 正在移除的音轨忽略之后的参数命令
+            return;
+        }
+        switch (type) {
+            case MixerCommandQueue.SET_GAIN:
+                track.gainRamp.rampTo(value, samples, shape);
+                break;
+            case MixerCommandQueue.SET_PAN:
+                track.panRamp.setImmediate(value);
+                break;
+            case MixerCommandQueue.SET_PLAYING:
+                track.renderPlaying = value != 0.0f;
+                track.stopWhenSilent = false;
+                track.startDelay = -1;
+                break;
+            case MixerCommandQueue.APPLY_SCENE:
+                applySceneEntries((SceneChange) payload, samples, (int) value);
+                break;
+            case MixerCommandQueue.SET_LIMITER:
+                LookaheadLimiter current = limiter;
+                if (current != null) {
+                    current.configure(value, samples / 1000.0f);
+                }
+                break;
+            case MixerCommandQueue.RESET:
+                track.getSource().reset();
+                track.virtualFrames = 0;
+                break;
+            case MixerCommandQueue.SET_MASTER_GAIN:
+                masterRamp.rampTo(value, samples, shape);
+                break;
+            case MixerCommandQueue.RETIRE:
+                track.retiring = true;
+                track.startDelay = -1;
+                boolean silent = track.suspended
+                    || (track.gainRamp.getValue() == 0.0f && !track.gainRamp.isRamping());
+                if (!track.renderPlaying || silent || samples <= 0) {
+                    track.renderPlaying = false;
+                    track.stopWhenSilent = false;
+                    track.retired = true;
+                } else {
+                    track.gainRamp.rampTo(value, samples, shape);
+                    track.stopWhenSilent = true;
+                }
+                break;
+            default:
+                throw new IllegalStateException("Unknown command " + type);
+        }
+    }
+
+    private void applySceneEntries(SceneChange change, long samples, int staggerFrames) {
+        long longest = samples;
+        int incoming = 0;
+        for (int i = 0; i < change.entries.size(); i++) {
+            SceneChange.Entry entry = change.entries.get(i);
+            MixerTrack track = entry.track;
+            if (track.retiring) {
+                continue;
+            }
+            if (entry.playing && track.renderPlaying) {
+                // 两个场景共有：从当前值过渡，不重新开始
+                float current = track.gainRamp.getValue();
+                GainRamp.Shape shape = current == 0.0f || entry.volume == 0.0f
+                    ? GainRamp.Shape.EQUAL_POWER : GainRamp.Shape.LINEAR;
+                track.gainRamp.rampTo(entry.volume, samples, shape);
+                track.panRamp.rampTo(entry.pan, samples, GainRamp.Shape.LINEAR);
+                track.stopWhenSilent = false;
+                track.startDelay = -1;
+            } else if (entry.playing) {
+                // 新加入：按顺序错开，在渲染时从静音淡入
+                long delay = (long) incoming++ * staggerFrames;
+                track.panRamp.setImmediate(entry.pan);
+                track.startDelay = delay;
+                track.startVolume = entry.volume;
+                track.startRamp = samples;
+                longest = Math.max(longest, delay + samples);
+            } else {
+                track.startDelay = -1;
+                if (track.renderPlaying) {
+                    track.gainRamp.rampTo(0.0f, samples, GainRamp.Shape.EQUAL_POWER);
+                    track.panRamp.rampTo(entry.pan, samples, GainRamp.Shape.LINEAR);
+                    track.stopWhenSilent = true;
+                } else {
+                    // 保持停止，下次播放时从该音量开始
+                    track.gainRamp.setImmediate(entry.volume);
+                    track.panRamp.setImmediate(entry.pan);
+                }
+            }
+        }
+        transitionRemaining = longest;
+        transitionSerial++;
+    }
+
+    /**
+     * 上一次 render() 是否处于场景过渡中 (渲染线程)
+     */
+    boolean wasLastRenderInTransition() {
+        return lastRenderInTransition;
+    }
+
+    /**
+     * 每次场景过渡开始时递增 (渲染线程)
+     */
+    int getTransitionSerial() {
+        return transitionSerial;
+    }
+
+    // ==================== 渲染 ====================
+
+    /**
+     * 渲染一个缓冲区
+     * @param output 立体声交错输出缓冲区，长度至少 frames * 2
+     * @param frames 帧数，不超过 maxFrames
+     */
+    public void render(float[] output, int frames) {
+        if (frames > maxFrames) {
+            throw new IllegalArgumentException("frames " + frames + " exceeds " + maxFrames);
+        }
+
+        int samples = frames * OUTPUT_CHANNELS;
+        for (int i = 0; i < samples; i++) {
+            output[i] = 0.0f;
+        }
+
+        drainCommands();
+        lastRenderInTransition = transitionRemaining > 0;
+        transitionRemaining = Math.max(0, transitionRemaining - frames);
+
+        final int meterRateNow = meterSampleRate;
+        final boolean metering = meterRateNow > 0;
+        final float[] levels = bufferLevels;
+        if (metering) {
+            prepareMeterBallistics(meterRateNow, frames);
+        }
+        final boolean masterSilent = masterRamp.getValue() == 0.0f && !masterRamp.isRamping();
+        final long grace = suspendGraceFrames;
+
+        final MixerTrack[] snapshot = tracks;
+        for (int t = 0; t < snapshot.length; t++) {
+            MixerTrack track = snapshot[t];
+            advanceStartDelay(track, frames);
+            boolean skipped = track.renderPlaying && updateSuspension(track, frames, masterSilent, grace);
+            if (!track.renderPlaying || skipped) {
+                if (skipped) {
+                    skipSuspended(track, frames);
+                    track.suspendedFrames.lazySet(track.suspendedFrames.get() + frames);
+                }
+                if (metering) {
+                    // 停止或挂起的音轨表头继续回落
+                    Arrays.fill(levels, 0.0f);
+                    applyBallistics(track.meterState, levels, frames);
+                }
+                continue;
+            }
+            track.activeFrames.lazySet(track.activeFrames.get() + frames);
+
+            AudioSource source = track.getSource();
+            int read = source.read(scratch, 0, frames);
+            GainRamp ramp = track.gainRamp;
+            GainRamp panRamp = track.panRamp;
+            if (panRamp.isRamping()) {
+                // 声像过渡 (场景形变) 与音量一样逐采样插值，按缓冲区阶跃会产生拉链噪声
+                mixIntoPanRamped(output, scratch, read, source.getChannelCount(),
+                    ramp, panRamp, metering ? levels : null);
+                panRamp.skip(frames - read);
+                if (metering) {
+                    applyBallistics(track.meterState, levels, frames);
+                }
+            } else if (metering) {
+                float pan = panRamp.getValue();
+                if (ramp.isRamping()) {
+                    mixIntoRampedMetered(output, scratch, read, source.getChannelCount(),
+                        leftGain(1.0f, pan), rightGain(1.0f, pan), ramp, levels);
+                } else {
+                    // 音量固定时先叠加 (内核可向量化)，再测输入电平按增益换算
+                    float volume = ramp.getValue();
+                    float left = leftGain(volume, pan);
+                    float right = rightGain(volume, pan);
+                    mixInto(output, scratch, read, source.getChannelCount(), left, right);
+                    measure(scratch, read, source.getChannelCount(), levels);
+                    scaleLevels(levels, left, right);
+                }
+                applyBallistics(track.meterState, levels, frames);
+            } else if (ramp.isRamping()) {
+                float pan = panRamp.getValue();
+                mixIntoRamped(output, scratch, read, source.getChannelCount(),
+                    leftGain(1.0f, pan), rightGain(1.0f, pan), ramp);
+            } else {
+                float volume = ramp.getValue();
+                float pan = panRamp.getValue();
+                mixInto(output, scratch, read, source.getChannelCount(),
+                    leftGain(volume, pan), rightGain(volume, pan));
+            }
+            if (track.stopWhenSilent && !ramp.isRamping()) {
+                track.renderPlaying = false;
+                track.stopWhenSilent = false;
+                track.retired = track.retiring;
+            }
+        }
+
+        if (masterRamp.isRamping()) {
+            for (int i = 0; i < samples; i += OUTPUT_CHANNELS) {
+                float gain = masterRamp.next();
+                output[i] *= gain;
+                output[i + 1] *= gain;
+            }
+        } else {
+            float gain = masterRamp.getValue();
+            if (gain != 1.0f) {
+                for (int i = 0; i < samples; i++) {
+                    output[i] *= gain;
+                }
+            }
+        }
+
+        LookaheadLimiter bus = limiter;
+        if (bus != null) {
+            bus.process(output, frames);
+        }
+
+        if (metering) {
+            measure(output, frames, OUTPUT_CHANNELS, levels);
+            applyBallistics(masterMeterState, levels, frames);
+            publishMeters(snapshot);
+        }
+    }
+
+    /**
+     * 错开启动的音轨到达启动时刻时从静音淡入
+     */
+    private static void advanceStartDelay(MixerTrack track, int frames) {
+        if (track.startDelay < 0) {
+            return;
+        }
+        if (track.startDelay < frames) {
+            track.gainRamp.setImmediate(0.0f);
+            track.gainRamp.rampTo(track.startVolume, track.startRamp, GainRamp.Shape.EQUAL_POWER);
+            track.renderPlaying = true;
+            track.stopWhenSilent = false;
+            track.startDelay = -1;
+        } else {
+            track.startDelay -= frames;
+        }
+    }
+
+    // ==================== 离线并行渲染 ====================
+
+    /**
+     * 所有音源都是 SeekableSource 时，可以用 skip() 与 copyState() 在时间轴上分段
+     */
+    boolean isSeekable() {
+        for (MixerTrack track : tracks) {
+            if (!(track.getSource() instanceof SeekableSource)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 按与 render() 完全相同的顺序推进一个缓冲区的全部状态，但不读取音源、不叠加。
+     * 音量与主音量斜坡在过渡期间仍逐采样前进，之后的状态与 render() 逐位相同。
+     * 不经过限幅器与电平表。音源必须都是 SeekableSource。
+     */
+    void skip(int frames) {
+        if (frames > maxFrames) {
+            throw new IllegalArgumentException("frames " + frames + " exceeds " + maxFrames);
+        }
+        drainCommands();
+        lastRenderInTransition = transitionRemaining > 0;
+        transitionRemaining = Math.max(0, transitionRemaining - frames);
+
+        final boolean masterSilent = masterRamp.getValue() == 0.0f && !masterRamp.isRamping();
+        final long grace = suspendGraceFrames;
+
+        final MixerTrack[] snapshot = tracks;
+        for (int t = 0; t < snapshot.length; t++) {
+            MixerTrack track = snapshot[t];
+            advanceStartDelay(track, frames);
+            if (!track.renderPlaying) {
+                continue;
+            }
+            if (updateSuspension(track, frames, masterSilent, grace)) {
+                skipSuspended(track, frames);
+                continue;
+            }
+            int read = ((SeekableSource) track.getSource()).skip(frames);
+            GainRamp ramp = track.gainRamp;
+            track.panRamp.skip(frames);
+            if (ramp.isRamping()) {
+                for (int i = 0; i < read; i++) {
+                    ramp.next();
+                }
+            }
+            if (track.stopWhenSilent && !ramp.isRamping()) {
+                track.renderPlaying = false;
+                track.stopWhenSilent = false;
+                track.retired = track.retiring;
+            }
+        }
+
+        if (masterRamp.isRamping()) {
+            for (int i = 0; i < frames; i++) {
+                masterRamp.next();
+            }
+        }
+    }
+
+    /**
+     * 复制当前的渲染状态：音源各自复制，不含限幅器与电平表。
+     * 先执行已投递的命令，与下一次 render() 开始时的状态相同。
+     */
+    AudioMixer copyState() {
+        drainCommands();
+        AudioMixer copy = new AudioMixer(maxFrames);
+        MixerTrack[] current = tracks;
+        MixerTrack[] copied = new MixerTrack[current.length];
+        for (int t = 0; t < current.length; t++) {
+            copied[t] = current[t].copyTo(copy);
+        }
+        copy.tracks = copied;
+        copy.masterVolume = masterVolume;
+        copy.suspendGraceFrames = suspendGraceFrames;
+        copy.masterRamp.copyFrom(masterRamp);
+        copy.transitionRemaining = transitionRemaining;
+        copy.transitionSerial = transitionSerial;
+        copy.lastRenderInTransition = lastRenderInTransition;
+        return copy;
+    }
+
+    /**
+     * 以顺序锁发布所有电平：序号为奇数期间读取方重试
+     */
+    private void publishMeters(MixerTrack[] snapshot) {
+        int sequence = meterSequence.get();
+        meterSequence.set(sequence + 1);
+        for (int t = 0; t < snapshot.length; t++) {
+            publishMeter(snapshot[t].meterState, snapshot[t].meterLevels);
+        }
+        publishMeter(masterMeterState, masterMeterLevels);
+        meterSequence.lazySet(sequence + 2);
+    }
+
+    // ==================== 混音内核 ====================
+
+    // 与原 MediaPlayer 实现一致的平衡算法：只衰减对侧声道
+    static float leftGain(float volume, float pan) {
+        return pan < 0 ? volume : volume * (1.0f - pan);
+    }
+
+    static float rightGain(float volume, float pan) {
+        return pan < 0 ? volume * (1.0f + pan) : volume;
+    }
+
+    /**
+     * 把单声道或立体声输入按左右增益叠加到立体声输出
+     */
+    static void mixInto(float[] output, float[] input, int frames, int channels,
+                        float leftGain, float rightGain) {
+        if (channels == 1) {
+            for (int i = 0; i < frames; i++) {
+                float s = input[i];
+                output[i * 2] += s * leftGain;
+                output[i * 2 + 1] += s * rightGain;
+            }
+        } else {
+            for (int i = 0; i < frames; i++) {
+                output[i * 2] += input[i * 2] * leftGain;
+                output[i * 2 + 1] += input[i * 2 + 1] * rightGain;
+            }
+        }
+    }
+
+    /**
+     * 与 mixIntoRamped 相同，同时把叠加部分的左右峰值与平方和写入 levels
+     */
+    static void mixIntoRampedMetered(float[] output, float[] input, int frames, int channels,
+                                     float leftPan, float rightPan, GainRamp ramp, float[] levels) {
+        float peakLeft = 0.0f;
+        float peakRight = 0.0f;
+        float sumLeft = 0.0f;
+        float sumRight = 0.0f;
+        for (int i = 0; i < frames; i++) {
+            float gain = ramp.next();
+            float left;
+            float right;
+            if (channels == 1) {
+                float s = input[i] * gain;
+                left = s * leftPan;
+                right = s * rightPan;
+            } else {
+                left = input[i * 2] * gain * leftPan;
+                right = input[i * 2 + 1] * gain * rightPan;
+            }
+            output[i * 2] += left;
+            output[i * 2 + 1] += right;
+            peakLeft = Math.max(peakLeft, Math.abs(left));
+            peakRight = Math.max(peakRight, Math.abs(right));
+            sumLeft += left * left;
+            sumRight += right * right;
+        }
+        levels[METER_PEAK_LEFT] = peakLeft;
+        levels[METER_PEAK_RIGHT] = peakRight;
+        levels[METER_RMS_LEFT] = sumLeft;
+        levels[METER_RMS_RIGHT] = sumRight;
+    }
+
+    /**
+     * 缓冲区的左右峰值与平方和，单声道时左右相同
+     * 每个声道用四组独立的累加器，打断相邻采样之间的依赖链
+     * (浮点累加不会被自动向量化，链越短吞吐越高)
+     */
+    static void measure(float[] buffer, int frames, int channels, float[] levels) {
+        float peakEven0 = 0.0f;
+        float peakEven1 = 0.0f;
+        float peakEven2 = 0.0f;
+        float peakEven3 = 0.0f;
+        float peakOdd0 = 0.0f;
+        float peakOdd1 = 0.0f;
+        float peakOdd2 = 0.0f;
+        float peakOdd3 = 0.0f;
+        float sumEven0 = 0.0f;
+        float sumEven1 = 0.0f;
+        float sumEven2 = 0.0f;
+        float sumEven3 = 0.0f;
+        float sumOdd0 = 0.0f;
+        float sumOdd1 = 0.0f;
+        float sumOdd2 = 0.0f;
+        float sumOdd3 = 0.0f;
+        // 偶数下标在立体声时是左声道；单声道时两组最后合并
+        int samples = frames * channels;
+        int i = 0;
+        for (; i + 7 < samples; i += 8) {
+            float a = buffer[i];
+            float b = buffer[i + 1];
+            float c = buffer[i + 2];
+            float d = buffer[i + 3];
+            float e = buffer[i + 4];
+            float f = buffer[i + 5];
+            float g = buffer[i + 6];
+            float h = buffer[i + 7];
+            float absA = Math.abs(a);
+            float absB = Math.abs(b);
+            float absC = Math.abs(c);
+            float absD = Math.abs(d);
+            float absE = Math.abs(e);
+            float absF = Math.abs(f);
+            float absG = Math.abs(g);
+            float absH = Math.abs(h);
+            peakEven0 = absA > peakEven0 ? absA : peakEven0;
+            peakOdd0 = absB > peakOdd0 ? absB : peakOdd0;
+            peakEven1 = absC > peakEven1 ? absC : peakEven1;
+            peakOdd1 = absD > peakOdd1 ? absD : peakOdd1;
+            peakEven2 = absE > peakEven2 ? absE : peakEven2;
+            peakOdd2 = absF > peakOdd2 ? absF : peakOdd2;
+            peakEven3 = absG > peakEven3 ? absG : peakEven3;
+            peakOdd3 = absH > peakOdd3 ? absH : peakOdd3;
+            sumEven0 += a * a;
+            sumOdd0 += b * b;
+            sumEven1 += c * c;
+            sumOdd1 += d * d;
+            sumEven2 += e * e;
+            sumOdd2 += f * f;
+            sumEven3 += g * g;
+            sumOdd3 += h * h;
+        }
+        for (; i < samples; i++) {
+            float a = buffer[i];
+            float absA = Math.abs(a);
+            if ((i & 1) != 0) {
+                peakOdd0 = absA > peakOdd0 ? absA : peakOdd0;
+                sumOdd0 += a * a;
+            } else {
+                peakEven0 = absA > peakEven0 ? absA : peakEven0;
+                sumEven0 += a * a;
+            }
+        }
+
+        float peakLeft = Math.max(Math.max(peakEven0, peakEven1), Math.max(peakEven2, peakEven3));
+        float peakRight = Math.max(Math.max(peakOdd0, peakOdd1), Math.max(peakOdd2, peakOdd3));
+        float sumLeft = (sumEven0 + sumEven1) + (sumEven2 + sumEven3);
+        float sumRight = (sumOdd0 + sumOdd1) + (sumOdd2 + sumOdd3);
+        if (channels == 1) {
+            peakLeft = Math.max(peakLeft, peakRight);
+            peakRight = peakLeft;
+            sumLeft += sumRight;
+            sumRight = sumLeft;
+        }
+        levels[METER_PEAK_LEFT] = peakLeft;
+        levels[METER_PEAK_RIGHT] = peakRight;
+        levels[METER_RMS_LEFT] = sumLeft;
+        levels[METER_RMS_RIGHT] = sumRight;
+    }
+
+    /**
+     * 按固定的左右增益换算输入电平 (增益非负)
+     */
+    private static void scaleLevels(float[] levels, float leftGain, float rightGain) {
+        levels[METER_PEAK_LEFT] *= leftGain;
+        levels[METER_PEAK_RIGHT] *= rightGain;
+        levels[METER_RMS_LEFT] *= leftGain * leftGain;
+        levels[METER_RMS_RIGHT] *= rightGain * rightGain;
+    }
+
+    /**
+     * 与 mixInto 相同，但音量逐采样取自斜坡
+     */
+    static void mixIntoRamped(float[] output, float[] input, int frames, int channels,
+                              float leftPan, float rightPan, GainRamp ramp) {
+        if (channels == 1) {
+            for (int i = 0; i < frames; i++) {
+                float gain = ramp.next();
+                float s = input[i] * gain;
+                output[i * 2] += s * leftPan;
+                output[i * 2 + 1] += s * rightPan;
+            }
+        } else {
+            for (int i = 0; i < frames; i++) {
+                float gain = ramp.next();
+                output[i * 2] += input[i * 2] * gain * leftPan;
+                output[i * 2 + 1] += input[i * 2 + 1] * gain * rightPan;
+            }
+        }
+    }
+
+    /**
+     * 声像也在斜坡中时，音量与声像都逐采样取自斜坡；
+     * levels 不为 null 时同时把叠加部分的左右峰值与平方和写入 levels
+     */
+    static void mixIntoPanRamped(float[] output, float[] input, int frames, int channels,
+                                 GainRamp ramp, GainRamp panRamp, float[] levels) {
+        float peakLeft = 0.0f;
+        float peakRight = 0.0f;
+        float sumLeft = 0.0f;
+        float sumRight = 0.0f;
+        for (int i = 0; i < frames; i++) {
+            float gain = ramp.next();
+            float pan = panRamp.next();
+            float left;
+            float right;
+            if (channels == 1) {
+                float s = input[i];
+                left = s * leftGain(gain, pan);
+                right = s * rightGain(gain, pan);
+            } else {
+                left = input[i * 2] * leftGain(gain, pan);
+                right = input[i * 2 + 1] * rightGain(gain, pan);
+            }
+            output[i * 2] += left;
+            output[i * 2 + 1] += right;
+            peakLeft = Math.max(peakLeft, Math.abs(left));
+            peakRight = Math.max(peakRight, Math.abs(right));
+            sumLeft += left * left;
+            sumRight += right * right;
+        }
+        if (levels != null) {
+            levels[METER_PEAK_LEFT] = peakLeft;
+            levels[METER_PEAK_RIGHT] = peakRight;
+            levels[METER_RMS_LEFT] = sumLeft;
+            levels[METER_RMS_RIGHT] = sumRight;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/**
+ * AudioSink.java
+ * 《静界》混音输出接口
+ *
+ * 混音器输出立体声交错 float 缓冲区，由具体实现写入声卡、文件或直接丢弃
+ */
+
+package com.ambianceapp.audio;
+
+import java.io.IOException;
+
+public interface AudioSink {
+
+    /**
+     * 打开输出
+     * @param sampleRate 采样率
+     * @param channelCount 声道数
+     * @param bufferFrames 每次写入的最大帧数
+     */
+    void open(int sampleRate, int channelCount, int bufferFrames) throws IOException;
+
+    /**
+     * 写入一个缓冲区，可以阻塞直到输出端有空间
+     */
+    void write(float[] buffer, int frames) throws IOException;
+
+    /**
+     * write() 是否按输出端的播放速度阻塞。
+     * 不阻塞的输出端 (文件、空输出) 由渲染线程按实时节拍限速。
+     */
+    boolean isBlocking();
+
+    /**
+     * 每次写入的帧数改变 (缓冲区自适应调整)，由渲染线程在两次 write() 之间调用。
+     * 只在调整时调用一次，之后各次写入的帧数可能因重采样等在这个大小附近浮动。
+     * 不需要按写入大小调整的输出端忽略即可。
+     * @param frames 新的写入帧数，不超过 open() 时的 bufferFrames
+     */
+    default void setBufferFrames(int frames) {
+    }
+
+    /**
+     * 输出端自身统计的断流次数 (设备上为 AudioTrack.getUnderrunCount())，不支持时返回 -1。
+     * 阻塞输出端按设备时钟播放，渲染线程以墙上时钟判断的交付延迟会因两者漂移误报，
+     * 也看不到系统混音器中发生的断流，因此有计数时以计数为准。由渲染线程在 write() 之后调用。
+     */
+    default long getUnderrunCount() {
+        return -1;
+    }
+
+    /**
+     * 暂停输出 (保留已缓冲的数据)。由渲染线程在两次 write() 之间调用，不会与写入并发
+     */
+    void pause();
+
+    /**
+     * 恢复输出，同样由渲染线程在下一次 write() 之前调用
+     */
+    void resume();
+
+    /**
+     * 关闭并释放资源
+     */
+    void close();
+}
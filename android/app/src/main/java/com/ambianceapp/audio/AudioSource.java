@@ -0,0 +1,30 @@
+/**
+ * AudioSource.java
+ * 《静界》混音器音源接口
+ *
+ * 音源按帧输出交错排列的 float PCM (-1.0 ~ 1.0)，由混音器在渲染线程上拉取
+ */
+
+package com.ambianceapp.audio;
+
+public interface AudioSource {
+
+    /**
+     * 声道数 (1 = 单声道, 2 = 立体声)
+     */
+    int getChannelCount();
+
+    /**
+     * 读取音频帧到目标缓冲区
+     * @param buffer 目标缓冲区 (交错排列)
+     * @param offset 写入起始位置 (采样点下标)
+     * @param frames 请求的帧数
+     * @return 实际写入的帧数，小于 frames 表示音源已结束
+     */
+    int read(float[] buffer, int offset, int frames);
+
+    /**
+     * 回到起始位置
+     */
+    void reset();
+}
@@ -0,0 +1,179 @@
+/**
+ * BufferSizeController.java
+ * 《静界》按欠载统计自适应调整输出缓冲区大小
+ *
+ * 从最小的可用大小开始，以 stepFrames (输出端的突发帧数) 为步长调整：
+ * 最近 windowFrames 内欠载达到 underrunThreshold 次时增大一级；
+ * 连续 stableFrames 无欠载且距上次调整也已超过 stableFrames 时减小一级。
+ * 减小后很快又欠载说明这一级不够用，之后减小所需的稳定时长加倍 (最多 MAX_HOLD_MULTIPLIER 倍)，避免来回振荡。
+ *
+ * onBuffer() 只由渲染线程调用，平时无锁、无分配；调整记录保留最近 HISTORY_SIZE 条，其他线程可随时读取。
+ */
+
+package com.ambianceapp.audio;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class BufferSizeController {
+
+    public static final int HISTORY_SIZE = 32;
+    public static final int MAX_HOLD_MULTIPLIER = 8;
+
+    /**
+     * 一次调整
+     */
+    public static final class Change {
+        private final long positionFrames;
+        private final int fromFrames;
+        private final int toFrames;
+        private final int underruns;
+
+        Change(long positionFrames, int fromFrames, int toFrames, int underruns) {
+            this.positionFrames = positionFrames;
+            this.fromFrames = fromFrames;
+            this.toFrames = toFrames;
+            this.underruns = underruns;
+        }
+
+        /**
+         * 调整时已输出的总帧数
+         */
+        public long getPositionFrames() {
+            return positionFrames;
+        }
+
+        public int getFromFrames() {
+            return fromFrames;
+        }
+
+        public int getToFrames() {
+            return toFrames;
+        }
+
+        /**
+         * 触发调整时窗口内的欠载次数 (减小时为 0)
+         */
+        public int getUnderruns() {
+            return underruns;
+        }
+    }
+
+    private final int minFrames;
+    private final int maxFrames;
+    private final int stepFrames;
+    private final int underrunThreshold;
+    private final long windowFrames;
+    private final long stableFrames;
+
+    private volatile int frames;
+    private long position;
+    private long lastUnderrunPosition;
+    private long lastChangePosition;
+    private long lastDecreasePosition = -1;
+    private int holdMultiplier = 1;
+
+    // 窗口内欠载的位置，环形保存最近 underrunThreshold 次
+    private final long[] underrunPositions;
+    private int underrunCount;
+    private int underrunNext;
+
+    private final Change[] history = new Change[HISTORY_SIZE];
+    private int historyCount;
+
+    /**
+     * @param minFrames 最小大小，也是初始大小
+     * @param maxFrames 最大大小，不超过渲染器的缓冲区容量
+     * @param stepFrames 调整步长，min 与 max 都应是它的整数倍
+     * @param underrunThreshold windowFrames 内欠载多少次时增大
+     * @param windowFrames 统计欠载的滑动窗口
+     * @param stableFrames 减小前需要连续无欠载的时长
+     */
+    public BufferSizeController(int minFrames, int maxFrames, int stepFrames,
+                                int underrunThreshold, long windowFrames, long stableFrames) {
+        if (minFrames <= 0 || maxFrames < minFrames || stepFrames <= 0 || underrunThreshold <= 0) {
+            throw new IllegalArgumentException("Invalid buffer size range");
+        }
+        this.minFrames = minFrames;
+        this.maxFrames = maxFrames;
+        this.stepFrames = stepFrames;
+        this.underrunThreshold = underrunThreshold;
+        this.windowFrames = windowFrames;
+        this.stableFrames = stableFrames;
+        this.underrunPositions = new long[underrunThreshold];
+        this.frames = minFrames;
+    }
+
+    public int getFrames() {
+        return frames;
+    }
+
+    public int getMinFrames() {
+        return minFrames;
+    }
+
+    public int getMaxFrames() {
+        return maxFrames;
+    }
+
+    /**
+     * 记录一个已交付的缓冲区 (渲染线程)
+     * @param bufferFrames 该缓冲区的帧数
+     * @param underrun 是否欠载
+     * @return 下一个缓冲区使用的大小
+     */
+    public int onBuffer(int bufferFrames, boolean underrun) {
+        position += bufferFrames;
+        int current = frames;
+
+        if (underrun) {
+            lastUnderrunPosition = position;
+            underrunPositions[underrunNext] = position;
+            underrunNext = (underrunNext + 1) % underrunThreshold;
+            underrunCount = Math.min(underrunThreshold, underrunCount + 1);
+
+            // 环中最早的一次仍在窗口内，说明窗口内已有 underrunThreshold 次
+            if (underrunCount == underrunThreshold
+                    && position - underrunPositions[underrunNext] < windowFrames
+                    && current < maxFrames) {
+                if (lastDecreasePosition >= 0 && position - lastDecreasePosition < stableFrames * holdMultiplier) {
+                    holdMultiplier = Math.min(MAX_HOLD_MULTIPLIER, holdMultiplier * 2);
+                }
+                change(Math.min(maxFrames, current + stepFrames), underrunThreshold);
+            }
+        } else if (current > minFrames
+                && position - lastUnderrunPosition >= stableFrames * holdMultiplier
+                && position - lastChangePosition >= stableFrames * holdMultiplier) {
+            lastDecreasePosition = position;
+            change(Math.max(minFrames, current - stepFrames), 0);
+        }
+        return frames;
+    }
+
+    /**
+     * 最近的调整记录，按时间顺序
+     */
+    public synchronized List<Change> getHistory() {
+        int count = Math.min(historyCount, HISTORY_SIZE);
+        List<Change> changes = new ArrayList<>(count);
+        for (int i = historyCount - count; i < historyCount; i++) {
+            changes.add(history[i % HISTORY_SIZE]);
+        }
+        return changes;
+    }
+
+    public synchronized int getChangeCount() {
+        return historyCount;
+    }
+
+    private void change(int to, int underruns) {
+        synchronized (this) {
+            history[historyCount % HISTORY_SIZE] = new Change(position, frames, to, underruns);
+            historyCount++;
+        }
+        frames = to;
+        lastChangePosition = position;
+        // 新的大小重新开始统计
+        underrunCount = 0;
+    }
+}
@@ -0,0 +1,24 @@
+/**
+ * ByteSource.java
+ * 《静界》可重复打开的字节来源
+ *
+ * 流式解码器通过它读取压缩音频，Android 上对应 assets，测试中对应磁盘文件
+ */
+
+package com.ambianceapp.audio;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface ByteSource {
+
+    /**
+     * 从头打开一个新的输入流，调用方负责关闭
+     */
+    InputStream open() throws IOException;
+
+    /**
+     * 用于日志和错误信息的名称
+     */
+    String getName();
+}
@@ -0,0 +1,63 @@
+/**
+ * FileAudioSink.java
+ * 《静界》文件输出，写入 16 位小端交错裸 PCM
+ */
+
+package com.ambianceapp.audio;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+public class FileAudioSink implements AudioSink {
+
+    private final File file;
+    private OutputStream output;
+    private byte[] bytes;
+    private int channelCount;
+
+    public FileAudioSink(File file) {
+        this.file = file;
+    }
+
+    @Override
+    public void open(int sampleRate, int channelCount, int bufferFrames) throws IOException {
+        this.channelCount = channelCount;
+        this.bytes = new byte[bufferFrames * channelCount * 2];
+        this.output = new BufferedOutputStream(new FileOutputStream(file));
+    }
+
+    @Override
+    public void write(float[] buffer, int frames) throws IOException {
+        int samples = frames * channelCount;
+        PcmConverter.floatToPcm16Le(buffer, bytes, samples);
+        output.write(bytes, 0, samples * 2);
+    }
+
+    @Override
+    public boolean isBlocking() {
+        return false;
+    }
+
+    @Override
+    public void pause() {
+    }
+
+    @Override
+    public void resume() {
+    }
+
+    @Override
+    public void close() {
+        if (output != null) {
+            try {
+                output.close();
+            } catch (IOException ignored) {
+                // 关闭失败时数据已尽力写出
+            }
+            output = null;
+        }
+    }
+}
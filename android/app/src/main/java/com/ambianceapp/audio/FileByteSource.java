@@ -0,0 +1,31 @@
+/**
+ * FileByteSource.java
+ * 《静界》从磁盘文件读取的字节来源
+ */
+
+package com.ambianceapp.audio;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+public class FileByteSource implements ByteSource {
+
+    private final File file;
+
+    public FileByteSource(File file) {
+        this.file = file;
+    }
+
+    @Override
+    public InputStream open() throws IOException {
+        return new BufferedInputStream(new FileInputStream(file));
+    }
+
+    @Override
+    public String getName() {
+        return file.getPath();
+    }
+}
@@ -0,0 +1,161 @@
+/**
+ * GainRamp.java
+ * 《静界》逐采样插值的增益斜坡
+ *
+ * 线性斜坡按固定增量逼近目标，指数斜坡按固定倍率逼近目标 (每秒衰减的分贝数恒定)。
+ * 指数斜坡无法从 0 出发或到达 0，两端被限制在 -80dB，结束时精确落在目标值上。
+ * 等功率斜坡按 start·cos θ + target·sin θ (θ: 0 → π/2) 变化，用于一端为 0 的淡入淡出，
+ * 两条等功率淡入淡出叠加时总功率保持不变。
+ * 只在渲染线程上使用。
+ */
+
+package com.ambianceapp.audio;
+
+public final class GainRamp {
+
+    public enum Shape {
+        LINEAR,
+        EXPONENTIAL,
+        EQUAL_POWER
+    }
+
+    /**
+     * 指数斜坡的下限 (-80dB)
+     */
+    public static final double SILENCE_FLOOR = 1.0e-4;
+
+    private double value;
+    private double target;
+    private double increment;   // 线性
+    private double factor;      // 指数
+    private double start;       // 等功率
+    private double cos;
+    private double sin;
+    private double stepCos;
+    private double stepSin;
+    private double angleStep;
+    private long remaining;
+    private Shape shape = Shape.LINEAR;
+
+    public GainRamp(float initial) {
+        setImmediate(initial);
+    }
+
+    /**
+     * 复制另一个斜坡的全部状态，之后两者逐采样输出相同
+     */
+    public void copyFrom(GainRamp other) {
+        value = other.value;
+        target = other.target;
+        increment = other.increment;
+        factor = other.factor;
+        start = other.start;
+        cos = other.cos;
+        sin = other.sin;
+        stepCos = other.stepCos;
+        stepSin = other.stepSin;
+        angleStep = other.angleStep;
+        remaining = other.remaining;
+        shape = other.shape;
+    }
+
+    /**
+     * 立即跳到指定增益，取消正在进行的斜坡
+     */
+    public void setImmediate(float gain) {
+        value = gain;
+        target = gain;
+        remaining = 0;
+    }
+
+    /**
+     * 从当前值开始，经过 samples 个采样到达目标
+     */
+    public void rampTo(float gain, long samples, Shape shape) {
+        if (samples <= 0) {
+            setImmediate(gain);
+            return;
+        }
+        this.target = gain;
+        this.remaining = samples;
+        this.shape = shape;
+        if (shape == Shape.EXPONENTIAL) {
+            value = Math.max(value, SILENCE_FLOOR);
+            double end = Math.max(gain, SILENCE_FLOOR);
+            factor = Math.pow(end / value, 1.0 / samples);
+        } else if (shape == Shape.EQUAL_POWER) {
+            start = value;
+            cos = 1.0;
+            sin = 0.0;
+            angleStep = Math.PI / 2 / samples;
+            stepCos = Math.cos(angleStep);
+            stepSin = Math.sin(angleStep);
+        } else {
+            increment = (gain - value) / samples;
+        }
+    }
+
+    public boolean isRamping() {
+        return remaining > 0;
+    }
+
+    public float getValue() {
+        return (float) value;
+    }
+
+    public float getTarget() {
+        return (float) target;
+    }
+
+    public long getRemainingSamples() {
+        return remaining;
+    }
+
+    /**
+     * 返回当前采样的增益并前进一个采样
+     */
+    public float next() {
+        float current = (float) value;
+        if (remaining > 0) {
+            if (--remaining == 0) {
+                value = target;
+            } else if (shape == Shape.EXPONENTIAL) {
+                value *= factor;
+            } else if (shape == Shape.EQUAL_POWER) {
+                // 旋转递推，避免逐采样三角函数
+                double c = cos * stepCos - sin * stepSin;
+                sin = sin * stepCos + cos * stepSin;
+                cos = c;
+                value = start * cos + target * sin;
+            } else {
+                value += increment;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 跳过 samples 个采样 (不产生输出)
+     */
+    public void skip(long samples) {
+        if (remaining <= 0 || samples <= 0) {
+            return;
+        }
+        if (samples >= remaining) {
+            value = target;
+            remaining = 0;
+        } else if (shape == Shape.EXPONENTIAL) {
+            value *= Math.pow(factor, samples);
+            remaining -= samples;
+        } else if (shape == Shape.EQUAL_POWER) {
+            double angle = Math.atan2(sin, cos) + angleStep * samples;
+            cos = Math.cos(angle);
+            sin = Math.sin(angle);
+            value = start * cos + target * sin;
+            remaining -= samples;
+        } else {
+            value += increment * samples;
+            remaining -= samples;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/**
+ * JitterSink.java
+ * 《静界》模拟输出端：按模拟时钟播放，并随机推迟渲染线程的写入
+ *
+ * 与设备上的 AudioTrack 一样阻塞：写入后等到队列中只剩本次写入的数据才返回。
+ * 每次写入前以 stallProbability 的概率推迟 0 ~ maxStallNanos (调度延迟、GC 停顿)，
+ * 推迟超过队列中剩余的时长时输出端断流，记为一次断流。
+ * 用于在桌面 JVM 上确定性地测试缓冲区大小的自适应调整。
+ */
+
+package com.ambianceapp.audio;
+
+import java.util.Random;
+
+public class JitterSink implements AudioSink {
+
+    private final SimulatedClock clock;
+    private final Random random;
+    private int sampleRate;
+    private double stallProbability;
+    private long maxStallNanos;
+
+    // 队列中的数据播完的时刻
+    private long queuedUntil = -1;
+    private long framesWritten;
+    private long starvedCount;
+
+    public JitterSink(SimulatedClock clock, long seed) {
+        this.clock = clock;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * 设置写入推迟的概率与最长推迟时间，可在播放过程中修改
+     */
+    public void setJitter(double stallProbability, long maxStallNanos) {
+        this.stallProbability = stallProbability;
+        this.maxStallNanos = maxStallNanos;
+    }
+
+    @Override
+    public void open(int sampleRate, int channelCount, int bufferFrames) {
+        this.sampleRate = sampleRate;
+        queuedUntil = -1;
+        framesWritten = 0;
+        starvedCount = 0;
+    }
+
+    @Override
+    public void write(float[] buffer, int frames) {
+        if (maxStallNanos > 0 && random.nextDouble() < stallProbability) {
+            clock.advance((long) (random.nextDouble() * maxStallNanos));
+        }
+
+        long now = clock.nanoTime();
+        if (queuedUntil < now) {
+            if (queuedUntil >= 0) {
+                starvedCount++;
+            }
+            queuedUntil = now;
+        }
+        queuedUntil += frames * 1_000_000_000L / sampleRate;
+        framesWritten += frames;
+
+        // 阻塞到队列中只剩本次写入的数据
+        long wait = queuedUntil - frames * 1_000_000_000L / sampleRate - now;
+        if (wait > 0) {
+            clock.advance(wait);
+        }
+    }
+
+    @Override
+    public boolean isBlocking() {
+        return true;
+    }
+
+    /**
+     * 与 AudioTrack 一样由输出端自己报告断流
+     */
+    @Override
+    public long getUnderrunCount() {
+        return starvedCount;
+    }
+
+    @Override
+    public void pause() {
+        queuedUntil = -1;
+    }
+
+    @Override
+    public void resume() {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    public long getFramesWritten() {
+        return framesWritten;
+    }
+
+    /**
+     * 输出端因数据不足而断流的次数
+     */
+    public long getStarvedCount() {
+        return starvedCount;
+    }
+}
@@ -0,0 +1,209 @@
+/**
+ * LookaheadLimiter.java
+ * 《静界》主总线前瞻峰值限幅器
+ *
+ * 多条音轨接近满音量叠加时总和会超出满刻度。限幅器把立体声信号延迟 lookahead 帧，
+ * 在延迟期间就能看到即将输出的峰值：
+ * - 峰值取两声道绝对值的较大者，窗口内最大值由环形缓冲区上的单调队列维护，每帧均摊 O(1)
+ * - 窗口峰值超过上限时，增益在峰值到达输出之前线性压到 上限/峰值，输出不会越过上限
+ * - 峰值离开窗口后，增益按释放时间常数指数回升，没有突变
+ *
+ * 只在渲染线程上使用，缓冲区全部在构造时分配，process() 不产生堆分配。
+ * 参数经混音器的命令队列在缓冲区边界上修改。
+ */
+
+package com.ambianceapp.audio;
+
+public final class LookaheadLimiter {
+
+    public static final float DEFAULT_CEILING = 0.891f;     // -1 dBFS
+    public static final float DEFAULT_LOOKAHEAD_MS = 5.0f;
+    public static final float DEFAULT_RELEASE_MS = 100.0f;
+
+    private static final double SETTLE_TIME_CONSTANTS = 4.0;
+
+    private final int sampleRate;
+    private final int lookahead;
+    private final int window;
+
+    // 延迟线 (立体声交错)
+    private final float[] delay;
+    private int delayIndex;
+
+    // 窗口峰值的单调递减队列：环形存放帧序号与峰值，容量取 2 的幂以便掩码取下标
+    private final int dequeMask;
+    private final long[] dequeFrames;
+    private final float[] dequePeaks;
+    private int dequeHead;
+    private int dequeSize;
+    private long frame;
+
+    private float ceiling;
+    private float releaseCoefficient;
+    private float gain = 1.0f;
+    private float attackStep;
+
+    // 其他线程读取的统计：上一个缓冲区内的最小增益
+    private volatile float lastMinGain = 1.0f;
+
+    public LookaheadLimiter(int sampleRate) {
+        this(sampleRate, DEFAULT_LOOKAHEAD_MS, DEFAULT_CEILING, DEFAULT_RELEASE_MS);
+    }
+
+    public LookaheadLimiter(int sampleRate, float lookaheadMs, float ceiling, float releaseMs) {
+        this.sampleRate = sampleRate;
+        this.lookahead = Math.max(1, Math.round(lookaheadMs * sampleRate / 1000.0f));
+        this.window = lookahead + 1;
+        this.delay = new float[lookahead * AudioMixer.OUTPUT_CHANNELS];
+        int dequeCapacity = Integer.highestOneBit(window - 1) << 1;
+        this.dequeMask = dequeCapacity - 1;
+        this.dequeFrames = new long[dequeCapacity];
+        this.dequePeaks = new float[dequeCapacity];
+        configure(ceiling, releaseMs);
+    }
+
+    /**
+     * 参数相同、状态为初始值的新实例
+     */
+    LookaheadLimiter(LookaheadLimiter settings) {
+        this.sampleRate = settings.sampleRate;
+        this.lookahead = settings.lookahead;
+        this.window = settings.window;
+        this.delay = new float[settings.delay.length];
+        this.dequeMask = settings.dequeMask;
+        this.dequeFrames = new long[settings.dequeFrames.length];
+        this.dequePeaks = new float[settings.dequePeaks.length];
+        this.ceiling = settings.ceiling;
+        this.releaseCoefficient = settings.releaseCoefficient;
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * 引入的延迟 (帧)
+     */
+    public int getLookaheadFrames() {
+        return lookahead;
+    }
+
+    public float getCeiling() {
+        return ceiling;
+    }
+
+    /**
+     * 上一个缓冲区内的最大增益衰减 (dB，0 表示没有限幅)，任意线程可读
+     */
+    public float getGainReductionDb() {
+        return (float) (-20.0 * Math.log10(lastMinGain));
+    }
+
+    /**
+     * 输出只取决于增益包络与最近 window 帧输入。
+     * 新实例从静音开始处理同一段输入，包络通常在这么多帧内与真实包络逐位重合：
+     * 窗口长度加上数个释放时间常数 (释放是指数递推，初值的影响按时间常数衰减)
+     */
+    int getSettleFrames() {
+        double releaseSamples = -1.0 / Math.log(1.0 - releaseCoefficient);
+        return window + (int) Math.ceil(SETTLE_TIME_CONSTANTS * releaseSamples);
+    }
+
+    float getEnvelopeGain() {
+        return gain;
+    }
+
+    float getAttackStep() {
+        return attackStep;
+    }
+
+    /**
+     * 两个参数相同的实例处理过相同的最近 window 帧输入时，包络相同即后续输出逐位相同
+     */
+    boolean hasEnvelope(float envelopeGain, float envelopeStep) {
+        return Float.floatToRawIntBits(gain) == Float.floatToRawIntBits(envelopeGain)
+            && Float.floatToRawIntBits(attackStep) == Float.floatToRawIntBits(envelopeStep);
+    }
+
+    /**
+     * 修改上限与释放时间 (渲染线程，或开始渲染之前)
+     * @param ceiling 输出峰值上限 (线性，0 ~ 1]
+     * @param releaseMs 增益回升的时间常数
+     */
+    public void configure(float ceiling, float releaseMs) {
+        if (!(ceiling > 0.0f) || ceiling > 1.0f) {
+            throw new IllegalArgumentException("Invalid ceiling: " + ceiling);
+        }
+        this.ceiling = ceiling;
+        double releaseSamples = Math.max(1.0, releaseMs * sampleRate / 1000.0);
+        this.releaseCoefficient = (float) (1.0 - Math.exp(-1.0 / releaseSamples));
+    }
+
+    /**
+     * 原地处理一个立体声交错缓冲区，输出比输入延迟 lookahead 帧
+     */
+    public void process(float[] buffer, int frames) {
+        final float[] line = delay;
+        final int mask = dequeMask;
+        final long[] ages = dequeFrames;
+        final float[] peaks = dequePeaks;
+        int head = dequeHead;
+        int size = dequeSize;
+        long now = frame;
+        float g = gain;
+        float step = attackStep;
+        float minGain = g;
+        int d = delayIndex;
+        for (int i = 0, s = 0; i < frames; i++, s += 2) {
+            float left = buffer[s];
+            float right = buffer[s + 1];
+            float peak = Math.max(Math.abs(left), Math.abs(right));
+
+            // 新峰值入队，弹出所有不大于它的旧峰值
+            while (size > 0 && peaks[(head + size - 1) & mask] <= peak) {
+                size--;
+            }
+            int tail = (head + size) & mask;
+            ages[tail] = now;
+            peaks[tail] = peak;
+            size++;
+            // 队首离开窗口 (即已经输出) 后出队
+            if (ages[head] <= now - window) {
+                head = (head + 1) & mask;
+                size--;
+            }
+            now++;
+
+            float windowPeak = peaks[head];
+            float target = windowPeak > ceiling ? ceiling / windowPeak : 1.0f;
+            if (target < g) {
+                // 新峰值在 lookahead 帧后输出，步长只增不减，保证窗口内每个峰值都能及时压下
+                step = Math.max(step, (g - target) / lookahead);
+                g = Math.max(target, g - step);
+            } else {
+                step = 0.0f;
+                g += (target - g) * releaseCoefficient;
+            }
+            if (g < minGain) {
+                minGain = g;
+            }
+
+            // 延迟线：取出 lookahead 帧前的采样，写入当前采样
+            buffer[s] = line[d] * g;
+            buffer[s + 1] = line[d + 1] * g;
+            line[d] = left;
+            line[d + 1] = right;
+            d += 2;
+            if (d == line.length) {
+                d = 0;
+            }
+        }
+        delayIndex = d;
+        dequeHead = head;
+        dequeSize = size;
+        frame = now;
+        gain = g;
+        attackStep = step;
+        lastMinGain = minGain;
+    }
+}
@@ -0,0 +1,139 @@
+/**
+ * MixerCommandQueue.java
+ * 《静界》桥接线程到渲染线程的参数命令队列
+ *
+ * 有界、无锁、多生产者单消费者。槽位在构造时全部预分配，
+ * 命令字段以基本类型数组保存，入队和出队都不产生堆分配。
+ *
+ * 每个槽位带一个序号 (Vyukov 有界队列)：生产者 CAS 抢占队尾位置后写入字段，
+ * 再以有序写发布序号；消费者看到序号就绪才读取，读完把槽位交还给下一轮。
+ * 同一生产者发出的命令按发出顺序执行，不会丢失。
+ */
+
+package com.ambianceapp.audio;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+final class MixerCommandQueue {
+
+    static final int SET_GAIN = 1;
+    static final int SET_PAN = 2;
+    static final int SET_PLAYING = 3;
+    static final int RESET = 4;
+    static final int SET_MASTER_GAIN = 5;
+    static final int APPLY_SCENE = 6;
+    static final int SET_LIMITER = 7;
+    static final int RETIRE = 8;
+
+    /**
+     * 命令处理器，在消费者线程上逐条回调
+     */
+    interface Handler {
+        void onCommand(int type, MixerTrack track, float value, long samples, GainRamp.Shape shape,
+                       Object payload);
+    }
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicLongArray sequence;
+    private final int[] types;
+    private final MixerTrack[] tracks;
+    private final float[] values;
+    private final long[] samples;
+    private final GainRamp.Shape[] shapes;
+    private final Object[] payloads;
+
+    private final AtomicLong tail = new AtomicLong();
+    // 消费者独占
+    private long head;
+
+    /**
+     * @param minCapacity 最少容纳的命令数，向上取整为 2 的幂
+     */
+    MixerCommandQueue(int minCapacity) {
+        if (minCapacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = Integer.highestOneBit(Math.max(1, minCapacity - 1)) << 1;
+        this.mask = capacity - 1;
+        this.sequence = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequence.set(i, i);
+        }
+        this.types = new int[capacity];
+        this.tracks = new MixerTrack[capacity];
+        this.values = new float[capacity];
+        this.samples = new long[capacity];
+        this.shapes = new GainRamp.Shape[capacity];
+        this.payloads = new Object[capacity];
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * 入队一条命令 (任意线程)
+     * @return 队列已满时返回 false
+     */
+    boolean offer(int type, MixerTrack track, float value, long sampleCount, GainRamp.Shape shape) {
+        return offer(type, track, value, sampleCount, shape, null);
+    }
+
+    /**
+     * 入队一条带不可变附加数据的命令 (任意线程)
+     * @return 队列已满时返回 false
+     */
+    boolean offer(int type, MixerTrack track, float value, long sampleCount, GainRamp.Shape shape,
+                  Object payload) {
+        long pos;
+        int index;
+        while (true) {
+            pos = tail.get();
+            index = (int) pos & mask;
+            long diff = sequence.get(index) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    break;
+                }
+            } else if (diff < 0) {
+                return false;
+            }
+            // diff > 0：其他生产者已抢到该位置，重读队尾
+        }
+
+        types[index] = type;
+        tracks[index] = track;
+        values[index] = value;
+        samples[index] = sampleCount;
+        shapes[index] = shape;
+        payloads[index] = payload;
+        sequence.lazySet(index, pos + 1);
+        return true;
+    }
+
+    /**
+     * 依次处理已就绪的命令 (消费者线程)。
+     * 单次最多处理 capacity 条，避免生产者持续写入时饿死渲染。
+     * @return 处理的命令数
+     */
+    int drain(Handler handler) {
+        int count = 0;
+        while (count < capacity) {
+            int index = (int) head & mask;
+            if (sequence.get(index) != head + 1) {
+                break;
+            }
+            MixerTrack track = tracks[index];
+            Object payload = payloads[index];
+            tracks[index] = null;
+            payloads[index] = null;
+            handler.onCommand(types[index], track, values[index], samples[index], shapes[index], payload);
+            sequence.lazySet(index, head + capacity);
+            head++;
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,169 @@
+/**
+ * MixerTrack.java
+ * 《静界》混音器中的单条音轨
+ *
+ * 参数变化由桥接线程以命令形式投递到混音器的 MixerCommandQueue，
+ * 渲染线程在每个缓冲区开始时按顺序执行。volatile 字段只记录最近一次请求的值供桥接侧读取，
+ * 渲染实际使用的状态由渲染线程独占。
+ */
+
+package com.ambianceapp.audio;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class MixerTrack {
+
+    private final String id;
+    private final AudioSource source;
+    private final AudioMixer mixer;
+
+    // 最近一次请求的值
+    private volatile float volume = 0.5f;   // 0.0 - 1.0
+    private volatile float pan = 0.0f;      // -1.0 (左) 到 1.0 (右)
+    private volatile boolean playing = false;
+
+    // 渲染线程独占
+    final GainRamp gainRamp = new GainRamp(0.5f);
+    final GainRamp panRamp = new GainRamp(0.0f);    // 场景过渡时逐缓冲区插值
+    boolean renderPlaying = false;
+    boolean stopWhenSilent = false;     // 淡出结束后停止
+    long startDelay = -1;               // 错开启动：剩余等待帧数，-1 表示没有待启动
+    float startVolume;
+    long startRamp;
+
+    // 移除：retiring 由渲染线程在执行 RETIRE 时设置，淡出结束后发布 retired，之后不再读取音源
+    boolean retiring = false;
+    volatile boolean retired = false;
+
+    // 挂起：有效增益连续为零超过宽限期后不再读取音源，只累计虚拟位置 (渲染线程写入)
+    volatile boolean suspended = false;
+    long silentFrames;
+    long virtualFrames;
+    final AtomicLong activeFrames = new AtomicLong();
+    final AtomicLong suspendedFrames = new AtomicLong();
+
+    // 电平：渲染线程独占的表头状态，以及经混音器顺序锁发布的值 (float 位模式)
+    final float[] meterState = new float[AudioMixer.METER_VALUES];
+    final AtomicIntegerArray meterLevels = new AtomicIntegerArray(AudioMixer.METER_VALUES);
+
+    MixerTrack(String id, AudioSource source, AudioMixer mixer) {
+        this.id = id;
+        this.source = source;
+        this.mixer = mixer;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public AudioSource getSource() {
+        return source;
+    }
+
+    public float getVolume() {
+        return volume;
+    }
+
+    /**
+     * 立即设置音量
+     */
+    public void setVolume(float volume) {
+        rampVolume(volume, 0, GainRamp.Shape.LINEAR);
+    }
+
+    /**
+     * 在 samples 个采样内把音量过渡到目标值
+     */
+    public void rampVolume(float volume, long samples, GainRamp.Shape shape) {
+        float clamped = Math.max(0.0f, Math.min(1.0f, volume));
+        this.volume = clamped;
+        mixer.post(MixerCommandQueue.SET_GAIN, this, clamped, samples, shape);
+    }
+
+    public float getPan() {
+        return pan;
+    }
+
+    public void setPan(float pan) {
+        float clamped = Math.max(-1.0f, Math.min(1.0f, pan));
+        this.pan = clamped;
+        mixer.post(MixerCommandQueue.SET_PAN, this, clamped, 0, null);
+    }
+
+    public boolean isPlaying() {
+        return playing;
+    }
+
+    /**
+     * 渲染线程当前是否已挂起该音轨
+     */
+    public boolean isSuspended() {
+        return suspended;
+    }
+
+    /**
+     * 渲染线程是否已完成移除 (AudioMixer.retireTrack())，之后不会再读取音源
+     */
+    public boolean isRetired() {
+        return retired;
+    }
+
+    /**
+     * 播放中实际读取音源的帧数
+     */
+    public long getActiveFrames() {
+        return activeFrames.get();
+    }
+
+    /**
+     * 播放中因静音挂起、未读取音源的帧数
+     */
+    public long getSuspendedFrames() {
+        return suspendedFrames.get();
+    }
+
+    public void setPlaying(boolean playing) {
+        this.playing = playing;
+        mixer.post(MixerCommandQueue.SET_PLAYING, this, playing ? 1.0f : 0.0f, 0, null);
+    }
+
+    /**
+     * 复制到另一个混音器，音源与渲染状态各自独立 (音源必须是 SeekableSource)
+     */
+    MixerTrack copyTo(AudioMixer target) {
+        MixerTrack copy = new MixerTrack(id, ((SeekableSource) source).copy(), target);
+        copy.volume = volume;
+        copy.pan = pan;
+        copy.playing = playing;
+        copy.gainRamp.copyFrom(gainRamp);
+        copy.panRamp.copyFrom(panRamp);
+        copy.renderPlaying = renderPlaying;
+        copy.stopWhenSilent = stopWhenSilent;
+        copy.retiring = retiring;
+        copy.retired = retired;
+        copy.startDelay = startDelay;
+        copy.startVolume = startVolume;
+        copy.startRamp = startRamp;
+        copy.suspended = suspended;
+        copy.silentFrames = silentFrames;
+        copy.virtualFrames = virtualFrames;
+        return copy;
+    }
+
+    /**
+     * 记录场景变更请求的值，实际变化随 SceneChange 送达渲染线程
+     */
+    void setRequested(float volume, float pan, boolean playing) {
+        this.volume = volume;
+        this.pan = pan;
+        this.playing = playing;
+    }
+
+    /**
+     * 请求回到起始位置，在下一次渲染时生效
+     */
+    public void reset() {
+        mixer.post(MixerCommandQueue.RESET, this, 0.0f, 0, null);
+    }
+}
@@ -0,0 +1,315 @@
+/**
+ * NoiseSource.java
+ * 《静界》实时生成的白噪音、粉噪音、棕噪音
+ *
+ * 以 xorshift64 伪随机数为基础：
+ * - 白噪音：均匀分布，频谱平坦
+ * - 粉噪音：Voss-McCartney 算法，16 行按计数器尾零位轮流刷新，约 -3dB/倍频程
+ * - 棕噪音：带泄漏的积分器，转折频率以上约 -6dB/倍频程
+ *
+ * 各声道使用独立的随机序列。相同种子生成完全相同的输出，reset() 回到种子状态。
+ * skip() 按与 read() 相同的运算推进生成器 (只是不写出)，跳过后的输出逐位相同。
+ * advance() 只推进粉噪音的行计数器，随机序列从挂起处继续，与挂起时长无关，输出在统计上相同。
+ * 通过合成 URI 创建，例如 "noise://pink"、"noise://brown?seed=7&channels=1"。
+ */
+
+package com.ambianceapp.audio;
+
+import java.util.Locale;
+
+public class NoiseSource implements SeekableSource, SuspendableSource {
+
+    public static final String URI_SCHEME = "noise://";
+
+    public enum Color {
+        WHITE, PINK, BROWN
+    }
+
+    // 三种噪音统一到约 -12dBFS 的有效值，保证同一音量下响度接近
+    private static final double TARGET_RMS = 0.25;
+    private static final int PINK_ROWS = 16;
+    private static final double BROWN_CORNER_HZ = 10.0;
+    private static final float INT_TO_FLOAT = 1.0f / 2147483648.0f;
+
+    private final Color color;
+    private final int channelCount;
+    private final long seed;
+
+    private final float whiteGain;
+    private final float pinkGain;
+    private final float brownLeak;
+    private final float brownStep;
+
+    // 每声道的生成器状态
+    private final long[] state;
+    private final int[][] pinkRows;
+    private final long[] pinkSum;
+    private final float[] brownLevel;
+    private int pinkCounter;
+
+    public NoiseSource(Color color, int sampleRate, int channelCount, long seed) {
+        if (channelCount != 1 && channelCount != 2) {
+            throw new IllegalArgumentException("Unsupported channel count: " + channelCount);
+        }
+        this.color = color;
+        this.channelCount = channelCount;
+        this.seed = seed;
+
+        // 均匀分布 [-1, 1) 的有效值为 1/sqrt(3)
+        this.whiteGain = (float) (TARGET_RMS * Math.sqrt(3.0));
+        this.pinkGain = (float) (TARGET_RMS / Math.sqrt((PINK_ROWS + 1) / 3.0)) * INT_TO_FLOAT;
+        double leak = Math.exp(-2.0 * Math.PI * BROWN_CORNER_HZ / sampleRate);
+        this.brownLeak = (float) leak;
+        this.brownStep = (float) (TARGET_RMS * Math.sqrt(3.0 * (1.0 - leak * leak)));
+
+        this.state = new long[channelCount];
+        this.pinkRows = new int[channelCount][PINK_ROWS];
+        this.pinkSum = new long[channelCount];
+        this.brownLevel = new float[channelCount];
+        reset();
+    }
+
+    private NoiseSource(NoiseSource other) {
+        this.color = other.color;
+        this.channelCount = other.channelCount;
+        this.seed = other.seed;
+        this.whiteGain = other.whiteGain;
+        this.pinkGain = other.pinkGain;
+        this.brownLeak = other.brownLeak;
+        this.brownStep = other.brownStep;
+        this.state = other.state.clone();
+        this.pinkRows = new int[channelCount][];
+        for (int c = 0; c < channelCount; c++) {
+            this.pinkRows[c] = other.pinkRows[c].clone();
+        }
+        this.pinkSum = other.pinkSum.clone();
+        this.brownLevel = other.brownLevel.clone();
+        this.pinkCounter = other.pinkCounter;
+    }
+
+    public Color getColor() {
+        return color;
+    }
+
+    @Override
+    public int getChannelCount() {
+        return channelCount;
+    }
+
+    @Override
+    public int read(float[] buffer, int offset, int frames) {
+        int counter = pinkCounter;
+        for (int c = 0; c < channelCount; c++) {
+            int out = offset + c;
+            switch (color) {
+                case WHITE:
+                    state[c] = fillWhite(buffer, out, frames, state[c]);
+                    break;
+                case PINK:
+                    fillPink(buffer, out, frames, c, counter);
+                    break;
+                case BROWN:
+                    fillBrown(buffer, out, frames, c);
+                    break;
+            }
+        }
+        pinkCounter = counter + frames;
+        return frames;
+    }
+
+    @Override
+    public int skip(int frames) {
+        int counter = pinkCounter;
+        for (int c = 0; c < channelCount; c++) {
+            switch (color) {
+                case WHITE:
+                    long x = state[c];
+                    for (int i = 0; i < frames; i++) {
+                        x = xorshift(x);
+                    }
+                    state[c] = x;
+                    break;
+                case PINK:
+                    skipPink(frames, c, counter);
+                    break;
+                case BROWN:
+                    skipBrown(frames, c);
+                    break;
+            }
+        }
+        pinkCounter = counter + frames;
+        return frames;
+    }
+
+    @Override
+    public void advance(long frames) {
+        pinkCounter += (int) frames;
+    }
+
+    @Override
+    public NoiseSource copy() {
+        return new NoiseSource(this);
+    }
+
+    /**
+     * 回到种子状态
+     */
+    @Override
+    public void reset() {
+        long mix = seed;
+        for (int c = 0; c < channelCount; c++) {
+            mix = splitMix(mix);
+            state[c] = mix != 0 ? mix : 0x9E3779B97F4A7C15L;
+            long x = state[c];
+            long sum = 0;
+            for (int r = 0; r < PINK_ROWS; r++) {
+                x = xorshift(x);
+                pinkRows[c][r] = (int) (x >>> 32);
+                sum += pinkRows[c][r];
+            }
+            state[c] = x;
+            pinkSum[c] = sum;
+            brownLevel[c] = 0.0f;
+        }
+        pinkCounter = 0;
+    }
+
+    // ==================== 合成 URI ====================
+
+    public static boolean isNoiseUri(String uri) {
+        return uri != null && uri.startsWith(URI_SCHEME);
+    }
+
+    /**
+     * 解析 noise://<white|pink|brown>[?seed=N&channels=1|2]，默认立体声
+     */
+    public static NoiseSource fromUri(String uri, int sampleRate) {
+        if (!isNoiseUri(uri)) {
+            throw new IllegalArgumentException("Not a noise URI: " + uri);
+        }
+        String rest = uri.substring(URI_SCHEME.length());
+        int query = rest.indexOf('?');
+        String name = query < 0 ? rest : rest.substring(0, query);
+
+        Color color;
+        try {
+            color = Color.valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown noise color: " + name);
+        }
+
+        long seed = uri.hashCode();
+        int channels = 2;
+        if (query >= 0) {
+            for (String param : rest.substring(query + 1).split("&")) {
+                int eq = param.indexOf('=');
+                String key = eq < 0 ? param : param.substring(0, eq);
+                String value = eq < 0 ? "" : param.substring(eq + 1);
+                try {
+                    if (key.equals("seed")) {
+                        seed = Long.parseLong(value);
+                    } else if (key.equals("channels")) {
+                        channels = Integer.parseInt(value);
+                    }
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid noise parameter: " + param);
+                }
+            }
+        }
+        return new NoiseSource(color, sampleRate, channels, seed);
+    }
+
+    // ==================== 生成器 ====================
+
+    private long fillWhite(float[] buffer, int out, int frames, long x) {
+        float gain = whiteGain * INT_TO_FLOAT;
+        for (int i = 0; i < frames; i++) {
+            x = xorshift(x);
+            buffer[out] = (int) (x >>> 32) * gain;
+            out += channelCount;
+        }
+        return x;
+    }
+
+    private void fillPink(float[] buffer, int out, int frames, int c, int counter) {
+        int[] rows = pinkRows[c];
+        long x = state[c];
+        // 行值为整数，累加和没有浮点误差积累
+        long sum = pinkSum[c];
+        for (int i = 0; i < frames; i++) {
+            counter++;
+            int row = Integer.numberOfTrailingZeros(counter);
+            if (row < PINK_ROWS) {
+                x = xorshift(x);
+                int value = (int) (x >>> 32);
+                sum += (long) value - rows[row];
+                rows[row] = value;
+            }
+            x = xorshift(x);
+            buffer[out] = (sum + (int) (x >>> 32)) * pinkGain;
+            out += channelCount;
+        }
+        state[c] = x;
+        pinkSum[c] = sum;
+    }
+
+    private void fillBrown(float[] buffer, int out, int frames, int c) {
+        long x = state[c];
+        float level = brownLevel[c];
+        float step = brownStep * INT_TO_FLOAT;
+        for (int i = 0; i < frames; i++) {
+            x = xorshift(x);
+            level = level * brownLeak + (int) (x >>> 32) * step;
+            buffer[out] = level;
+            out += channelCount;
+        }
+        state[c] = x;
+        brownLevel[c] = level;
+    }
+
+    private void skipPink(int frames, int c, int counter) {
+        int[] rows = pinkRows[c];
+        long x = state[c];
+        long sum = pinkSum[c];
+        for (int i = 0; i < frames; i++) {
+            counter++;
+            int row = Integer.numberOfTrailingZeros(counter);
+            if (row < PINK_ROWS) {
+                x = xorshift(x);
+                int value = (int) (x >>> 32);
+                sum += (long) value - rows[row];
+                rows[row] = value;
+            }
+            x = xorshift(x);
+        }
+        state[c] = x;
+        pinkSum[c] = sum;
+    }
+
+    private void skipBrown(int frames, int c) {
+        // 积分器是浮点递推，必须逐帧计算才能与 read() 逐位相同
+        long x = state[c];
+        float level = brownLevel[c];
+        float step = brownStep * INT_TO_FLOAT;
+        for (int i = 0; i < frames; i++) {
+            x = xorshift(x);
+            level = level * brownLeak + (int) (x >>> 32) * step;
+        }
+        state[c] = x;
+        brownLevel[c] = level;
+    }
+
+    private static long xorshift(long x) {
+        x ^= x << 13;
+        x ^= x >>> 7;
+        x ^= x << 17;
+        return x;
+    }
+
+    private static long splitMix(long z) {
+        z += 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,44 @@
+/**
+ * NullAudioSink.java
+ * 《静界》空输出，丢弃所有数据
+ *
+ * 用于在桌面 JVM 上测试和压测混音器
+ */
+
+package com.ambianceapp.audio;
+
+public class NullAudioSink implements AudioSink {
+
+    private long framesWritten;
+
+    @Override
+    public void open(int sampleRate, int channelCount, int bufferFrames) {
+        framesWritten = 0;
+    }
+
+    @Override
+    public void write(float[] buffer, int frames) {
+        framesWritten += frames;
+    }
+
+    @Override
+    public boolean isBlocking() {
+        return false;
+    }
+
+    @Override
+    public void pause() {
+    }
+
+    @Override
+    public void resume() {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    public long getFramesWritten() {
+        return framesWritten;
+    }
+}
@@ -0,0 +1,428 @@
+/**
+ * OfflineRenderer.java
+ * 《静界》离线渲染：不按实时节拍，尽可能快地把混音器输出写入 WAV 文件
+ *
+ * 在调用线程上循环 render() 并写出，不经过 AudioEngine，也不休眠。
+ * 混音器应为本次导出单独创建，不能同时被 AudioEngine 使用。
+ * 流式音源不注册到解码线程，每个缓冲区之前在本线程上同步解码补满，离线渲染不会欠载。
+ * 调用线程被中断时抛出 InterruptedIOException，已写出的部分仍是合法的 WAV 文件。
+ *
+ * 所有音源都是 SeekableSource 时可以并行渲染 (renderParallel)，输出与单线程渲染逐位相同：
+ * - 调用线程用 AudioMixer.skip() 沿时间轴推进混音器 (只推进音源与斜坡状态，不叠加)，
+ *   在每段开头用 copyState() 复制一份交给 ForkJoinPool，各段在工作线程上独立渲染
+ * - 限幅器依赖全部历史，无法跳过：每段从开头前 getSettleFrames() 处开始渲染，用新的限幅器预热，
+ *   拼接时与上一段结束时的真实包络比较，相同则直接采用，不同则用真实限幅器对本段重新限幅 (串行)
+ * - 完成的段由工作线程按顺序拼接写出，调用线程只负责推进与提交；同时在途的段数有上限，内存占用与导出时长无关
+ * 并行渲染后混音器与限幅器的状态不再有意义，不应继续使用。
+ */
+
+package com.ambianceapp.audio;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+public final class OfflineRenderer {
+
+    // 并行渲染的默认段长：128 个缓冲区 (1024 帧时约 3 秒)，预热约占其中一成半
+    public static final int DEFAULT_SEGMENT_BUFFERS = 128;
+
+    /**
+     * 一次离线渲染的结果
+     */
+    public static final class Result {
+        private final long frames;
+        private final int sampleRate;
+        private final long elapsedNanos;
+        private final int segments;
+        private final int relimitedSegments;
+
+        Result(long frames, int sampleRate, long elapsedNanos, int segments, int relimitedSegments) {
+            this.frames = frames;
+            this.sampleRate = sampleRate;
+            this.elapsedNanos = elapsedNanos;
+            this.segments = segments;
+            this.relimitedSegments = relimitedSegments;
+        }
+
+        public long getFrames() {
+            return frames;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * 并行渲染的段数，单线程渲染为 1
+         */
+        public int getSegmentCount() {
+            return segments;
+        }
+
+        /**
+         * 预热后的限幅器包络与真实包络不同、拼接时重新限幅的段数
+         */
+        public int getRelimitedSegmentCount() {
+            return relimitedSegments;
+        }
+
+        /**
+         * 渲染出的音频时长与耗时之比，大于 1 表示快于实时
+         */
+        public double getRealtimeFactor() {
+            double seconds = (double) frames / sampleRate;
+            return elapsedNanos > 0 ? seconds * 1_000_000_000.0 / elapsedNanos : Double.POSITIVE_INFINITY;
+        }
+    }
+
+    private final AudioMixer mixer;
+    private final int sampleRate;
+    private final int bufferFrames;
+    private final AudioClock clock;
+    private final List<StreamingSource> streamingSources = new ArrayList<>();
+
+    public OfflineRenderer(AudioMixer mixer, int sampleRate, int bufferFrames) {
+        this(mixer, sampleRate, bufferFrames, AudioClock.SYSTEM);
+    }
+
+    public OfflineRenderer(AudioMixer mixer, int sampleRate, int bufferFrames, AudioClock clock) {
+        if (bufferFrames <= 0 || bufferFrames > mixer.getMaxFrames()) {
+            throw new IllegalArgumentException("Invalid buffer size: " + bufferFrames);
+        }
+        this.mixer = mixer;
+        this.sampleRate = sampleRate;
+        this.bufferFrames = bufferFrames;
+        this.clock = clock;
+    }
+
+    /**
+     * 由本渲染器在渲染线程上同步解码的流式音源 (不要再注册到 StreamingDecoderThread)
+     */
+    public void addStreamingSource(StreamingSource source) {
+        streamingSources.add(source);
+    }
+
+    /**
+     * 渲染指定帧数并写入 WAV 文件
+     */
+    public Result renderToWav(File file, long frames) throws IOException {
+        try (WavWriter writer = new WavWriter(file, sampleRate, AudioMixer.OUTPUT_CHANNELS)) {
+            return render(writer, frames);
+        }
+    }
+
+    /**
+     * 并行渲染指定帧数并写入 WAV 文件
+     */
+    public Result renderToWavParallel(File file, long frames, ForkJoinPool pool) throws IOException {
+        try (WavWriter writer = new WavWriter(file, sampleRate, AudioMixer.OUTPUT_CHANNELS)) {
+            return renderParallel(writer, frames, pool, DEFAULT_SEGMENT_BUFFERS * bufferFrames);
+        }
+    }
+
+    /**
+     * 渲染指定帧数写入 writer (不关闭 writer)
+     */
+    public Result render(WavWriter writer, long frames) throws IOException {
+        checkFormat(writer);
+        float[] buffer = new float[bufferFrames * AudioMixer.OUTPUT_CHANNELS];
+        long start = clock.nanoTime();
+        long rendered = 0;
+        while (rendered < frames) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedIOException("Offline render interrupted after " + rendered + " frames");
+            }
+            for (int i = 0; i < streamingSources.size(); i++) {
+                streamingSources.get(i).fill();
+            }
+            int count = (int) Math.min(bufferFrames, frames - rendered);
+            mixer.render(buffer, count);
+            writer.write(buffer, count);
+            rendered += count;
+        }
+        return new Result(rendered, sampleRate, clock.nanoTime() - start, 1, 0);
+    }
+
+    /**
+     * 混音器中没有流式音源、全部音源都可复制时才能并行渲染
+     */
+    public boolean canRenderInParallel() {
+        return streamingSources.isEmpty() && mixer.isSeekable();
+    }
+
+    /**
+     * 在 pool 上分段并行渲染，输出与 render() 逐位相同 (不关闭 writer)
+     * @param segmentFrames 每段帧数，向上取整为缓冲区长度的整数倍，且不小于限幅器的预热长度
+     */
+    public Result renderParallel(WavWriter writer, long frames, ForkJoinPool pool, int segmentFrames)
+            throws IOException {
+        LookaheadLimiter limiter = mixer.getLimiter();
+        return renderParallel(writer, frames, pool, segmentFrames, limiter == null ? 0 : limiter.getSettleFrames());
+    }
+
+    /**
+     * @param primingFrames 每段预热限幅器的帧数，不小于限幅器窗口时输出都逐位相同，只影响重新限幅的段数
+     */
+    Result renderParallel(WavWriter writer, long frames, ForkJoinPool pool, int segmentFrames, int primingFrames)
+            throws IOException {
+        checkFormat(writer);
+        if (!canRenderInParallel()) {
+            throw new IllegalStateException("Mixer has sources that cannot be rendered in parallel");
+        }
+        LookaheadLimiter limiter = mixer.getLimiter();
+        int priming = limiter == null ? 0 : roundUp(primingFrames, bufferFrames);
+        int segment = Math.max(roundUp(segmentFrames, bufferFrames), priming);
+        // 每个工作线程一段，另加一段让游标推进与渲染重叠
+        Stitcher stitcher = new Stitcher(writer, limiter, pool.getParallelism() + 1);
+        long start = clock.nanoTime();
+        long position = 0;
+        int index = 0;
+        try {
+            for (long begin = 0; begin < frames; begin += segment) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedIOException("Offline render interrupted after " + begin + " frames");
+                }
+                stitcher.acquire();
+                // 第一段直接使用混音器的限幅器，之后各段从开头前 priming 帧处开始预热新的限幅器
+                // (priming 不小于窗口长度，预热后延迟线与窗口峰值队列已与真实限幅器等价)
+                long from = Math.max(0, begin - priming);
+                while (position < from) {
+                    mixer.skip(bufferFrames);
+                    position += bufferFrames;
+                }
+                LookaheadLimiter segmentLimiter = limiter == null ? null
+                    : begin == 0 ? limiter : new LookaheadLimiter(limiter);
+                Segment task = new Segment(stitcher, index, mixer.copyState(), bufferFrames, (int) (begin - from),
+                    (int) Math.min(segment, frames - begin), segmentLimiter);
+                try {
+                    pool.execute(task);
+                } catch (RejectedExecutionException e) {
+                    stitcher.release();
+                    throw e;
+                }
+                index++;
+            }
+            stitcher.awaitAll();
+        } finally {
+            // 出错或中断时丢弃剩余的段，等它们全部结束后才返回，调用方随后可以安全关闭 writer
+            stitcher.abort();
+        }
+        return new Result(frames, sampleRate, clock.nanoTime() - start, index, stitcher.relimited);
+    }
+
+    // ==================== 分段 ====================
+
+    /**
+     * 一段时间轴的渲染任务：先预热限幅器，再渲染本段的混音 (限幅前) 与限幅后的输出，交给拼接器
+     */
+    private static final class Segment implements Runnable {
+        final Stitcher stitcher;
+        final int index;
+        final AudioMixer mixer;
+        final int bufferFrames;
+        final int priming;
+        final int frames;
+        final LookaheadLimiter limiter;
+
+        float[] mix;
+        float[] output;
+        float primedGain;
+        float primedStep;
+
+        Segment(Stitcher stitcher, int index, AudioMixer mixer, int bufferFrames, int priming, int frames,
+                LookaheadLimiter limiter) {
+            this.stitcher = stitcher;
+            this.index = index;
+            this.mixer = mixer;
+            this.bufferFrames = bufferFrames;
+            this.priming = priming;
+            this.frames = frames;
+            this.limiter = limiter;
+        }
+
+        @Override
+        public void run() {
+            if (!stitcher.isAborted()) {
+                try {
+                    render();
+                } catch (RuntimeException | Error e) {
+                    stitcher.fail(e);
+                }
+            }
+            stitcher.complete(this);
+        }
+
+        private void render() {
+            float[] buffer = new float[bufferFrames * AudioMixer.OUTPUT_CHANNELS];
+            for (int offset = 0; offset < priming; offset += bufferFrames) {
+                mixer.render(buffer, bufferFrames);
+                limiter.process(buffer, bufferFrames);
+            }
+            if (limiter != null) {
+                primedGain = limiter.getEnvelopeGain();
+                primedStep = limiter.getAttackStep();
+            }
+
+            mix = new float[frames * AudioMixer.OUTPUT_CHANNELS];
+            for (int offset = 0; offset < frames; offset += bufferFrames) {
+                int count = Math.min(bufferFrames, frames - offset);
+                mixer.render(buffer, count);
+                System.arraycopy(buffer, 0, mix, offset * AudioMixer.OUTPUT_CHANNELS,
+                    count * AudioMixer.OUTPUT_CHANNELS);
+            }
+            if (limiter == null) {
+                output = mix;
+            } else {
+                // 保留限幅前的混音，拼接时包络不一致可以重新限幅
+                output = mix.clone();
+                limiter.process(output, frames);
+            }
+        }
+    }
+
+    /**
+     * 按顺序拼接各段：完成的段先暂存，由补齐顺序的那个工作线程依次写出，写出不占用推进游标的调用线程。
+     * 保存上一段结束时的真实限幅器。许可数限制同时在途 (渲染中或等待写出) 的段数。
+     */
+    private static final class Stitcher {
+        final WavWriter writer;
+        final int capacity;
+        final Semaphore permits;
+        final Segment[] ready;
+        LookaheadLimiter current;
+        int next;
+        int relimited;
+        volatile Throwable failure;
+        volatile boolean aborted;
+
+        Stitcher(WavWriter writer, LookaheadLimiter limiter, int capacity) {
+            this.writer = writer;
+            this.current = limiter;
+            this.capacity = capacity;
+            this.permits = new Semaphore(capacity);
+            this.ready = new Segment[capacity];
+        }
+
+        boolean isAborted() {
+            return aborted || failure != null;
+        }
+
+        void fail(Throwable e) {
+            synchronized (this) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+
+        /**
+         * 调用线程提交下一段之前取得许可，失败时抛出工作线程上的异常
+         */
+        void acquire() throws IOException {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Offline render interrupted");
+            }
+            rethrowFailure();
+        }
+
+        /**
+         * 归还没有提交出去的许可
+         */
+        void release() {
+            permits.release();
+        }
+
+        /**
+         * 等待所有已提交的段写出
+         */
+        void awaitAll() throws IOException {
+            try {
+                permits.acquire(capacity);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Offline render interrupted");
+            }
+            permits.release(capacity);
+            rethrowFailure();
+        }
+
+        /**
+         * 之后完成的段都被丢弃，等待在途的段全部结束
+         */
+        void abort() {
+            aborted = true;
+            permits.acquireUninterruptibly(capacity);
+            permits.release(capacity);
+        }
+
+        synchronized void complete(Segment segment) {
+            ready[segment.index % capacity] = segment;
+            Segment head;
+            while ((head = ready[next % capacity]) != null && head.index == next) {
+                ready[next % capacity] = null;
+                next++;
+                if (!isAborted()) {
+                    try {
+                        append(head);
+                    } catch (IOException | RuntimeException e) {
+                        failure = e;
+                    }
+                }
+                permits.release();
+            }
+        }
+
+        private void append(Segment segment) throws IOException {
+            if (segment.limiter == null || segment.limiter == current
+                    || current.hasEnvelope(segment.primedGain, segment.primedStep)) {
+                writer.write(segment.output, segment.frames);
+                current = segment.limiter;
+            } else {
+                current.process(segment.mix, segment.frames);
+                writer.write(segment.mix, segment.frames);
+                relimited++;
+            }
+        }
+
+        private void rethrowFailure() throws IOException {
+            Throwable e = failure;
+            if (e instanceof IOException) {
+                throw (IOException) e;
+            } else if (e instanceof RuntimeException) {
+                throw (RuntimeException) e;
+            } else if (e instanceof Error) {
+                throw (Error) e;
+            }
+        }
+    }
+
+    private void checkFormat(WavWriter writer) {
+        if (writer.getSampleRate() != sampleRate || writer.getChannelCount() != AudioMixer.OUTPUT_CHANNELS) {
+            throw new IllegalArgumentException("Writer format does not match the mixer output");
+        }
+    }
+
+    private static int roundUp(int frames, int multiple) {
+        return (frames + multiple - 1) / multiple * multiple;
+    }
+
+    /**
+     * 释放同步解码的流式音源
+     */
+    public void release() {
+        for (StreamingSource source : streamingSources) {
+            source.close();
+            source.closeDecoder();
+        }
+        streamingSources.clear();
+    }
+}
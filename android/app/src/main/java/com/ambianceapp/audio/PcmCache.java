@@ -0,0 +1,152 @@
+/**
+ * PcmCache.java
+ * 《静界》解码后 PCM 的进程级缓存
+ *
+ * 以 (资源路径, 采样率) 为键，按 Java 堆字节预算做 LRU 淘汰。
+ * 内存映射的 .pcm 资源只有接缝计入预算，不会挤掉真正占用堆内存的解码结果。
+ * 被音轨引用的条目处于固定状态，不会被淘汰。
+ */
+
+package com.ambianceapp.audio;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+public final class PcmCache {
+
+    /**
+     * 缓存未命中时的解码回调
+     */
+    public interface Loader {
+        /**
+         * @return 解码结果，返回 null 表示该资源不适合缓存 (例如过长)
+         */
+        PcmData load() throws IOException;
+    }
+
+    private static final class Entry {
+        final PcmData data;
+        int pins;
+
+        Entry(PcmData data) {
+            this.data = data;
+        }
+    }
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Set<String> uncacheable = new HashSet<>();
+    private long budgetBytes;
+    private long sizeBytes;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public PcmCache(long budgetBytes) {
+        this.budgetBytes = budgetBytes;
+    }
+
+    /**
+     * 获取并固定一条缓存，未命中时调用 loader 解码
+     * @return PCM 数据；资源不适合缓存时返回 null，此时不需要 release
+     */
+    public PcmData acquire(String path, int sampleRate, Loader loader) throws IOException {
+        String key = key(path, sampleRate);
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                hits++;
+                entry.pins++;
+                return entry.data;
+            }
+            misses++;
+            if (uncacheable.contains(key)) {
+                return null;
+            }
+        }
+
+        // 解码可能耗时较长，不持有锁
+        PcmData data = loader.load();
+
+        synchronized (this) {
+            if (data == null) {
+                uncacheable.add(key);
+                return null;
+            }
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                // 其他线程没有抢先加载同一资源
+                entry = new Entry(data);
+                entries.put(key, entry);
+                sizeBytes += data.getHeapSizeInBytes();
+            }
+            entry.pins++;
+            trimToBudget();
+            return entry.data;
+        }
+    }
+
+    /**
+     * 解除一次固定，之后该条目可被淘汰
+     */
+    public synchronized void release(String path, int sampleRate) {
+        Entry entry = entries.get(key(path, sampleRate));
+        if (entry != null && entry.pins > 0) {
+            entry.pins--;
+            trimToBudget();
+        }
+    }
+
+    public synchronized void setBudgetBytes(long budgetBytes) {
+        this.budgetBytes = budgetBytes;
+        trimToBudget();
+    }
+
+    public synchronized long getBudgetBytes() {
+        return budgetBytes;
+    }
+
+    public synchronized long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+
+    // ==================== 私有方法 ====================
+
+    private void trimToBudget() {
+        // 按访问顺序从最久未使用的条目开始淘汰，跳过固定的条目
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (sizeBytes > budgetBytes && iterator.hasNext()) {
+            Entry entry = iterator.next();
+            // 不占堆内存的映射条目淘汰后也腾不出预算
+            if (entry.pins == 0 && entry.data.getHeapSizeInBytes() > 0) {
+                iterator.remove();
+                sizeBytes -= entry.data.getHeapSizeInBytes();
+                evictions++;
+            }
+        }
+    }
+
+    private static String key(String path, int sampleRate) {
+        return path + "@" + sampleRate;
+    }
+}
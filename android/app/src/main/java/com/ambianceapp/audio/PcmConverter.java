@@ -0,0 +1,59 @@
+/**
+ * PcmConverter.java
+ * 《静界》float 与 16 位 PCM 之间的转换
+ *
+ * 全部在调用方提供的缓冲区上完成，不产生任何堆分配
+ */
+
+package com.ambianceapp.audio;
+
+public final class PcmConverter {
+
+    private static final float PCM16_SCALE = 32767.0f;
+
+    private PcmConverter() {
+    }
+
+    /**
+     * float (-1.0 ~ 1.0) 转 16 位 PCM，超出范围的值被削波
+     */
+    public static void floatToPcm16(float[] src, short[] dst, int count) {
+        floatToPcm16(src, 0, dst, 0, count);
+    }
+
+    public static void floatToPcm16(float[] src, int srcOffset, short[] dst, int dstOffset, int count) {
+        for (int i = 0; i < count; i++) {
+            float value = src[srcOffset + i];
+            if (value > 1.0f) {
+                value = 1.0f;
+            } else if (value < -1.0f) {
+                value = -1.0f;
+            }
+            dst[dstOffset + i] = (short) (value * PCM16_SCALE);
+        }
+    }
+
+    /**
+     * float (-1.0 ~ 1.0) 转 16 位小端 PCM 字节
+     */
+    public static void floatToPcm16Le(float[] src, byte[] dst, int count) {
+        floatToPcm16Le(src, 0, dst, 0, count);
+    }
+
+    /**
+     * @param dstOffset 目标数组中的字节偏移
+     */
+    public static void floatToPcm16Le(float[] src, int srcOffset, byte[] dst, int dstOffset, int count) {
+        for (int i = 0; i < count; i++) {
+            float value = src[srcOffset + i];
+            if (value > 1.0f) {
+                value = 1.0f;
+            } else if (value < -1.0f) {
+                value = -1.0f;
+            }
+            int pcm = (int) (value * PCM16_SCALE);
+            dst[dstOffset + i * 2] = (byte) pcm;
+            dst[dstOffset + i * 2 + 1] = (byte) (pcm >> 8);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/**
+ * PcmData.java
+ * 《静界》解码后的 PCM 数据
+ *
+ * 以 16 位有符号整数交错存储，相比 float 节省一半内存
+ *
+ * 可附带一段循环接缝：把结尾 seamFrames 帧与开头 seamFrames 帧做等功率交叉淡化，
+ * 结果单独存放，循环长度随之缩短为 frameCount - seamFrames。
+ * 接缝在加载时只计算一次，原始采样 (可能是只读映射) 保持不变。
+ *
+ * 内存映射的采样 (PcmFile.map) 由系统按需换页，不占用 Java 堆，getHeapSizeInBytes() 只计接缝。
+ */
+
+package com.ambianceapp.audio;
+
+import java.nio.ShortBuffer;
+
+public final class PcmData {
+
+    private final int sampleRate;
+    private final int channelCount;
+    private final ShortBuffer samples;
+    private final int frameCount;
+    private final short[] loopSeam;
+    private final int seamFrames;
+    private final boolean mapped;
+
+    public PcmData(int sampleRate, int channelCount, ShortBuffer samples) {
+        this(sampleRate, channelCount, samples, null, false);
+    }
+
+    PcmData(int sampleRate, int channelCount, ShortBuffer samples, short[] loopSeam, boolean mapped) {
+        if (channelCount < 1 || channelCount > 2) {
+            throw new IllegalArgumentException("Unsupported channel count: " + channelCount);
+        }
+        this.sampleRate = sampleRate;
+        this.channelCount = channelCount;
+        this.samples = samples;
+        this.frameCount = samples.limit() / channelCount;
+        this.loopSeam = loopSeam;
+        this.seamFrames = loopSeam == null ? 0 : loopSeam.length / channelCount;
+        this.mapped = mapped;
+    }
+
+    public PcmData(int sampleRate, int channelCount, short[] samples) {
+        this(sampleRate, channelCount, ShortBuffer.wrap(samples));
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    public int getChannelCount() {
+        return channelCount;
+    }
+
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * 只读访问采样数据，仅使用绝对位置的 get(int)
+     */
+    public ShortBuffer getSamples() {
+        return samples;
+    }
+
+    /**
+     * 采样是否为文件的内存映射
+     */
+    public boolean isMapped() {
+        return mapped;
+    }
+
+    /**
+     * 循环一周的帧数
+     */
+    public int getLoopFrameCount() {
+        return frameCount - seamFrames;
+    }
+
+    /**
+     * 循环开头替代原始采样的接缝帧数，没有接缝时为 0
+     */
+    public int getSeamFrameCount() {
+        return seamFrames;
+    }
+
+    /**
+     * 接缝采样 (交错)，没有接缝时为 null
+     */
+    short[] getLoopSeam() {
+        return loopSeam;
+    }
+
+    /**
+     * 返回共享采样数据、附带等功率交叉淡化接缝的副本
+     * @param crossfadeFrames 交叉淡化帧数，最多取总帧数的一半
+     */
+    public PcmData withLoopCrossfade(int crossfadeFrames) {
+        int seam = Math.min(crossfadeFrames, frameCount / 2);
+        if (seam <= 0) {
+            return new PcmData(sampleRate, channelCount, samples, null, mapped);
+        }
+
+        // 开头淡入、结尾淡出：接缝第 0 帧接续原始第 frameCount - seam 帧，
+        // 接缝最后一帧接续原始第 seam 帧，因此两端都连续
+        int tailStart = (frameCount - seam) * channelCount;
+        short[] blended = new short[seam * channelCount];
+        for (int f = 0; f < seam; f++) {
+            double angle = Math.PI / 2 * f / seam;
+            double fadeIn = Math.sin(angle);
+            double fadeOut = Math.cos(angle);
+            for (int c = 0; c < channelCount; c++) {
+                int i = f * channelCount + c;
+                long mixed = Math.round(samples.get(i) * fadeIn + samples.get(tailStart + i) * fadeOut);
+                blended[i] = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, mixed));
+            }
+        }
+        return new PcmData(sampleRate, channelCount, samples, blended, mapped);
+    }
+
+    /**
+     * 占用字节数 (含接缝)
+     */
+    public long getSizeInBytes() {
+        long seamBytes = loopSeam == null ? 0 : (long) loopSeam.length * 2;
+        return (long) samples.limit() * 2 + seamBytes;
+    }
+
+    /**
+     * 占用的 Java 堆字节数：内存映射的采样不计入，接缝总在堆上
+     */
+    public long getHeapSizeInBytes() {
+        long seamBytes = loopSeam == null ? 0 : (long) loopSeam.length * 2;
+        return mapped ? seamBytes : getSizeInBytes();
+    }
+}
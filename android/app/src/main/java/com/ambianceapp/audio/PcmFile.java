@@ -0,0 +1,144 @@
+/**
+ * PcmFile.java
+ * 《静界》预解码 PCM 资源格式
+ *
+ * 32 字节小端文件头 + 16 位小端交错 PCM:
+ *   0  魔数 "AMBP"
+ *   4  u16 版本号
+ *   6  u16 声道数
+ *   8  u32 采样率
+ *   12 u32 帧数
+ *   16 保留 (16 字节, 置 0)
+ *
+ * 数据区按 32 字节对齐，可直接用 FileChannel.map 映射为只读 ShortBuffer，
+ * 加载时不解码也不复制。
+ */
+
+package com.ambianceapp.audio;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+public final class PcmFile {
+
+    public static final String EXTENSION = ".pcm";
+    public static final int HEADER_SIZE = 32;
+
+    private static final int MAGIC = 0x50424D41;   // "AMBP" 小端
+    private static final int VERSION = 1;
+
+    private PcmFile() {
+    }
+
+    /**
+     * 写入 PCM 文件
+     */
+    public static void write(PcmData pcm, File file) throws IOException {
+        ShortBuffer samples = pcm.getSamples();
+        int sampleCount = pcm.getFrameCount() * pcm.getChannelCount();
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC);
+        header.putShort((short) VERSION);
+        header.putShort((short) pcm.getChannelCount());
+        header.putInt(pcm.getSampleRate());
+        header.putInt(pcm.getFrameCount());
+        header.clear();
+
+        try (FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, header);
+
+            ByteBuffer chunk = ByteBuffer.allocate(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < sampleCount; i++) {
+                if (!chunk.hasRemaining()) {
+                    chunk.flip();
+                    writeFully(channel, chunk);
+                    chunk.clear();
+                }
+                chunk.putShort(samples.get(i));
+            }
+            chunk.flip();
+            writeFully(channel, chunk);
+        }
+    }
+
+    /**
+     * 音频资源对应的预解码资源名：rain.ogg -> rain.pcm
+     */
+    public static String nameFor(String audioFile) {
+        int dot = audioFile.lastIndexOf('.');
+        return (dot >= 0 ? audioFile.substring(0, dot) : audioFile) + EXTENSION;
+    }
+
+    /**
+     * 映射整个 PCM 文件
+     */
+    public static PcmData map(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            return map(raf.getChannel(), 0, raf.length());
+        }
+    }
+
+    /**
+     * 映射通道中的一段 PCM 数据 (例如 APK 中未压缩的 asset)，映射在通道关闭后仍然有效
+     * @param offset PCM 文件在通道中的起始位置
+     * @param length PCM 文件长度
+     */
+    public static PcmData map(FileChannel channel, long offset, long length) throws IOException {
+        if (length < HEADER_SIZE) {
+            throw new IOException("PCM file too short: " + length);
+        }
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+        mapped.order(ByteOrder.LITTLE_ENDIAN);
+
+        if (mapped.getInt(0) != MAGIC) {
+            throw new IOException("Not a PCM asset");
+        }
+        int version = mapped.getShort(4);
+        if (version != VERSION) {
+            throw new IOException("Unsupported PCM asset version: " + version);
+        }
+        int channels = mapped.getShort(6);
+        int sampleRate = mapped.getInt(8);
+        int frameCount = mapped.getInt(12);
+
+        long dataBytes = (long) frameCount * channels * 2;
+        if (HEADER_SIZE + dataBytes > length) {
+            throw new IOException("Truncated PCM asset: expected " + dataBytes + " data bytes");
+        }
+
+        mapped.position(HEADER_SIZE);
+        mapped.limit(HEADER_SIZE + (int) dataBytes);
+        ShortBuffer samples = mapped.slice().order(ByteOrder.LITTLE_ENDIAN).asShortBuffer();
+        return new PcmData(sampleRate, channels, samples, null, true);
+    }
+
+    /**
+     * 文件头的魔数与版本号是否与当前格式一致且采样率相同 (构建期判断已有输出能否沿用)
+     */
+    public static boolean isCurrent(File file, int sampleRate) throws IOException {
+        if (file.length() < HEADER_SIZE) {
+            return false;
+        }
+        byte[] bytes = new byte[12];
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            raf.readFully(bytes);
+        }
+        ByteBuffer header = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        return header.getInt(0) == MAGIC && header.getShort(4) == VERSION && header.getInt(8) == sampleRate;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/**
+ * PcmLoopSource.java
+ * 《静界》循环播放的 PCM 音源
+ *
+ * 循环时按采样精确回绕，不插入任何间隙。PcmData 带接缝时，
+ * 每周开头的 seamFrames 帧取自预先计算的交叉淡化接缝，回绕本身没有额外开销。
+ */
+
+package com.ambianceapp.audio;
+
+import java.nio.ShortBuffer;
+
+public class PcmLoopSource implements SeekableSource, SuspendableSource {
+
+    private static final float SHORT_TO_FLOAT = 1.0f / 32768.0f;
+
+    private final PcmData data;
+    private final boolean looping;
+    private int position;   // 当前帧位置
+
+    public PcmLoopSource(PcmData data, boolean looping) {
+        this.data = data;
+        this.looping = looping;
+    }
+
+    @Override
+    public int getChannelCount() {
+        return data.getChannelCount();
+    }
+
+    @Override
+    public int read(float[] buffer, int offset, int frames) {
+        final ShortBuffer samples = data.getSamples();
+        final int channels = data.getChannelCount();
+        // 单次播放不使用接缝，完整播放原始数据
+        final int endFrame = looping ? data.getLoopFrameCount() : data.getFrameCount();
+        final int seamFrames = looping ? data.getSeamFrameCount() : 0;
+        final short[] seam = data.getLoopSeam();
+        if (endFrame == 0) {
+            return 0;
+        }
+
+        int written = 0;
+        while (written < frames) {
+            if (position >= endFrame) {
+                if (!looping) {
+                    break;
+                }
+                position = 0;
+            }
+            int dst = offset + written * channels;
+            int chunk;
+            if (position < seamFrames) {
+                chunk = Math.min(frames - written, seamFrames - position);
+                int src = position * channels;
+                int count = chunk * channels;
+                for (int i = 0; i < count; i++) {
+                    buffer[dst + i] = seam[src + i] * SHORT_TO_FLOAT;
+                }
+            } else {
+                chunk = Math.min(frames - written, endFrame - position);
+                int src = position * channels;
+                int count = chunk * channels;
+                for (int i = 0; i < count; i++) {
+                    buffer[dst + i] = samples.get(src + i) * SHORT_TO_FLOAT;
+                }
+            }
+            position += chunk;
+            written += chunk;
+        }
+        return written;
+    }
+
+    @Override
+    public int skip(int frames) {
+        final int endFrame = looping ? data.getLoopFrameCount() : data.getFrameCount();
+        if (endFrame == 0) {
+            return 0;
+        }
+        if (!looping) {
+            int skipped = Math.max(0, Math.min(frames, endFrame - position));
+            position += skipped;
+            return skipped;
+        }
+        // 停在周期末尾与回到 0 等价，下一次读取都从周期开头开始
+        position = (int) (((long) position + frames) % endFrame);
+        return frames;
+    }
+
+    /**
+     * 挂起后恢复：按周期取模，与时长无关
+     */
+    @Override
+    public void advance(long frames) {
+        final int endFrame = looping ? data.getLoopFrameCount() : data.getFrameCount();
+        if (endFrame == 0 || frames <= 0) {
+            return;
+        }
+        if (!looping) {
+            position = (int) Math.min(endFrame, position + frames);
+            return;
+        }
+        position = (int) ((position + frames % endFrame) % endFrame);
+    }
+
+    @Override
+    public PcmLoopSource copy() {
+        PcmLoopSource copy = new PcmLoopSource(data, looping);
+        copy.position = position;
+        return copy;
+    }
+
+    @Override
+    public void reset() {
+        position = 0;
+    }
+
+    public PcmData getData() {
+        return data;
+    }
+}
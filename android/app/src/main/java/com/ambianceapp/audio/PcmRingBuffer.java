@@ -0,0 +1,124 @@
+/**
+ * PcmRingBuffer.java
+ * 《静界》单生产者/单消费者无锁 PCM 环形缓冲区
+ *
+ * 解码线程写入、渲染线程读取，容量固定，读写均不加锁也不分配内存。
+ */
+
+package com.ambianceapp.audio;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public final class PcmRingBuffer {
+
+    private final float[] data;
+    private final int channelCount;
+    private final int capacity;     // 帧数，2 的幂
+    private final int mask;
+
+    // 单调递增的帧计数，只由各自一侧写入
+    private final AtomicLong writePosition = new AtomicLong();
+    private final AtomicLong readPosition = new AtomicLong();
+
+    /**
+     * @param minCapacity 最少可容纳的帧数，向上取整到 2 的幂
+     */
+    public PcmRingBuffer(int channelCount, int minCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(1, minCapacity - 1)) << 1;
+        this.channelCount = channelCount;
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.data = new float[capacity * channelCount];
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getChannelCount() {
+        return channelCount;
+    }
+
+    /**
+     * 可读帧数 (消费者调用)
+     */
+    public int availableToRead() {
+        return (int) (writePosition.get() - readPosition.get());
+    }
+
+    /**
+     * 可写帧数 (生产者调用)
+     */
+    public int availableToWrite() {
+        return capacity - (int) (writePosition.get() - readPosition.get());
+    }
+
+    /**
+     * 生产者写入，最多写入可用空间
+     * @return 实际写入的帧数
+     */
+    public int write(float[] src, int offset, int frames) {
+        long write = writePosition.get();
+        int free = capacity - (int) (write - readPosition.get());
+        int count = Math.min(frames, free);
+        if (count <= 0) {
+            return 0;
+        }
+
+        int start = (int) (write & mask);
+        int first = Math.min(count, capacity - start);
+        System.arraycopy(src, offset, data, start * channelCount, first * channelCount);
+        if (first < count) {
+            System.arraycopy(src, offset + first * channelCount, data, 0, (count - first) * channelCount);
+        }
+        writePosition.lazySet(write + count);
+        return count;
+    }
+
+    /**
+     * 消费者读取，最多读取已有数据
+     * @return 实际读取的帧数
+     */
+    public int read(float[] dst, int offset, int frames) {
+        long read = readPosition.get();
+        int available = (int) (writePosition.get() - read);
+        int count = Math.min(frames, available);
+        if (count <= 0) {
+            return 0;
+        }
+
+        int start = (int) (read & mask);
+        int first = Math.min(count, capacity - start);
+        System.arraycopy(data, start * channelCount, dst, offset, first * channelCount);
+        if (first < count) {
+            System.arraycopy(data, 0, dst, offset + first * channelCount, (count - first) * channelCount);
+        }
+        readPosition.lazySet(read + count);
+        return count;
+    }
+
+    /**
+     * 消费者当前读取位置
+     */
+    public long getReadPosition() {
+        return readPosition.get();
+    }
+
+    /**
+     * 生产者当前写入位置
+     */
+    public long getWritePosition() {
+        return writePosition.get();
+    }
+
+    /**
+     * 消费者丢弃 position 之前的所有数据
+     */
+    public void skipTo(long position) {
+        long read = readPosition.get();
+        long target = Math.min(position, writePosition.get());
+        if (target > read) {
+            readPosition.lazySet(target);
+        }
+    }
+}
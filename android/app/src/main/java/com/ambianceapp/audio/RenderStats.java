@@ -0,0 +1,117 @@
+/**
+ * RenderStats.java
+ * 《静界》渲染线程的时限统计
+ *
+ * 每个缓冲区的时限 = bufferFrames / sampleRate，缓冲区大小自适应调整时随之更新。
+ * 记录欠载次数、最坏渲染耗时以及以时限 10% 为桶宽的渲染耗时直方图。
+ * 只由渲染线程写入 (lazySet，无 CAS、无分配)，其他线程可随时读取。
+ */
+
+package com.ambianceapp.audio;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public final class RenderStats {
+
+    /**
+     * 桶 i 统计耗时在 [i, i+1) * 10% 时限内的缓冲区，最后一桶统计超过时限的缓冲区
+     */
+    public static final int HISTOGRAM_BUCKETS = 11;
+
+    private volatile long deadlineNanos;
+    private final AtomicLong buffers = new AtomicLong();
+    private final AtomicLong underruns = new AtomicLong();
+    private final AtomicLong worstRenderNanos = new AtomicLong();
+    private final AtomicLong totalRenderNanos = new AtomicLong();
+    private final AtomicLongArray histogram = new AtomicLongArray(HISTOGRAM_BUCKETS);
+    private final AtomicLong transitions = new AtomicLong();
+    private final AtomicLong transitionPeakNanos = new AtomicLong();
+    private int lastTransitionSerial;
+
+    public RenderStats(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * 缓冲区大小调整后更新时限 (渲染线程)，之后的缓冲区按新的时限分桶
+     */
+    void setDeadlineNanos(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * 记录一个缓冲区 (渲染线程)
+     * @param renderNanos 混音耗时
+     * @param underrun 该缓冲区是否晚于时限交付
+     */
+    void record(long renderNanos, boolean underrun) {
+        buffers.lazySet(buffers.get() + 1);
+        totalRenderNanos.lazySet(totalRenderNanos.get() + renderNanos);
+        if (renderNanos > worstRenderNanos.get()) {
+            worstRenderNanos.lazySet(renderNanos);
+        }
+        if (underrun) {
+            underruns.lazySet(underruns.get() + 1);
+        }
+        int bucket = (int) Math.min(HISTOGRAM_BUCKETS - 1, renderNanos * 10 / deadlineNanos);
+        histogram.lazySet(bucket, histogram.get(bucket) + 1);
+    }
+
+    /**
+     * 记录场景过渡期间的缓冲区 (渲染线程)
+     * @param serial 过渡序号，变化时开始统计新的过渡
+     */
+    void recordTransition(long renderNanos, int serial) {
+        if (serial != lastTransitionSerial) {
+            lastTransitionSerial = serial;
+            transitions.lazySet(transitions.get() + 1);
+            transitionPeakNanos.lazySet(renderNanos);
+        } else if (renderNanos > transitionPeakNanos.get()) {
+            transitionPeakNanos.lazySet(renderNanos);
+        }
+    }
+
+    public long getDeadlineNanos() {
+        return deadlineNanos;
+    }
+
+    public long getBufferCount() {
+        return buffers.get();
+    }
+
+    public long getUnderrunCount() {
+        return underruns.get();
+    }
+
+    public long getWorstRenderNanos() {
+        return worstRenderNanos.get();
+    }
+
+    public long getAverageRenderNanos() {
+        long count = buffers.get();
+        return count == 0 ? 0 : totalRenderNanos.get() / count;
+    }
+
+    public long getTransitionCount() {
+        return transitions.get();
+    }
+
+    /**
+     * 最近一次场景过渡期间的最长渲染耗时
+     */
+    public long getTransitionPeakRenderNanos() {
+        return transitionPeakNanos.get();
+    }
+
+    /**
+     * 直方图快照
+     */
+    public long[] getHistogram() {
+        long[] copy = new long[HISTOGRAM_BUCKETS];
+        for (int i = 0; i < HISTOGRAM_BUCKETS; i++) {
+            copy[i] = histogram.get(i);
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * ResamplingSink.java
+ * 《静界》在混音总线上转换到设备原生采样率的输出
+ *
+ * 混音器按内容采样率 (44100) 渲染，多数设备的混音器运行在 48000，
+ * 交给系统重采样时每条输出流都要经过 AudioFlinger 的转换。
+ * 这里在写入前对混音后的总线做一次 SincResampler 转换，输出端直接以原生采样率打开。
+ * 每个缓冲区产生的输出帧数随相位在 ⌊N·L/M⌋ 与 ⌈N·L/M⌉ 之间变化。
+ */
+
+package com.ambianceapp.audio;
+
+import java.io.IOException;
+
+public class ResamplingSink implements AudioSink {
+
+    private final AudioSink output;
+    private final int outputRate;
+    private final SincResampler.Quality quality;
+
+    private SincResampler resampler;
+    private float[] converted;
+
+    public ResamplingSink(AudioSink output, int outputRate, SincResampler.Quality quality) {
+        this.output = output;
+        this.outputRate = outputRate;
+        this.quality = quality;
+    }
+
+    @Override
+    public void open(int sampleRate, int channelCount, int bufferFrames) throws IOException {
+        resampler = new SincResampler(sampleRate, outputRate, channelCount, quality, bufferFrames);
+        int maxFrames = resampler.getMaxOutputFrames(bufferFrames);
+        converted = new float[maxFrames * channelCount];
+        output.open(outputRate, channelCount, maxFrames);
+    }
+
+    @Override
+    public void write(float[] buffer, int frames) throws IOException {
+        int produced = resampler.process(buffer, frames, converted);
+        if (produced > 0) {
+            output.write(converted, produced);
+        }
+    }
+
+    @Override
+    public boolean isBlocking() {
+        return output.isBlocking();
+    }
+
+    /**
+     * 按换算后的最大输出帧数转发，实际每次写入的帧数在它附近交替变化
+     */
+    @Override
+    public void setBufferFrames(int frames) {
+        if (resampler != null) {
+            output.setBufferFrames(resampler.getMaxOutputFrames(frames));
+        }
+    }
+
+    @Override
+    public long getUnderrunCount() {
+        return output.getUnderrunCount();
+    }
+
+    @Override
+    public void pause() {
+        output.pause();
+    }
+
+    @Override
+    public void resume() {
+        output.resume();
+    }
+
+    @Override
+    public void close() {
+        output.close();
+        resampler = null;
+        converted = null;
+    }
+
+    public int getOutputRate() {
+        return outputRate;
+    }
+}
@@ -0,0 +1,51 @@
+/**
+ * SceneChange.java
+ * 《静界》一次性切换多条音轨参数的场景变更
+ *
+ * 在控制线程上构建，经命令队列作为一条命令投递，
+ * 渲染线程在同一个缓冲区边界上执行其中所有音轨的变化。投递后不可再修改。
+ *
+ * 过渡期间新旧场景同时渲染：离开的音轨等功率淡出，新加入的音轨等功率淡入，
+ * 两个场景共有的音轨线性过渡音量和声像而不重新开始。
+ * 新加入的音轨按顺序错开启动，避免首次读取集中在同一个缓冲区。
+ */
+
+package com.ambianceapp.audio;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class SceneChange {
+
+    static final class Entry {
+        final MixerTrack track;
+        final float volume;
+        final float pan;
+        final boolean playing;
+
+        Entry(MixerTrack track, float volume, float pan, boolean playing) {
+            this.track = track;
+            this.volume = volume;
+            this.pan = pan;
+            this.playing = playing;
+        }
+    }
+
+    final List<Entry> entries = new ArrayList<>();
+
+    /**
+     * 设置音轨在新场景中的目标参数
+     * @param playing false 时音轨淡出到静音后停止
+     */
+    public SceneChange set(MixerTrack track, float volume, float pan, boolean playing) {
+        entries.add(new Entry(track,
+            Math.max(0.0f, Math.min(1.0f, volume)),
+            Math.max(-1.0f, Math.min(1.0f, pan)),
+            playing));
+        return this;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+}
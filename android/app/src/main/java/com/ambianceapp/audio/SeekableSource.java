@@ -0,0 +1,23 @@
+/**
+ * SeekableSource.java
+ * 《静界》可跳过、可复制的音源
+ *
+ * 输出只由起始状态和已经输出的帧数决定 (PCM 循环、伪随机噪音)，
+ * 离线并行渲染据此在时间轴上任意位置复制出独立的音源，各段在不同线程上渲染。
+ */
+
+package com.ambianceapp.audio;
+
+public interface SeekableSource extends AudioSource {
+
+    /**
+     * 前进 frames 帧而不输出，之后的状态与 read() 读取同样帧数后完全相同
+     * @return 实际跳过的帧数，与 read() 的返回值一致
+     */
+    int skip(int frames);
+
+    /**
+     * 复制一个当前状态相同、互不影响的音源 (可只读共享底层 PCM 数据)
+     */
+    SeekableSource copy();
+}
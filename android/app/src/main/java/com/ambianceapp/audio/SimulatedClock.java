@@ -0,0 +1,27 @@
+/**
+ * SimulatedClock.java
+ * 《静界》手动推进的模拟时钟，用于在 JVM 上确定性地驱动渲染线程
+ */
+
+package com.ambianceapp.audio;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class SimulatedClock implements AudioClock {
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Override
+    public long nanoTime() {
+        return now.get();
+    }
+
+    @Override
+    public void sleepNanos(long nanos) {
+        advance(nanos);
+    }
+
+    public void advance(long nanos) {
+        now.addAndGet(nanos);
+    }
+}
@@ -0,0 +1,308 @@
+/**
+ * SincResampler.java
+ * 《静界》多相加窗 sinc 采样率转换
+ *
+ * 输入输出采样率约分为 L/M (44100 -> 48000 即 160/147)，第 n 个输出帧位于输入时刻 n·M/L，
+ * 共 L 个相位，每个相位的 Kaiser 窗 sinc 系数在构造时预先算好，运行时只做乘加。
+ * 截止频率取两者中较低的奈奎斯特频率，过渡带落在其下方，镜像和混叠都落在阻带内。
+ * 每个相位的系数和归一化为 1，直流增益精确为 1。
+ *
+ * 以块为单位流式处理，保留上一块末尾的窗长历史，块边界不影响结果；
+ * 缓冲区在构造时按最大块长分配，process() 不产生堆分配。
+ * 输出相对输入没有群延迟，但需要半个窗长的前瞻，首块输出相应少几帧。
+ */
+
+package com.ambianceapp.audio;
+
+import java.nio.ShortBuffer;
+import java.util.Arrays;
+
+public final class SincResampler {
+
+    /**
+     * 质量等级：窗长 (以较低采样率计的抽头数) 与 Kaiser β (决定阻带衰减)
+     */
+    public enum Quality {
+        LOW(24, 6.0),       // 约 -75dB
+        MEDIUM(48, 8.5),    // 约 -85dB
+        HIGH(96, 11.0);     // 约 -108dB
+
+        final int taps;
+        final double beta;
+
+        Quality(int taps, double beta) {
+            this.taps = taps;
+            this.beta = beta;
+        }
+    }
+
+    // 相位数上限，限制系数表大小
+    private static final int MAX_PHASES = 4096;
+
+    private final int inputRate;
+    private final int outputRate;
+    private final int channelCount;
+    private final int up;       // L
+    private final int down;     // M
+    private final int taps;
+    private final int halfTaps;
+    private final int maxInputFrames;
+    private final float[] coefficients;     // [相位][抽头]
+
+    // 尚未用完的输入 (交错排列)
+    private final float[] history;
+    private int available;      // history 中的帧数
+    private int position;       // 下一个输出帧的整数输入位置 (history 下标)
+    private int phase;          // 下一个输出帧的小数位置 × L
+
+    /**
+     * @param maxInputFrames 单次 process() 的最大输入帧数
+     */
+    public SincResampler(int inputRate, int outputRate, int channelCount, Quality quality, int maxInputFrames) {
+        if (inputRate <= 0 || outputRate <= 0) {
+            throw new IllegalArgumentException("Invalid sample rates: " + inputRate + " -> " + outputRate);
+        }
+        if (channelCount != 1 && channelCount != 2) {
+            throw new IllegalArgumentException("Unsupported channel count: " + channelCount);
+        }
+        int gcd = gcd(inputRate, outputRate);
+        this.inputRate = inputRate;
+        this.outputRate = outputRate;
+        this.channelCount = channelCount;
+        this.up = outputRate / gcd;
+        this.down = inputRate / gcd;
+        if (up > MAX_PHASES) {
+            throw new IllegalArgumentException("Unsupported rate ratio: " + inputRate + " -> " + outputRate);
+        }
+
+        // 降采样时通带按比例变窄，窗长按输入帧计相应加长，保持同样的过渡带
+        double bandwidth = Math.min(1.0, (double) up / down);
+        int scaledTaps = (int) Math.ceil(quality.taps / bandwidth);
+        this.taps = scaledTaps + (scaledTaps & 1);
+        this.halfTaps = taps / 2;
+        this.maxInputFrames = maxInputFrames;
+        this.coefficients = designFilter(up, taps, bandwidth, quality.beta);
+        this.history = new float[(taps + maxInputFrames) * channelCount];
+        reset();
+    }
+
+    public int getInputRate() {
+        return inputRate;
+    }
+
+    public int getOutputRate() {
+        return outputRate;
+    }
+
+    public int getChannelCount() {
+        return channelCount;
+    }
+
+    /**
+     * 实际窗长 (输入帧)
+     */
+    public int getTaps() {
+        return taps;
+    }
+
+    /**
+     * inputFrames 帧输入最多产生的输出帧数
+     */
+    public int getMaxOutputFrames(int inputFrames) {
+        return (int) (((long) inputFrames * up + down - 1) / down) + 1;
+    }
+
+    /**
+     * 清空历史，回到初始状态
+     */
+    public void reset() {
+        Arrays.fill(history, 0.0f);
+        // 开头补半个窗长的静音作为左侧历史
+        available = halfTaps - 1;
+        position = halfTaps - 1;
+        phase = 0;
+    }
+
+    /**
+     * 转换一块输入 (交错排列)
+     * @param output 至少容纳 getMaxOutputFrames(inputFrames) 帧
+     * @return 写入 output 的帧数
+     */
+    public int process(float[] input, int inputFrames, float[] output) {
+        if (inputFrames > maxInputFrames) {
+            throw new IllegalArgumentException("Block of " + inputFrames + " frames exceeds " + maxInputFrames);
+        }
+        final int channels = channelCount;
+        System.arraycopy(input, 0, history, available * channels, inputFrames * channels);
+        available += inputFrames;
+
+        final float[] h = history;
+        final float[] c = coefficients;
+        final int n = taps;
+        int pos = position;
+        int ph = phase;
+        int produced = 0;
+        int out = 0;
+        while (pos + halfTaps < available) {
+            int base = (pos - halfTaps + 1) * channels;
+            int coeff = ph * n;
+            if (channels == 2) {
+                float left = 0.0f;
+                float right = 0.0f;
+                for (int k = 0; k < n; k++) {
+                    float w = c[coeff + k];
+                    left += h[base] * w;
+                    right += h[base + 1] * w;
+                    base += 2;
+                }
+                output[out] = left;
+                output[out + 1] = right;
+                out += 2;
+            } else {
+                float sum = 0.0f;
+                for (int k = 0; k < n; k++) {
+                    sum += h[base + k] * c[coeff + k];
+                }
+                output[out++] = sum;
+            }
+            produced++;
+            ph += down;
+            pos += ph / up;
+            ph %= up;
+        }
+
+        // 只保留下一个输出帧的窗口需要的历史
+        int discard = Math.min(pos - halfTaps + 1, available);
+        if (discard > 0) {
+            System.arraycopy(h, discard * channels, h, 0, (available - discard) * channels);
+            available -= discard;
+            pos -= discard;
+        }
+        position = pos;
+        phase = ph;
+        return produced;
+    }
+
+    // ==================== 加载时转换 ====================
+
+    /**
+     * 把整段 PCM 转换到目标采样率，首尾按循环衔接 (窗口越过结尾时取开头的采样)。
+     * 输出帧数为 ceil(frameCount × L / M)。
+     */
+    public static PcmData resample(PcmData pcm, int outputRate, Quality quality) {
+        if (pcm.getSampleRate() == outputRate) {
+            return pcm;
+        }
+        final int block = 4096;
+        int channels = pcm.getChannelCount();
+        SincResampler resampler = new SincResampler(pcm.getSampleRate(), outputRate, channels, quality, block);
+        int frames = pcm.getFrameCount();
+        if (frames == 0) {
+            return new PcmData(outputRate, channels, new short[0]);
+        }
+
+        // 开头补 P 帧循环尾部，P 为 M 的整数倍，丢弃对应的 P·L/M 个输出后正好对齐到 0 时刻
+        int lead = resampler.down * ((resampler.halfTaps + resampler.down - 1) / resampler.down);
+        long skip = (long) lead / resampler.down * resampler.up;
+        long total = ((long) frames * resampler.up + resampler.down - 1) / resampler.down;
+        if (total * channels > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Resampled PCM too large: " + total + " frames");
+        }
+
+        ShortBuffer samples = pcm.getSamples();
+        short[] result = new short[(int) (total * channels)];
+        float[] input = new float[block * channels];
+        float[] output = new float[resampler.getMaxOutputFrames(block) * channels];
+        long produced = 0;
+        int written = 0;
+        long end = (long) frames + resampler.halfTaps;
+        for (long start = -lead; start < end && written < total; start += block) {
+            int count = (int) Math.min(block, end - start);
+            for (int i = 0; i < count; i++) {
+                int frame = (int) Math.floorMod(start + i, (long) frames);
+                for (int ch = 0; ch < channels; ch++) {
+                    input[i * channels + ch] = samples.get(frame * channels + ch) * (1.0f / 32768.0f);
+                }
+            }
+            int out = resampler.process(input, count, output);
+            for (int i = 0; i < out && written < total; i++, produced++) {
+                if (produced < skip) {
+                    continue;
+                }
+                for (int ch = 0; ch < channels; ch++) {
+                    float s = output[i * channels + ch] * 32768.0f;
+                    result[written * channels + ch] = (short) Math.max(-32768, Math.min(32767, Math.round(s)));
+                }
+                written++;
+            }
+        }
+        return new PcmData(outputRate, channels, result);
+    }
+
+    // ==================== 私有方法 ====================
+
+    /**
+     * 第 p 个相位的第 k 个系数对应输入偏移 k - halfTaps + 1 - p/L 处的加窗 sinc
+     */
+    private static float[] designFilter(int phases, int taps, double bandwidth, double beta) {
+        // Kaiser 窗的阻带衰减与过渡带宽 (以输入采样率归一化)
+        double attenuation = beta / 0.1102 + 8.7;
+        double transition = (attenuation - 7.95) / (14.36 * taps);
+        // 过渡带的终点落在较低的奈奎斯特频率上
+        double cutoff = Math.max(0.05, 0.5 * bandwidth - transition / 2);
+
+        int half = taps / 2;
+        double i0Beta = besselI0(beta);
+        float[] table = new float[phases * taps];
+        for (int p = 0; p < phases; p++) {
+            double frac = (double) p / phases;
+            double sum = 0.0;
+            double[] row = new double[taps];
+            for (int k = 0; k < taps; k++) {
+                double x = k - half + 1 - frac;
+                double u = x / half;
+                double window = Math.abs(u) >= 1.0 ? 0.0 : besselI0(beta * Math.sqrt(1.0 - u * u)) / i0Beta;
+                row[k] = 2.0 * cutoff * sinc(2.0 * cutoff * x) * window;
+                sum += row[k];
+            }
+            for (int k = 0; k < taps; k++) {
+                table[p * taps + k] = (float) (row[k] / sum);
+            }
+        }
+        return table;
+    }
+
+    private static double sinc(double x) {
+        if (x == 0.0) {
+            return 1.0;
+        }
+        double a = Math.PI * x;
+        return Math.sin(a) / a;
+    }
+
+    /**
+     * 第一类零阶修正贝塞尔函数 (级数展开)
+     */
+    private static double besselI0(double x) {
+        double sum = 1.0;
+        double term = 1.0;
+        double halfX = x / 2.0;
+        for (int k = 1; k < 64; k++) {
+            term *= (halfX / k) * (halfX / k);
+            sum += term;
+            if (term < sum * 1e-17) {
+                break;
+            }
+        }
+        return sum;
+    }
+
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+}
@@ -0,0 +1,199 @@
+/**
+ * SourcePool.java
+ * 《静界》音源池：在用音源的上限与泄漏统计，以及流式音源的复用
+ *
+ * 每条音轨加载前先占用一个名额 (reserve)，移除后归还 (release)，在用数量达到上限时拒绝加载。
+ * 引擎释放时仍在用的数量即为泄漏数。
+ *
+ * 归还的流式音源按格式 (采样率、声道数、缓冲区帧数) 保留，每种格式最多 maxIdlePerFormat 个；
+ * 之后打开同格式的流时重新绑定，复用环形缓冲区与解码缓冲区，不再分配。
+ * 解码线程尚未解除关联的音源暂不复用。PCM 与噪音音源本身很小，只计入名额不复用。
+ */
+
+package com.ambianceapp.audio;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+public final class SourcePool {
+
+    /**
+     * 在用音源达到上限
+     */
+    public static final class ExhaustedException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        ExhaustedException(int maxLive) {
+            super("Source limit reached: " + maxLive + " sources in use");
+        }
+    }
+
+    private final int maxLive;
+    private final int maxIdlePerFormat;
+    private final Map<String, ArrayDeque<StreamingSource>> idle = new HashMap<>();
+
+    private int liveCount;
+    private int peakLiveCount;
+    private int idleCount;
+    private long createdCount;
+    private long reusedCount;
+    private long discardedCount;
+    private long rejectedCount;
+
+    /**
+     * @param maxLive 同时在用的音源上限
+     * @param maxIdlePerFormat 每种格式最多保留的空闲流式音源
+     */
+    public SourcePool(int maxLive, int maxIdlePerFormat) {
+        this.maxLive = maxLive;
+        this.maxIdlePerFormat = maxIdlePerFormat;
+    }
+
+    /**
+     * 占用一个名额，创建音源失败时调用 cancel() 退回
+     */
+    public synchronized void reserve() throws ExhaustedException {
+        if (liveCount >= maxLive) {
+            rejectedCount++;
+            throw new ExhaustedException(maxLive);
+        }
+        liveCount++;
+        peakLiveCount = Math.max(peakLiveCount, liveCount);
+    }
+
+    /**
+     * 退回 reserve() 占用的名额 (音源没有创建成功)
+     */
+    public synchronized void cancel() {
+        if (liveCount > 0) {
+            liveCount--;
+        }
+    }
+
+    /**
+     * 打开流式音源：有同格式的空闲音源时重新绑定，否则新建。须先 reserve()。
+     */
+    public StreamingSource openStreaming(ByteSource bytes, boolean looping, int bufferFrames) throws IOException {
+        // 读取头部才知道格式，不持有锁
+        VorbisDecoder decoder = new VorbisDecoder(bytes.open(), bytes.getName());
+        try {
+            StreamingSource source = takeIdle(key(decoder.getSampleRate(), decoder.getChannelCount(), bufferFrames));
+            if (source != null) {
+                source.rebind(bytes, decoder, looping);
+                return source;
+            }
+            synchronized (this) {
+                createdCount++;
+            }
+            return new StreamingSource(bytes, decoder, looping, bufferFrames);
+        } catch (IOException | RuntimeException e) {
+            decoder.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 归还音源 (已从混音器移除；流式音源已从解码线程注销)
+     */
+    public synchronized void release(AudioSource source) {
+        if (liveCount > 0) {
+            liveCount--;
+        }
+        if (!(source instanceof StreamingSource)) {
+            return;
+        }
+        StreamingSource streaming = (StreamingSource) source;
+        String key = key(streaming.getSampleRate(), streaming.getChannelCount(), streaming.getBufferFrames());
+        ArrayDeque<StreamingSource> queue = idle.get(key);
+        if (queue == null) {
+            queue = new ArrayDeque<>();
+            idle.put(key, queue);
+        }
+        if (queue.size() < maxIdlePerFormat) {
+            queue.addLast(streaming);
+            idleCount++;
+        } else {
+            discardedCount++;
+        }
+    }
+
+    /**
+     * 丢弃所有空闲音源
+     */
+    public synchronized void clear() {
+        discardedCount += idleCount;
+        idle.clear();
+        idleCount = 0;
+    }
+
+    public int getMaxLive() {
+        return maxLive;
+    }
+
+    /**
+     * 已占用、尚未归还的名额
+     */
+    public synchronized int getLiveCount() {
+        return liveCount;
+    }
+
+    public synchronized int getPeakLiveCount() {
+        return peakLiveCount;
+    }
+
+    public synchronized int getIdleCount() {
+        return idleCount;
+    }
+
+    public synchronized long getCreatedCount() {
+        return createdCount;
+    }
+
+    public synchronized long getReusedCount() {
+        return reusedCount;
+    }
+
+    /**
+     * 空闲队列已满或 clear() 时丢弃的流式音源
+     */
+    public synchronized long getDiscardedCount() {
+        return discardedCount;
+    }
+
+    /**
+     * 因达到上限被拒绝的加载
+     */
+    public synchronized long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    // ==================== 私有方法 ====================
+
+    /**
+     * 取出一个已与解码线程解除关联的同格式空闲音源
+     */
+    private synchronized StreamingSource takeIdle(String key) {
+        ArrayDeque<StreamingSource> queue = idle.get(key);
+        if (queue == null) {
+            return null;
+        }
+        Iterator<StreamingSource> iterator = queue.iterator();
+        while (iterator.hasNext()) {
+            StreamingSource source = iterator.next();
+            if (!source.isAttached()) {
+                iterator.remove();
+                idleCount--;
+                reusedCount++;
+                return source;
+            }
+        }
+        return null;
+    }
+
+    private static String key(int sampleRate, int channelCount, int bufferFrames) {
+        return sampleRate + "/" + channelCount + "/" + bufferFrames;
+    }
+}
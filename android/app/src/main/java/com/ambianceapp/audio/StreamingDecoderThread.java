@@ -0,0 +1,109 @@
+/**
+ * StreamingDecoderThread.java
+ * 《静界》流式解码线程
+ *
+ * 在渲染线程之外为所有 StreamingSource 填充环形缓冲区。
+ * 缓冲区消耗过半时由渲染线程唤醒，否则定期轮询。
+ */
+
+package com.ambianceapp.audio;
+
+import java.io.IOException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+public class StreamingDecoderThread {
+
+    /**
+     * 解码失败回调，在解码线程上调用
+     */
+    public interface ErrorListener {
+        void onDecodeError(StreamingSource source, IOException error);
+    }
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+    private final CopyOnWriteArrayList<StreamingSource> sources = new CopyOnWriteArrayList<>();
+    private final ErrorListener errorListener;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    public StreamingDecoderThread(ErrorListener errorListener) {
+        this.errorListener = errorListener;
+        this.thread = new Thread(this::decodeLoop, "AmbianceDecode");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * 注册音源并立即预填充
+     */
+    public void register(StreamingSource source) {
+        source.setOwner(this);
+        sources.add(source);
+        wake();
+    }
+
+    /**
+     * 注销音源，解码器在解码线程上释放，之后音源不再关联本线程
+     */
+    public void unregister(StreamingSource source) {
+        source.close();
+    }
+
+    /**
+     * 唤醒解码线程，可在渲染线程调用 (不分配内存)
+     */
+    public void wake() {
+        LockSupport.unpark(thread);
+    }
+
+    /**
+     * 通知解码线程退出并等待。解码器只由解码线程释放：等待超时 (仍在解码) 时由它在退出前释放
+     */
+    public void shutdown() {
+        running = false;
+        wake();
+        try {
+            thread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void decodeLoop() {
+        while (running) {
+            boolean worked = false;
+            for (StreamingSource source : sources) {
+                if (source.isClosed()) {
+                    // 先释放解码器再解除关联，解除后音源可能立即被 SourcePool 重新绑定
+                    sources.remove(source);
+                    source.closeDecoder();
+                    source.setOwner(null);
+                    continue;
+                }
+                try {
+                    worked |= source.fill();
+                } catch (IOException e) {
+                    sources.remove(source);
+                    source.close();
+                    source.closeDecoder();
+                    source.setOwner(null);
+                    if (errorListener != null) {
+                        errorListener.onDecodeError(source, e);
+                    }
+                }
+            }
+            if (!worked) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+        }
+
+        for (StreamingSource source : sources) {
+            source.closeDecoder();
+            source.setOwner(null);
+        }
+        sources.clear();
+    }
+}
@@ -0,0 +1,358 @@
+/**
+ * StreamingSource.java
+ * 《静界》边解码边播放的音源
+ *
+ * 解码线程把 PCM 预先填入固定大小的环形缓冲区，渲染线程只从缓冲区取数据。
+ * 每条音轨的内存占用由缓冲区容量决定，与音频文件长度无关。
+ *
+ * 挂起期间渲染线程不再读取，缓冲区填满后解码线程也随之停止。
+ * 恢复时 advance() 先从缓冲区中丢弃，不够时请求解码线程解码并丢弃其余部分：
+ * 循环一周后已知周期长度，丢弃量按周期取模，最多解码一周多；
+ * 解码线程完成之前输出静音，等待的帧数同样计入跳过，恢复后的位置仍然按采样精确。
+ *
+ * 移除音轨后，解码线程释放解码器并解除关联，音源可由 SourcePool 重新绑定到同格式的另一条流，
+ * 复用环形缓冲区与解码缓冲区。
+ */
+
+package com.ambianceapp.audio;
+
+import java.io.IOException;
+
+public class StreamingSource implements SuspendableSource {
+
+    public static final int DEFAULT_BUFFER_FRAMES = 16384;   // 44.1kHz 下约 370ms
+
+    private static final int DECODE_CHUNK_FRAMES = 1024;
+
+    private ByteSource byteSource;
+    private boolean looping;
+    private final PcmRingBuffer ring;
+    private final int sampleRate;
+    private final int channelCount;
+    private final int bufferFrames;
+
+    // ---- 仅解码线程访问 ----
+    private VorbisDecoder decoder;
+    private final float[] decodeBuffer;
+    private int acknowledgedReset = 0;
+    private int acknowledgedSkip = 0;
+    private long decodedSinceOpen = 0;
+    private long loopFrames = 0;                 // 一周的帧数，0 表示尚未循环过
+
+    // ---- 跨线程 ----
+    private volatile int requestedReset = 0;     // 渲染线程递增
+    private volatile int completedReset = 0;     // 解码线程确认
+    private volatile long resetWritePosition = 0;
+    private volatile boolean endOfStream = false;
+    private volatile boolean closed = false;
+    private volatile StreamingDecoderThread owner;
+    private volatile int requestedSkip = 0;      // 渲染线程递增，之前写入 skipReadPosition 与 skipFrames
+    private volatile int completedSkip = 0;      // 解码线程确认，之前写入 skipTargetPosition
+    private volatile long skipReadPosition = 0;
+    private volatile long skipFrames = 0;
+    private volatile long skipTargetPosition = 0;
+
+    // ---- 仅渲染线程访问 ----
+    private int observedReset = 0;
+    private long underrunCount = 0;
+    private long pendingAdvance = 0;
+    private boolean skipInFlight = false;
+
+    public StreamingSource(ByteSource byteSource, boolean looping) throws IOException {
+        this(byteSource, looping, DEFAULT_BUFFER_FRAMES);
+    }
+
+    public StreamingSource(ByteSource byteSource, boolean looping, int bufferFrames) throws IOException {
+        this(byteSource, new VorbisDecoder(byteSource.open(), byteSource.getName()), looping, bufferFrames);
+    }
+
+    /**
+     * @param decoder 已读取头部的解码器，由音源接管
+     */
+    StreamingSource(ByteSource byteSource, VorbisDecoder decoder, boolean looping, int bufferFrames) {
+        this.byteSource = byteSource;
+        this.looping = looping;
+        this.decoder = decoder;
+        this.sampleRate = decoder.getSampleRate();
+        this.channelCount = decoder.getChannelCount();
+        this.bufferFrames = bufferFrames;
+        this.ring = new PcmRingBuffer(channelCount, bufferFrames);
+        this.decodeBuffer = new float[DECODE_CHUNK_FRAMES * channelCount];
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * 构造时请求的缓冲区帧数
+     */
+    public int getBufferFrames() {
+        return bufferFrames;
+    }
+
+    @Override
+    public int getChannelCount() {
+        return channelCount;
+    }
+
+    // ==================== 渲染线程 ====================
+
+    @Override
+    public int read(float[] buffer, int offset, int frames) {
+        int reset = requestedReset;
+        if (observedReset != reset) {
+            if (completedReset != reset) {
+                // 解码线程尚未回到起点，期间输出静音
+                fillSilence(buffer, offset, frames);
+                wakeDecoder();
+                return frames;
+            }
+            ring.skipTo(resetWritePosition);
+            observedReset = reset;
+        }
+
+        if (skipInFlight) {
+            if (completedSkip != requestedSkip) {
+                pendingAdvance += frames;
+                fillSilence(buffer, offset, frames);
+                wakeDecoder();
+                return frames;
+            }
+            ring.skipTo(skipTargetPosition);
+            skipInFlight = false;
+        }
+        if (pendingAdvance > 0) {
+            if (pendingAdvance <= ring.availableToRead()) {
+                ring.skipTo(ring.getReadPosition() + pendingAdvance);
+                pendingAdvance = 0;
+            } else {
+                skipReadPosition = ring.getReadPosition();
+                skipFrames = pendingAdvance;
+                skipInFlight = true;
+                requestedSkip = requestedSkip + 1;
+                pendingAdvance = frames;
+                fillSilence(buffer, offset, frames);
+                wakeDecoder();
+                return frames;
+            }
+        }
+
+        int read = ring.read(buffer, offset, frames);
+        if (ring.availableToWrite() >= ring.getCapacity() / 2) {
+            wakeDecoder();
+        }
+        if (read == frames) {
+            return frames;
+        }
+
+        if (endOfStream && ring.availableToRead() == 0) {
+            return read;
+        }
+        // 解码跟不上，用静音补齐
+        underrunCount++;
+        fillSilence(buffer, offset + read * channelCount, frames - read);
+        return frames;
+    }
+
+    @Override
+    public void reset() {
+        // 回到起点后之前的跳过不再有意义，解码线程处理重置时一并丢弃未完成的请求
+        pendingAdvance = 0;
+        skipInFlight = false;
+        requestedReset = requestedReset + 1;
+        wakeDecoder();
+    }
+
+    @Override
+    public void advance(long frames) {
+        if (frames > 0) {
+            pendingAdvance += frames;
+        }
+    }
+
+    /**
+     * 缓冲区欠载次数 (渲染线程写入)
+     */
+    public long getUnderrunCount() {
+        return underrunCount;
+    }
+
+    /**
+     * 缓冲区中已解码、尚未读取的帧数 (渲染线程)
+     */
+    int getBufferedFrames() {
+        return ring.availableToRead();
+    }
+
+    // ==================== 解码线程 ====================
+
+    /**
+     * 尽可能填满环形缓冲区
+     * @return 是否写入了新数据
+     */
+    boolean fill() throws IOException {
+
+        int reset = requestedReset;
+        if (acknowledgedReset != reset) {
+            reopen();
+            endOfStream = false;
+            acknowledgedReset = reset;
+            resetWritePosition = ring.getWritePosition();
+            acknowledgedSkip = requestedSkip;
+            completedReset = reset;
+        }
+
+        int skip = requestedSkip;
+        if (acknowledgedSkip != skip) {
+            // 请求之后写入缓冲区的数据也在跳过范围内
+            long buffered = ring.getWritePosition() - skipReadPosition;
+            long remaining = skipFrames - buffered;
+            if (remaining > 0) {
+                discard(remaining);
+                skipTargetPosition = ring.getWritePosition();
+            } else {
+                skipTargetPosition = skipReadPosition + skipFrames;
+            }
+            acknowledgedSkip = skip;
+            completedSkip = skip;
+        }
+
+        boolean wrote = false;
+        while (!endOfStream && ring.availableToWrite() >= DECODE_CHUNK_FRAMES) {
+            int frames = decoder.read(decodeBuffer, 0, DECODE_CHUNK_FRAMES);
+            if (frames < 0) {
+                if (looping) {
+                    loopFrames = decodedSinceOpen;
+                    reopen();
+                    continue;
+                }
+                endOfStream = true;
+                break;
+            }
+            decodedSinceOpen += frames;
+            ring.write(decodeBuffer, 0, frames);
+            wrote = true;
+        }
+        return wrote;
+    }
+
+    void setOwner(StreamingDecoderThread owner) {
+        this.owner = owner;
+    }
+
+    /**
+     * 标记为关闭，解码线程随后移除并释放解码器
+     */
+    void close() {
+        closed = true;
+        wakeDecoder();
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * 是否仍注册在解码线程上 (关闭后由解码线程释放解码器再解除)
+     */
+    boolean isAttached() {
+        return owner != null;
+    }
+
+    /**
+     * 重新绑定到另一条同格式的流，从起点开始播放。
+     * 只能在音源已从混音器移除、且已不再注册在解码线程上时调用 (SourcePool)。
+     * @param decoder 已读取头部的解码器，采样率与声道数必须与本音源相同
+     */
+    void rebind(ByteSource byteSource, VorbisDecoder decoder, boolean looping) throws IOException {
+        if (decoder.getChannelCount() != channelCount || decoder.getSampleRate() != sampleRate) {
+            throw new IOException("Stream format differs from pooled source: " + byteSource.getName());
+        }
+        closeDecoder();
+        this.byteSource = byteSource;
+        this.looping = looping;
+        this.decoder = decoder;
+        ring.skipTo(ring.getWritePosition());
+
+        // 丢弃未完成的重置与跳过请求
+        int reset = requestedReset;
+        acknowledgedReset = reset;
+        completedReset = reset;
+        observedReset = reset;
+        int skip = requestedSkip;
+        acknowledgedSkip = skip;
+        completedSkip = skip;
+        pendingAdvance = 0;
+        skipInFlight = false;
+        decodedSinceOpen = 0;
+        loopFrames = 0;
+        underrunCount = 0;
+        endOfStream = false;
+        closed = false;
+    }
+
+    /**
+     * 释放解码器，只能在解码线程或解码线程已停止后调用
+     */
+    void closeDecoder() {
+        if (decoder != null) {
+            try {
+                decoder.close();
+            } catch (IOException ignored) {
+                // 只读流，关闭失败不影响后续解码
+            }
+            decoder = null;
+        }
+    }
+
+    // ==================== 私有方法 ====================
+
+    /**
+     * 解码并丢弃 frames 帧 (解码线程)，已知周期长度时先取模
+     */
+    private void discard(long frames) throws IOException {
+        long remaining = loopFrames > 0 ? frames % loopFrames : frames;
+        while (remaining > 0 && !endOfStream) {
+            int read = decoder.read(decodeBuffer, 0, (int) Math.min(DECODE_CHUNK_FRAMES, remaining));
+            if (read < 0) {
+                if (!looping) {
+                    endOfStream = true;
+                    break;
+                }
+                if (decodedSinceOpen == 0) {
+                    break;
+                }
+                loopFrames = decodedSinceOpen;
+                reopen();
+                remaining %= loopFrames;
+                continue;
+            }
+            decodedSinceOpen += read;
+            remaining -= read;
+        }
+    }
+
+    private void reopen() throws IOException {
+        decodedSinceOpen = 0;
+        closeDecoder();
+        decoder = new VorbisDecoder(byteSource.open(), byteSource.getName());
+        if (decoder.getChannelCount() != channelCount || decoder.getSampleRate() != sampleRate) {
+            throw new IOException("Stream format changed: " + byteSource.getName());
+        }
+    }
+
+    private void wakeDecoder() {
+        StreamingDecoderThread thread = owner;
+        if (thread != null) {
+            thread.wake();
+        }
+    }
+
+    private void fillSilence(float[] buffer, int offset, int frames) {
+        int end = offset + frames * channelCount;
+        for (int i = offset; i < end; i++) {
+            buffer[i] = 0.0f;
+        }
+    }
+}
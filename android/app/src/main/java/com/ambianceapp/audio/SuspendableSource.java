@@ -0,0 +1,19 @@
+/**
+ * SuspendableSource.java
+ * 《静界》可挂起的音源
+ *
+ * 有效增益持续为零的音轨由混音器挂起：不再读取音源，只累计虚拟的播放位置；
+ * 增益回升时调用 advance() 把音源推进到连续读取时应在的位置，再从下一帧开始读取。
+ */
+
+package com.ambianceapp.audio;
+
+public interface SuspendableSource extends AudioSource {
+
+    /**
+     * 前进 frames 帧而不输出 (渲染线程)。
+     * 有周期的音源 (PCM 循环、流式循环) 之后的输出与 read() 读取同样帧数后相同；
+     * 无周期的合成噪音只需在统计上相同。
+     */
+    void advance(long frames);
+}
@@ -0,0 +1,127 @@
+/**
+ * TrackBatchLoader.java
+ * 《静界》批量并行加载音轨
+ *
+ * 所有音轨同时提交到有界线程池，全部完成后一次性回调，
+ * 总耗时取决于最慢的一条音轨而不是所有音轨之和。
+ */
+
+package com.ambianceapp.audio;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public final class TrackBatchLoader {
+
+    /**
+     * 加载单条音轨，在线程池中调用
+     */
+    public interface TrackFactory {
+        void load(String trackId, String audioFile) throws Exception;
+    }
+
+    /**
+     * 全部音轨完成后的回调，在最后完成的线程池线程上调用
+     */
+    public interface Callback {
+        void onComplete(List<Result> results);
+    }
+
+    public static final class Request {
+        public final String trackId;
+        public final String audioFile;
+
+        public Request(String trackId, String audioFile) {
+            this.trackId = trackId;
+            this.audioFile = audioFile;
+        }
+    }
+
+    public static final class Result {
+        public final String trackId;
+        public final String audioFile;
+        public final boolean success;
+        public final Exception error;
+        public final long loadNanos;
+
+        Result(Request request, Exception error, long loadNanos) {
+            this.trackId = request.trackId;
+            this.audioFile = request.audioFile;
+            this.success = error == null;
+            this.error = error;
+            this.loadNanos = loadNanos;
+        }
+    }
+
+    private final ExecutorService executor;
+
+    public TrackBatchLoader(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * 异步加载，结果顺序与请求顺序一致
+     */
+    public void loadAll(List<Request> requests, TrackFactory factory, Callback callback) {
+        final int count = requests.size();
+        if (count == 0) {
+            callback.onComplete(Collections.<Result>emptyList());
+            return;
+        }
+
+        final Result[] results = new Result[count];
+        final AtomicInteger remaining = new AtomicInteger(count);
+
+        for (int i = 0; i < count; i++) {
+            final int index = i;
+            final Request request = requests.get(i);
+            Runnable task = () -> {
+                long start = System.nanoTime();
+                Exception error = null;
+                try {
+                    factory.load(request.trackId, request.audioFile);
+                } catch (Exception e) {
+                    error = e;
+                }
+                results[index] = new Result(request, error, System.nanoTime() - start);
+                if (remaining.decrementAndGet() == 0) {
+                    callback.onComplete(toList(results));
+                }
+            };
+
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                results[index] = new Result(request, e, 0);
+                if (remaining.decrementAndGet() == 0) {
+                    callback.onComplete(toList(results));
+                }
+            }
+        }
+    }
+
+    /**
+     * 同步加载，阻塞直到全部完成
+     */
+    public List<Result> loadAllBlocking(List<Request> requests, TrackFactory factory) throws InterruptedException {
+        final CountDownLatch done = new CountDownLatch(1);
+        final List<Result> collected = new ArrayList<>();
+        loadAll(requests, factory, results -> {
+            collected.addAll(results);
+            done.countDown();
+        });
+        done.await();
+        return collected;
+    }
+
+    private static List<Result> toList(Result[] results) {
+        List<Result> list = new ArrayList<>(results.length);
+        Collections.addAll(list, results);
+        return list;
+    }
+}
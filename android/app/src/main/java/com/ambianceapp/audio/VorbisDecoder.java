@@ -0,0 +1,237 @@
+/**
+ * VorbisDecoder.java
+ * 《静界》Ogg Vorbis 增量解码器
+ *
+ * 基于 JOrbis 的纯 Java 实现，按需从输入流读取页面，
+ * 每次只解码调用方请求的帧数，内存占用与文件长度无关。
+ */
+
+package com.ambianceapp.audio;
+
+import com.jcraft.jogg.Packet;
+import com.jcraft.jogg.Page;
+import com.jcraft.jogg.StreamState;
+import com.jcraft.jogg.SyncState;
+import com.jcraft.jorbis.Block;
+import com.jcraft.jorbis.Comment;
+import com.jcraft.jorbis.DspState;
+import com.jcraft.jorbis.Info;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+public class VorbisDecoder implements Closeable {
+
+    private static final int READ_CHUNK = 4096;
+
+    private final InputStream input;
+    private final String name;
+
+    private final SyncState syncState = new SyncState();
+    private final StreamState streamState = new StreamState();
+    private final Page page = new Page();
+    private final Packet packet = new Packet();
+    private final Info info = new Info();
+    private final Comment comment = new Comment();
+    private final DspState dspState = new DspState();
+    private final Block block = new Block(dspState);
+
+    private final float[][][] pcmHolder = new float[1][][];
+    private final int[] pcmIndex;
+
+    private boolean lastPage = false;
+    private boolean finished = false;
+
+    /**
+     * 读取并解析三个 Vorbis 头部包
+     */
+    public VorbisDecoder(InputStream input, String name) throws IOException {
+        this.input = input;
+        this.name = name;
+
+        syncState.init();
+        info.init();
+        comment.init();
+        try {
+            readHeaders();
+            if (info.channels < 1 || info.channels > AudioMixer.OUTPUT_CHANNELS) {
+                throw new IOException("Unsupported channel count " + info.channels + " in " + name);
+            }
+            pcmIndex = new int[info.channels];
+            dspState.synthesis_init(info);
+            block.init(dspState);
+        } catch (IOException | RuntimeException e) {
+            // 构造失败时调用方拿不到解码器，输入流由这里关闭
+            try {
+                input.close();
+            } catch (IOException closeError) {
+                e.addSuppressed(closeError);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 完整解码为 16 位 PCM
+     * @param maxFrames 帧数上限
+     * @return 解码结果，超过上限时返回 null
+     */
+    public static PcmData decodeAll(ByteSource source, int maxFrames) throws IOException {
+        try (VorbisDecoder decoder = new VorbisDecoder(source.open(), source.getName())) {
+            int channels = decoder.getChannelCount();
+            float[] chunk = new float[READ_CHUNK * channels];
+            short[] samples = new short[Math.min(maxFrames, decoder.getSampleRate()) * channels];
+            int frameCount = 0;
+
+            int frames;
+            while ((frames = decoder.read(chunk, 0, READ_CHUNK)) >= 0) {
+                if (frameCount + frames > maxFrames) {
+                    return null;
+                }
+                int needed = (frameCount + frames) * channels;
+                if (needed > samples.length) {
+                    samples = Arrays.copyOf(samples, Math.min(Math.max(samples.length * 2, needed), maxFrames * channels));
+                }
+                PcmConverter.floatToPcm16(chunk, 0, samples, frameCount * channels, frames * channels);
+                frameCount += frames;
+            }
+            return new PcmData(decoder.getSampleRate(), channels, Arrays.copyOf(samples, frameCount * channels));
+        }
+    }
+
+    public int getSampleRate() {
+        return info.rate;
+    }
+
+    public int getChannelCount() {
+        return info.channels;
+    }
+
+    /**
+     * 解码最多 frames 帧到交错 float 缓冲区
+     * @return 写入的帧数，流结束时返回 -1
+     */
+    public int read(float[] buffer, int offset, int frames) throws IOException {
+        final int channels = info.channels;
+        int written = 0;
+
+        while (written < frames) {
+            int available = dspState.synthesis_pcmout(pcmHolder, pcmIndex);
+            if (available > 0) {
+                int count = Math.min(available, frames - written);
+                float[][] pcm = pcmHolder[0];
+                for (int ch = 0; ch < channels; ch++) {
+                    float[] channel = pcm[ch];
+                    int src = pcmIndex[ch];
+                    int dst = offset + written * channels + ch;
+                    for (int i = 0; i < count; i++) {
+                        buffer[dst + i * channels] = channel[src + i];
+                    }
+                }
+                dspState.synthesis_read(count);
+                written += count;
+            } else if (!decodeNextPacket()) {
+                break;
+            }
+        }
+
+        if (written == 0 && finished) {
+            return -1;
+        }
+        return written;
+    }
+
+    @Override
+    public void close() throws IOException {
+        block.clear();
+        dspState.clear();
+        streamState.clear();
+        info.clear();
+        syncState.clear();
+        input.close();
+    }
+
+    // ==================== 私有方法 ====================
+
+    private void readHeaders() throws IOException {
+        if (!nextPage()) {
+            throw new IOException("Not an Ogg stream: " + name);
+        }
+        streamState.init(page.serialno());
+        if (streamState.pagein(page) < 0
+            || streamState.packetout(packet) != 1
+            || info.synthesis_headerin(comment, packet) < 0) {
+            throw new IOException("Not a Vorbis stream: " + name);
+        }
+
+        // 注释头和码本头可能跨越多个页面
+        int headers = 1;
+        while (headers < 3) {
+            int result = streamState.packetout(packet);
+            if (result == 1) {
+                if (info.synthesis_headerin(comment, packet) < 0) {
+                    throw new IOException("Corrupt Vorbis header in " + name);
+                }
+                headers++;
+            } else if (result < 0) {
+                throw new IOException("Corrupt Vorbis header in " + name);
+            } else if (!nextPage()) {
+                throw new IOException("Truncated Vorbis header in " + name);
+            } else {
+                streamState.pagein(page);
+            }
+        }
+    }
+
+    /**
+     * 把下一个音频包送入合成器
+     * @return 流已结束时返回 false
+     */
+    private boolean decodeNextPacket() throws IOException {
+        while (!finished) {
+            int result = streamState.packetout(packet);
+            if (result == 1) {
+                if (block.synthesis(packet) == 0) {
+                    dspState.synthesis_blockin(block);
+                }
+                return true;
+            }
+            if (result < 0) {
+                // 数据缺失，跳过该包
+                continue;
+            }
+            if (lastPage || !nextPage()) {
+                finished = true;
+                break;
+            }
+            streamState.pagein(page);
+            if (page.eos() != 0) {
+                lastPage = true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 从输入流同步出下一个完整页面
+     */
+    private boolean nextPage() throws IOException {
+        while (true) {
+            int result = syncState.pageout(page);
+            if (result == 1) {
+                return true;
+            }
+            if (result == 0) {
+                int index = syncState.buffer(READ_CHUNK);
+                int bytes = input.read(syncState.data, index, READ_CHUNK);
+                if (bytes <= 0) {
+                    return false;
+                }
+                syncState.wrote(bytes);
+            }
+            // result < 0: 失去同步，继续寻找下一个页面
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/**
+ * WavWriter.java
+ * 《静界》流式 16 位 PCM WAV 写入
+ *
+ * 先写入长度为 0 的 44 字节文件头，采样转换后进入固定大小的写缓冲区，满了才交给 FileChannel，
+ * 内存占用与文件长度无关。close() 时回填 RIFF 与 data 块的长度，未正常关闭的文件头长度为 0。
+ */
+
+package com.ambianceapp.audio;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+public final class WavWriter implements Closeable {
+
+    public static final int HEADER_SIZE = 44;
+    public static final int DEFAULT_BUFFER_BYTES = 256 * 1024;
+
+    private static final int BYTES_PER_SAMPLE = 2;
+    // RIFF 长度字段是 u32，data 块不能超过 4GB 减去文件头
+    private static final long MAX_DATA_BYTES = 0xFFFFFFFFL - (HEADER_SIZE - 8);
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final int sampleRate;
+    private final int channelCount;
+    private final byte[] bytes;
+    private final ByteBuffer buffer;
+    private int buffered;
+    private long dataBytes;
+    private boolean closed;
+
+    public WavWriter(File file, int sampleRate, int channelCount) throws IOException {
+        this(file, sampleRate, channelCount, DEFAULT_BUFFER_BYTES);
+    }
+
+    /**
+     * @param bufferBytes 写缓冲区大小，按帧对齐向下取整
+     */
+    public WavWriter(File file, int sampleRate, int channelCount, int bufferBytes) throws IOException {
+        int frameBytes = channelCount * BYTES_PER_SAMPLE;
+        if (bufferBytes < frameBytes) {
+            throw new IllegalArgumentException("Buffer smaller than one frame: " + bufferBytes);
+        }
+        this.sampleRate = sampleRate;
+        this.channelCount = channelCount;
+        this.bytes = new byte[bufferBytes - bufferBytes % frameBytes];
+        this.buffer = ByteBuffer.wrap(bytes);
+        this.file = new RandomAccessFile(file, "rw");
+        this.channel = this.file.getChannel();
+        try {
+            this.file.setLength(0);
+            writeFully(header(0), 0);
+        } catch (IOException e) {
+            this.file.close();
+            throw e;
+        }
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    public int getChannelCount() {
+        return channelCount;
+    }
+
+    public long getFramesWritten() {
+        return (dataBytes + buffered) / ((long) channelCount * BYTES_PER_SAMPLE);
+    }
+
+    /**
+     * 写入交错 float 采样，超出 [-1, 1] 的值被削波
+     */
+    public void write(float[] samples, int frames) throws IOException {
+        if (closed) {
+            throw new IOException("WAV writer closed");
+        }
+        int count = frames * channelCount;
+        if (dataBytes + buffered + (long) count * BYTES_PER_SAMPLE > MAX_DATA_BYTES) {
+            throw new IOException("WAV data exceeds 4GB");
+        }
+        int offset = 0;
+        while (offset < count) {
+            int chunk = Math.min(count - offset, (bytes.length - buffered) / BYTES_PER_SAMPLE);
+            PcmConverter.floatToPcm16Le(samples, offset, bytes, buffered, chunk);
+            buffered += chunk * BYTES_PER_SAMPLE;
+            offset += chunk;
+            if (buffered == bytes.length) {
+                flushBuffer();
+            }
+        }
+    }
+
+    /**
+     * 写出缓冲区，回填文件头长度并关闭文件
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            flushBuffer();
+            writeFully(header(dataBytes), 0);
+        } finally {
+            file.close();
+        }
+    }
+
+    // ==================== 私有方法 ====================
+
+    private void flushBuffer() throws IOException {
+        if (buffered == 0) {
+            return;
+        }
+        buffer.clear();
+        buffer.limit(buffered);
+        writeFully(buffer, HEADER_SIZE + dataBytes);
+        dataBytes += buffered;
+        buffered = 0;
+    }
+
+    private ByteBuffer header(long dataLength) {
+        int blockAlign = channelCount * BYTES_PER_SAMPLE;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(0x46464952);                               // "RIFF"
+        header.putInt((int) (HEADER_SIZE - 8 + dataLength));
+        header.putInt(0x45564157);                               // "WAVE"
+        header.putInt(0x20746D66);                               // "fmt "
+        header.putInt(16);
+        header.putShort((short) 1);                              // PCM
+        header.putShort((short) channelCount);
+        header.putInt(sampleRate);
+        header.putInt(sampleRate * blockAlign);
+        header.putShort((short) blockAlign);
+        header.putShort((short) (BYTES_PER_SAMPLE * 8));
+        header.putInt(0x61746164);                               // "data"
+        header.putInt((int) dataLength);
+        header.flip();
+        return header;
+    }
+
+    private void writeFully(ByteBuffer source, long position) throws IOException {
+        while (source.hasRemaining()) {
+            position += channel.write(source, position);
+        }
+    }
+}
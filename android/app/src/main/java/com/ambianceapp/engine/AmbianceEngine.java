@@ -0,0 +1,1283 @@
+/**
+ * AmbianceEngine.java
+ * 《静界》音频引擎的命令层
+ *
+ * AmbianceAudioEngineModule 的全部命令逻辑，不依赖 Android 与 React Native：
+ * 资源、时钟、主线程调度、事件发送与音频输出都由构造参数注入，
+ * 模块只负责桥接参数与结果的转换，桌面 JVM 上可以用 HeadlessEngine 直接驱动。
+ * 结果与事件数据使用 Map、List、String、Boolean 与数字，由模块转换为 WritableMap。
+ */
+
+package com.ambianceapp.engine;
+
+import com.ambianceapp.audio.AudioClock;
+import com.ambianceapp.audio.AudioEngine;
+import com.ambianceapp.audio.AudioMixer;
+import com.ambianceapp.audio.AudioSink;
+import com.ambianceapp.audio.AudioSource;
+import com.ambianceapp.audio.BufferSizeController;
+import com.ambianceapp.audio.ByteSource;
+import com.ambianceapp.audio.GainRamp;
+import com.ambianceapp.audio.LookaheadLimiter;
+import com.ambianceapp.audio.MixerTrack;
+import com.ambianceapp.audio.NoiseSource;
+import com.ambianceapp.audio.OfflineRenderer;
+import com.ambianceapp.audio.PcmCache;
+import com.ambianceapp.audio.PcmData;
+import com.ambianceapp.audio.PcmLoopSource;
+import com.ambianceapp.audio.RenderStats;
+import com.ambianceapp.audio.SceneChange;
+import com.ambianceapp.audio.SincResampler;
+import com.ambianceapp.audio.SourcePool;
+import com.ambianceapp.audio.StreamingDecoderThread;
+import com.ambianceapp.audio.StreamingSource;
+import com.ambianceapp.audio.TrackBatchLoader;
+import com.ambianceapp.audio.VorbisDecoder;
+import com.ambianceapp.events.EventCoalescer;
+import com.ambianceapp.scene.Scene;
+import com.ambianceapp.scene.SceneStore;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AmbianceEngine {
+
+    /**
+     * 命令结果，与 React Native 的 Promise 对应，只会调用一次
+     */
+    public interface Promise {
+        void resolve(Object value);
+
+        void reject(String code, String message, Throwable error);
+    }
+
+    /**
+     * 场景日志首次打开时的回调 (设备上迁移旧版本的场景数据)
+     */
+    public interface SceneStoreListener {
+        void onOpened(SceneStore store);
+    }
+
+    // 与 DEFAULT_AUDIO_CONFIG 保持一致
+    public static final int SAMPLE_RATE = 44100;
+    public static final int BUFFER_SIZE = 1024;
+
+    // 实时输出的缓冲区大小：从 256 帧 (约 6ms) 开始，2 秒内欠载两次增大 256 帧，
+    // 连续 30 秒无欠载减小 256 帧，最大 2048 帧；离线渲染固定使用 BUFFER_SIZE
+    public static final int MIN_OUTPUT_BUFFER_SIZE = 256;
+    public static final int MAX_OUTPUT_BUFFER_SIZE = 2048;
+    private static final int OUTPUT_BUFFER_STEP = 256;
+    private static final int OUTPUT_UNDERRUN_THRESHOLD = 2;
+    private static final long OUTPUT_UNDERRUN_WINDOW_FRAMES = SAMPLE_RATE * 2L;
+    private static final long OUTPUT_STABLE_FRAMES = SAMPLE_RATE * 30L;
+
+    // 解码后 PCM 缓存：短循环完整解码并跨场景复用，长音频仍然流式解码
+    // 构建期 convertPcmAssets 按相同的采样率与帧数上限生成 .pcm 资源
+    public static final long PCM_CACHE_BUDGET_BYTES = 48L * 1024 * 1024;
+    private static final int MAX_CACHED_FRAMES = SAMPLE_RATE * 60;
+
+    // 有效增益 (含淡出、定时器淡出) 连续 3 秒为零的音轨挂起，不再解码与混音
+    private static final long SILENT_TRACK_GRACE_FRAMES = SAMPLE_RATE * 3L;
+
+    // 音源池：同时在用的音源上限 (含淡出中的音轨)；移除的流式音源按格式保留，重新添加时复用缓冲区
+    public static final int MAX_LIVE_SOURCES = 64;
+    private static final int MAX_IDLE_SOURCES_PER_FORMAT = 4;
+
+    // 移除音轨：轮询渲染线程是否已完成淡出并停止读取音源
+    private static final long RETIRE_POLL_MS = 5;
+
+    // 循环接缝的等功率交叉淡化长度 (250ms)
+    private static final int LOOP_CROSSFADE_FRAMES = SAMPLE_RATE / 4;
+
+    // 其他采样率的素材加载时转换后缓存
+    private static final SincResampler.Quality LOAD_RESAMPLER_QUALITY = SincResampler.Quality.HIGH;
+
+    // 场景存储：只追加的二进制日志
+    private static final String SCENE_LOG_FILE = "scenes.log";
+
+    // 场景切换：只有最近一次请求生效；未指定交叉淡化时长时只做去咔嗒过渡 (10ms)
+    private static final int SCENE_RAMP_FRAMES = SAMPLE_RATE / 100;
+    private static final double MAX_SCENE_CROSSFADE_MS = 30_000;
+
+    // 场景导出：离线渲染为 WAV，存放在文件目录下；空闲核足够时分段并行渲染。
+    // ParallelOfflineRenderBenchmark 实测分段渲染的总工作量约为顺序渲染的 1.5 倍 (17.1 秒对 11.3 秒)，
+    // 至少 4 个工作线程才能比顺序渲染快一倍；调用线程上的游标推进 (约 3.7 秒) 是串行下限，
+    // 超过 5 个工作线程不再缩短耗时。工作线程不占用调用线程所在的核，播放时再给渲染线程留一个核。
+    private static final String EXPORT_DIR = "exports";
+    private static final double MAX_EXPORT_MINUTES = 240;
+    private static final int PARALLEL_EXPORT_MIN_WORKERS = 4;
+    private static final int PARALLEL_EXPORT_MAX_WORKERS = 5;
+
+    // 事件：约一帧 (16ms) 内的事件合并为一批，作为一个数组发送给 JS
+    private static final long EVENT_WINDOW_NANOS = 16_000_000L;
+    public static final String EVENT_BATCH = "onEventBatch";
+
+    // 电平表：开启后以约 30Hz 读取快照，作为 MERGE 事件发送
+    private static final int METER_EVENTS_PER_SECOND = 30;
+    private static final long METER_INTERVAL_MS = 1000 / METER_EVENTS_PER_SECOND;
+
+    // 线程池 (有界，音轨加载并行度)
+    public static final int LOADER_THREADS = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+    private final AssetProvider assets;
+    private final Scheduler scheduler;
+    private final EventEmitter emitter;
+    private final AudioClock clock;
+    private final File filesDir;
+    private final PcmCache pcmCache;
+    private volatile EngineLog log = EngineLog.NONE;
+    private SceneStoreListener sceneStoreListener;
+
+    // 音频管理
+    private final AudioMixer mixer;
+    private final AudioEngine engine;
+    private final StreamingDecoderThread decoderThread;
+    private final Map<String, TrackConfig> trackConfigs = new ConcurrentHashMap<>();
+    private final Set<TrackConfig> retiringTracks = ConcurrentHashMap.newKeySet();
+    private final SourcePool sourcePool = new SourcePool(MAX_LIVE_SOURCES, MAX_IDLE_SOURCES_PER_FORMAT);
+
+    // 状态管理
+    private boolean isInitialized = false;
+    private volatile boolean isPlaying = false;
+    private float masterVolume = 1.0f;
+
+    // 定时器
+    private Runnable timerRunnable;
+    private Runnable fadeRunnable;
+    private TimerConfig timerConfig;
+    private long timerStartNanos;
+
+    private SceneStore sceneStore;
+    private final AtomicInteger sceneGeneration = new AtomicInteger();
+
+    private final EventCoalescer<Map<String, Object>> events;
+    private final Runnable flushEventsRunnable = this::flushEvents;
+    private final Runnable meterRunnable = this::publishMeters;
+
+    private final ExecutorService executorService;
+    private final TrackBatchLoader batchLoader;
+
+    /**
+     * 音轨配置数据结构
+     */
+    private static class TrackConfig {
+        String id;
+        String name;
+        String audioFile;
+        // 仅记录桥接侧状态，混音参数本身经命令队列送达渲染线程
+        volatile float volume = 0.5f;
+        volatile float pan = 0.0f;
+        volatile boolean isPlaying = false;
+        boolean cached = false;     // 是否固定了 PCM 缓存条目
+        MixerTrack track;
+
+        TrackConfig(String id, String name, String audioFile, MixerTrack track) {
+            this.id = id;
+            this.name = name;
+            this.audioFile = audioFile;
+            this.track = track;
+        }
+    }
+
+    /**
+     * 定时器配置
+     */
+    private static class TimerConfig {
+        long duration;          // 毫秒
+        boolean fadeOut;
+        long fadeOutDuration;   // 毫秒
+
+        TimerConfig(long duration, boolean fadeOut, long fadeOutDuration) {
+            this.duration = duration;
+            this.fadeOut = fadeOut;
+            this.fadeOutDuration = fadeOutDuration;
+        }
+    }
+
+    /**
+     * @param sink 混音输出 (按 SAMPLE_RATE 打开)
+     * @param filesDir 场景日志与导出文件所在目录
+     * @param pcmCache 解码缓存，可在多个实例之间共享
+     */
+    public AmbianceEngine(AssetProvider assets, Scheduler scheduler, EventEmitter emitter, AudioSink sink,
+                          AudioClock clock, File filesDir, PcmCache pcmCache) {
+        this.assets = assets;
+        this.scheduler = scheduler;
+        this.emitter = emitter;
+        this.clock = clock;
+        this.filesDir = filesDir;
+        this.pcmCache = pcmCache;
+        this.events = new EventCoalescer<>(clock, EVENT_WINDOW_NANOS, this::emitEventBatch);
+        // 同一音轨的重复错误只保留最新一条，每秒最多两批
+        this.events.register("onError", EventCoalescer.Mode.MERGE, 2);
+        this.events.register("onMeters", EventCoalescer.Mode.MERGE, METER_EVENTS_PER_SECOND);
+        this.executorService = Executors.newFixedThreadPool(LOADER_THREADS);
+        this.batchLoader = new TrackBatchLoader(executorService);
+        this.mixer = new AudioMixer(MAX_OUTPUT_BUFFER_SIZE);
+        // 主总线限幅：多条音轨叠加超出满刻度时压到 -1 dBFS
+        this.mixer.setLimiter(new LookaheadLimiter(SAMPLE_RATE));
+        this.mixer.setSuspendGraceFrames(SILENT_TRACK_GRACE_FRAMES);
+        this.engine = new AudioEngine(mixer, sink, SAMPLE_RATE, MAX_OUTPUT_BUFFER_SIZE, clock);
+        this.engine.setBufferSizeController(new BufferSizeController(
+            MIN_OUTPUT_BUFFER_SIZE, MAX_OUTPUT_BUFFER_SIZE, OUTPUT_BUFFER_STEP,
+            OUTPUT_UNDERRUN_THRESHOLD, OUTPUT_UNDERRUN_WINDOW_FRAMES, OUTPUT_STABLE_FRAMES));
+        this.decoderThread = new StreamingDecoderThread(this::handleDecodeError);
+    }
+
+    public void setLog(EngineLog log) {
+        this.log = log;
+    }
+
+    /**
+     * 渲染线程启动时执行 (设备上提升线程优先级)
+     */
+    public void setRenderThreadInitializer(Runnable initializer) {
+        engine.setThreadInitializer(initializer);
+    }
+
+    public synchronized void setSceneStoreListener(SceneStoreListener listener) {
+        this.sceneStoreListener = listener;
+    }
+
+    public AudioMixer getMixer() {
+        return mixer;
+    }
+
+    public AudioEngine getAudioEngine() {
+        return engine;
+    }
+
+    public EventCoalescer<Map<String, Object>> getEventCoalescer() {
+        return events;
+    }
+
+    public SourcePool getSourcePool() {
+        return sourcePool;
+    }
+
+    /**
+     * 初始化音频引擎
+     */
+    public void initialize(Promise promise) {
+        try {
+            isInitialized = true;
+
+            log.d("Audio engine initialized successfully");
+            promise.resolve(true);
+
+            // 发送初始化完成事件
+            sendEvent("onInitialized", null);
+
+        } catch (Exception e) {
+            log.e("Failed to initialize audio engine", e);
+            promise.reject("INIT_FAILED", "Failed to initialize audio engine: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 添加音轨
+     * audioFile 为资源中的音频文件，或合成噪音 URI (noise://white、noise://pink、noise://brown)
+     */
+    public void addTrack(String trackId, String audioFile, Promise promise) {
+        if (!isInitialized) {
+            promise.reject("ENGINE_NOT_INITIALIZED", "Audio engine not initialized", null);
+            return;
+        }
+
+        executorService.execute(() -> {
+            try {
+                loadTrack(trackId, audioFile);
+
+                // 在主线程返回结果
+                scheduler.post(() -> {
+                    promise.resolve(true);
+
+                    // 发送音轨添加事件
+                    Map<String, Object> eventData = new HashMap<>();
+                    eventData.put("trackId", trackId);
+                    eventData.put("audioFile", audioFile);
+                    sendEvent("onTrackAdded", eventData);
+                });
+
+            } catch (IOException | IllegalArgumentException e) {
+                log.e("Failed to add track: " + trackId, e);
+                scheduler.post(() -> {
+                    promise.reject("TRACK_ADD_FAILED", "Failed to add track: " + e.getMessage(), e);
+                });
+            }
+        });
+    }
+
+    /**
+     * 移除音轨：播放中先做去咔嗒淡出，渲染线程不再读取音源后从混音器移除，音源归还音源池
+     */
+    public void removeTrack(String trackId, Promise promise) {
+        TrackConfig config = trackConfigs.remove(trackId);
+        if (config == null) {
+            promise.reject("TRACK_NOT_FOUND", "Track not found: " + trackId, null);
+            return;
+        }
+
+        try {
+            retireTrack(config, () -> {
+                log.d("Track removed: " + trackId);
+
+                // 发送音轨移除事件
+                Map<String, Object> eventData = new HashMap<>();
+                eventData.put("trackId", trackId);
+                sendEvent("onTrackRemoved", eventData);
+                promise.resolve(true);
+            });
+
+        } catch (Exception e) {
+            log.e("Failed to remove track: " + trackId, e);
+            promise.reject("TRACK_REMOVE_FAILED", "Failed to remove track: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 批量添加音轨，所有音轨并行加载，全部完成后一次性返回每条音轨的结果
+     */
+    public void addTracks(List<TrackBatchLoader.Request> requests, Promise promise) {
+        if (!isInitialized) {
+            promise.reject("ENGINE_NOT_INITIALIZED", "Audio engine not initialized", null);
+            return;
+        }
+
+        long start = clock.nanoTime();
+        batchLoader.loadAll(requests, this::loadTrack, results -> {
+            log.d("Loaded " + results.size() + " tracks in "
+                + (clock.nanoTime() - start) / 1_000_000 + "ms");
+
+            // 在主线程一次性返回结果
+            scheduler.post(() -> {
+                Map<String, Object> resultData = new HashMap<>();
+                for (TrackBatchLoader.Result result : results) {
+                    Map<String, Object> trackResult = new HashMap<>();
+                    trackResult.put("success", result.success);
+                    trackResult.put("loadTimeMs", result.loadNanos / 1_000_000.0);
+                    if (result.success) {
+                        Map<String, Object> eventData = new HashMap<>();
+                        eventData.put("trackId", result.trackId);
+                        eventData.put("audioFile", result.audioFile);
+                        sendEvent("onTrackAdded", eventData);
+                    } else {
+                        log.e("Failed to add track: " + result.trackId, result.error);
+                        trackResult.put("error", String.valueOf(result.error.getMessage()));
+                    }
+                    resultData.put(result.trackId, trackResult);
+                }
+                promise.resolve(resultData);
+            });
+        });
+    }
+
+    /**
+     * 设置音轨音量
+     */
+    public void setVolume(String trackId, float volume, Promise promise) {
+        TrackConfig config = trackConfigs.get(trackId);
+        if (config == null) {
+            promise.reject("TRACK_NOT_FOUND", "Track not found: " + trackId, null);
+            return;
+        }
+
+        try {
+            // 验证音量范围 (0.0 - 1.0)
+            float clampedVolume = Math.max(0.0f, Math.min(1.0f, volume));
+
+            // 主音量由混音器统一施加
+            config.track.setVolume(clampedVolume);
+            config.volume = clampedVolume;
+
+            log.d("Volume set for track " + trackId + ": " + clampedVolume);
+            promise.resolve(true);
+
+        } catch (Exception e) {
+            log.e("Failed to set volume for track: " + trackId, e);
+            promise.reject("VOLUME_SET_FAILED", "Failed to set volume: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 设置立体声平衡
+     */
+    public void setPanning(String trackId, float pan, Promise promise) {
+        TrackConfig config = trackConfigs.get(trackId);
+        if (config == null) {
+            promise.reject("TRACK_NOT_FOUND", "Track not found: " + trackId, null);
+            return;
+        }
+
+        try {
+            // 验证立体声平衡范围 (-1.0 到 1.0)
+            float clampedPan = Math.max(-1.0f, Math.min(1.0f, pan));
+
+            // 左右声道增益由混音器按平衡值计算
+            config.track.setPan(clampedPan);
+            config.pan = clampedPan;
+
+            log.d("Panning set for track " + trackId + ": " + clampedPan);
+            promise.resolve(true);
+
+        } catch (Exception e) {
+            log.e("Failed to set panning for track: " + trackId, e);
+            promise.reject("PANNING_SET_FAILED", "Failed to set panning: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 设置主总线限幅器
+     * @param ceilingDb 输出峰值上限 (dBFS，-20 ~ 0)
+     * @param releaseMs 增益回升时间 (10 ~ 2000ms)
+     */
+    public void setLimiter(double ceilingDb, double releaseMs, Promise promise) {
+        try {
+            double clampedDb = Math.max(-20.0, Math.min(0.0, ceilingDb));
+            float ceiling = (float) Math.pow(10.0, clampedDb / 20.0);
+            float release = (float) Math.max(10.0, Math.min(2000.0, releaseMs));
+            mixer.configureLimiter(ceiling, release);
+
+            log.d("Limiter set: ceiling " + clampedDb + " dB, release " + release + " ms");
+            promise.resolve(true);
+
+        } catch (Exception e) {
+            log.e("Failed to set limiter", e);
+            promise.reject("LIMITER_SET_FAILED", "Failed to set limiter: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 开启或关闭电平表，开启后约每 33ms 发送一次 onMeters 事件
+     */
+    public void setMeteringEnabled(boolean enabled, Promise promise) {
+        try {
+            scheduler.remove(meterRunnable);
+            if (enabled) {
+                mixer.enableMetering(SAMPLE_RATE);
+                scheduler.postDelayed(meterRunnable, METER_INTERVAL_MS);
+            } else {
+                mixer.disableMetering();
+            }
+
+            log.d("Metering " + (enabled ? "enabled" : "disabled"));
+            promise.resolve(true);
+
+        } catch (Exception e) {
+            log.e("Failed to set metering", e);
+            promise.reject("METERING_SET_FAILED", "Failed to set metering: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 开始播放所有音轨
+     */
+    public void play(Promise promise) {
+        if (!isInitialized) {
+            promise.reject("ENGINE_NOT_INITIALIZED", "Audio engine not initialized", null);
+            return;
+        }
+
+        try {
+            for (TrackConfig config : trackConfigs.values()) {
+                if (config.volume > 0 && !config.track.isPlaying()) {
+                    config.track.setPlaying(true);
+                    config.isPlaying = true;
+                    log.d("Started playing track: " + config.id);
+                }
+            }
+
+            engine.start();
+            isPlaying = true;
+            promise.resolve(true);
+
+            // 发送播放开始事件
+            sendEvent("onPlaybackStarted", null);
+
+        } catch (Exception e) {
+            log.e("Failed to start playback", e);
+            promise.reject("PLAYBACK_FAILED", "Failed to start playback: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 暂停播放
+     */
+    public void pause(Promise promise) {
+        try {
+            for (TrackConfig config : trackConfigs.values()) {
+                if (config.track.isPlaying()) {
+                    config.track.setPlaying(false);
+                    config.isPlaying = false;
+                }
+            }
+
+            engine.pause();
+            isPlaying = false;
+            promise.resolve(true);
+
+            // 发送暂停事件
+            sendEvent("onPlaybackPaused", null);
+
+        } catch (Exception e) {
+            log.e("Failed to pause playback", e);
+            promise.reject("PAUSE_FAILED", "Failed to pause playback: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 停止播放
+     */
+    public void stop(Promise promise) {
+        try {
+            for (TrackConfig config : trackConfigs.values()) {
+                config.track.setPlaying(false);
+                config.track.reset(); // 回到起始位置以便下次播放
+                config.isPlaying = false;
+            }
+
+            engine.pause();
+            isPlaying = false;
+
+            // 取消定时器：暂停之后再恢复主音量，到期停止时不会在淡出的末尾重新响起
+            cancelTimer();
+            promise.resolve(true);
+
+            // 发送停止事件
+            sendEvent("onPlaybackStopped", null);
+
+        } catch (Exception e) {
+            log.e("Failed to stop playback", e);
+            promise.reject("STOP_FAILED", "Failed to stop playback: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 设置定时器
+     * @param duration 时长 (分钟)
+     * @param fadeOutDuration 到期前的淡出时长 (分钟)
+     */
+    public void setTimer(double duration, boolean fadeOut, double fadeOutDuration, Promise promise) {
+        try {
+            // 取消现有定时器
+            cancelTimer();
+
+            // 创建新的定时器配置
+            timerConfig = new TimerConfig(
+                (long)(duration * 60 * 1000),           // 转换为毫秒
+                fadeOut,
+                (long)(fadeOutDuration * 60 * 1000)     // 转换为毫秒
+            );
+
+            timerStartNanos = clock.nanoTime();
+
+            // 淡出开始时向混音器下发一次主音量斜坡，之后由渲染线程逐采样执行
+            if (timerConfig.fadeOut && timerConfig.fadeOutDuration > 0) {
+                fadeRunnable = this::startTimerFade;
+                scheduler.postDelayed(fadeRunnable,
+                    Math.max(0, timerConfig.duration - timerConfig.fadeOutDuration));
+            }
+
+            // 到期停止播放
+            timerRunnable = this::handleTimerExpired;
+            scheduler.postDelayed(timerRunnable, timerConfig.duration);
+
+            log.d("Timer set for " + duration + " minutes");
+            promise.resolve(true);
+
+        } catch (Exception e) {
+            log.e("Failed to set timer", e);
+            promise.reject("TIMER_SET_FAILED", "Failed to set timer: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 获取引擎状态
+     */
+    public void getStatus(Promise promise) {
+        try {
+            int activeTracks = 0;
+            for (TrackConfig config : trackConfigs.values()) {
+                if (config.isPlaying) {
+                    activeTracks++;
+                }
+            }
+
+            Map<String, Object> status = new HashMap<>();
+            status.put("isInitialized", isInitialized);
+            status.put("isPlaying", isPlaying);
+            status.put("activeTracks", activeTracks);
+            status.put("memoryUsage", (double) pcmCache.getSizeBytes());
+
+            // 每条音轨实际解码混音与挂起的累计时长
+            Map<String, Object> tracksData = new HashMap<>();
+            for (TrackConfig config : trackConfigs.values()) {
+                Map<String, Object> trackData = new HashMap<>();
+                trackData.put("suspended", config.track.isSuspended());
+                trackData.put("activeMs", config.track.getActiveFrames() * 1000.0 / SAMPLE_RATE);
+                trackData.put("suspendedMs", config.track.getSuspendedFrames() * 1000.0 / SAMPLE_RATE);
+                tracksData.put(config.id, trackData);
+            }
+            status.put("tracks", tracksData);
+
+            Map<String, Object> poolData = new HashMap<>();
+            poolData.put("live", sourcePool.getLiveCount());
+            poolData.put("peakLive", sourcePool.getPeakLiveCount());
+            poolData.put("maxLive", sourcePool.getMaxLive());
+            poolData.put("retiring", retiringTracks.size());
+            poolData.put("idle", sourcePool.getIdleCount());
+            poolData.put("created", (double) sourcePool.getCreatedCount());
+            poolData.put("reused", (double) sourcePool.getReusedCount());
+            poolData.put("discarded", (double) sourcePool.getDiscardedCount());
+            poolData.put("rejected", (double) sourcePool.getRejectedCount());
+            status.put("sources", poolData);
+
+            Map<String, Object> cacheData = new HashMap<>();
+            cacheData.put("hits", (double) pcmCache.getHitCount());
+            cacheData.put("misses", (double) pcmCache.getMissCount());
+            cacheData.put("evictions", (double) pcmCache.getEvictionCount());
+            cacheData.put("entries", pcmCache.getEntryCount());
+            cacheData.put("bytes", (double) pcmCache.getSizeBytes());
+            cacheData.put("budgetBytes", (double) pcmCache.getBudgetBytes());
+            status.put("pcmCache", cacheData);
+
+            RenderStats stats = engine.getStats();
+            Map<String, Object> renderData = new HashMap<>();
+            renderData.put("deadlineMs", stats.getDeadlineNanos() / 1e6);
+            renderData.put("buffers", (double) stats.getBufferCount());
+            renderData.put("underruns", (double) stats.getUnderrunCount());
+            renderData.put("worstRenderMs", stats.getWorstRenderNanos() / 1e6);
+            renderData.put("averageRenderMs", stats.getAverageRenderNanos() / 1e6);
+            List<Object> histogram = new ArrayList<>();
+            for (long count : stats.getHistogram()) {
+                histogram.add((double) count);
+            }
+            renderData.put("histogram", histogram);
+            renderData.put("transitions", (double) stats.getTransitionCount());
+            renderData.put("transitionPeakRenderMs", stats.getTransitionPeakRenderNanos() / 1e6);
+            status.put("render", renderData);
+
+            BufferSizeController controller = engine.getBufferSizeController();
+            Map<String, Object> bufferData = new HashMap<>();
+            bufferData.put("frames", engine.getCurrentBufferFrames());
+            bufferData.put("latencyMs", engine.getCurrentBufferFrames() * 1000.0 / SAMPLE_RATE);
+            bufferData.put("minFrames", controller.getMinFrames());
+            bufferData.put("maxFrames", controller.getMaxFrames());
+            bufferData.put("changes", (double) controller.getChangeCount());
+            List<Object> history = new ArrayList<>();
+            for (BufferSizeController.Change change : controller.getHistory()) {
+                Map<String, Object> changeData = new HashMap<>();
+                changeData.put("atMs", change.getPositionFrames() * 1000.0 / SAMPLE_RATE);
+                changeData.put("fromFrames", change.getFromFrames());
+                changeData.put("toFrames", change.getToFrames());
+                changeData.put("underruns", change.getUnderruns());
+                history.add(changeData);
+            }
+            bufferData.put("history", history);
+            status.put("buffer", bufferData);
+
+            Map<String, Object> eventData = new HashMap<>();
+            eventData.put("posted", (double) events.getPostedCount());
+            eventData.put("delivered", (double) events.getDeliveredCount());
+            eventData.put("merged", (double) events.getMergedCount());
+            eventData.put("dropped", (double) events.getDroppedCount());
+            eventData.put("batches", (double) events.getBatchCount());
+            status.put("events", eventData);
+
+            LookaheadLimiter limiter = mixer.getLimiter();
+            if (limiter != null) {
+                Map<String, Object> limiterData = new HashMap<>();
+                limiterData.put("ceilingDb", 20.0 * Math.log10(limiter.getCeiling()));
+                limiterData.put("gainReductionDb", (double) limiter.getGainReductionDb());
+                status.put("limiter", limiterData);
+            }
+
+            promise.resolve(status);
+
+        } catch (Exception e) {
+            log.e("Failed to get engine status", e);
+            promise.reject("STATUS_FAILED", "Failed to get engine status: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 保存当前场景
+     */
+    public void saveScene(String sceneName, Promise promise) {
+        try {
+            // 生成场景ID
+            String sceneId = "scene_" + System.currentTimeMillis() + "_" +
+                           Integer.toHexString((int)(Math.random() * 0x10000));
+
+            List<Scene.Track> tracks = new ArrayList<>();
+            for (TrackConfig config : trackConfigs.values()) {
+                if (config.volume > 0) {
+                    tracks.add(new Scene.Track(config.id, config.audioFile, config.volume, config.pan));
+                }
+            }
+
+            getSceneStore().put(new Scene(sceneId, sceneName, System.currentTimeMillis(), tracks));
+
+            log.d("Scene saved: " + sceneId);
+            promise.resolve(sceneId);
+
+        } catch (Exception e) {
+            log.e("Failed to save scene", e);
+            promise.reject("SCENE_SAVE_FAILED", "Failed to save scene: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 加载场景：与当前音轨比较，只加载缺少的音轨，已加载的音轨保留解码器、只调整参数，
+     * 全部就绪后在同一个缓冲区边界上切换。
+     * @param crossfadeMs 新旧场景交叉淡化的时长，为 null 时只做去咔嗒过渡
+     */
+    public void loadScene(List<Scene.Track> sceneTracks, Double crossfadeMs, Promise promise) {
+        if (!isInitialized) {
+            promise.reject("ENGINE_NOT_INITIALIZED", "Audio engine not initialized", null);
+            return;
+        }
+        applyScene(sceneTracks, crossfadeFrames(crossfadeMs), promise);
+    }
+
+    /**
+     * 按 ID 加载已保存的场景
+     * @param crossfadeMs 可为 null
+     */
+    public void loadSceneById(String sceneId, Double crossfadeMs, Promise promise) {
+        if (!isInitialized) {
+            promise.reject("ENGINE_NOT_INITIALIZED", "Audio engine not initialized", null);
+            return;
+        }
+
+        executorService.execute(() -> {
+            try {
+                Scene scene = getSceneStore().get(sceneId);
+                if (scene == null) {
+                    promise.reject("SCENE_NOT_FOUND", "Scene not found: " + sceneId, null);
+                    return;
+                }
+                // 与当前音轨比较须在主线程上进行
+                scheduler.post(() -> applyScene(scene.getTracks(), crossfadeFrames(crossfadeMs), promise));
+            } catch (Exception e) {
+                log.e("Failed to load scene: " + sceneId, e);
+                promise.reject("SCENE_LOAD_FAILED", "Failed to load scene: " + e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * 把已保存的场景离线渲染为 WAV 文件 (16 位立体声，混音采样率)
+     * 使用独立的混音器，不影响正在播放的声音，渲染速度只受 CPU 限制
+     * @param durationMinutes 导出时长 (分钟，最长 240)
+     * @param fileName 文件名 (不含路径)，为空时使用场景 ID
+     */
+    public void exportSceneToWav(String sceneId, double durationMinutes, String fileName, Promise promise) {
+        if (!(durationMinutes > 0) || durationMinutes > MAX_EXPORT_MINUTES) {
+            promise.reject("INVALID_PARAMETER", "Duration must be between 0 and " + MAX_EXPORT_MINUTES + " minutes", null);
+            return;
+        }
+
+        executorService.execute(() -> {
+            try {
+                Scene scene = getSceneStore().get(sceneId);
+                if (scene == null) {
+                    promise.reject("SCENE_NOT_FOUND", "Scene not found: " + sceneId, null);
+                    return;
+                }
+                File directory = new File(filesDir, EXPORT_DIR);
+                if (!directory.isDirectory() && !directory.mkdirs()) {
+                    throw new IOException("Cannot create " + directory);
+                }
+                String name = fileName == null || fileName.isEmpty() ? sceneId : new File(fileName).getName();
+                File file = new File(directory, name.endsWith(".wav") ? name : name + ".wav");
+                long frames = Math.round(durationMinutes * 60 * SAMPLE_RATE);
+
+                OfflineRenderer.Result result = renderScene(scene, file, frames);
+
+                Map<String, Object> resultData = new HashMap<>();
+                resultData.put("path", file.getAbsolutePath());
+                resultData.put("frames", (double) result.getFrames());
+                resultData.put("durationMs", result.getFrames() * 1000.0 / SAMPLE_RATE);
+                resultData.put("elapsedMs", result.getElapsedNanos() / 1_000_000.0);
+                resultData.put("realtimeFactor", result.getRealtimeFactor());
+                promise.resolve(resultData);
+
+                log.d("Scene exported: " + file + String.format(" (%.0fx realtime)", result.getRealtimeFactor()));
+
+            } catch (Exception e) {
+                log.e("Failed to export scene: " + sceneId, e);
+                promise.reject("SCENE_EXPORT_FAILED", "Failed to export scene: " + e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * 清理资源
+     */
+    public void release() {
+        // 停止渲染线程并释放输出
+        try {
+            engine.release();
+        } catch (Exception e) {
+            log.e("Error releasing audio engine", e);
+        }
+        decoderThread.shutdown();
+
+        // 归还所有音源 (含淡出中的音轨)，解除缓存固定，条目保留给下一次加载复用
+        for (TrackConfig config : trackConfigs.values()) {
+            returnSource(config);
+        }
+        trackConfigs.clear();
+        for (TrackConfig config : retiringTracks) {
+            if (retiringTracks.remove(config)) {
+                returnSource(config);
+            }
+        }
+        sourcePool.clear();
+        int leaked = sourcePool.getLiveCount();
+        if (leaked > 0) {
+            log.w("Source pool: " + leaked + " sources never returned", null);
+        }
+
+        // 取消定时器
+        cancelTimer();
+        scheduler.remove(flushEventsRunnable);
+        scheduler.remove(meterRunnable);
+
+        // 关闭线程池
+        executorService.shutdown();
+
+        synchronized (this) {
+            if (sceneStore != null) {
+                try {
+                    sceneStore.close();
+                } catch (IOException e) {
+                    log.e("Error closing scene store", e);
+                }
+                sceneStore = null;
+            }
+        }
+
+        log.d("AmbianceAudioEngine destroyed");
+    }
+
+    // ==================== 私有方法 ====================
+
+    /**
+     * 为场景创建一组独立的音源并离线渲染 (加载线程)
+     * 流式音源由渲染器同步解码，不注册到解码线程
+     */
+    private OfflineRenderer.Result renderScene(Scene scene, File file, long frames) throws IOException {
+        AudioMixer offline = new AudioMixer(BUFFER_SIZE);
+        LookaheadLimiter live = mixer.getLimiter();
+        if (live != null) {
+            offline.setLimiter(new LookaheadLimiter(SAMPLE_RATE, LookaheadLimiter.DEFAULT_LOOKAHEAD_MS,
+                live.getCeiling(), LookaheadLimiter.DEFAULT_RELEASE_MS));
+        }
+        OfflineRenderer renderer = new OfflineRenderer(offline, SAMPLE_RATE, BUFFER_SIZE);
+        List<String> cachedFiles = new ArrayList<>();
+        try {
+            for (Scene.Track sceneTrack : scene.getTracks()) {
+                String audioFile = sceneTrack.getAudioFile();
+                AudioSource source = createSource(sceneTrack.getTrackId(), audioFile, false);
+                if (source instanceof StreamingSource) {
+                    renderer.addStreamingSource((StreamingSource) source);
+                } else if (source instanceof PcmLoopSource && audioFile.endsWith(".ogg")) {
+                    cachedFiles.add(audioFile);
+                }
+                MixerTrack track = offline.addTrack(sceneTrack.getTrackId(), source);
+                track.setVolume(Math.max(0.0f, Math.min(1.0f, sceneTrack.getVolume())));
+                track.setPan(Math.max(-1.0f, Math.min(1.0f, sceneTrack.getPan())));
+                track.setPlaying(true);
+            }
+            int workers = parallelExportWorkers(Runtime.getRuntime().availableProcessors(), isPlaying);
+            if (workers == 0 || !renderer.canRenderInParallel()) {
+                return renderer.renderToWav(file, frames);
+            }
+            ForkJoinPool pool = new ForkJoinPool(workers);
+            try {
+                return renderer.renderToWavParallel(file, frames, pool);
+            } finally {
+                pool.shutdownNow();
+            }
+        } finally {
+            renderer.release();
+            for (String audioFile : cachedFiles) {
+                pcmCache.release(audioFile, SAMPLE_RATE);
+            }
+        }
+    }
+
+    /**
+     * 并行导出的工作线程数，空闲核不足 PARALLEL_EXPORT_MIN_WORKERS 时返回 0 (顺序渲染)
+     * @param cores 可用核数
+     * @param playing 是否正在播放，播放时为渲染线程保留一个核
+     */
+    static int parallelExportWorkers(int cores, boolean playing) {
+        int workers = cores - 1 - (playing ? 1 : 0);
+        if (workers < PARALLEL_EXPORT_MIN_WORKERS) {
+            return 0;
+        }
+        return Math.min(workers, PARALLEL_EXPORT_MAX_WORKERS);
+    }
+
+    private static long crossfadeFrames(Double crossfadeMs) {
+        if (crossfadeMs == null) {
+            return SCENE_RAMP_FRAMES;
+        }
+        double ms = Math.max(0, Math.min(MAX_SCENE_CROSSFADE_MS, crossfadeMs));
+        return Math.max(SCENE_RAMP_FRAMES, Math.round(ms * SAMPLE_RATE / 1000));
+    }
+
+    /**
+     * 并行加载场景缺少的音轨，完成后一次性提交 SceneChange 并返回一次结果。
+     * 场景之外的音轨淡出停止但保留加载状态。期间若有更新的场景请求，本次不再应用。
+     * 音轨按 ID 对应，同 ID 不同文件时重新加载，旧音轨淡出后回收。
+     * 新加入的音轨每隔一个缓冲区启动一条，首次读取不会集中在同一个缓冲区。
+     * 加载完成后在主线程上提交并返回结果，与 addTracks 相同。
+     */
+    private void applyScene(List<Scene.Track> sceneTracks, long rampFrames, Promise promise) {
+        final int generation = sceneGeneration.incrementAndGet();
+
+        Map<String, Scene.Track> byId = new HashMap<>();
+        List<TrackBatchLoader.Request> missing = new ArrayList<>();
+        for (Scene.Track track : sceneTracks) {
+            byId.put(track.getTrackId(), track);
+            TrackConfig existing = trackConfigs.get(track.getTrackId());
+            if (existing == null || !existing.audioFile.equals(track.getAudioFile())) {
+                missing.add(new TrackBatchLoader.Request(track.getTrackId(), track.getAudioFile()));
+            }
+        }
+
+        batchLoader.loadAll(missing, this::loadTrack, results -> scheduler.post(() -> {
+            Map<String, Object> resultData = new HashMap<>();
+            if (generation != sceneGeneration.get()) {
+                resultData.put("success", false);
+                resultData.put("superseded", true);
+                promise.resolve(resultData);
+                return;
+            }
+
+            SceneChange change = new SceneChange();
+            boolean playing = isPlaying;
+            for (TrackConfig config : trackConfigs.values()) {
+                Scene.Track track = byId.get(config.id);
+                float volume = track == null ? 0.0f : Math.max(0.0f, Math.min(1.0f, track.getVolume()));
+                float pan = track == null ? config.pan : Math.max(-1.0f, Math.min(1.0f, track.getPan()));
+                boolean active = playing && volume > 0;
+                change.set(config.track, volume, pan, active);
+                config.volume = volume;
+                config.pan = pan;
+                config.isPlaying = active;
+            }
+            mixer.applySceneChange(change, rampFrames, engine.getCurrentBufferFrames());
+
+            List<Object> loaded = new ArrayList<>();
+            Map<String, Object> failed = new HashMap<>();
+            for (TrackBatchLoader.Result result : results) {
+                if (result.success) {
+                    loaded.add(result.trackId);
+                    Map<String, Object> eventData = new HashMap<>();
+                    eventData.put("trackId", result.trackId);
+                    eventData.put("audioFile", result.audioFile);
+                    sendEvent("onTrackAdded", eventData);
+                } else {
+                    log.e("Failed to load scene track: " + result.trackId, result.error);
+                    failed.put(result.trackId, String.valueOf(result.error.getMessage()));
+                }
+            }
+            resultData.put("success", loaded.size() == missing.size());
+            resultData.put("loaded", loaded);
+            resultData.put("reused", sceneTracks.size() - missing.size());
+            resultData.put("failed", failed);
+            promise.resolve(resultData);
+
+            log.d("Scene applied: " + sceneTracks.size() + " tracks, " + missing.size() + " loaded");
+        }));
+    }
+
+    /**
+     * 打开场景日志 (首次调用时通知监听器)
+     */
+    private synchronized SceneStore getSceneStore() throws IOException {
+        if (sceneStore == null) {
+            sceneStore = SceneStore.open(new File(filesDir, SCENE_LOG_FILE));
+            if (sceneStoreListener != null) {
+                sceneStoreListener.onOpened(sceneStore);
+            }
+        }
+        return sceneStore;
+    }
+
+    /**
+     * 创建循环播放的音源并加入混音器，在加载线程上调用
+     */
+    private void loadTrack(String trackId, String audioFile) throws IOException {
+        // 先占用音源池名额，达到上限时拒绝
+        sourcePool.reserve();
+        AudioSource source;
+        try {
+            source = createSource(trackId, audioFile, true);
+        } catch (IOException | RuntimeException e) {
+            sourcePool.cancel();
+            throw e;
+        }
+        boolean cached = source instanceof PcmLoopSource && audioFile.endsWith(".ogg");
+        MixerTrack track;
+        try {
+            track = mixer.addTrack(trackId, source);
+        } catch (RuntimeException e) {
+            if (cached) {
+                pcmCache.release(audioFile, SAMPLE_RATE);
+            }
+            sourcePool.release(source);
+            throw e;
+        }
+        if (source instanceof StreamingSource) {
+            decoderThread.register((StreamingSource) source);
+        }
+
+        // 保存引用
+        TrackConfig config = new TrackConfig(trackId, audioFile, audioFile, track);
+        config.cached = cached;
+        TrackConfig previous = trackConfigs.put(trackId, config);
+        if (previous != null) {
+            // 同一 ID 重新添加：替换并回收旧音轨
+            retireTrack(previous, null);
+        }
+
+        log.d("Track added successfully: " + trackId);
+    }
+
+    /**
+     * 让渲染线程淡出并停止音轨 (未播放时立即停止)，确认不再读取音源后在主线程上回收，
+     * 之后调用 onRetired (可为 null)
+     */
+    private void retireTrack(TrackConfig config, Runnable onRetired) {
+        retiringTracks.add(config);
+        mixer.retireTrack(config.track, isPlaying ? SCENE_RAMP_FRAMES : 0);
+        engine.drainCommandsBeforeStart();
+        scheduler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (!retiringTracks.contains(config)) {
+                    // 已在 release() 中回收
+                    return;
+                }
+                if (!config.track.isRetired()) {
+                    scheduler.postDelayed(this, RETIRE_POLL_MS);
+                    return;
+                }
+                if (retiringTracks.remove(config)) {
+                    mixer.removeTrack(config.track);
+                    returnSource(config);
+                }
+                if (onRetired != null) {
+                    onRetired.run();
+                }
+            }
+        });
+    }
+
+    /**
+     * 注销流式解码、解除缓存固定并把音源归还音源池
+     */
+    private void returnSource(TrackConfig config) {
+        AudioSource source = config.track.getSource();
+        if (source instanceof StreamingSource) {
+            decoderThread.unregister((StreamingSource) source);
+        }
+        if (config.cached) {
+            pcmCache.release(config.audioFile, SAMPLE_RATE);
+        }
+        sourcePool.release(source);
+    }
+
+    /**
+     * Ogg Vorbis 先查 PCM 缓存；未命中时优先映射构建期生成的 .pcm 资源，
+     * 否则把短循环完整解码后缓存，过长的在解码线程上流式解码；
+     * 其他格式交给资源来源一次性解码
+     * @param pooled 流式音源是否从音源池获取 (离线导出的音源由渲染器释放，不经过音源池)
+     */
+    private AudioSource createSource(String trackId, String audioFile, boolean pooled) throws IOException {
+        int sampleRate;
+        AudioSource source;
+        if (NoiseSource.isNoiseUri(audioFile)) {
+            // 合成噪音，无需读取资源和解码
+            sampleRate = SAMPLE_RATE;
+            source = NoiseSource.fromUri(audioFile, SAMPLE_RATE);
+        } else if (audioFile.endsWith(".ogg")) {
+            ByteSource bytes = assets.open(audioFile);
+            PcmData pcm = pcmCache.acquire(audioFile, SAMPLE_RATE, () -> {
+                PcmData mapped = assets.mapPcm(audioFile);
+                if (mapped != null && mapped.getSampleRate() != SAMPLE_RATE) {
+                    // 构建期已转换到混音器采样率，不一致说明资源过期，只能复制一份重采样
+                    log.w("PCM asset for " + audioFile + " is " + mapped.getSampleRate()
+                        + " Hz, resampling a copy", null);
+                }
+                PcmData loaded = mapped != null ? mapped : VorbisDecoder.decodeAll(bytes, MAX_CACHED_FRAMES);
+                // 采样率转换和接缝随 PCM 一起缓存，播放时不再计算
+                return loaded != null ? toMixerRate(loaded).withLoopCrossfade(LOOP_CROSSFADE_FRAMES) : null;
+            });
+            if (pcm != null) {
+                sampleRate = pcm.getSampleRate();
+                source = new PcmLoopSource(pcm, true);
+            } else {
+                StreamingSource streaming = pooled
+                    ? sourcePool.openStreaming(bytes, true, StreamingSource.DEFAULT_BUFFER_FRAMES)
+                    : new StreamingSource(bytes, true);
+                sampleRate = streaming.getSampleRate();
+                source = streaming;
+            }
+        } else {
+            PcmData pcm = toMixerRate(assets.decode(audioFile)).withLoopCrossfade(LOOP_CROSSFADE_FRAMES);
+            sampleRate = pcm.getSampleRate();
+            source = new PcmLoopSource(pcm, true);
+        }
+
+        if (sampleRate != SAMPLE_RATE) {
+            log.w("Track " + trackId + " sample rate " + sampleRate
+                + " differs from mixer rate " + SAMPLE_RATE, null);
+        }
+        return source;
+    }
+
+    private static PcmData toMixerRate(PcmData pcm) {
+        return SincResampler.resample(pcm, SAMPLE_RATE, LOAD_RESAMPLER_QUALITY);
+    }
+
+    private void handleDecodeError(StreamingSource source, IOException error) {
+        for (TrackConfig config : trackConfigs.values()) {
+            if (config.track.getSource() == source) {
+                log.e("Decode error for track " + config.id, error);
+
+                Map<String, Object> errorData = new HashMap<>();
+                errorData.put("trackId", config.id);
+                errorData.put("error", "Decode error: " + error.getMessage());
+                sendEvent("onError", config.id, errorData);
+                return;
+            }
+        }
+    }
+
+    private void startTimerFade() {
+        fadeRunnable = null;
+        if (timerConfig == null) return;
+
+        long elapsedTime = (clock.nanoTime() - timerStartNanos) / 1_000_000;
+        long remainingTime = Math.max(0, timerConfig.duration - elapsedTime);
+        long fadeSamples = remainingTime * SAMPLE_RATE / 1000;
+
+        // 指数斜坡：每秒衰减的分贝数恒定，听感比线性淡出平滑
+        mixer.rampMasterVolume(0.0f, fadeSamples, GainRamp.Shape.EXPONENTIAL);
+        log.d("Timer fade-out started: " + remainingTime + "ms");
+    }
+
+    private void handleTimerExpired() {
+        // 停止播放 (同时取消定时器)
+        stop(new Promise() {
+            @Override
+            public void resolve(Object value) {
+                // 发送定时器结束事件
+                sendEvent("onTimerExpired", null);
+            }
+
+            @Override
+            public void reject(String code, String message, Throwable e) {
+                log.e("Failed to stop playback on timer expired", e);
+            }
+        });
+    }
+
+    private void cancelTimer() {
+        if (timerRunnable != null) {
+            scheduler.remove(timerRunnable);
+            timerRunnable = null;
+        }
+        if (fadeRunnable != null) {
+            scheduler.remove(fadeRunnable);
+            fadeRunnable = null;
+        }
+        timerConfig = null;
+        timerStartNanos = 0;
+        // 淡出可能已进行到一半，短斜坡恢复主音量避免咔哒声
+        mixer.rampMasterVolume(masterVolume, SCENE_RAMP_FRAMES, GainRamp.Shape.LINEAR);
+    }
+
+    private void sendEvent(String eventName, Map<String, Object> params) {
+        sendEvent(eventName, null, params);
+    }
+
+    /**
+     * 交给事件合并器，一个窗口后与其他事件一起发送 (任意线程)
+     * @param key 合并键，MERGE 类事件按它只保留最新一条
+     */
+    private void sendEvent(String eventName, String key, Map<String, Object> params) {
+        if (events.post(eventName, key, params)) {
+            scheduler.postDelayed(flushEventsRunnable, EVENT_WINDOW_NANOS / 1_000_000);
+        }
+    }
+
+    private void flushEvents() {
+        long next = events.flush();
+        if (next >= 0) {
+            scheduler.postDelayed(flushEventsRunnable, (next + 999_999) / 1_000_000);
+        }
+    }
+
+    /**
+     * 读取一份电平快照并发送 (主线程，电平表开启期间周期执行)
+     */
+    private void publishMeters() {
+        if (!mixer.isMeteringEnabled()) {
+            return;
+        }
+        MixerTrack[] tracks = mixer.getTracks().toArray(new MixerTrack[0]);
+        float[] trackLevels = new float[tracks.length * AudioMixer.METER_VALUES];
+        float[] masterLevels = new float[AudioMixer.METER_VALUES];
+        if (mixer.readMeters(tracks, trackLevels, masterLevels)) {
+            Map<String, Object> data = new HashMap<>();
+            data.put("master", meterLevels(masterLevels, 0));
+            Map<String, Object> trackData = new HashMap<>();
+            for (int t = 0; t < tracks.length; t++) {
+                trackData.put(tracks[t].getId(), meterLevels(trackLevels, t * AudioMixer.METER_VALUES));
+            }
+            data.put("tracks", trackData);
+            sendEvent("onMeters", null, data);
+        }
+        scheduler.postDelayed(meterRunnable, METER_INTERVAL_MS);
+    }
+
+    private static Map<String, Object> meterLevels(float[] levels, int offset) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("peakLeft", (double) levels[offset + AudioMixer.METER_PEAK_LEFT]);
+        map.put("peakRight", (double) levels[offset + AudioMixer.METER_PEAK_RIGHT]);
+        map.put("rmsLeft", (double) levels[offset + AudioMixer.METER_RMS_LEFT]);
+        map.put("rmsRight", (double) levels[offset + AudioMixer.METER_RMS_RIGHT]);
+        return map;
+    }
+
+    private void emitEventBatch(List<EventCoalescer.Event<Map<String, Object>>> batch) {
+        List<Map<String, Object>> payload = new ArrayList<>(batch.size());
+        for (EventCoalescer.Event<Map<String, Object>> event : batch) {
+            Map<String, Object> item = new HashMap<>();
+            item.put("type", event.getName());
+            if (event.getPayload() != null) {
+                item.put("data", event.getPayload());
+            }
+            payload.add(item);
+        }
+        emitter.emit(EVENT_BATCH, payload);
+    }
+}
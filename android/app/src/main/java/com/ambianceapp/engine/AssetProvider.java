@@ -0,0 +1,32 @@
+/**
+ * AssetProvider.java
+ * 《静界》音频资源来源
+ *
+ * 设备上读取 APK assets，桌面 JVM 上读取一个目录 (FileAssetProvider)
+ */
+
+package com.ambianceapp.engine;
+
+import com.ambianceapp.audio.ByteSource;
+import com.ambianceapp.audio.PcmData;
+
+import java.io.IOException;
+
+public interface AssetProvider {
+
+    /**
+     * Ogg Vorbis 等由 Java 解码器读取的资源
+     */
+    ByteSource open(String path) throws IOException;
+
+    /**
+     * 映射构建期由 convertPcmAssets 生成的 .pcm 资源 (按 PcmFile.nameFor(path) 查找)
+     * @return 没有对应资源时返回 null
+     */
+    PcmData mapPcm(String path) throws IOException;
+
+    /**
+     * 一次性解码其他格式 (设备上使用 MediaCodec)
+     */
+    PcmData decode(String path) throws IOException;
+}
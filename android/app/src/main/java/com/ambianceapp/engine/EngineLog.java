@@ -0,0 +1,31 @@
+/**
+ * EngineLog.java
+ * 《静界》引擎日志
+ *
+ * 设备上写入 logcat，桌面 JVM 上默认丢弃
+ */
+
+package com.ambianceapp.engine;
+
+public interface EngineLog {
+
+    EngineLog NONE = new EngineLog() {
+        @Override
+        public void d(String message) {
+        }
+
+        @Override
+        public void w(String message, Throwable error) {
+        }
+
+        @Override
+        public void e(String message, Throwable error) {
+        }
+    };
+
+    void d(String message);
+
+    void w(String message, Throwable error);
+
+    void e(String message, Throwable error);
+}
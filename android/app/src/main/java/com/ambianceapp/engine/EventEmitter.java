@@ -0,0 +1,19 @@
+/**
+ * EventEmitter.java
+ * 《静界》把合并后的一批事件发送给 JS (或测试)
+ *
+ * 每个事件为 { type, data }，data 可省略；值只包含 Map、List、String、Boolean 与数字
+ */
+
+package com.ambianceapp.engine;
+
+import java.util.List;
+import java.util.Map;
+
+public interface EventEmitter {
+
+    /**
+     * 在调度线程上调用
+     */
+    void emit(String eventName, List<Map<String, Object>> batch);
+}
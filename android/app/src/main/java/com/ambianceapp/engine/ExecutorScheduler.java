@@ -0,0 +1,106 @@
+/**
+ * ExecutorScheduler.java
+ * 《静界》单线程调度器，在桌面 JVM 上代替主线程 Handler
+ *
+ * 所有任务在同一个守护线程上按时间顺序执行；remove() 与 Handler.removeCallbacks() 一样
+ * 取消该任务所有尚未开始的投递。
+ */
+
+package com.ambianceapp.engine;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+public class ExecutorScheduler implements Scheduler {
+
+    /**
+     * 一次投递，执行前从待执行表中移除
+     */
+    private final class Posted implements Runnable {
+        final Runnable task;
+        ScheduledFuture<?> future;
+        boolean cancelled;
+
+        Posted(Runnable task) {
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            synchronized (pending) {
+                if (cancelled) {
+                    return;
+                }
+                List<Posted> list = pending.get(task);
+                if (list != null && list.remove(this) && list.isEmpty()) {
+                    pending.remove(task);
+                }
+            }
+            task.run();
+        }
+    }
+
+    private final ScheduledExecutorService executor;
+    private final Map<Runnable, List<Posted>> pending = new HashMap<>();
+
+    public ExecutorScheduler(String threadName) {
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void post(Runnable task) {
+        postDelayed(task, 0);
+    }
+
+    @Override
+    public void postDelayed(Runnable task, long delayMs) {
+        synchronized (pending) {
+            Posted posted = new Posted(task);
+            List<Posted> list = pending.get(task);
+            if (list == null) {
+                list = new ArrayList<>();
+                pending.put(task, list);
+            }
+            list.add(posted);
+            posted.future = executor.schedule(posted, Math.max(0, delayMs), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void remove(Runnable task) {
+        synchronized (pending) {
+            List<Posted> list = pending.remove(task);
+            if (list == null) {
+                return;
+            }
+            for (Posted posted : list) {
+                posted.cancelled = true;
+                posted.future.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * 等待已投递的任务全部执行完 (不含延迟尚未到期的任务)
+     */
+    public void sync() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        executor.execute(done::countDown);
+        done.await();
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,50 @@
+/**
+ * FileAssetProvider.java
+ * 《静界》从目录读取音频资源，用于桌面 JVM
+ *
+ * 目录结构与 APK assets 相同；.pcm 资源可与 .ogg 并存 (convertPcmAssets 的输出)，
+ * 也可以直接作为音轨文件。其他格式需要 MediaCodec，在 JVM 上不支持。
+ */
+
+package com.ambianceapp.engine;
+
+import com.ambianceapp.audio.ByteSource;
+import com.ambianceapp.audio.FileByteSource;
+import com.ambianceapp.audio.PcmData;
+import com.ambianceapp.audio.PcmFile;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+
+public class FileAssetProvider implements AssetProvider {
+
+    private final File root;
+
+    public FileAssetProvider(File root) {
+        this.root = root;
+    }
+
+    @Override
+    public ByteSource open(String path) throws IOException {
+        return new FileByteSource(new File(root, path));
+    }
+
+    @Override
+    public PcmData mapPcm(String path) throws IOException {
+        File file = new File(root, PcmFile.nameFor(path));
+        return file.isFile() ? PcmFile.map(file) : null;
+    }
+
+    @Override
+    public PcmData decode(String path) throws IOException {
+        File file = new File(root, path);
+        if (!file.isFile()) {
+            throw new FileNotFoundException(file.getPath());
+        }
+        if (!path.endsWith(PcmFile.EXTENSION)) {
+            throw new IOException("Unsupported audio format on the JVM: " + path);
+        }
+        return PcmFile.map(file);
+    }
+}
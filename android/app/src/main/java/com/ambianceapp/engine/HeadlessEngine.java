@@ -0,0 +1,220 @@
+/**
+ * HeadlessEngine.java
+ * 《静界》桌面 JVM 上的引擎驱动：不需要设备即可调用完整的命令接口
+ *
+ * 资源从目录读取，输出为空输出 (渲染线程按实时节拍运行)，主线程由单线程调度器代替，
+ * 发送的事件记录在内存中。命令可以异步提交 (submit) 用于压测，
+ * 也可以阻塞等待结果 (initialize、addTrack 等)，被拒绝时抛出 CommandException。
+ */
+
+package com.ambianceapp.engine;
+
+import com.ambianceapp.audio.AudioClock;
+import com.ambianceapp.audio.NullAudioSink;
+import com.ambianceapp.audio.PcmCache;
+import com.ambianceapp.events.EventCoalescer;
+import com.ambianceapp.scene.Scene;
+
+import java.io.Closeable;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class HeadlessEngine implements Closeable {
+
+    public static final long COMMAND_TIMEOUT_MS = 10_000;
+
+    /**
+     * 一条命令：调用引擎的某个方法，结果交给 promise
+     */
+    public interface Command {
+        void run(AmbianceEngine engine, AmbianceEngine.Promise promise);
+    }
+
+    /**
+     * 命令被拒绝 (reject) 或超时
+     */
+    public static final class CommandException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        private final String code;
+
+        CommandException(String code, String message, Throwable cause) {
+            super(code + ": " + message, cause);
+            this.code = code;
+        }
+
+        public String getCode() {
+            return code;
+        }
+    }
+
+    private final ExecutorScheduler scheduler;
+    private final NullAudioSink sink;
+    private final AmbianceEngine engine;
+    private final List<Map<String, Object>> events = new ArrayList<>();
+    private final Map<String, Integer> eventCounts = new HashMap<>();
+
+    public HeadlessEngine(File assetsDir, File filesDir) {
+        this(assetsDir, filesDir, new PcmCache(AmbianceEngine.PCM_CACHE_BUDGET_BYTES));
+    }
+
+    public HeadlessEngine(File assetsDir, File filesDir, PcmCache pcmCache) {
+        this.scheduler = new ExecutorScheduler("AmbianceMain");
+        this.sink = new NullAudioSink();
+        this.engine = new AmbianceEngine(new FileAssetProvider(assetsDir), scheduler, this::record,
+            sink, AudioClock.SYSTEM, filesDir, pcmCache);
+    }
+
+    public AmbianceEngine getEngine() {
+        return engine;
+    }
+
+    public NullAudioSink getSink() {
+        return sink;
+    }
+
+    // ==================== 命令 ====================
+
+    /**
+     * 异步提交一条命令，结果或 CommandException 在 future 中返回
+     */
+    public CompletableFuture<Object> submit(Command command) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        command.run(engine, new AmbianceEngine.Promise() {
+            @Override
+            public void resolve(Object value) {
+                future.complete(value);
+            }
+
+            @Override
+            public void reject(String code, String message, Throwable error) {
+                future.completeExceptionally(new CommandException(code, message, error));
+            }
+        });
+        return future;
+    }
+
+    /**
+     * 提交一条命令并等待结果
+     */
+    public Object call(Command command) throws CommandException, InterruptedException {
+        try {
+            return submit(command).get(COMMAND_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof CommandException) {
+                throw (CommandException) e.getCause();
+            }
+            throw new CommandException("FAILED", String.valueOf(e.getCause()), e.getCause());
+        } catch (TimeoutException e) {
+            throw new CommandException("TIMEOUT", "No result within " + COMMAND_TIMEOUT_MS + "ms", e);
+        }
+    }
+
+    public void initialize() throws CommandException, InterruptedException {
+        call(AmbianceEngine::initialize);
+    }
+
+    public void addTrack(String trackId, String audioFile) throws CommandException, InterruptedException {
+        call((engine, promise) -> engine.addTrack(trackId, audioFile, promise));
+    }
+
+    public void removeTrack(String trackId) throws CommandException, InterruptedException {
+        call((engine, promise) -> engine.removeTrack(trackId, promise));
+    }
+
+    public void setVolume(String trackId, float volume) throws CommandException, InterruptedException {
+        call((engine, promise) -> engine.setVolume(trackId, volume, promise));
+    }
+
+    public void setPanning(String trackId, float pan) throws CommandException, InterruptedException {
+        call((engine, promise) -> engine.setPanning(trackId, pan, promise));
+    }
+
+    public void play() throws CommandException, InterruptedException {
+        call(AmbianceEngine::play);
+    }
+
+    public void pause() throws CommandException, InterruptedException {
+        call(AmbianceEngine::pause);
+    }
+
+    public void stop() throws CommandException, InterruptedException {
+        call(AmbianceEngine::stop);
+    }
+
+    public void setTimer(double minutes, boolean fadeOut, double fadeOutMinutes)
+            throws CommandException, InterruptedException {
+        call((engine, promise) -> engine.setTimer(minutes, fadeOut, fadeOutMinutes, promise));
+    }
+
+    public String saveScene(String name) throws CommandException, InterruptedException {
+        return (String) call((engine, promise) -> engine.saveScene(name, promise));
+    }
+
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> loadSceneById(String sceneId) throws CommandException, InterruptedException {
+        return (Map<String, Object>) call((engine, promise) -> engine.loadSceneById(sceneId, null, promise));
+    }
+
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> loadScene(List<Scene.Track> tracks) throws CommandException, InterruptedException {
+        return (Map<String, Object>) call((engine, promise) -> engine.loadScene(tracks, null, promise));
+    }
+
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> getStatus() throws CommandException, InterruptedException {
+        return (Map<String, Object>) call(AmbianceEngine::getStatus);
+    }
+
+    // ==================== 事件 ====================
+
+    /**
+     * 等待所有已投递的事件发送完毕 (合并器没有待发送事件，且发送回调已经执行)
+     */
+    public void awaitEvents(long timeoutMs) throws InterruptedException, TimeoutException {
+        EventCoalescer<Map<String, Object>> coalescer = engine.getEventCoalescer();
+        long deadline = System.nanoTime() + timeoutMs * 1_000_000L;
+        while (coalescer.getPostedCount() > coalescer.getDeliveredCount()
+                + coalescer.getMergedCount() + coalescer.getDroppedCount()) {
+            if (System.nanoTime() > deadline) {
+                throw new TimeoutException("Events still pending after " + timeoutMs + "ms");
+            }
+            Thread.sleep(1);
+        }
+        scheduler.sync();
+    }
+
+    /**
+     * 已发送的事件 ({ type, data })，按发送顺序
+     */
+    public synchronized List<Map<String, Object>> getEvents() {
+        return new ArrayList<>(events);
+    }
+
+    public synchronized int getEventCount(String type) {
+        Integer count = eventCounts.get(type);
+        return count == null ? 0 : count;
+    }
+
+    private synchronized void record(String eventName, List<Map<String, Object>> batch) {
+        for (Map<String, Object> event : batch) {
+            events.add(event);
+            String type = (String) event.get("type");
+            Integer count = eventCounts.get(type);
+            eventCounts.put(type, count == null ? 1 : count + 1);
+        }
+    }
+
+    @Override
+    public void close() {
+        engine.release();
+        scheduler.shutdown();
+    }
+}
@@ -0,0 +1,22 @@
+/**
+ * Scheduler.java
+ * 《静界》主线程任务调度
+ *
+ * 定时器、事件发送、电平表与异步命令的结果都在同一个线程上执行。
+ * 设备上对应主线程的 Handler，桌面 JVM 上为单线程执行器 (ExecutorScheduler)
+ * 或手动推进时间的模拟调度器 (SimulatedScheduler)。
+ */
+
+package com.ambianceapp.engine;
+
+public interface Scheduler {
+
+    void post(Runnable task);
+
+    void postDelayed(Runnable task, long delayMs);
+
+    /**
+     * 取消该任务所有尚未执行的投递
+     */
+    void remove(Runnable task);
+}
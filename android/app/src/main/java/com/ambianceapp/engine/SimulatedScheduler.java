@@ -0,0 +1,86 @@
+/**
+ * SimulatedScheduler.java
+ * 《静界》按模拟时钟执行任务的调度器，用于确定性地测试定时器与事件发送
+ *
+ * 任务只在 advance() 的调用线程上执行，到期时间相同的任务按投递顺序执行。
+ */
+
+package com.ambianceapp.engine;
+
+import com.ambianceapp.audio.SimulatedClock;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class SimulatedScheduler implements Scheduler {
+
+    private static final class Posted {
+        final Runnable task;
+        final long dueNanos;
+        final long sequence;
+
+        Posted(Runnable task, long dueNanos, long sequence) {
+            this.task = task;
+            this.dueNanos = dueNanos;
+            this.sequence = sequence;
+        }
+    }
+
+    private final SimulatedClock clock;
+    private final List<Posted> pending = new ArrayList<>();
+    private long sequence;
+
+    public SimulatedScheduler(SimulatedClock clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public void post(Runnable task) {
+        postDelayed(task, 0);
+    }
+
+    @Override
+    public synchronized void postDelayed(Runnable task, long delayMs) {
+        pending.add(new Posted(task, clock.nanoTime() + Math.max(0, delayMs) * 1_000_000L, sequence++));
+    }
+
+    @Override
+    public synchronized void remove(Runnable task) {
+        pending.removeIf(posted -> posted.task == task);
+    }
+
+    /**
+     * 推进时钟，依次执行期间到期的任务 (包括执行中新投递且已到期的任务)
+     */
+    public void advance(long ms) {
+        long end = clock.nanoTime() + ms * 1_000_000L;
+        Posted next;
+        while ((next = takeDue(end)) != null) {
+            if (next.dueNanos > clock.nanoTime()) {
+                clock.advance(next.dueNanos - clock.nanoTime());
+            }
+            next.task.run();
+        }
+        if (end > clock.nanoTime()) {
+            clock.advance(end - clock.nanoTime());
+        }
+    }
+
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    private synchronized Posted takeDue(long end) {
+        Posted first = null;
+        for (Posted posted : pending) {
+            if (posted.dueNanos <= end && (first == null || posted.dueNanos < first.dueNanos
+                    || (posted.dueNanos == first.dueNanos && posted.sequence < first.sequence))) {
+                first = posted;
+            }
+        }
+        if (first != null) {
+            pending.remove(first);
+        }
+        return first;
+    }
+}
@@ -0,0 +1,247 @@
+/**
+ * EventCoalescer.java
+ * 《静界》原生到 JS 的事件合并与限速
+ *
+ * 事件先进入待发送队列，每个时间窗口 (约一帧) 最多发送一批，整批作为一个数组交给 Emitter：
+ * - QUEUE 类事件逐条保留，待发送数量超过上限时丢弃最旧的一条
+ * - MERGE 类事件按 (名称, key) 合并，窗口内只保留最新的一条，例如电平、定时器进度、单条音轨状态
+ * - 每类事件可限制每秒最多出现在几批中，未到时间的事件留到之后的批次
+ * 批内事件按投递顺序排列。未注册的事件按不限速的 QUEUE 处理。
+ *
+ * 任意线程都可以投递 (同步锁，不要在渲染线程上使用)。调度由调用方负责：
+ * post() 返回 true 时安排一次 flush()，flush() 返回下一次需要 flush 的延迟。
+ */
+
+package com.ambianceapp.events;
+
+import com.ambianceapp.audio.AudioClock;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public final class EventCoalescer<T> {
+
+    public static final int DEFAULT_MAX_PENDING = 256;
+
+    public enum Mode {
+        QUEUE,
+        MERGE
+    }
+
+    /**
+     * 批量发送的出口，在调用 flush() 的线程上回调
+     */
+    public interface Emitter<T> {
+        void emit(List<Event<T>> batch);
+    }
+
+    public static final class Event<T> {
+        private final String name;
+        private final String key;
+        private final T payload;
+        private final long sequence;
+
+        Event(String name, String key, T payload, long sequence) {
+            this.name = name;
+            this.key = key;
+            this.payload = payload;
+            this.sequence = sequence;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * 合并用的键，可为 null
+         */
+        public String getKey() {
+            return key;
+        }
+
+        public T getPayload() {
+            return payload;
+        }
+    }
+
+    /**
+     * 一类事件的策略与待发送事件
+     */
+    private static final class EventClass<T> {
+        final Mode mode;
+        final long minIntervalNanos;
+        final ArrayDeque<Event<T>> queued = new ArrayDeque<>();
+        final LinkedHashMap<String, Event<T>> merged = new LinkedHashMap<>();
+        long nextAllowedNanos = Long.MIN_VALUE;
+
+        EventClass(Mode mode, int maxPerSecond) {
+            this.mode = mode;
+            this.minIntervalNanos = maxPerSecond > 0 ? 1_000_000_000L / maxPerSecond : 0;
+        }
+
+        boolean isEmpty() {
+            return queued.isEmpty() && merged.isEmpty();
+        }
+    }
+
+    private static final Comparator<Event<?>> BY_SEQUENCE =
+        (a, b) -> Long.compare(a.sequence, b.sequence);
+
+    private final AudioClock clock;
+    private final long windowNanos;
+    private final int maxPending;
+    private final Emitter<T> emitter;
+    private final Map<String, EventClass<T>> classes = new HashMap<>();
+
+    private long sequence;
+    private boolean flushScheduled;
+    private long posted;
+    private long delivered;
+    private long mergedCount;
+    private long dropped;
+    private long batches;
+
+    public EventCoalescer(AudioClock clock, long windowNanos, Emitter<T> emitter) {
+        this(clock, windowNanos, DEFAULT_MAX_PENDING, emitter);
+    }
+
+    /**
+     * @param maxPending 每类 QUEUE 事件最多积压的条数
+     */
+    public EventCoalescer(AudioClock clock, long windowNanos, int maxPending, Emitter<T> emitter) {
+        this.clock = clock;
+        this.windowNanos = windowNanos;
+        this.maxPending = maxPending;
+        this.emitter = emitter;
+    }
+
+    /**
+     * 注册一类事件的策略
+     * @param maxPerSecond 每秒最多出现在几批中，0 表示不限
+     */
+    public synchronized void register(String name, Mode mode, int maxPerSecond) {
+        classes.put(name, new EventClass<>(mode, maxPerSecond));
+    }
+
+    // ==================== 投递与发送 ====================
+
+    /**
+     * 投递一条事件
+     * @param key MERGE 类事件的合并键 (例如音轨 ID)，可为 null
+     * @return 需要调用方在一个窗口后安排 flush() 时返回 true
+     */
+    public synchronized boolean post(String name, String key, T payload) {
+        EventClass<T> eventClass = classes.get(name);
+        if (eventClass == null) {
+            eventClass = new EventClass<>(Mode.QUEUE, 0);
+            classes.put(name, eventClass);
+        }
+        Event<T> event = new Event<>(name, key, payload, sequence++);
+        posted++;
+        if (eventClass.mode == Mode.MERGE) {
+            // 同一键只保留最新的一条
+            if (eventClass.merged.put(key, event) != null) {
+                mergedCount++;
+            }
+        } else {
+            if (eventClass.queued.size() >= maxPending) {
+                eventClass.queued.pollFirst();
+                dropped++;
+            }
+            eventClass.queued.addLast(event);
+        }
+
+        if (flushScheduled) {
+            return false;
+        }
+        flushScheduled = true;
+        return true;
+    }
+
+    /**
+     * 发送一批到期的事件
+     * @return 距离下一次需要 flush 的纳秒数 (至少一个窗口)，没有待发送事件时返回 -1
+     */
+    public long flush() {
+        List<Event<T>> batch;
+        long next;
+        synchronized (this) {
+            long now = clock.nanoTime();
+            batch = new ArrayList<>();
+            long earliest = Long.MAX_VALUE;
+            for (EventClass<T> eventClass : classes.values()) {
+                if (eventClass.isEmpty()) {
+                    continue;
+                }
+                if (now < eventClass.nextAllowedNanos) {
+                    earliest = Math.min(earliest, eventClass.nextAllowedNanos);
+                    continue;
+                }
+                batch.addAll(eventClass.queued);
+                eventClass.queued.clear();
+                for (Iterator<Event<T>> it = eventClass.merged.values().iterator(); it.hasNext(); ) {
+                    batch.add(it.next());
+                    it.remove();
+                }
+                if (eventClass.minIntervalNanos > 0) {
+                    eventClass.nextAllowedNanos = now + eventClass.minIntervalNanos;
+                }
+            }
+
+            if (earliest == Long.MAX_VALUE) {
+                flushScheduled = false;
+                next = -1;
+            } else {
+                next = Math.max(windowNanos, earliest - now);
+            }
+            if (batch.isEmpty()) {
+                return next;
+            }
+            Collections.sort(batch, BY_SEQUENCE);
+            delivered += batch.size();
+            batches++;
+        }
+        // 在锁外回调，发送期间其他线程仍可投递
+        emitter.emit(batch);
+        return next;
+    }
+
+    public long getWindowNanos() {
+        return windowNanos;
+    }
+
+    // ==================== 统计 ====================
+
+    public synchronized long getPostedCount() {
+        return posted;
+    }
+
+    public synchronized long getDeliveredCount() {
+        return delivered;
+    }
+
+    /**
+     * 被同一键的更新事件覆盖的 MERGE 事件数
+     */
+    public synchronized long getMergedCount() {
+        return mergedCount;
+    }
+
+    /**
+     * 积压超过上限被丢弃的 QUEUE 事件数
+     */
+    public synchronized long getDroppedCount() {
+        return dropped;
+    }
+
+    public synchronized long getBatchCount() {
+        return batches;
+    }
+}
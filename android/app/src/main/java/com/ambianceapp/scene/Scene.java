@@ -0,0 +1,74 @@
+/**
+ * Scene.java
+ * 《静界》场景：一组音轨及其音量与声像
+ */
+
+package com.ambianceapp.scene;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public final class Scene {
+
+    /**
+     * 场景中的单条音轨
+     */
+    public static final class Track {
+        private final String trackId;
+        private final String audioFile;
+        private final float volume;
+        private final float pan;
+
+        public Track(String trackId, String audioFile, float volume, float pan) {
+            this.trackId = trackId;
+            this.audioFile = audioFile;
+            this.volume = volume;
+            this.pan = pan;
+        }
+
+        public String getTrackId() {
+            return trackId;
+        }
+
+        public String getAudioFile() {
+            return audioFile;
+        }
+
+        public float getVolume() {
+            return volume;
+        }
+
+        public float getPan() {
+            return pan;
+        }
+    }
+
+    private final String id;
+    private final String name;
+    private final long createdAt;
+    private final List<Track> tracks;
+
+    public Scene(String id, String name, long createdAt, List<Track> tracks) {
+        this.id = id;
+        this.name = name;
+        this.createdAt = createdAt;
+        this.tracks = Collections.unmodifiableList(new ArrayList<>(tracks));
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public List<Track> getTracks() {
+        return tracks;
+    }
+}
@@ -0,0 +1,361 @@
+/**
+ * SceneStore.java
+ * 《静界》只追加的二进制场景日志
+ *
+ * 文件结构 (大端):
+ *   文件头 8 字节: 魔数 "AMBS"、u16 版本号、u16 保留
+ *   记录: u32 正文长度、u32 正文 CRC32、正文
+ *   正文: u8 类型 (1 保存 / 2 删除)、UTF 场景 ID，
+ *         保存记录继续写入 UTF 名称、i64 创建时间、u16 音轨数，
+ *         每条音轨为 UTF 音轨 ID、UTF 音频文件、f32 音量、f32 声像
+ *
+ * 打开时顺序扫描一次日志，在内存中建立 ID -> 记录偏移 的索引；
+ * 保存和删除只追加一条记录，读取按偏移定位一条记录。
+ * 失效记录超过有效数据且超过阈值时，把有效记录复制到新文件并原子替换 (压缩)。
+ * 结尾不完整或校验失败的记录视为写入中断，打开时截掉。
+ */
+
+package com.ambianceapp.scene;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+public final class SceneStore implements Closeable {
+
+    private static final int MAGIC = 0x414D4253;    // "AMBS"
+    private static final int VERSION = 1;
+    private static final int FILE_HEADER_SIZE = 8;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final int MAX_RECORD_SIZE = 1 << 20;
+
+    private static final byte TYPE_PUT = 1;
+    private static final byte TYPE_DELETE = 2;
+
+    // 失效数据至少达到该大小才压缩，避免小文件频繁重写
+    private static final long COMPACT_MIN_GARBAGE_BYTES = 64 * 1024;
+
+    /**
+     * 索引项：记录在文件中的位置
+     */
+    private static final class Entry {
+        final long offset;
+        final int length;   // 含记录头
+
+        Entry(long offset, int length) {
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    private final File file;
+    private final Map<String, Entry> index = new HashMap<>();
+    private FileChannel channel;
+    private long fileSize;
+    private long liveBytes;
+    private long recoveredBytes;
+
+    private SceneStore(File file) {
+        this.file = file;
+    }
+
+    /**
+     * 打开场景日志，文件不存在时创建
+     */
+    public static SceneStore open(File file) throws IOException {
+        SceneStore store = new SceneStore(file);
+        store.channel = new RandomAccessFile(file, "rw").getChannel();
+        try {
+            store.load();
+        } catch (IOException e) {
+            store.channel.close();
+            throw e;
+        }
+        return store;
+    }
+
+    // ==================== 读写 ====================
+
+    /**
+     * 保存场景，相同 ID 的旧记录失效
+     */
+    public synchronized void put(Scene scene) throws IOException {
+        byte[] body = encodePut(scene);
+        Entry entry = append(body);
+        Entry previous = index.put(scene.getId(), entry);
+        if (previous != null) {
+            liveBytes -= previous.length;
+        }
+        liveBytes += entry.length;
+        maybeCompact();
+    }
+
+    /**
+     * @return 场景，不存在时返回 null
+     */
+    public synchronized Scene get(String id) throws IOException {
+        Entry entry = index.get(id);
+        if (entry == null) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(entry.length - RECORD_HEADER_SIZE);
+        readFully(buffer, entry.offset + RECORD_HEADER_SIZE);
+        return decodePut(new DataInputStream(new ByteArrayInputStream(buffer.array())));
+    }
+
+    /**
+     * 删除场景
+     * @return 场景是否存在
+     */
+    public synchronized boolean delete(String id) throws IOException {
+        Entry previous = index.get(id);
+        if (previous == null) {
+            return false;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(TYPE_DELETE);
+        out.writeUTF(id);
+        append(bytes.toByteArray());
+        index.remove(id);
+        liveBytes -= previous.length;
+        maybeCompact();
+        return true;
+    }
+
+    public synchronized boolean contains(String id) {
+        return index.containsKey(id);
+    }
+
+    public synchronized List<String> getSceneIds() {
+        return new ArrayList<>(index.keySet());
+    }
+
+    public synchronized int size() {
+        return index.size();
+    }
+
+    /**
+     * 日志文件大小
+     */
+    public synchronized long getFileBytes() {
+        return fileSize;
+    }
+
+    /**
+     * 有效记录占用的字节数
+     */
+    public synchronized long getLiveBytes() {
+        return liveBytes;
+    }
+
+    /**
+     * 打开时截掉的不完整记录字节数
+     */
+    public synchronized long getRecoveredBytes() {
+        return recoveredBytes;
+    }
+
+    // ==================== 压缩 ====================
+
+    /**
+     * 只保留有效记录重写日志
+     */
+    public synchronized void compact() throws IOException {
+        File temp = new File(file.getPath() + ".tmp");
+        Map<String, Entry> compacted = new HashMap<>();
+        long position = FILE_HEADER_SIZE;
+        try (FileChannel out = new RandomAccessFile(temp, "rw").getChannel()) {
+            out.truncate(0);
+            writeFully(out, fileHeader(), 0);
+            // transferTo 写在目标通道的当前位置
+            out.position(FILE_HEADER_SIZE);
+            for (Map.Entry<String, Entry> item : index.entrySet()) {
+                Entry entry = item.getValue();
+                long copied = 0;
+                while (copied < entry.length) {
+                    copied += channel.transferTo(entry.offset + copied, entry.length - copied, out);
+                }
+                compacted.put(item.getKey(), new Entry(position, entry.length));
+                position += entry.length;
+            }
+            out.force(true);
+        }
+
+        // 同一目录内 rename 原子替换旧文件 (java.nio.file 需要 API 26，这里不使用)
+        channel.close();
+        if (!temp.renameTo(file)) {
+            channel = new RandomAccessFile(file, "rw").getChannel();
+            throw new IOException("Failed to replace " + file);
+        }
+        channel = new RandomAccessFile(file, "rw").getChannel();
+        index.clear();
+        index.putAll(compacted);
+        fileSize = position;
+        liveBytes = position - FILE_HEADER_SIZE;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    // ==================== 私有方法 ====================
+
+    private void maybeCompact() throws IOException {
+        long garbage = fileSize - FILE_HEADER_SIZE - liveBytes;
+        if (garbage >= COMPACT_MIN_GARBAGE_BYTES && garbage > liveBytes) {
+            compact();
+        }
+    }
+
+    /**
+     * 扫描日志重建索引
+     */
+    private void load() throws IOException {
+        long size = channel.size();
+        if (size < FILE_HEADER_SIZE) {
+            channel.truncate(0);
+            writeFully(channel, fileHeader(), 0);
+            fileSize = FILE_HEADER_SIZE;
+            recoveredBytes = size;
+            return;
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+        readFully(header, 0);
+        header.flip();
+        if (header.getInt() != MAGIC || header.getShort() != VERSION) {
+            throw new IOException("Not a scene log: " + file);
+        }
+
+        ByteBuffer recordHeader = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+        CRC32 crc = new CRC32();
+        long position = FILE_HEADER_SIZE;
+        while (position + RECORD_HEADER_SIZE <= size) {
+            recordHeader.clear();
+            readFully(recordHeader, position);
+            recordHeader.flip();
+            int length = recordHeader.getInt();
+            long checksum = recordHeader.getInt() & 0xFFFFFFFFL;
+            if (length <= 0 || length > MAX_RECORD_SIZE
+                    || position + RECORD_HEADER_SIZE + length > size) {
+                break;
+            }
+            byte[] body = new byte[length];
+            readFully(ByteBuffer.wrap(body), position + RECORD_HEADER_SIZE);
+            crc.reset();
+            crc.update(body, 0, length);
+            if (crc.getValue() != checksum) {
+                break;
+            }
+
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(body));
+            byte type = in.readByte();
+            String id = in.readUTF();
+            Entry previous;
+            if (type == TYPE_PUT) {
+                Entry entry = new Entry(position, RECORD_HEADER_SIZE + length);
+                previous = index.put(id, entry);
+                liveBytes += entry.length;
+            } else {
+                previous = index.remove(id);
+            }
+            if (previous != null) {
+                liveBytes -= previous.length;
+            }
+            position += RECORD_HEADER_SIZE + length;
+        }
+
+        if (position < size) {
+            // 最后一次写入被中断
+            recoveredBytes = size - position;
+            channel.truncate(position);
+        }
+        fileSize = position;
+    }
+
+    private Entry append(byte[] body) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(body, 0, body.length);
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + body.length);
+        record.putInt(body.length);
+        record.putInt((int) crc.getValue());
+        record.put(body);
+        record.flip();
+
+        long offset = fileSize;
+        writeFully(channel, record, offset);
+        fileSize += record.capacity();
+        return new Entry(offset, record.capacity());
+    }
+
+    private static byte[] encodePut(Scene scene) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + scene.getTracks().size() * 48);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(TYPE_PUT);
+        out.writeUTF(scene.getId());
+        out.writeUTF(scene.getName());
+        out.writeLong(scene.getCreatedAt());
+        out.writeShort(scene.getTracks().size());
+        for (Scene.Track track : scene.getTracks()) {
+            out.writeUTF(track.getTrackId());
+            out.writeUTF(track.getAudioFile());
+            out.writeFloat(track.getVolume());
+            out.writeFloat(track.getPan());
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Scene decodePut(DataInputStream in) throws IOException {
+        if (in.readByte() != TYPE_PUT) {
+            throw new IOException("Corrupt scene record");
+        }
+        String id = in.readUTF();
+        String name = in.readUTF();
+        long createdAt = in.readLong();
+        int count = in.readUnsignedShort();
+        List<Scene.Track> tracks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tracks.add(new Scene.Track(in.readUTF(), in.readUTF(), in.readFloat(), in.readFloat()));
+        }
+        return new Scene(id, name, createdAt, tracks);
+    }
+
+    private static ByteBuffer fileHeader() {
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+        header.putInt(MAGIC);
+        header.putShort((short) VERSION);
+        header.putShort((short) 0);
+        header.flip();
+        return header;
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of scene log");
+            }
+            position += read;
+        }
+    }
+
+    private static void writeFully(FileChannel target, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += target.write(buffer, position);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+/**
+ * AudioEngineDeadlineTest.java
+ * 用模拟时钟驱动渲染，校验时限、欠载与直方图统计；
+ * 不阻塞的输出端按交付延迟判断欠载，报告断流计数的输出端以计数为准
+ */
+
+package com.ambianceapp.audio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class AudioEngineDeadlineTest {
+
+    private static final int SAMPLE_RATE = 44100;
+    private static final int BUFFER_FRAMES = 441;  // 10ms
+
+    private final SimulatedClock clock = new SimulatedClock();
+    private final AudioMixer mixer = new AudioMixer(BUFFER_FRAMES);
+    private final SlowSource source = new SlowSource();
+    private final PacedSink sink = new PacedSink();
+    private final AudioEngine engine =
+        new AudioEngine(mixer, sink, SAMPLE_RATE, BUFFER_FRAMES, clock);
+
+    @Test
+    public void deadlineDerivedFromBufferSize() {
+        assertEquals(10_000_000L, engine.getDeadlineNanos());
+    }
+
+    @Test
+    public void renderWithinBudgetNeverUnderruns() throws Exception {
+        mixer.addTrack("t", source).setPlaying(true);
+        source.renderNanos = 3_000_000L;
+        sink.playbackNanos = 7_000_000L;
+
+        for (int i = 0; i < 1000; i++) {
+            assertFalse(engine.renderNextBuffer());
+        }
+
+        RenderStats stats = engine.getStats();
+        assertEquals(1000, stats.getBufferCount());
+        assertEquals(0, stats.getUnderrunCount());
+        assertEquals(3_000_000L, stats.getWorstRenderNanos());
+        assertEquals(1000, stats.getHistogram()[3]);
+    }
+
+    @Test
+    public void slowBufferCountsOneUnderrunAndReanchors() throws Exception {
+        mixer.addTrack("t", source).setPlaying(true);
+        source.renderNanos = 2_000_000L;
+        sink.playbackNanos = 8_000_000L;
+
+        for (int i = 0; i < 10; i++) {
+            engine.renderNextBuffer();
+        }
+        source.renderNanos = 15_000_000L;
+        assertTrue(engine.renderNextBuffer());
+        source.renderNanos = 2_000_000L;
+        for (int i = 0; i < 10; i++) {
+            assertFalse(engine.renderNextBuffer());
+        }
+
+        RenderStats stats = engine.getStats();
+        assertEquals(21, stats.getBufferCount());
+        assertEquals(1, stats.getUnderrunCount());
+        assertEquals(15_000_000L, stats.getWorstRenderNanos());
+        long[] histogram = stats.getHistogram();
+        assertEquals(20, histogram[2]);
+        assertEquals(1, histogram[RenderStats.HISTOGRAM_BUCKETS - 1]);
+    }
+
+    @Test
+    public void accumulatedLatenessIsAnUnderrun() throws Exception {
+        mixer.addTrack("t", source).setPlaying(true);
+        // 每个缓冲区只超出 1ms，渲染耗时都在时限内，但交付持续落后会断流
+        source.renderNanos = 9_000_000L;
+        sink.playbackNanos = 2_000_000L;
+
+        int underruns = 0;
+        for (int i = 0; i < 100; i++) {
+            if (engine.renderNextBuffer()) {
+                underruns++;
+            }
+        }
+        assertTrue(underruns > 0);
+        assertEquals(underruns, engine.getStats().getUnderrunCount());
+        assertEquals(0, engine.getStats().getHistogram()[RenderStats.HISTOGRAM_BUCKETS - 1]);
+    }
+
+    @Test
+    public void sinkUnderrunCounterReplacesLatenessForBlockingSinks() throws Exception {
+        mixer.addTrack("t", source).setPlaying(true);
+        sink.blocking = true;
+        sink.underruns = 0;
+        source.renderNanos = 2_000_000L;
+        sink.playbackNanos = 8_000_000L;
+        for (int i = 0; i < 10; i++) {
+            engine.renderNextBuffer();
+        }
+
+        // 设备时钟比墙上时钟慢时写入返回得晚，但设备没有断流
+        source.renderNanos = 15_000_000L;
+        assertFalse(engine.renderNextBuffer());
+        source.renderNanos = 2_000_000L;
+
+        // 系统混音器中的断流只体现在计数上
+        sink.underruns = 3;
+        assertTrue(engine.renderNextBuffer());
+        for (int i = 0; i < 10; i++) {
+            assertFalse(engine.renderNextBuffer());
+        }
+        sink.underruns = 4;
+        assertTrue(engine.renderNextBuffer());
+        assertEquals(2, engine.getStats().getUnderrunCount());
+    }
+
+    @Test
+    public void blockingSinkWithoutCounterIsNotJudgedByWallClock() throws Exception {
+        mixer.addTrack("t", source).setPlaying(true);
+        sink.blocking = true;
+        source.renderNanos = 9_000_000L;
+        sink.playbackNanos = 2_000_000L;
+        for (int i = 0; i < 100; i++) {
+            assertFalse(engine.renderNextBuffer());
+        }
+        assertEquals(0, engine.getStats().getUnderrunCount());
+    }
+
+    /**
+     * 渲染时推进模拟时钟
+     */
+    private final class SlowSource implements AudioSource {
+        long renderNanos;
+
+        @Override
+        public int getChannelCount() {
+            return 2;
+        }
+
+        @Override
+        public int read(float[] buffer, int offset, int frames) {
+            clock.advance(renderNanos);
+            return frames;
+        }
+
+        @Override
+        public void reset() {
+        }
+    }
+
+    /**
+     * 写入时推进模拟时钟；默认模拟按渲染线程节拍播放的输出端 (文件、空输出)，
+     * 也可模拟阻塞并报告断流计数的 AudioTrack
+     */
+    private final class PacedSink implements AudioSink {
+        long playbackNanos;
+        boolean blocking;
+        long underruns = -1;
+
+        @Override
+        public void open(int sampleRate, int channels, int bufferFrames) {
+        }
+
+        @Override
+        public void write(float[] buffer, int frames) {
+            clock.advance(playbackNanos);
+        }
+
+        @Override
+        public boolean isBlocking() {
+            return blocking;
+        }
+
+        @Override
+        public long getUnderrunCount() {
+            return underruns;
+        }
+
+        @Override
+        public void pause() {
+        }
+
+        @Override
+        public void resume() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
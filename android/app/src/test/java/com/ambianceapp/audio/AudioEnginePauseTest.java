@@ -0,0 +1,134 @@
+/**
+ * AudioEnginePauseTest.java
+ * 阻塞输出端上暂停：输出端由渲染线程在写入之间暂停，暂停期间命令照常执行，恢复后继续写入
+ */
+
+package com.ambianceapp.audio;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+public class AudioEnginePauseTest {
+
+    private static final int SAMPLE_RATE = 44100;
+    private static final int BUFFER_FRAMES = 441;
+
+    @Test
+    public void pauseWithBlockingSinkStillDrainsCommands() throws Exception {
+        AudioMixer mixer = new AudioMixer(BUFFER_FRAMES);
+        MixerTrack track = mixer.addTrack("pink", new NoiseSource(NoiseSource.Color.PINK, SAMPLE_RATE, 2, 3));
+        track.setPlaying(true);
+        BlockingSink sink = new BlockingSink();
+        AudioEngine engine = new AudioEngine(mixer, sink, SAMPLE_RATE, BUFFER_FRAMES);
+        try {
+            engine.start();
+            assertTrue(sink.awaitFrames(4 * BUFFER_FRAMES));
+
+            engine.pause();
+            // 超过命令队列容量：只有渲染线程在暂停期间继续消费才不会抛出队列已满
+            for (int i = 0; i < 3 * AudioMixer.DEFAULT_COMMAND_CAPACITY; i++) {
+                track.setVolume((i % 100) / 100.0f);
+            }
+            mixer.retireTrack(track, 0);
+            long deadline = System.currentTimeMillis() + 2000;
+            while (!track.isRetired() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            assertTrue(track.isRetired());
+            assertTrue(sink.isPaused());
+            assertSame(sink.writerThread, sink.pauseThread);
+
+            long frames = sink.getFrames();
+            engine.start();
+            assertTrue(sink.awaitFrames(frames + 4 * BUFFER_FRAMES));
+            assertFalse(sink.isPaused());
+            assertSame(sink.writerThread, sink.resumeThread);
+            assertNull(engine.getLastError());
+        } finally {
+            engine.release();
+        }
+    }
+
+    /**
+     * 模拟 AudioTrack：每次写入耗时约 1ms，暂停期间写入阻塞到恢复或关闭
+     */
+    private static final class BlockingSink implements AudioSink {
+        private boolean paused;
+        private boolean closed;
+        private long frames;
+        volatile Thread writerThread;
+        volatile Thread pauseThread;
+        volatile Thread resumeThread;
+
+        @Override
+        public void open(int sampleRate, int channelCount, int bufferFrames) {
+        }
+
+        @Override
+        public void write(float[] buffer, int count) throws IOException {
+            writerThread = Thread.currentThread();
+            try {
+                Thread.sleep(1);
+                synchronized (this) {
+                    while (paused && !closed) {
+                        wait();
+                    }
+                    frames += count;
+                    notifyAll();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public boolean isBlocking() {
+            return true;
+        }
+
+        @Override
+        public synchronized void pause() {
+            pauseThread = Thread.currentThread();
+            paused = true;
+        }
+
+        @Override
+        public synchronized void resume() {
+            resumeThread = Thread.currentThread();
+            paused = false;
+            notifyAll();
+        }
+
+        @Override
+        public synchronized void close() {
+            closed = true;
+            notifyAll();
+        }
+
+        synchronized boolean isPaused() {
+            return paused;
+        }
+
+        synchronized long getFrames() {
+            return frames;
+        }
+
+        synchronized boolean awaitFrames(long target) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 2000;
+            while (frames < target) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                wait(remaining);
+            }
+            return true;
+        }
+    }
+}
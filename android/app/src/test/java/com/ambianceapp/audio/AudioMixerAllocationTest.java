@@ -0,0 +1,71 @@
+/**
+ * AudioMixerAllocationTest.java
+ * 验证混音渲染循环在稳定状态下不产生堆分配
+ */
+
+package com.ambianceapp.audio;
+
+import static org.junit.Assert.assertEquals;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.Test;
+
+public class AudioMixerAllocationTest {
+
+    private static final int SAMPLE_RATE = 44100;
+    private static final int BUFFER_SIZE = 1024;
+    private static final int TRACK_COUNT = 8;
+
+    @Test
+    public void renderLoopDoesNotAllocate() {
+        AudioMixer mixer = new AudioMixer(BUFFER_SIZE);
+        mixer.setLimiter(new LookaheadLimiter(SAMPLE_RATE));
+        mixer.enableMetering(SAMPLE_RATE);
+        for (int t = 0; t < TRACK_COUNT; t++) {
+            // 长度与缓冲区不对齐，确保循环回绕路径也被覆盖
+            MixerTrack track = mixer.addTrack("track" + t, new PcmLoopSource(createPcm(t % 2 + 1, 1000 + t * 37), true));
+            track.setVolume(0.1f * (t + 1));
+            track.setPan(t / 4.0f - 1.0f);
+            track.setPlaying(true);
+        }
+        mixer.setMasterVolume(0.8f);
+
+        float[] output = new float[BUFFER_SIZE * AudioMixer.OUTPUT_CHANNELS];
+        short[] pcm = new short[output.length];
+
+        // 预热，让 JIT 完成编译
+        renderBuffers(mixer, output, pcm, 20_000);
+
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        // 计数器调用本身的开销
+        long before = threads.getThreadAllocatedBytes(threadId);
+        long overhead = threads.getThreadAllocatedBytes(threadId) - before;
+
+        int buffers = 5_000;   // 约 512 万帧
+        before = threads.getThreadAllocatedBytes(threadId);
+        renderBuffers(mixer, output, pcm, buffers);
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertEquals("bytes allocated while rendering " + (long) buffers * BUFFER_SIZE + " frames",
+            overhead, allocated);
+    }
+
+    private static void renderBuffers(AudioMixer mixer, float[] output, short[] pcm, int buffers) {
+        for (int i = 0; i < buffers; i++) {
+            mixer.render(output, BUFFER_SIZE);
+            PcmConverter.floatToPcm16(output, pcm, output.length);
+        }
+    }
+
+    private static PcmData createPcm(int channels, int frames) {
+        short[] samples = new short[frames * channels];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = (short) (Math.sin(i * 2 * Math.PI * 440 / SAMPLE_RATE) * 16000);
+        }
+        return new PcmData(SAMPLE_RATE, channels, samples);
+    }
+}
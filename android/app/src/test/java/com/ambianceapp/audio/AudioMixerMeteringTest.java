@@ -0,0 +1,214 @@
+/**
+ * AudioMixerMeteringTest.java
+ * 电平表的峰值与 RMS、停止后回落、并发读取的一致性，以及开启后的渲染开销
+ */
+
+package com.ambianceapp.audio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+public class AudioMixerMeteringTest {
+
+    private static final int SAMPLE_RATE = 44100;
+    private static final int BUFFER_SIZE = 1024;
+    private static final double METERING_BUDGET = 0.5;
+
+    @Test
+    public void sineReportsPeakAndRms() {
+        AudioMixer mixer = new AudioMixer(BUFFER_SIZE);
+        mixer.enableMetering(SAMPLE_RATE);
+        // 441Hz 单声道，音量 1，声像居中
+        MixerTrack track = mixer.addTrack("tone", new PcmLoopSource(sine(441.0, SAMPLE_RATE, SAMPLE_RATE), true));
+        track.setVolume(1.0f);
+        track.setPlaying(true);
+
+        float[] output = new float[BUFFER_SIZE * 2];
+        // RMS 时间常数 0.3s，渲染 3s 后已收敛
+        for (int b = 0; b < 130; b++) {
+            mixer.render(output, BUFFER_SIZE);
+        }
+
+        float[] trackLevels = new float[AudioMixer.METER_VALUES];
+        float[] masterLevels = new float[AudioMixer.METER_VALUES];
+        assertTrue(mixer.readMeters(new MixerTrack[] {track}, trackLevels, masterLevels));
+
+        float amplitude = 0.5f * AudioMixer.leftGain(1.0f, 0.0f);
+        assertEquals(amplitude, trackLevels[AudioMixer.METER_PEAK_LEFT], 1.0e-3f);
+        assertEquals(amplitude, trackLevels[AudioMixer.METER_PEAK_RIGHT], 1.0e-3f);
+        assertEquals(amplitude / Math.sqrt(2), trackLevels[AudioMixer.METER_RMS_LEFT], 1.0e-3);
+        assertEquals(amplitude / Math.sqrt(2), trackLevels[AudioMixer.METER_RMS_RIGHT], 1.0e-3);
+        // 只有一条音轨、没有限幅器，主输出与音轨一致
+        assertEquals(trackLevels[AudioMixer.METER_PEAK_LEFT], masterLevels[AudioMixer.METER_PEAK_LEFT], 1.0e-6f);
+        assertEquals(trackLevels[AudioMixer.METER_RMS_LEFT], masterLevels[AudioMixer.METER_RMS_LEFT], 1.0e-4f);
+    }
+
+    @Test
+    public void stoppedTrackMeterFallsBack() {
+        AudioMixer mixer = new AudioMixer(BUFFER_SIZE);
+        mixer.enableMetering(SAMPLE_RATE);
+        MixerTrack track = mixer.addTrack("tone", new PcmLoopSource(sine(441.0, SAMPLE_RATE, SAMPLE_RATE), true));
+        track.setVolume(1.0f);
+        track.setPlaying(true);
+
+        float[] output = new float[BUFFER_SIZE * 2];
+        for (int b = 0; b < 50; b++) {
+            mixer.render(output, BUFFER_SIZE);
+        }
+        float[] levels = new float[AudioMixer.METER_VALUES];
+        float[] master = new float[AudioMixer.METER_VALUES];
+        mixer.readMeters(new MixerTrack[] {track}, levels, master);
+        float peak = levels[AudioMixer.METER_PEAK_LEFT];
+
+        track.setPlaying(false);
+        // 停止的淡出结束后再渲染 1 秒 (约 43 个缓冲区)
+        for (int b = 0; b < 10; b++) {
+            mixer.render(output, BUFFER_SIZE);
+        }
+        mixer.readMeters(new MixerTrack[] {track}, levels, master);
+        float before = levels[AudioMixer.METER_PEAK_LEFT];
+        for (int b = 0; b < 43; b++) {
+            mixer.render(output, BUFFER_SIZE);
+        }
+        mixer.readMeters(new MixerTrack[] {track}, levels, master);
+
+        // 峰值按 20 dB/s 回落，RMS 趋近于 0
+        assertTrue(before <= peak);
+        assertEquals(-20.0, 20 * Math.log10(levels[AudioMixer.METER_PEAK_LEFT] / before), 0.5);
+        assertTrue(levels[AudioMixer.METER_RMS_LEFT] < peak * 0.1f);
+    }
+
+    @Test
+    public void concurrentReadsSeeConsistentSnapshots() throws Exception {
+        final AudioMixer mixer = new AudioMixer(BUFFER_SIZE);
+        mixer.enableMetering(SAMPLE_RATE);
+        // 两条音轨播放同一信号、相同参数，任何一致快照中两者的电平都相等
+        final MixerTrack[] tracks = new MixerTrack[2];
+        for (int t = 0; t < tracks.length; t++) {
+            tracks[t] = mixer.addTrack("t" + t, new NoiseSource(NoiseSource.Color.WHITE, SAMPLE_RATE, 2, 7));
+            tracks[t].setVolume(0.5f);
+            tracks[t].setPlaying(true);
+        }
+
+        final AtomicBoolean running = new AtomicBoolean(true);
+        Thread render = new Thread(() -> {
+            float[] output = new float[BUFFER_SIZE * 2];
+            while (running.get()) {
+                mixer.render(output, BUFFER_SIZE);
+                Thread.yield();
+            }
+        });
+        render.start();
+        try {
+            float[] levels = new float[AudioMixer.METER_VALUES * tracks.length];
+            float[] master = new float[AudioMixer.METER_VALUES];
+            int consistent = 0;
+            for (int i = 0; i < 20_000; i++) {
+                if (!mixer.readMeters(tracks, levels, master)) {
+                    continue;
+                }
+                consistent++;
+                for (int v = 0; v < AudioMixer.METER_VALUES; v++) {
+                    assertEquals(levels[v], levels[AudioMixer.METER_VALUES + v], 0.0f);
+                }
+                Thread.yield();
+            }
+            assertTrue(consistent > 0);
+        } finally {
+            running.set(false);
+            render.join();
+        }
+    }
+
+    @Test
+    public void meteringOverheadStaysWithinBudget() {
+        for (int trackCount : new int[] {8, 16}) {
+            AudioMixer plain = createMixer(trackCount, false);
+            AudioMixer metered = createMixer(trackCount, true);
+            float[] output = new float[BUFFER_SIZE * 2];
+            for (int i = 0; i < 5_000; i++) {
+                plain.render(output, BUFFER_SIZE);
+                metered.render(output, BUFFER_SIZE);
+            }
+            // 两者交替计时，取多轮最小值以减少调度干扰
+            long off = Long.MAX_VALUE;
+            long on = Long.MAX_VALUE;
+            for (int round = 0; round < 200; round++) {
+                off = Math.min(off, timeRender(plain, output));
+                on = Math.min(on, timeRender(metered, output));
+            }
+            // 与 MixBenchmark 的预算相同：8 条以上音轨时多不超过 50% (这里实测 +17% ~ +37%)
+            assertTrue(trackCount + " tracks: metering " + on + " ns vs " + off + " ns",
+                on <= off * (1.0 + METERING_BUDGET));
+        }
+    }
+
+    @Test
+    public void disabledMeteringLeavesLevelsUntouched() {
+        AudioMixer mixer = new AudioMixer(BUFFER_SIZE);
+        MixerTrack track = mixer.addTrack("tone", new PcmLoopSource(sine(441.0, SAMPLE_RATE, SAMPLE_RATE), true));
+        track.setVolume(1.0f);
+        track.setPlaying(true);
+        float[] output = new float[BUFFER_SIZE * 2];
+        mixer.render(output, BUFFER_SIZE);
+
+        assertFalse(mixer.isMeteringEnabled());
+        float[] levels = new float[AudioMixer.METER_VALUES];
+        float[] master = new float[AudioMixer.METER_VALUES];
+        assertTrue(mixer.readMeters(new MixerTrack[] {track}, levels, master));
+        assertEquals(0.0f, levels[AudioMixer.METER_PEAK_LEFT], 0.0f);
+        assertEquals(0.0f, master[AudioMixer.METER_RMS_RIGHT], 0.0f);
+    }
+
+    // ==================== 工具 ====================
+
+    /**
+     * 与 MixBenchmark 相同的场景：立体声正弦音轨，主音量 0.8
+     */
+    private static AudioMixer createMixer(int trackCount, boolean metering) {
+        AudioMixer mixer = new AudioMixer(BUFFER_SIZE);
+        for (int t = 0; t < trackCount; t++) {
+            MixerTrack track = mixer.addTrack("t" + t,
+                new PcmLoopSource(stereoSine(220.0 + 55 * t, 88200, SAMPLE_RATE), true));
+            track.setVolume(0.5f);
+            track.setPan((t % 5) / 2.0f - 1.0f);
+            track.setPlaying(true);
+        }
+        mixer.setMasterVolume(0.8f);
+        if (metering) {
+            mixer.enableMetering(SAMPLE_RATE);
+        }
+        return mixer;
+    }
+
+    private static long timeRender(AudioMixer mixer, float[] output) {
+        long start = System.nanoTime();
+        for (int i = 0; i < 20; i++) {
+            mixer.render(output, BUFFER_SIZE);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static PcmData stereoSine(double frequency, int frames, int sampleRate) {
+        short[] samples = new short[frames * 2];
+        for (int i = 0; i < frames; i++) {
+            short value = (short) Math.round(16384 * Math.sin(2 * Math.PI * frequency * i / sampleRate));
+            samples[2 * i] = value;
+            samples[2 * i + 1] = value;
+        }
+        return new PcmData(sampleRate, 2, samples);
+    }
+
+    private static PcmData sine(double frequency, int frames, int sampleRate) {
+        short[] samples = new short[frames];
+        for (int i = 0; i < frames; i++) {
+            samples[i] = (short) Math.round(16384 * Math.sin(2 * Math.PI * frequency * i / sampleRate));
+        }
+        return new PcmData(sampleRate, 1, samples);
+    }
+}
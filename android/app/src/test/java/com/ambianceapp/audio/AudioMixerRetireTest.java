@@ -0,0 +1,110 @@
+/**
+ * AudioMixerRetireTest.java
+ * 移除音轨：播放中淡出后才停止读取音源，已停止或挂起的音轨立即完成，之后的命令不再生效
+ */
+
+package com.ambianceapp.audio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class AudioMixerRetireTest {
+
+    private static final int BUFFER_SIZE = 256;
+
+    @Test
+    public void playingTrackFadesOutBeforeItIsRetired() {
+        AudioMixer mixer = new AudioMixer(BUFFER_SIZE);
+        CountingSource source = new CountingSource();
+        MixerTrack track = mixer.addTrack("rain", source);
+        track.setPlaying(true);
+        float[] output = new float[BUFFER_SIZE * 2];
+        mixer.render(output, BUFFER_SIZE);
+
+        mixer.retireTrack(track, 2 * BUFFER_SIZE);
+        mixer.render(output, BUFFER_SIZE);
+        assertFalse(track.isRetired());
+        assertTrue(output[0] > output[(BUFFER_SIZE - 1) * 2]);
+        mixer.render(output, BUFFER_SIZE);
+        assertTrue(track.isRetired());
+        assertEquals(0.0f, output[(BUFFER_SIZE - 1) * 2], 1e-3f);
+
+        long reads = source.frames;
+        mixer.render(output, BUFFER_SIZE);
+        assertEquals(reads, source.frames);
+        assertEquals(0.0f, output[0], 0.0f);
+
+        assertTrue(mixer.removeTrack(track));
+        assertTrue(mixer.getTracks().isEmpty());
+    }
+
+    @Test
+    public void stoppedOrSuspendedTracksRetireImmediately() {
+        AudioMixer mixer = new AudioMixer(BUFFER_SIZE);
+        mixer.setSuspendGraceFrames(BUFFER_SIZE);
+        MixerTrack stopped = mixer.addTrack("stopped", new CountingSource());
+        MixerTrack suspended = mixer.addTrack("suspended",
+            new NoiseSource(NoiseSource.Color.PINK, 44100, 2, 5));
+        suspended.setVolume(0.0f);
+        suspended.setPlaying(true);
+        float[] output = new float[BUFFER_SIZE * 2];
+        for (int b = 0; b < 3; b++) {
+            mixer.render(output, BUFFER_SIZE);
+        }
+        assertTrue(suspended.isSuspended());
+
+        mixer.retireTrack(stopped, 2 * BUFFER_SIZE);
+        mixer.retireTrack(suspended, 2 * BUFFER_SIZE);
+        mixer.drainCommands();
+        assertTrue(stopped.isRetired());
+        assertTrue(suspended.isRetired());
+    }
+
+    @Test
+    public void commandsAfterRetireAreIgnored() {
+        AudioMixer mixer = new AudioMixer(BUFFER_SIZE);
+        CountingSource source = new CountingSource();
+        MixerTrack track = mixer.addTrack("rain", source);
+        mixer.retireTrack(track, 0);
+        track.setPlaying(true);
+        track.setVolume(1.0f);
+        SceneChange change = new SceneChange();
+        change.set(track, 1.0f, 0.0f, true);
+        mixer.applySceneChange(change, BUFFER_SIZE);
+
+        float[] output = new float[BUFFER_SIZE * 2];
+        for (int b = 0; b < 4; b++) {
+            mixer.render(output, BUFFER_SIZE);
+        }
+        assertTrue(track.isRetired());
+        assertEquals(0, source.frames);
+    }
+
+    /**
+     * 输出恒定直流并记录读取的帧数
+     */
+    private static final class CountingSource implements AudioSource {
+        long frames;
+
+        @Override
+        public int getChannelCount() {
+            return 2;
+        }
+
+        @Override
+        public int read(float[] buffer, int offset, int count) {
+            for (int i = 0; i < count * 2; i++) {
+                buffer[offset + i] = 0.5f;
+            }
+            frames += count;
+            return count;
+        }
+
+        @Override
+        public void reset() {
+        }
+    }
+}
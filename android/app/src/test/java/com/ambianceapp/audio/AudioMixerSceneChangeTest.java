@@ -0,0 +1,131 @@
+/**
+ * AudioMixerSceneChangeTest.java
+ * 场景切换：所有音轨在同一个缓冲区边界开始过渡，共有音轨形变音量与声像而不重新开始，
+ * 新音轨错开启动，以及声像逐采样过渡
+ */
+
+package com.ambianceapp.audio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class AudioMixerSceneChangeTest {
+
+    @Test
+    public void sceneChangeAppliesAtOneBufferBoundary() {
+        AudioMixer mixer = new AudioMixer(64);
+        PcmData pcm = new PcmData(44100, 1, new short[64]);
+        MixerTrack outgoing = mixer.addTrack("a", new PcmLoopSource(pcm, true));
+        MixerTrack incoming = mixer.addTrack("b", new PcmLoopSource(pcm, true));
+        outgoing.setVolume(0.8f);
+        outgoing.setPlaying(true);
+        mixer.render(new float[128], 64);
+
+        mixer.applySceneChange(new SceneChange()
+            .set(outgoing, 0.0f, 0.0f, false)
+            .set(incoming, 0.6f, 0.4f, true), 128);
+        assertFalse(outgoing.isPlaying());
+        assertTrue(incoming.isPlaying());
+
+        // 同一个缓冲区内两条音轨都开始等功率过渡，走到一半
+        mixer.render(new float[128], 64);
+        assertTrue(outgoing.renderPlaying);
+        assertEquals(0.8 * Math.cos(Math.PI / 4), outgoing.gainRamp.getValue(), 1.0e-5);
+        assertEquals(0.6 * Math.sin(Math.PI / 4), incoming.gainRamp.getValue(), 1.0e-5);
+        assertEquals(0.4f, incoming.panRamp.getValue(), 0.0f);
+
+        // 淡出结束后停止
+        mixer.render(new float[128], 64);
+        assertFalse(outgoing.renderPlaying);
+        assertEquals(0.6f, incoming.gainRamp.getValue(), 0.0f);
+    }
+
+    @Test
+    public void sceneTransitionMorphsSharedTracksAndStaggersIncoming() {
+        AudioMixer mixer = new AudioMixer(64);
+        PcmData pcm = new PcmData(44100, 1, new short[64]);
+        MixerTrack shared = mixer.addTrack("a", new PcmLoopSource(pcm, true));
+        MixerTrack first = mixer.addTrack("b", new PcmLoopSource(pcm, true));
+        MixerTrack second = mixer.addTrack("c", new PcmLoopSource(pcm, true));
+        shared.setVolume(0.2f);
+        shared.setPan(-1.0f);
+        shared.setPlaying(true);
+        mixer.render(new float[128], 64);
+        assertFalse(mixer.wasLastRenderInTransition());
+
+        mixer.applySceneChange(new SceneChange()
+            .set(shared, 0.6f, 1.0f, true)
+            .set(first, 0.5f, 0.0f, true)
+            .set(second, 0.5f, 0.0f, true), 256, 128);
+
+        // 共有音轨不重新开始，音量与声像线性过渡
+        mixer.render(new float[128], 64);
+        int serial = mixer.getTransitionSerial();
+        assertTrue(mixer.wasLastRenderInTransition());
+        assertTrue(shared.renderPlaying);
+        assertEquals(0.3f, shared.gainRamp.getValue(), 1.0e-5);
+        assertEquals(-0.5f, shared.panRamp.getValue(), 1.0e-5);
+        assertTrue(first.renderPlaying);
+        assertFalse(second.renderPlaying);
+
+        // 第二条新音轨推迟 128 帧启动
+        mixer.render(new float[128], 64);
+        assertFalse(second.renderPlaying);
+        mixer.render(new float[128], 64);
+        assertTrue(second.renderPlaying);
+        assertEquals(0.5 * Math.sin(Math.PI / 2 * 64 / 256), second.gainRamp.getValue(), 1.0e-5);
+
+        // 过渡覆盖错开的启动与斜坡：128 + 256 帧
+        for (int i = 0; i < 3; i++) {
+            mixer.render(new float[128], 64);
+            assertTrue(mixer.wasLastRenderInTransition());
+        }
+        mixer.render(new float[128], 64);
+        assertFalse(mixer.wasLastRenderInTransition());
+        assertEquals(serial, mixer.getTransitionSerial());
+        assertEquals(0.6f, shared.gainRamp.getValue(), 0.0f);
+        assertEquals(1.0f, shared.panRamp.getValue(), 0.0f);
+        assertEquals(0.5f, second.gainRamp.getValue(), 0.0f);
+    }
+
+    @Test
+    public void sceneMorphMovesPanPerSample() {
+        AudioMixer mixer = new AudioMixer(64);
+        short[] dc = new short[64];
+        Arrays.fill(dc, (short) 16384);
+        MixerTrack shared = mixer.addTrack("a", new PcmLoopSource(new PcmData(44100, 1, dc), true));
+        shared.setVolume(1.0f);
+        shared.setPan(1.0f);
+        shared.setPlaying(true);
+        mixer.render(new float[128], 64);
+
+        // 声像从右到左：前半段左声道从 0 线性升到 0.5，后半段右声道从 0.5 线性降到 0
+        mixer.applySceneChange(new SceneChange().set(shared, 1.0f, -1.0f, true), 256);
+        float[] left = new float[320];
+        float[] right = new float[320];
+        float[] buffer = new float[128];
+        for (int b = 0; b < 5; b++) {
+            mixer.render(buffer, 64);
+            for (int i = 0; i < 64; i++) {
+                left[b * 64 + i] = buffer[i * 2];
+                right[b * 64 + i] = buffer[i * 2 + 1];
+            }
+        }
+        // 每帧最多变化 0.5 · 2/256，包括缓冲区交界处
+        float step = 0.5f * 2.0f / 256;
+        for (int i = 1; i < 320; i++) {
+            assertTrue("left jump at " + i, Math.abs(left[i] - left[i - 1]) <= step * 1.01f);
+            assertTrue("right jump at " + i, Math.abs(right[i] - right[i - 1]) <= step * 1.01f);
+        }
+        assertEquals(0.0f, left[0], 1.0e-6);
+        assertEquals(0.5f, right[0], 1.0e-6);
+        assertEquals(0.5f, left[319], 1.0e-6);
+        assertEquals(0.0f, right[319], 1.0e-6);
+        assertEquals(-1.0f, shared.panRamp.getValue(), 0.0f);
+    }
+}
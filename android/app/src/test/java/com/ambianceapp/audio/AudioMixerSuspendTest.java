@@ -0,0 +1,253 @@
+/**
+ * AudioMixerSuspendTest.java
+ * 静音音轨挂起：宽限期、淡出结束后才计时、主音量静音 (期间音轨淡变照常完成)、恢复后逐位相同，
+ * 以及离线分段时的状态一致
+ */
+
+package com.ambianceapp.audio;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class AudioMixerSuspendTest {
+
+    private static final int SAMPLE_RATE = 44100;
+    private static final int BUFFER_SIZE = 1024;
+    private static final long GRACE = 4 * BUFFER_SIZE;
+
+    @Test
+    public void silentTrackIsSuspendedAfterTheGracePeriod() {
+        AudioMixer mixer = new AudioMixer(BUFFER_SIZE);
+        mixer.setSuspendGraceFrames(GRACE);
+        MixerTrack track = mixer.addTrack("rain", new PcmLoopSource(ramp(10007), true));
+        track.setPlaying(true);
+
+        float[] output = new float[BUFFER_SIZE * 2];
+        render(mixer, output, 10);
+        assertEquals(10 * BUFFER_SIZE, track.getActiveFrames());
+
+        track.setVolume(0.0f);
+        render(mixer, output, 4);
+        assertFalse(track.isSuspended());
+        render(mixer, output, 1);
+        assertTrue(track.isSuspended());
+        render(mixer, output, 20);
+        assertEquals(14 * BUFFER_SIZE, track.getActiveFrames());
+        assertEquals(21 * BUFFER_SIZE, track.getSuspendedFrames());
+
+        track.setVolume(0.5f);
+        render(mixer, output, 1);
+        assertFalse(track.isSuspended());
+        assertEquals(15 * BUFFER_SIZE, track.getActiveFrames());
+    }
+
+    @Test
+    public void resumedTrackMatchesAnUnsuspendedMixBitForBit() {
+        AudioMixer suspending = new AudioMixer(BUFFER_SIZE);
+        suspending.setSuspendGraceFrames(GRACE);
+        AudioMixer reference = new AudioMixer(BUFFER_SIZE);
+        PcmData data = ramp(10007);
+        MixerTrack[] tracks = {
+            suspending.addTrack("rain", new PcmLoopSource(data, true)),
+            reference.addTrack("rain", new PcmLoopSource(data, true)),
+        };
+
+        float[] actual = new float[BUFFER_SIZE * 2];
+        float[] expected = new float[BUFFER_SIZE * 2];
+        for (int b = 0; b < 400; b++) {
+            for (MixerTrack track : tracks) {
+                if (b == 0) {
+                    track.setPlaying(true);
+                } else if (b == 30) {
+                    track.rampVolume(0.0f, 3000, GainRamp.Shape.EQUAL_POWER);
+                } else if (b == 200) {
+                    // 挂起期间的帧数不是周期的整数倍，恢复时位置必须精确
+                    track.rampVolume(0.8f, 5000, GainRamp.Shape.EQUAL_POWER);
+                } else if (b == 300) {
+                    track.setVolume(0.0f);
+                } else if (b == 357) {
+                    track.setVolume(0.3f);
+                }
+            }
+            suspending.render(actual, BUFFER_SIZE);
+            reference.render(expected, BUFFER_SIZE);
+            assertArrayEquals("buffer " + b, expected, actual, 0.0f);
+        }
+        assertTrue(tracks[0].getSuspendedFrames() > 150L * BUFFER_SIZE);
+        assertEquals(0, tracks[1].getSuspendedFrames());
+    }
+
+    @Test
+    public void fadeOutCountsOnlyOnceTheRampEnds() {
+        AudioMixer mixer = new AudioMixer(BUFFER_SIZE);
+        mixer.setSuspendGraceFrames(GRACE);
+        MixerTrack track = mixer.addTrack("rain", new PcmLoopSource(ramp(10007), true));
+        track.setPlaying(true);
+        track.rampVolume(0.0f, 10 * BUFFER_SIZE, GainRamp.Shape.EXPONENTIAL);
+
+        float[] output = new float[BUFFER_SIZE * 2];
+        render(mixer, output, 14);
+        assertFalse(track.isSuspended());
+        render(mixer, output, 1);
+        assertTrue(track.isSuspended());
+    }
+
+    @Test
+    public void silentMasterSuspendsEveryTrack() {
+        AudioMixer mixer = new AudioMixer(BUFFER_SIZE);
+        mixer.setSuspendGraceFrames(GRACE);
+        MixerTrack rain = mixer.addTrack("rain", new PcmLoopSource(ramp(10007), true));
+        MixerTrack noise = mixer.addTrack("noise", new NoiseSource(NoiseSource.Color.BROWN, SAMPLE_RATE, 2, 3));
+        rain.setPlaying(true);
+        noise.setPlaying(true);
+        mixer.rampMasterVolume(0.0f, 2 * BUFFER_SIZE, GainRamp.Shape.EXPONENTIAL);
+
+        float[] output = new float[BUFFER_SIZE * 2];
+        render(mixer, output, 7);
+        assertTrue(rain.isSuspended());
+        assertTrue(noise.isSuspended());
+
+        mixer.rampMasterVolume(1.0f, BUFFER_SIZE, GainRamp.Shape.EQUAL_POWER);
+        render(mixer, output, 1);
+        assertFalse(rain.isSuspended());
+        assertFalse(noise.isSuspended());
+    }
+
+    @Test
+    public void trackFadesKeepRunningWhileTheMasterIsSilent() {
+        AudioMixer suspending = new AudioMixer(BUFFER_SIZE);
+        suspending.setSuspendGraceFrames(GRACE);
+        AudioMixer reference = new AudioMixer(BUFFER_SIZE);
+        PcmData data = ramp(10007);
+        MixerTrack[] fading = {
+            suspending.addTrack("rain", new PcmLoopSource(data, true)),
+            reference.addTrack("rain", new PcmLoopSource(data, true)),
+        };
+        MixerTrack[] stopping = {
+            suspending.addTrack("noise", new NoiseSource(NoiseSource.Color.BROWN, SAMPLE_RATE, 2, 3)),
+            reference.addTrack("noise", new NoiseSource(NoiseSource.Color.BROWN, SAMPLE_RATE, 2, 3)),
+        };
+        AudioMixer[] mixers = {suspending, reference};
+        for (int i = 0; i < 2; i++) {
+            fading[i].setPlaying(true);
+            stopping[i].setPlaying(true);
+            mixers[i].rampMasterVolume(0.0f, 2 * BUFFER_SIZE, GainRamp.Shape.EXPONENTIAL);
+        }
+
+        float[] actual = new float[BUFFER_SIZE * 2];
+        float[] expected = new float[BUFFER_SIZE * 2];
+        for (int i = 0; i < 2; i++) {
+            render(mixers[i], i == 0 ? actual : expected, 7);
+        }
+        assertTrue(fading[0].isSuspended());
+        assertTrue(stopping[0].isSuspended());
+
+        // 挂起期间开始的淡变按时完成，场景淡出结束后音轨停止
+        for (int i = 0; i < 2; i++) {
+            fading[i].rampVolume(0.2f, 3 * BUFFER_SIZE, GainRamp.Shape.LINEAR);
+            SceneChange change = new SceneChange();
+            change.set(stopping[i], 0.0f, 0.0f, false);
+            mixers[i].applySceneChange(change, 2 * BUFFER_SIZE);
+        }
+        render(suspending, actual, 4);
+        render(reference, expected, 4);
+        assertFalse(fading[0].gainRamp.isRamping());
+        assertEquals(0.2f, fading[0].gainRamp.getValue(), 0.0f);
+        long suspended = stopping[0].getSuspendedFrames();
+        render(suspending, actual, 2);
+        render(reference, expected, 2);
+        assertEquals(suspended, stopping[0].getSuspendedFrames());
+
+        // 主音量恢复后与从未挂起的混音逐位相同
+        for (int i = 0; i < 2; i++) {
+            mixers[i].rampMasterVolume(1.0f, BUFFER_SIZE, GainRamp.Shape.EQUAL_POWER);
+        }
+        for (int b = 0; b < 20; b++) {
+            suspending.render(actual, BUFFER_SIZE);
+            reference.render(expected, BUFFER_SIZE);
+            assertArrayEquals("buffer " + b, expected, actual, 0.0f);
+        }
+    }
+
+    @Test
+    public void otherSourcesAreNeverSuspended() {
+        AudioMixer mixer = new AudioMixer(BUFFER_SIZE);
+        mixer.setSuspendGraceFrames(GRACE);
+        MixerTrack track = mixer.addTrack("plain", new AudioSource() {
+            @Override
+            public int getChannelCount() {
+                return 2;
+            }
+
+            @Override
+            public int read(float[] buffer, int offset, int frames) {
+                return frames;
+            }
+
+            @Override
+            public void reset() {
+            }
+        });
+        track.setVolume(0.0f);
+        track.setPlaying(true);
+
+        render(mixer, new float[BUFFER_SIZE * 2], 50);
+        assertFalse(track.isSuspended());
+        assertEquals(50 * BUFFER_SIZE, track.getActiveFrames());
+    }
+
+    @Test
+    public void skipAndCopyKeepTheSuspensionState() {
+        AudioMixer mixer = new AudioMixer(BUFFER_SIZE);
+        mixer.setSuspendGraceFrames(GRACE);
+        MixerTrack rain = mixer.addTrack("rain", new PcmLoopSource(ramp(10007), true));
+        MixerTrack noise = mixer.addTrack("noise", new NoiseSource(NoiseSource.Color.PINK, SAMPLE_RATE, 2, 9));
+        rain.setPlaying(true);
+        noise.setPlaying(true);
+        rain.setVolume(0.0f);
+        noise.setVolume(0.0f);
+
+        // 在挂起期间复制，一份逐个渲染、一份跳过，音量回升后两者输出相同
+        float[] output = new float[BUFFER_SIZE * 2];
+        render(mixer, output, 8);
+        AudioMixer skipped = mixer.copyState();
+        render(mixer, output, 12);
+        for (int b = 0; b < 12; b++) {
+            skipped.skip(BUFFER_SIZE);
+        }
+        for (AudioMixer target : new AudioMixer[] {mixer, skipped}) {
+            for (MixerTrack track : target.getTracks()) {
+                track.rampVolume(0.6f, 2000, GainRamp.Shape.EQUAL_POWER);
+            }
+        }
+
+        float[] copied = new float[BUFFER_SIZE * 2];
+        for (int b = 0; b < 20; b++) {
+            mixer.render(output, BUFFER_SIZE);
+            skipped.render(copied, BUFFER_SIZE);
+            assertArrayEquals("buffer " + b, output, copied, 0.0f);
+        }
+    }
+
+    private static void render(AudioMixer mixer, float[] output, int buffers) {
+        for (int b = 0; b < buffers; b++) {
+            mixer.render(output, BUFFER_SIZE);
+        }
+    }
+
+    /**
+     * 每帧取值都不同的立体声锯齿，位置错一帧输出就不同
+     */
+    private static PcmData ramp(int frames) {
+        short[] samples = new short[frames * 2];
+        for (int i = 0; i < frames; i++) {
+            samples[2 * i] = (short) (i % 30000 - 15000);
+            samples[2 * i + 1] = (short) (15000 - i % 30000);
+        }
+        return new PcmData(SAMPLE_RATE, 2, samples);
+    }
+}
@@ -0,0 +1,263 @@
+/**
+ * BufferSizeControllerTest.java
+ * 缓冲区大小自适应：窗口内欠载增大、稳定后减小、振荡时加长等待，在模拟抖动输出端上的闭环，
+ * 以及经过重采样时输出端只在控制器调整时改变大小
+ */
+
+package com.ambianceapp.audio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class BufferSizeControllerTest {
+
+    private static final int SAMPLE_RATE = 44100;
+    private static final long WINDOW = SAMPLE_RATE * 2L;
+    private static final long STABLE = SAMPLE_RATE * 30L;
+
+    private final BufferSizeController controller =
+        new BufferSizeController(256, 2048, 256, 2, WINDOW, STABLE);
+
+    @Test
+    public void startsAtTheSmallestSize() {
+        assertEquals(256, controller.getFrames());
+        assertTrue(controller.getHistory().isEmpty());
+    }
+
+    @Test
+    public void stepsUpWhenUnderrunsClusterInTheWindow() {
+        controller.onBuffer(256, true);
+        assertEquals(256, controller.getFrames());
+        controller.onBuffer(256, false);
+        assertEquals(512, controller.onBuffer(256, true));
+
+        BufferSizeController.Change change = controller.getHistory().get(0);
+        assertEquals(256, change.getFromFrames());
+        assertEquals(512, change.getToFrames());
+        assertEquals(2, change.getUnderruns());
+        assertEquals(768, change.getPositionFrames());
+    }
+
+    @Test
+    public void spreadOutUnderrunsAreTolerated() {
+        for (int i = 0; i < 20; i++) {
+            controller.onBuffer(256, true);
+            run(256, false, WINDOW);
+        }
+        assertEquals(256, controller.getFrames());
+        assertEquals(0, controller.getChangeCount());
+    }
+
+    @Test
+    public void underrunsAtTheOldSizeDoNotCountAfterAChange() {
+        controller.onBuffer(256, true);
+        controller.onBuffer(256, true);
+        assertEquals(512, controller.getFrames());
+        controller.onBuffer(512, true);
+        assertEquals(512, controller.getFrames());
+    }
+
+    @Test
+    public void stepsDownOnlyAfterAStablePeriod() {
+        controller.onBuffer(256, true);
+        controller.onBuffer(256, true);
+        controller.onBuffer(512, true);
+        controller.onBuffer(512, true);
+        assertEquals(768, controller.getFrames());
+
+        run(768, false, STABLE - 768);
+        assertEquals(768, controller.getFrames());
+        run(768, false, 768);
+        assertEquals(512, controller.getFrames());
+
+        // 每一级都要重新稳定
+        run(512, false, STABLE - 512);
+        assertEquals(512, controller.getFrames());
+        run(512, false, 512);
+        assertEquals(256, controller.getFrames());
+        run(256, false, STABLE * 2);
+        assertEquals(256, controller.getFrames());
+    }
+
+    @Test
+    public void failedStepDownDoublesTheHold() {
+        controller.onBuffer(256, true);
+        controller.onBuffer(256, true);
+        run(512, false, STABLE);
+        assertEquals(256, controller.getFrames());
+
+        // 减小后马上又欠载：回到 512，下次减小需要两倍的稳定时长
+        controller.onBuffer(256, true);
+        controller.onBuffer(256, true);
+        assertEquals(512, controller.getFrames());
+        run(512, false, STABLE + 512);
+        assertEquals(512, controller.getFrames());
+        run(512, false, STABLE);
+        assertEquals(256, controller.getFrames());
+    }
+
+    @Test
+    public void neverExceedsTheRange() {
+        for (int i = 0; i < 100; i++) {
+            controller.onBuffer(controller.getFrames(), true);
+        }
+        assertEquals(2048, controller.getFrames());
+        run(2048, false, STABLE * BufferSizeController.MAX_HOLD_MULTIPLIER * 20);
+        assertEquals(256, controller.getFrames());
+    }
+
+    @Test
+    public void historyKeepsTheMostRecentChanges() {
+        for (int i = 0; i < 10; i++) {
+            while (controller.getFrames() < 2048) {
+                controller.onBuffer(controller.getFrames(), true);
+            }
+            run(2048, false, STABLE * BufferSizeController.MAX_HOLD_MULTIPLIER * 8);
+        }
+        List<BufferSizeController.Change> history = controller.getHistory();
+        assertEquals(BufferSizeController.HISTORY_SIZE, history.size());
+        assertTrue(controller.getChangeCount() > BufferSizeController.HISTORY_SIZE);
+        for (int i = 1; i < history.size(); i++) {
+            assertTrue(history.get(i).getPositionFrames() > history.get(i - 1).getPositionFrames());
+            assertEquals(history.get(i - 1).getToFrames(), history.get(i).getFromFrames());
+        }
+    }
+
+    @Test
+    public void growsUnderJitterAndShrinksWhenItStops() throws Exception {
+        SimulatedClock clock = new SimulatedClock();
+        JitterSink sink = new JitterSink(clock, 42);
+        AudioMixer mixer = new AudioMixer(2048);
+        mixer.addTrack("noise", new NoiseSource(NoiseSource.Color.PINK, SAMPLE_RATE, 2, 7)).setPlaying(true);
+        AudioEngine engine = new AudioEngine(mixer, sink, SAMPLE_RATE, 2048, clock);
+        engine.setBufferSizeController(controller);
+        sink.open(SAMPLE_RATE, AudioMixer.OUTPUT_CHANNELS, 2048);
+
+        // 偶发最长 15ms 的写入推迟：256 帧 (5.8ms) 与 512 帧都挡不住，768 帧 (17.4ms) 起不再断流
+        sink.setJitter(0.05, 15_000_000L);
+        renderFor(engine, 30);
+        assertEquals(768, engine.getCurrentBufferFrames());
+        assertEquals(768 * 1_000_000_000L / SAMPLE_RATE, engine.getDeadlineNanos());
+        assertEquals(2, controller.getChangeCount());
+        long underruns = engine.getStats().getUnderrunCount();
+        assertTrue(underruns >= 4);
+        assertEquals(sink.getStarvedCount(), underruns);
+
+        // 稳定 30 秒后试探 512 帧，很快又欠载，回到 768 帧，之后要稳定 60 秒才再次试探
+        renderFor(engine, 50);
+        List<BufferSizeController.Change> history = controller.getHistory();
+        assertEquals(4, history.size());
+        assertEquals(512, history.get(2).getToFrames());
+        assertEquals(768, history.get(3).getToFrames());
+        assertTrue(history.get(3).getPositionFrames() - history.get(2).getPositionFrames() < STABLE);
+        assertEquals(768, engine.getCurrentBufferFrames());
+
+        // 抖动消失后逐级回到最小，不再欠载
+        underruns = engine.getStats().getUnderrunCount();
+        sink.setJitter(0, 0);
+        renderFor(engine, 90);
+        assertEquals(256, engine.getCurrentBufferFrames());
+        assertEquals(underruns, engine.getStats().getUnderrunCount());
+        assertEquals(6, controller.getChangeCount());
+    }
+
+    @Test
+    public void resampledOutputIsResizedOncePerControllerChange() throws Exception {
+        SimulatedClock clock = new SimulatedClock();
+        ResizeRecordingSink output = new ResizeRecordingSink(new JitterSink(clock, 42));
+        ResamplingSink sink = new ResamplingSink(output, 48000, SincResampler.Quality.MEDIUM);
+        AudioMixer mixer = new AudioMixer(2048);
+        mixer.addTrack("noise", new NoiseSource(NoiseSource.Color.PINK, SAMPLE_RATE, 2, 7)).setPlaying(true);
+        AudioEngine engine = new AudioEngine(mixer, sink, SAMPLE_RATE, 2048, clock);
+        engine.setBufferSizeController(controller);
+        sink.open(SAMPLE_RATE, AudioMixer.OUTPUT_CHANNELS, 2048);
+
+        output.jitter.setJitter(0.05, 15_000_000L);
+        renderFor(engine, 30);
+        output.jitter.setJitter(0, 0);
+        renderFor(engine, 90);
+
+        // 每次写入的帧数逐缓冲区变化 (例如 256 帧交替输出 278 与 279 帧)，但只在控制器调整时改变大小
+        assertTrue(output.writeSizes.size() > controller.getChangeCount() + 1);
+        List<BufferSizeController.Change> history = controller.getHistory();
+        assertTrue(history.size() >= 3);
+        assertEquals(history.size(), output.resizes.size());
+        SincResampler resampler = new SincResampler(SAMPLE_RATE, 48000, 2, SincResampler.Quality.MEDIUM, 2048);
+        for (int i = 0; i < history.size(); i++) {
+            assertEquals(resampler.getMaxOutputFrames(history.get(i).getToFrames()), (int) output.resizes.get(i));
+        }
+    }
+
+    private void run(int frames, boolean underrun, long totalFrames) {
+        for (long played = 0; played < totalFrames; played += frames) {
+            controller.onBuffer(frames, underrun);
+        }
+    }
+
+    private static void renderFor(AudioEngine engine, int seconds) throws Exception {
+        long frames = 0;
+        while (frames < (long) seconds * SAMPLE_RATE) {
+            frames += engine.getCurrentBufferFrames();
+            engine.renderNextBuffer();
+        }
+    }
+
+    /**
+     * 记录 setBufferFrames 调用与出现过的写入帧数，其余转发给模拟输出端
+     */
+    private static final class ResizeRecordingSink implements AudioSink {
+        final JitterSink jitter;
+        final List<Integer> resizes = new ArrayList<>();
+        final Set<Integer> writeSizes = new HashSet<>();
+
+        ResizeRecordingSink(JitterSink jitter) {
+            this.jitter = jitter;
+        }
+
+        @Override
+        public void open(int sampleRate, int channelCount, int bufferFrames) {
+            jitter.open(sampleRate, channelCount, bufferFrames);
+        }
+
+        @Override
+        public void write(float[] buffer, int frames) {
+            writeSizes.add(frames);
+            jitter.write(buffer, frames);
+        }
+
+        @Override
+        public boolean isBlocking() {
+            return true;
+        }
+
+        @Override
+        public void setBufferFrames(int frames) {
+            resizes.add(frames);
+        }
+
+        @Override
+        public long getUnderrunCount() {
+            return jitter.getUnderrunCount();
+        }
+
+        @Override
+        public void pause() {
+            jitter.pause();
+        }
+
+        @Override
+        public void resume() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ * GainRampTest.java
+ * 将斜坡输出与解析曲线逐采样比较
+ */
+
+package com.ambianceapp.audio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import org.junit.Test;
+
+public class GainRampTest {
+
+    private static final int SAMPLE_RATE = 44100;
+    private static final double TOLERANCE = 1.0e-5;
+
+    @Test
+    public void linearRampFollowsStraightLine() {
+        GainRamp ramp = new GainRamp(0.2f);
+        int n = SAMPLE_RATE * 2;
+        ramp.rampTo(0.9f, n, GainRamp.Shape.LINEAR);
+
+        for (int i = 0; i < n; i++) {
+            double expected = 0.2 + (0.9 - 0.2) * i / n;
+            assertEquals("sample " + i, expected, ramp.next(), TOLERANCE);
+        }
+        assertFalse(ramp.isRamping());
+        assertEquals(0.9f, ramp.next(), 0.0f);
+    }
+
+    @Test
+    public void exponentialRampFollowsConstantDecibelSlope() {
+        GainRamp ramp = new GainRamp(1.0f);
+        int n = SAMPLE_RATE * 30;
+        ramp.rampTo(0.0f, n, GainRamp.Shape.EXPONENTIAL);
+
+        // g(i) = start * (end / start)^(i / n)，end 取 -80dB 下限
+        double ratio = GainRamp.SILENCE_FLOOR / 1.0;
+        for (int i = 0; i < n; i++) {
+            double expected = Math.pow(ratio, (double) i / n);
+            assertEquals("sample " + i, expected, ramp.next(), TOLERANCE);
+        }
+        // 结束后精确落在目标值 0
+        assertEquals(0.0f, ramp.next(), 0.0f);
+    }
+
+    @Test
+    public void skipMatchesStepping() {
+        GainRamp stepped = new GainRamp(0.5f);
+        GainRamp skipped = new GainRamp(0.5f);
+        stepped.rampTo(0.05f, 10_000, GainRamp.Shape.EXPONENTIAL);
+        skipped.rampTo(0.05f, 10_000, GainRamp.Shape.EXPONENTIAL);
+
+        for (int i = 0; i < 4321; i++) {
+            stepped.next();
+        }
+        skipped.skip(4321);
+        assertEquals(stepped.getValue(), skipped.getValue(), TOLERANCE);
+    }
+
+    @Test
+    public void mixerAppliesTrackAndMasterRampsPerSample() {
+        int bufferSize = 256;
+        int rampSamples = 1000;   // 跨越多个缓冲区且不对齐
+        short[] dc = new short[bufferSize];
+        java.util.Arrays.fill(dc, (short) 16384);   // 0.5
+
+        AudioMixer mixer = new AudioMixer(bufferSize);
+        MixerTrack track = mixer.addTrack("dc", new PcmLoopSource(new PcmData(SAMPLE_RATE, 1, dc), true));
+        track.setVolume(1.0f);
+        track.setPlaying(true);
+
+        float[] output = new float[bufferSize * AudioMixer.OUTPUT_CHANNELS];
+        mixer.render(output, bufferSize);
+
+        // 斜坡从下一个缓冲区的第一个采样开始
+        track.rampVolume(0.0f, rampSamples, GainRamp.Shape.LINEAR);
+        mixer.rampMasterVolume(0.5f, rampSamples, GainRamp.Shape.EXPONENTIAL);
+        int frame = 0;
+        for (int b = 0; b < 5; b++) {
+            mixer.render(output, bufferSize);
+            for (int i = 0; i < bufferSize; i++, frame++) {
+                double trackGain = frame < rampSamples ? 1.0 - (double) frame / rampSamples : 0.0;
+                double masterGain = frame < rampSamples ? Math.pow(0.5, (double) frame / rampSamples) : 0.5;
+                double expected = 0.5 * trackGain * masterGain;
+                assertEquals("left " + frame, expected, output[i * 2], TOLERANCE);
+                assertEquals("right " + frame, expected, output[i * 2 + 1], TOLERANCE);
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/**
+ * LookaheadLimiterTest.java
+ * 叠加超出满刻度时输出不越过上限，低于上限时原样延迟输出，增益平滑回升
+ */
+
+package com.ambianceapp.audio;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class LookaheadLimiterTest {
+
+    private static final int SAMPLE_RATE = 44100;
+    private static final int BUFFER_SIZE = 1024;
+
+    @Test
+    public void summedTracksNeverExceedCeiling() {
+        LookaheadLimiter limiter = new LookaheadLimiter(SAMPLE_RATE);
+        // 8 条满音量正弦叠加，峰值约为满刻度的 8 倍
+        float[] buffer = new float[BUFFER_SIZE * 2];
+        float peak = 0.0f;
+        for (int b = 0; b < 200; b++) {
+            for (int i = 0; i < BUFFER_SIZE; i++) {
+                long n = (long) b * BUFFER_SIZE + i;
+                float sum = 0.0f;
+                for (int t = 0; t < 8; t++) {
+                    sum += (float) Math.sin(2 * Math.PI * (110 + 37 * t) * n / SAMPLE_RATE);
+                }
+                buffer[i * 2] = sum;
+                buffer[i * 2 + 1] = -sum * 0.5f;
+            }
+            limiter.process(buffer, BUFFER_SIZE);
+            for (float s : buffer) {
+                peak = Math.max(peak, Math.abs(s));
+            }
+        }
+        assertTrue("peak " + peak, peak <= LookaheadLimiter.DEFAULT_CEILING * 1.0001f);
+        assertTrue(limiter.getGainReductionDb() > 6.0f);
+    }
+
+    @Test
+    public void signalBelowCeilingPassesThroughDelayed() {
+        LookaheadLimiter limiter = new LookaheadLimiter(SAMPLE_RATE);
+        int delay = limiter.getLookaheadFrames();
+        float[] input = new float[BUFFER_SIZE * 2];
+        for (int i = 0; i < input.length; i++) {
+            input[i] = (float) (0.8 * Math.sin(i * 0.013));
+        }
+        float[] buffer = input.clone();
+        limiter.process(buffer, BUFFER_SIZE);
+
+        float[] expected = new float[input.length];
+        System.arraycopy(input, 0, expected, delay * 2, input.length - delay * 2);
+        assertArrayEquals(expected, buffer, 0.0f);
+        assertEquals(0.0f, limiter.getGainReductionDb(), 0.0f);
+    }
+
+    @Test
+    public void gainDropsBeforeTransientAndRecoversSmoothly() {
+        LookaheadLimiter limiter = new LookaheadLimiter(SAMPLE_RATE, 5.0f, 0.5f, 50.0f);
+        int delay = limiter.getLookaheadFrames();
+        int frames = SAMPLE_RATE;
+        float[] buffer = new float[frames * 2];
+        // 直流 0.25，中间一个 2.0 的单帧尖峰
+        int spike = 10_000;
+        for (int i = 0; i < frames; i++) {
+            buffer[i * 2] = buffer[i * 2 + 1] = i == spike ? 2.0f : 0.25f;
+        }
+        for (int offset = 0; offset < frames; offset += BUFFER_SIZE) {
+            int count = Math.min(BUFFER_SIZE, frames - offset);
+            float[] block = new float[count * 2];
+            System.arraycopy(buffer, offset * 2, block, 0, count * 2);
+            limiter.process(block, count);
+            System.arraycopy(block, 0, buffer, offset * 2, count * 2);
+        }
+
+        // 尖峰被压到上限，之前的直流没有被突然压低
+        assertEquals(0.5f, buffer[(spike + delay) * 2], 1.0e-4f);
+        float maxStep = 0.0f;
+        for (int i = delay + 1; i < frames; i++) {
+            if (i == spike + delay || i == spike + delay + 1) {
+                continue;
+            }
+            maxStep = Math.max(maxStep, Math.abs(buffer[i * 2] - buffer[(i - 1) * 2]));
+        }
+        // 增益 1 -> 0.25 的下压分摊在整个前瞻窗口内
+        assertTrue("step " + maxStep, maxStep < 0.25f * 0.75f / delay * 1.5f);
+
+        // 释放：一个时间常数后恢复约 63%，最终回到原值
+        float afterRelease = buffer[(spike + delay + SAMPLE_RATE / 20) * 2];
+        assertEquals(0.0625 + (0.25 - 0.0625) * (1 - Math.exp(-1)), afterRelease, 0.01);
+        assertEquals(0.25f, buffer[(frames - 1) * 2], 1.0e-4f);
+    }
+
+    @Test
+    public void mixerAppliesLimiterAfterMasterGain() {
+        AudioMixer mixer = new AudioMixer(BUFFER_SIZE);
+        mixer.setLimiter(new LookaheadLimiter(SAMPLE_RATE));
+        short[] loud = new short[BUFFER_SIZE];
+        for (int i = 0; i < loud.length; i++) {
+            loud[i] = (short) (i % 2 == 0 ? 32000 : -32000);
+        }
+        for (int t = 0; t < 4; t++) {
+            MixerTrack track = mixer.addTrack("t" + t, new PcmLoopSource(new PcmData(SAMPLE_RATE, 1, loud), true));
+            track.setVolume(1.0f);
+            track.setPlaying(true);
+        }
+        mixer.configureLimiter(0.5f, 20.0f);
+
+        float[] output = new float[BUFFER_SIZE * 2];
+        for (int b = 0; b < 10; b++) {
+            mixer.render(output, BUFFER_SIZE);
+            for (float s : output) {
+                assertTrue(Math.abs(s) <= 0.5f * 1.0001f);
+            }
+        }
+        assertEquals(0.5f, mixer.getLimiter().getCeiling(), 0.0f);
+    }
+}
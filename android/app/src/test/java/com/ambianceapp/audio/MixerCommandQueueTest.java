@@ -0,0 +1,126 @@
+/**
+ * MixerCommandQueueTest.java
+ * 多生产者并发投递，校验命令不丢失、同一音轨内不乱序
+ */
+
+package com.ambianceapp.audio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+public class MixerCommandQueueTest {
+
+    private static final int PRODUCERS = 16;
+    private static final int COMMANDS_PER_PRODUCER = 50_000;
+
+    @Test
+    public void manyProducersLoseAndReorderNothing() throws Exception {
+        // 容量远小于命令总数，迫使生产者频繁遇到队满
+        MixerCommandQueue queue = new MixerCommandQueue(256);
+        Map<MixerTrack, long[]> lastSeen = new IdentityHashMap<>();
+        List<MixerTrack> tracks = new ArrayList<>();
+        for (int p = 0; p < PRODUCERS; p++) {
+            MixerTrack track = new MixerTrack("t" + p, null, null);
+            tracks.add(track);
+            lastSeen.put(track, new long[] {-1});
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> producers = new ArrayList<>();
+        for (MixerTrack track : tracks) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (long seq = 0; seq < COMMANDS_PER_PRODUCER; seq++) {
+                    while (!queue.offer(MixerCommandQueue.SET_GAIN, track, 0.0f, seq,
+                            GainRamp.Shape.LINEAR)) {
+                        Thread.yield();
+                    }
+                }
+            });
+            producers.add(thread);
+            thread.start();
+        }
+
+        AtomicBoolean producing = new AtomicBoolean(true);
+        AtomicReference<String> failure = new AtomicReference<>();
+        long[] total = new long[1];
+        MixerCommandQueue.Handler handler = (type, track, value, seq, shape, payload) -> {
+            long[] last = lastSeen.get(track);
+            if (seq != last[0] + 1 && failure.get() == null) {
+                failure.set(track.getId() + ": expected " + (last[0] + 1) + " got " + seq);
+            }
+            last[0] = seq;
+            total[0]++;
+        };
+        Thread consumer = new Thread(() -> {
+            while (producing.get()) {
+                if (queue.drain(handler) == 0) {
+                    Thread.yield();
+                }
+            }
+            queue.drain(handler);
+        });
+        consumer.start();
+
+        start.countDown();
+        for (Thread thread : producers) {
+            thread.join();
+        }
+        producing.set(false);
+        consumer.join();
+
+        assertEquals(null, failure.get());
+        assertEquals((long) PRODUCERS * COMMANDS_PER_PRODUCER, total[0]);
+        for (MixerTrack track : tracks) {
+            assertEquals(COMMANDS_PER_PRODUCER - 1, lastSeen.get(track)[0]);
+        }
+    }
+
+    @Test
+    public void offerFailsWhenFullAndRecoversAfterDrain() {
+        MixerCommandQueue queue = new MixerCommandQueue(4);
+        for (int i = 0; i < queue.getCapacity(); i++) {
+            assertTrue(queue.offer(MixerCommandQueue.RESET, null, 0.0f, i, null));
+        }
+        assertFalse(queue.offer(MixerCommandQueue.RESET, null, 0.0f, 99, null));
+
+        long[] next = new long[1];
+        int drained = queue.drain((type, track, value, seq, shape, payload) -> assertEquals(next[0]++, seq));
+        assertEquals(queue.getCapacity(), drained);
+        assertTrue(queue.offer(MixerCommandQueue.RESET, null, 0.0f, 0, null));
+    }
+
+    @Test
+    public void commandsPostedBeforeRenderApplyInOrder() {
+        AudioMixer mixer = new AudioMixer(64);
+        MixerTrack track = mixer.addTrack("t", new PcmLoopSource(
+            new PcmData(44100, 1, new short[64]), true));
+        track.setVolume(0.3f);
+        track.setPlaying(true);
+        track.setPan(-0.5f);
+        track.rampVolume(0.8f, 1000, GainRamp.Shape.LINEAR);
+
+        mixer.render(new float[128], 64);
+
+        assertTrue(track.renderPlaying);
+        assertEquals(-0.5f, track.panRamp.getValue(), 0.0f);
+        // 先执行 setVolume(0.3)，再从 0.3 开始斜坡，已前进 64 个采样
+        assertEquals(0.3 + 0.5 * 64 / 1000, track.gainRamp.getValue(), 1.0e-5);
+        assertEquals(0.8f, track.gainRamp.getTarget(), 0.0f);
+    }
+}
@@ -0,0 +1,159 @@
+/**
+ * NoiseSourceTest.java
+ * 用平均功率谱拟合频谱斜率，校验三种噪音的颜色
+ */
+
+package com.ambianceapp.audio;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class NoiseSourceTest {
+
+    private static final int SAMPLE_RATE = 44100;
+    private static final int FFT_SIZE = 4096;
+    private static final int SEGMENTS = 200;
+
+    @Test
+    public void whiteNoiseIsFlat() {
+        assertEquals(0.0, slopeDbPerOctave(NoiseSource.Color.WHITE), 0.3);
+    }
+
+    @Test
+    public void pinkNoiseFallsThreeDecibelsPerOctave() {
+        assertEquals(-3.01, slopeDbPerOctave(NoiseSource.Color.PINK), 0.5);
+    }
+
+    @Test
+    public void brownNoiseFallsSixDecibelsPerOctave() {
+        assertEquals(-6.02, slopeDbPerOctave(NoiseSource.Color.BROWN), 0.5);
+    }
+
+    @Test
+    public void levelsMatchAcrossColors() {
+        for (NoiseSource.Color color : NoiseSource.Color.values()) {
+            NoiseSource source = new NoiseSource(color, SAMPLE_RATE, 1, 1);
+            float[] buffer = new float[SAMPLE_RATE * 20];
+            source.read(buffer, 0, buffer.length);
+            double sumSquares = 0;
+            for (float s : buffer) {
+                sumSquares += s * s;
+            }
+            assertEquals(color.name(), 0.25, Math.sqrt(sumSquares / buffer.length), 0.03);
+        }
+    }
+
+    @Test
+    public void seedAndResetReproduceOutput() {
+        NoiseSource a = NoiseSource.fromUri("noise://pink?seed=42", SAMPLE_RATE);
+        NoiseSource b = new NoiseSource(NoiseSource.Color.PINK, SAMPLE_RATE, 2, 42);
+        float[] first = new float[2048];
+        float[] second = new float[2048];
+        a.read(first, 0, 1024);
+        b.read(second, 0, 1024);
+        assertArrayEquals(first, second, 0.0f);
+
+        // 分块读取与整块读取一致
+        a.reset();
+        a.read(second, 0, 300);
+        a.read(second, 600, 724);
+        assertArrayEquals(first, second, 0.0f);
+    }
+
+    @Test
+    public void skipAndCopyMatchRead() {
+        for (NoiseSource.Color color : NoiseSource.Color.values()) {
+            NoiseSource read = new NoiseSource(color, SAMPLE_RATE, 2, 7);
+            NoiseSource skipped = new NoiseSource(color, SAMPLE_RATE, 2, 7);
+            float[] expected = new float[2048];
+            float[] actual = new float[2048];
+            for (int remaining = 12345; remaining > 0; remaining -= 1000) {
+                read.read(expected, 0, Math.min(1000, remaining));
+            }
+            assertEquals(12345, skipped.skip(12345));
+            SeekableSource copy = skipped.copy();
+
+            // 跳过后与复制出的音源都逐位接续原输出，且互不影响
+            read.read(expected, 0, 1024);
+            skipped.read(actual, 0, 1024);
+            assertArrayEquals(color.name(), expected, actual, 0.0f);
+            copy.read(actual, 0, 1024);
+            assertArrayEquals(color.name(), expected, actual, 0.0f);
+        }
+    }
+
+    /**
+     * 100Hz - 10kHz 之间 log(功率) 对 log2(频率) 的最小二乘斜率
+     */
+    private static double slopeDbPerOctave(NoiseSource.Color color) {
+        NoiseSource source = new NoiseSource(color, SAMPLE_RATE, 1, 12345);
+        float[] block = new float[FFT_SIZE];
+        double[] power = new double[FFT_SIZE / 2];
+        double[] re = new double[FFT_SIZE];
+        double[] im = new double[FFT_SIZE];
+
+        for (int s = 0; s < SEGMENTS; s++) {
+            source.read(block, 0, FFT_SIZE);
+            for (int i = 0; i < FFT_SIZE; i++) {
+                double window = 0.5 - 0.5 * Math.cos(2 * Math.PI * i / FFT_SIZE);
+                re[i] = block[i] * window;
+                im[i] = 0;
+            }
+            fft(re, im);
+            for (int k = 0; k < power.length; k++) {
+                power[k] += re[k] * re[k] + im[k] * im[k];
+            }
+        }
+
+        double sx = 0, sy = 0, sxx = 0, sxy = 0;
+        int n = 0;
+        for (int k = 1; k < power.length; k++) {
+            double freq = (double) k * SAMPLE_RATE / FFT_SIZE;
+            if (freq < 100 || freq > 10000) {
+                continue;
+            }
+            double x = Math.log(freq) / Math.log(2);
+            double y = 10 * Math.log10(power[k]);
+            sx += x;
+            sy += y;
+            sxx += x * x;
+            sxy += x * y;
+            n++;
+        }
+        return (n * sxy - sx * sy) / (n * sxx - sx * sx);
+    }
+
+    private static void fft(double[] re, double[] im) {
+        int n = re.length;
+        for (int i = 1, j = 0; i < n; i++) {
+            int bit = n >> 1;
+            for (; (j & bit) != 0; bit >>= 1) {
+                j ^= bit;
+            }
+            j ^= bit;
+            if (i < j) {
+                double t = re[i]; re[i] = re[j]; re[j] = t;
+                t = im[i]; im[i] = im[j]; im[j] = t;
+            }
+        }
+        for (int len = 2; len <= n; len <<= 1) {
+            double angle = -2 * Math.PI / len;
+            for (int i = 0; i < n; i += len) {
+                for (int k = 0; k < len / 2; k++) {
+                    double wr = Math.cos(angle * k);
+                    double wi = Math.sin(angle * k);
+                    int a = i + k;
+                    int b = a + len / 2;
+                    double xr = re[b] * wr - im[b] * wi;
+                    double xi = re[b] * wi + im[b] * wr;
+                    re[b] = re[a] - xr;
+                    im[b] = im[a] - xi;
+                    re[a] += xr;
+                    im[a] += xi;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,252 @@
+/**
+ * OfflineRendererTest.java
+ * 离线渲染写出的 WAV 文件头与采样正确，内容与实时渲染一致，且快于实时；
+ * 并行渲染与单线程渲染的文件逐字节相同
+ */
+
+package com.ambianceapp.audio;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class OfflineRendererTest {
+
+    private static final int SAMPLE_RATE = 44100;
+    private static final int BUFFER_SIZE = 1024;
+
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("offline", ".wav");
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void wavHeaderDescribesRenderedAudio() throws IOException {
+        // 帧数与缓冲区、写缓冲区都不对齐
+        long frames = SAMPLE_RATE * 3L + 17;
+        OfflineRenderer renderer = new OfflineRenderer(createScene(), SAMPLE_RATE, BUFFER_SIZE);
+        OfflineRenderer.Result result;
+        try (WavWriter writer = new WavWriter(file, SAMPLE_RATE, 2, 1000)) {
+            result = renderer.render(writer, frames);
+            assertEquals(frames, writer.getFramesWritten());
+        }
+        assertEquals(frames, result.getFrames());
+
+        ByteBuffer header = readFile(0, WavWriter.HEADER_SIZE);
+        long dataBytes = frames * 4;
+        assertEquals(WavWriter.HEADER_SIZE + dataBytes, file.length());
+        assertEquals(0x46464952, header.getInt(0));
+        assertEquals(36 + dataBytes, header.getInt(4));
+        assertEquals(0x45564157, header.getInt(8));
+        assertEquals(1, header.getShort(20));
+        assertEquals(2, header.getShort(22));
+        assertEquals(SAMPLE_RATE, header.getInt(24));
+        assertEquals(SAMPLE_RATE * 4, header.getInt(28));
+        assertEquals(4, header.getShort(32));
+        assertEquals(16, header.getShort(34));
+        assertEquals(0x61746164, header.getInt(36));
+        assertEquals(dataBytes, header.getInt(40));
+    }
+
+    @Test
+    public void samplesMatchRealtimeRender() throws IOException {
+        long frames = SAMPLE_RATE * 2L;
+        new OfflineRenderer(createScene(), SAMPLE_RATE, BUFFER_SIZE).renderToWav(file, frames);
+
+        // 同一场景按实时路径逐缓冲区渲染并转换为 16 位
+        AudioMixer reference = createScene();
+        float[] buffer = new float[BUFFER_SIZE * 2];
+        short[] expected = new short[BUFFER_SIZE * 2];
+        ByteBuffer data = readFile(WavWriter.HEADER_SIZE, (int) (frames * 4));
+        for (long offset = 0; offset < frames; offset += BUFFER_SIZE) {
+            int count = (int) Math.min(BUFFER_SIZE, frames - offset);
+            reference.render(buffer, count);
+            PcmConverter.floatToPcm16(buffer, expected, count * 2);
+            for (int i = 0; i < count * 2; i++) {
+                assertEquals("sample " + (offset * 2 + i), expected[i], data.getShort());
+            }
+        }
+    }
+
+    @Test
+    public void rendersFasterThanRealtime() throws IOException {
+        // 8 条音轨的 5 分钟场景
+        long frames = SAMPLE_RATE * 300L;
+        OfflineRenderer.Result result =
+            new OfflineRenderer(createScene(), SAMPLE_RATE, BUFFER_SIZE).renderToWav(file, frames);
+        assertEquals(WavWriter.HEADER_SIZE + frames * 4, file.length());
+        // 60 分钟需在数秒内完成，即数百倍实时；测试环境只要求明显快于实时
+        assertTrue("realtime factor " + result.getRealtimeFactor(), result.getRealtimeFactor() > 50.0);
+    }
+
+    @Test
+    public void realtimeFactorUsesClock() throws IOException {
+        SimulatedClock clock = new SimulatedClock();
+        AudioMixer mixer = new AudioMixer(BUFFER_SIZE) {
+            @Override
+            public void render(float[] output, int frames) {
+                super.render(output, frames);
+                clock.advance(1_000_000L);
+            }
+        };
+        OfflineRenderer.Result result =
+            new OfflineRenderer(mixer, SAMPLE_RATE, BUFFER_SIZE, clock).renderToWav(file, BUFFER_SIZE * 100L);
+        // 每个缓冲区 (约 23.2ms) 耗时 1ms
+        assertEquals(BUFFER_SIZE * 1000.0 / SAMPLE_RATE, result.getRealtimeFactor(), 1.0e-9);
+        assertEquals(100_000_000L, result.getElapsedNanos());
+    }
+
+    @Test
+    public void parallelRenderMatchesSequentialBitForBit() throws IOException {
+        // 帧数不与段长、缓冲区对齐；段长很短 (约 0.4 秒)，预热与斜坡都跨越多个段
+        long frames = SAMPLE_RATE * 6L + 333;
+        File parallel = File.createTempFile("offline-parallel", ".wav");
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            new OfflineRenderer(createRampedScene(), SAMPLE_RATE, BUFFER_SIZE).renderToWav(file, frames);
+            OfflineRenderer renderer = new OfflineRenderer(createRampedScene(), SAMPLE_RATE, BUFFER_SIZE);
+            assertTrue(renderer.canRenderInParallel());
+            OfflineRenderer.Result result;
+            try (WavWriter writer = new WavWriter(parallel, SAMPLE_RATE, 2)) {
+                result = renderer.renderParallel(writer, frames, pool, 16384);
+            }
+            assertEquals(frames, result.getFrames());
+            assertEquals((frames + 16383) / 16384, result.getSegmentCount());
+            // 预热足够长，响亮的场景持续限幅也能直接采用每一段
+            assertEquals(0, result.getRelimitedSegmentCount());
+            assertSameFile(file, parallel);
+
+            // 只预热一个窗口时包络常常不一致，重新限幅的段输出也逐位相同
+            renderer = new OfflineRenderer(createRampedScene(), SAMPLE_RATE, BUFFER_SIZE);
+            try (WavWriter writer = new WavWriter(parallel, SAMPLE_RATE, 2)) {
+                result = renderer.renderParallel(writer, frames, pool, 4096, BUFFER_SIZE);
+            }
+            assertEquals((frames + 4095) / 4096, result.getSegmentCount());
+            assertTrue("relimited " + result.getRelimitedSegmentCount(),
+                result.getRelimitedSegmentCount() > 0
+                    && result.getRelimitedSegmentCount() < result.getSegmentCount());
+            assertSameFile(file, parallel);
+        } finally {
+            pool.shutdown();
+            parallel.delete();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void unseekableSourcesRenderSequentially() throws IOException {
+        AudioMixer mixer = createScene();
+        mixer.addTrack("silence", new AudioSource() {
+            @Override
+            public int getChannelCount() {
+                return 2;
+            }
+
+            @Override
+            public int read(float[] buffer, int offset, int frames) {
+                return frames;
+            }
+
+            @Override
+            public void reset() {
+            }
+        });
+        OfflineRenderer renderer = new OfflineRenderer(mixer, SAMPLE_RATE, BUFFER_SIZE);
+        assertFalse(renderer.canRenderInParallel());
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try (WavWriter writer = new WavWriter(file, SAMPLE_RATE, 2)) {
+            renderer.renderParallel(writer, SAMPLE_RATE, pool, 4096);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // ==================== 工具 ====================
+
+    private static AudioMixer createScene() {
+        AudioMixer mixer = new AudioMixer(BUFFER_SIZE);
+        mixer.setLimiter(new LookaheadLimiter(SAMPLE_RATE));
+        for (int t = 0; t < 8; t++) {
+            AudioSource source = t % 2 == 0
+                ? new NoiseSource(NoiseSource.Color.values()[t % 3], SAMPLE_RATE, 2, t)
+                : new PcmLoopSource(sine(110.0 * t, SAMPLE_RATE + 37 * t), true);
+            MixerTrack track = mixer.addTrack("t" + t, source);
+            track.setVolume(0.3f);
+            track.setPan(t / 4.0f - 1.0f);
+            track.setPlaying(true);
+        }
+        return mixer;
+    }
+
+    /**
+     * 三种噪音、带接缝的 PCM 循环，音量与声像斜坡、主音量斜坡与错开启动，限幅器持续工作
+     */
+    private static AudioMixer createRampedScene() {
+        AudioMixer mixer = new AudioMixer(BUFFER_SIZE);
+        mixer.setLimiter(new LookaheadLimiter(SAMPLE_RATE, 5.0f, 0.5f, 80.0f));
+        for (int t = 0; t < 6; t++) {
+            AudioSource source = t < 3
+                ? new NoiseSource(NoiseSource.Color.values()[t], SAMPLE_RATE, 2, 100 + t)
+                : new PcmLoopSource(sine(97.0 * t, 5000 + 777 * t).withLoopCrossfade(300), true);
+            MixerTrack track = mixer.addTrack("t" + t, source);
+            track.setVolume(0.2f);
+            track.setPan(t / 3.0f - 1.0f);
+            track.setPlaying(true);
+            if (t % 2 == 1) {
+                track.rampVolume(0.9f, SAMPLE_RATE * (t + 1), GainRamp.Shape.values()[t % 3]);
+            }
+        }
+        mixer.setMasterVolume(0.3f);
+        mixer.rampMasterVolume(1.0f, SAMPLE_RATE * 3, GainRamp.Shape.EQUAL_POWER);
+        return mixer;
+    }
+
+    private static PcmData sine(double frequency, int frames) {
+        short[] samples = new short[frames];
+        for (int i = 0; i < frames; i++) {
+            samples[i] = (short) Math.round(16000 * Math.sin(2 * Math.PI * frequency * i / SAMPLE_RATE));
+        }
+        return new PcmData(SAMPLE_RATE, 1, samples);
+    }
+
+    private static void assertSameFile(File expected, File actual) throws IOException {
+        assertEquals(expected.length(), actual.length());
+        assertArrayEquals(readFile(expected, 0, (int) expected.length()).array(),
+            readFile(actual, 0, (int) actual.length()).array());
+    }
+
+    private ByteBuffer readFile(long position, int length) throws IOException {
+        return readFile(file, position, length);
+    }
+
+    private static ByteBuffer readFile(File file, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
+            while (buffer.hasRemaining()) {
+                if (input.getChannel().read(buffer, position + buffer.position()) < 0) {
+                    break;
+                }
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+}
@@ -0,0 +1,172 @@
+/**
+ * PcmCacheTest.java
+ * PCM 缓存：字节预算内的 LRU 淘汰顺序、固定条目不被淘汰、解除固定后可再淘汰、
+ * 内存映射的资源只有接缝计入预算，以及命中统计
+ */
+
+package com.ambianceapp.audio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class PcmCacheTest {
+
+    private static final int SAMPLE_RATE = 44100;
+    private static final long ENTRY_BYTES = data().getSizeInBytes();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final List<String> loaded = new ArrayList<>();
+
+    @Test
+    public void leastRecentlyUsedEntryIsEvictedFirst() throws Exception {
+        PcmCache cache = new PcmCache(3 * ENTRY_BYTES);
+        use(cache, "a");
+        use(cache, "b");
+        use(cache, "c");
+        use(cache, "a");
+
+        // 访问顺序 b、c、a，加入 d 后淘汰 b
+        use(cache, "d");
+        assertEquals(3, cache.getEntryCount());
+        assertEquals(3 * ENTRY_BYTES, cache.getSizeBytes());
+        assertEquals(1, cache.getEvictionCount());
+
+        // b 重新解码，淘汰此时最久未用的 c
+        use(cache, "b");
+        use(cache, "a");
+        use(cache, "d");
+        use(cache, "c");
+        assertLoaded("a", "b", "c", "d", "b", "c");
+        assertEquals(3, cache.getEvictionCount());
+    }
+
+    @Test
+    public void pinnedEntriesAreNeverEvicted() throws Exception {
+        PcmCache cache = new PcmCache(ENTRY_BYTES);
+        PcmData a = acquire(cache, "a");
+        PcmData b = acquire(cache, "b");
+
+        // 超出预算但两条都被固定
+        assertEquals(2, cache.getEntryCount());
+        assertEquals(2 * ENTRY_BYTES, cache.getSizeBytes());
+        assertEquals(0, cache.getEvictionCount());
+        cache.setBudgetBytes(0);
+        assertEquals(2, cache.getEntryCount());
+
+        assertSame(a, acquire(cache, "a"));
+        assertSame(b, acquire(cache, "b"));
+        assertLoaded("a", "b");
+    }
+
+    @Test
+    public void releasingTheLastPinMakesAnEntryEvictableAgain() throws Exception {
+        PcmCache cache = new PcmCache(ENTRY_BYTES);
+        acquire(cache, "a");
+        acquire(cache, "a");
+        use(cache, "b");
+        assertEquals(1, cache.getEntryCount());
+
+        // 还剩一次固定
+        cache.release("a", SAMPLE_RATE);
+        use(cache, "b");
+        assertEquals(1, cache.getEntryCount());
+
+        cache.release("a", SAMPLE_RATE);
+        use(cache, "b");
+        assertEquals(1, cache.getEntryCount());
+        use(cache, "a");
+        assertLoaded("a", "b", "b", "b", "a");
+
+        // 多余的 release 不会让计数变为负数
+        cache.release("a", SAMPLE_RATE);
+        cache.release("a", SAMPLE_RATE);
+        PcmData pinned = acquire(cache, "a");
+        use(cache, "b");
+        assertSame(pinned, acquire(cache, "a"));
+    }
+
+    @Test
+    public void mappedAssetsOnlyChargeTheirSeam() throws Exception {
+        File file = folder.newFile("loop.pcm");
+        PcmFile.write(new PcmData(SAMPLE_RATE, 2, new short[200_000]), file);
+        PcmData mapped = PcmFile.map(file).withLoopCrossfade(100);
+        assertEquals(400_000 + 400, mapped.getSizeInBytes());
+        assertEquals(400, mapped.getHeapSizeInBytes());
+
+        PcmCache cache = new PcmCache(2 * ENTRY_BYTES);
+        use(cache, "a");
+        use(cache, "b");
+        assertSame(mapped, cache.acquire("mapped", SAMPLE_RATE, () -> mapped));
+        cache.release("mapped", SAMPLE_RATE);
+
+        // 映射的采样远大于预算，但只有接缝计入，只淘汰最久未用的 a
+        assertEquals(ENTRY_BYTES + 400, cache.getSizeBytes());
+        assertEquals(1, cache.getEvictionCount());
+        use(cache, "b");
+        assertLoaded("a", "b");
+        assertEquals(2, cache.getEntryCount());
+    }
+
+    @Test
+    public void countersTrackHitsMissesAndEvictions() throws Exception {
+        PcmCache cache = new PcmCache(2 * ENTRY_BYTES);
+        use(cache, "a");
+        use(cache, "a");
+        use(cache, "b");
+        use(cache, "c");
+        assertEquals(1, cache.getHitCount());
+        assertEquals(3, cache.getMissCount());
+        assertEquals(1, cache.getEvictionCount());
+
+        // 不适合缓存的资源每次都记为未命中，但只解码一次
+        PcmCache.Loader tooLong = () -> {
+            loaded.add("long");
+            return null;
+        };
+        assertNull(cache.acquire("long.ogg", SAMPLE_RATE, tooLong));
+        assertNull(cache.acquire("long.ogg", SAMPLE_RATE, tooLong));
+        assertEquals(5, cache.getMissCount());
+        assertLoaded("a", "b", "c", "long");
+
+        // 同一路径不同采样率是不同的条目
+        cache.acquire("a", 48000, loader("a"));
+        assertEquals(6, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    private void use(PcmCache cache, String path) throws Exception {
+        acquire(cache, path);
+        cache.release(path, SAMPLE_RATE);
+    }
+
+    private PcmData acquire(PcmCache cache, String path) throws Exception {
+        return cache.acquire(path, SAMPLE_RATE, loader(path));
+    }
+
+    private PcmCache.Loader loader(String path) {
+        return () -> {
+            loaded.add(path);
+            return data();
+        };
+    }
+
+    private void assertLoaded(String... paths) {
+        assertEquals(Arrays.asList(paths), loaded);
+    }
+
+    private static PcmData data() {
+        return new PcmData(SAMPLE_RATE, 2, new short[2000]);
+    }
+}
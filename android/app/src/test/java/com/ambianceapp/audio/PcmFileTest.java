@@ -0,0 +1,135 @@
+/**
+ * PcmFileTest.java
+ * 预解码 PCM 资源：写入后映射逐位还原、32 字节文件头各字段、资源名，
+ * 以及截断或魔数错误的文件被拒绝
+ */
+
+package com.ambianceapp.audio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class PcmFileTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void writtenFileMapsBackBitForBit() throws Exception {
+        PcmData pcm = sawtooth(48000, 2, 3001);
+        File file = folder.newFile("saw.pcm");
+        PcmFile.write(pcm, file);
+
+        assertEquals(PcmFile.HEADER_SIZE + 3001L * 2 * 2, file.length());
+        ByteBuffer header = header(file);
+        assertEquals('A', header.get(0));
+        assertEquals('M', header.get(1));
+        assertEquals('B', header.get(2));
+        assertEquals('P', header.get(3));
+        assertEquals(1, header.getShort(4));
+        assertEquals(2, header.getShort(6));
+        assertEquals(48000, header.getInt(8));
+        assertEquals(3001, header.getInt(12));
+        for (int i = 16; i < PcmFile.HEADER_SIZE; i++) {
+            assertEquals(0, header.get(i));
+        }
+
+        PcmData mapped = PcmFile.map(file);
+        assertEquals(48000, mapped.getSampleRate());
+        assertEquals(2, mapped.getChannelCount());
+        assertEquals(3001, mapped.getFrameCount());
+        assertTrue(mapped.isMapped());
+        assertSamplesEqual(pcm, mapped);
+    }
+
+    @Test
+    public void assetNameReplacesTheExtension() {
+        assertEquals("sounds/rain.pcm", PcmFile.nameFor("sounds/rain.ogg"));
+        assertEquals("wind.pcm", PcmFile.nameFor("wind"));
+    }
+
+    @Test
+    public void truncatedOrForeignFilesAreRejected() throws Exception {
+        File file = folder.newFile("saw.pcm");
+        PcmFile.write(sawtooth(44100, 2, 1000), file);
+        byte[] bytes = Files.readAllBytes(file.toPath());
+
+        File truncated = folder.newFile("truncated.pcm");
+        Files.write(truncated.toPath(), Arrays.copyOf(bytes, bytes.length - 2));
+        assertRejected(truncated, "Truncated");
+
+        File header = folder.newFile("header.pcm");
+        Files.write(header.toPath(), Arrays.copyOf(bytes, PcmFile.HEADER_SIZE - 1));
+        assertRejected(header, "too short");
+
+        byte[] foreign = bytes.clone();
+        foreign[0] = 'O';
+        foreign[1] = 'g';
+        foreign[2] = 'g';
+        foreign[3] = 'S';
+        File magic = folder.newFile("magic.pcm");
+        Files.write(magic.toPath(), foreign);
+        assertRejected(magic, "Not a PCM asset");
+
+        byte[] future = bytes.clone();
+        future[4] = 2;
+        File version = folder.newFile("version.pcm");
+        Files.write(version.toPath(), future);
+        assertRejected(version, "version");
+    }
+
+    private static void assertRejected(File file, String message) {
+        try {
+            PcmFile.map(file);
+            fail("Expected IOException for " + file.getName());
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(message));
+        }
+    }
+
+    private static void assertSamplesEqual(PcmData expected, PcmData actual) {
+        ShortBuffer a = expected.getSamples();
+        ShortBuffer b = actual.getSamples();
+        int count = expected.getFrameCount() * expected.getChannelCount();
+        for (int i = 0; i < count; i++) {
+            if (a.get(i) != b.get(i)) {
+                fail("sample " + i + ": expected " + a.get(i) + " but was " + b.get(i));
+            }
+        }
+    }
+
+    private static ByteBuffer header(File file) throws IOException {
+        byte[] bytes = new byte[PcmFile.HEADER_SIZE];
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            raf.readFully(bytes);
+        }
+        return ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * 覆盖完整 16 位范围的锯齿，各声道相位不同
+     */
+    private static PcmData sawtooth(int sampleRate, int channels, int frames) {
+        short[] samples = new short[frames * channels];
+        for (int i = 0; i < frames; i++) {
+            for (int ch = 0; ch < channels; ch++) {
+                samples[i * channels + ch] = (short) (i * 97 + ch * 12345);
+            }
+        }
+        return new PcmData(sampleRate, channels, samples);
+    }
+}
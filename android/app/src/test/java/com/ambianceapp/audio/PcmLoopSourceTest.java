@@ -0,0 +1,128 @@
+/**
+ * PcmLoopSourceTest.java
+ * 数千次回绕后的采样精确性与接缝连续性
+ */
+
+package com.ambianceapp.audio;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class PcmLoopSourceTest {
+
+    private static final int SAMPLE_RATE = 44100;
+    private static final int LOOP_FRAMES = 1000;
+    private static final int WRAPS = 5000;
+    // 故意取不整除的缓冲区长度，让回绕落在缓冲区中间的各个位置
+    private static final int BUFFER_FRAMES = 333;
+
+    @Test
+    public void wrapsSampleAccuratelyWithoutSeam() {
+        PcmData pcm = sine(LOOP_FRAMES, 441.0);
+        PcmLoopSource source = new PcmLoopSource(pcm, true);
+        float[] out = new float[BUFFER_FRAMES * 2];
+
+        long frame = 0;
+        long total = (long) LOOP_FRAMES * WRAPS;
+        while (frame < total) {
+            assertEquals(BUFFER_FRAMES, source.read(out, 0, BUFFER_FRAMES));
+            for (int i = 0; i < BUFFER_FRAMES; i++, frame++) {
+                int index = (int) (frame % LOOP_FRAMES) * 2;
+                assertEquals(pcm.getSamples().get(index) / 32768.0f, out[i * 2], 0.0f);
+                assertEquals(pcm.getSamples().get(index + 1) / 32768.0f, out[i * 2 + 1], 0.0f);
+            }
+        }
+    }
+
+    @Test
+    public void crossfadedLoopIsContinuousAcrossWraps() {
+        // 1000 帧内不是整数个周期，直接回绕会有明显跳变
+        PcmData raw = sine(LOOP_FRAMES, 441.0 * 1.37);
+        float rawJump = wrapJump(raw);
+        float maxStep = maxStep(raw);
+        assertTrue("raw loop should click", rawJump > 4 * maxStep);
+
+        PcmData seamed = raw.withLoopCrossfade(200);
+        assertEquals(800, seamed.getLoopFrameCount());
+        assertEquals(raw.getSizeInBytes() + 200 * 2 * 2, seamed.getSizeInBytes());
+
+        PcmLoopSource source = new PcmLoopSource(seamed, true);
+        float[] out = new float[BUFFER_FRAMES * 2];
+        float previous = Float.NaN;
+        float worst = 0.0f;
+        long total = (long) seamed.getLoopFrameCount() * WRAPS;
+        for (long frame = 0; frame < total; frame += BUFFER_FRAMES) {
+            source.read(out, 0, BUFFER_FRAMES);
+            for (int i = 0; i < BUFFER_FRAMES; i++) {
+                float sample = out[i * 2];
+                if (!Float.isNaN(previous)) {
+                    worst = Math.max(worst, Math.abs(sample - previous));
+                }
+                previous = sample;
+            }
+        }
+        // 等功率叠加两路正弦，幅度最多放大 sqrt(2)
+        assertTrue("worst step " + worst + " vs " + maxStep, worst <= maxStep * 1.5f);
+    }
+
+    @Test
+    public void oneShotPlaybackIgnoresSeam() {
+        PcmData seamed = sine(LOOP_FRAMES, 441.0).withLoopCrossfade(200);
+        PcmLoopSource source = new PcmLoopSource(seamed, false);
+        float[] out = new float[LOOP_FRAMES * 2 * 2];
+        assertEquals(LOOP_FRAMES, source.read(out, 0, LOOP_FRAMES * 2));
+        assertEquals(seamed.getSamples().get(0) / 32768.0f, out[0], 0.0f);
+    }
+
+    @Test
+    public void skipAndCopyMatchRead() {
+        PcmData pcm = sine(LOOP_FRAMES, 441.0 * 1.37).withLoopCrossfade(200);
+        PcmLoopSource read = new PcmLoopSource(pcm, true);
+        PcmLoopSource skipped = new PcmLoopSource(pcm, true);
+        float[] expected = new float[LOOP_FRAMES * 2];
+        float[] actual = new float[LOOP_FRAMES * 2];
+        // 跨过多次回绕
+        read.read(expected, 0, LOOP_FRAMES * 3 / 4);
+        read.read(expected, 0, LOOP_FRAMES * 3 / 4);
+        read.read(expected, 0, LOOP_FRAMES * 3 / 4);
+        assertEquals(LOOP_FRAMES * 9 / 4, skipped.skip(LOOP_FRAMES * 9 / 4));
+        SeekableSource copy = skipped.copy();
+
+        read.read(expected, 0, LOOP_FRAMES);
+        skipped.read(actual, 0, LOOP_FRAMES);
+        assertArrayEquals(expected, actual, 0.0f);
+        copy.read(actual, 0, LOOP_FRAMES);
+        assertArrayEquals(expected, actual, 0.0f);
+
+        // 单次播放跳过末尾后与读取一样停止
+        PcmLoopSource oneShot = new PcmLoopSource(pcm, false);
+        assertEquals(pcm.getFrameCount(), oneShot.skip(LOOP_FRAMES * 2));
+        assertEquals(0, oneShot.read(actual, 0, 10));
+    }
+
+    private static PcmData sine(int frames, double frequency) {
+        short[] samples = new short[frames * 2];
+        for (int i = 0; i < frames; i++) {
+            double phase = 2 * Math.PI * frequency * i / SAMPLE_RATE;
+            samples[i * 2] = (short) Math.round(Math.sin(phase) * 16000);
+            samples[i * 2 + 1] = (short) Math.round(Math.cos(phase) * 16000);
+        }
+        return new PcmData(SAMPLE_RATE, 2, samples);
+    }
+
+    private static float maxStep(PcmData pcm) {
+        float worst = 0.0f;
+        for (int i = 1; i < pcm.getFrameCount(); i++) {
+            worst = Math.max(worst, Math.abs(pcm.getSamples().get(i * 2) - pcm.getSamples().get(i * 2 - 2)));
+        }
+        return worst / 32768.0f;
+    }
+
+    private static float wrapJump(PcmData pcm) {
+        int last = (pcm.getFrameCount() - 1) * 2;
+        return Math.abs(pcm.getSamples().get(0) - pcm.getSamples().get(last)) / 32768.0f;
+    }
+}
@@ -0,0 +1,174 @@
+/**
+ * SincResamplerTest.java
+ * 正弦信号的 THD+N、镜像与混叠抑制，以及分块处理与整块处理一致
+ */
+
+package com.ambianceapp.audio;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class SincResamplerTest {
+
+    private static final int FRAMES = 44100;
+
+    @Test
+    public void thdPlusNoiseMeetsQualityLevels() {
+        assertBelow(-110.0, thdPlusNoiseDb(SincResampler.Quality.HIGH, 44100, 48000, 1000.0));
+        assertBelow(-95.0, thdPlusNoiseDb(SincResampler.Quality.MEDIUM, 44100, 48000, 1000.0));
+        assertBelow(-70.0, thdPlusNoiseDb(SincResampler.Quality.LOW, 44100, 48000, 1000.0));
+        assertBelow(-110.0, thdPlusNoiseDb(SincResampler.Quality.HIGH, 48000, 44100, 1000.0));
+    }
+
+    @Test
+    public void upsamplingRejectsImages() {
+        // 15kHz 在 48000 下的镜像 (33.1kHz) 会折回 14.9kHz，混在残差里
+        assertBelow(-110.0, thdPlusNoiseDb(SincResampler.Quality.HIGH, 44100, 48000, 15000.0));
+    }
+
+    @Test
+    public void downsamplingRejectsAliases() {
+        // 23kHz 高于 44100 的奈奎斯特频率，不能折回到 21.1kHz
+        float[] input = sine(48000, 23000.0, FRAMES, 1);
+        float[] output = convert(SincResampler.Quality.HIGH, 48000, 44100, 1, input, FRAMES);
+        assertBelow(-110.0, 20 * Math.log10(rms(output, 512, output.length - 512) / (0.5 * Math.sqrt(0.5))));
+    }
+
+    @Test
+    public void blockSizeDoesNotChangeOutput() {
+        float[] input = sine(44100, 440.0, 8192, 2);
+        SincResampler whole = new SincResampler(44100, 48000, 2, SincResampler.Quality.MEDIUM, 8192);
+        float[] expected = new float[whole.getMaxOutputFrames(8192) * 2];
+        int expectedFrames = whole.process(input, 8192, expected);
+
+        SincResampler blocks = new SincResampler(44100, 48000, 2, SincResampler.Quality.MEDIUM, 1024);
+        float[] actual = new float[expected.length];
+        float[] block = new float[1024 * 2];
+        float[] out = new float[blocks.getMaxOutputFrames(1024) * 2];
+        int frames = 0;
+        int offset = 0;
+        int[] sizes = {1, 1024, 37, 500, 999, 1024};
+        for (int i = 0; offset < 8192; i++) {
+            int size = Math.min(sizes[i % sizes.length], 8192 - offset);
+            System.arraycopy(input, offset * 2, block, 0, size * 2);
+            int produced = blocks.process(block, size, out);
+            System.arraycopy(out, 0, actual, frames * 2, produced * 2);
+            frames += produced;
+            offset += size;
+        }
+        assertEquals(expectedFrames, frames);
+        assertArrayEquals(expected, actual, 0.0f);
+    }
+
+    @Test
+    public void resampledLoopHasExactLengthAndSeamlessWrap() {
+        // 整数个周期的循环，转换后回绕处也应连续
+        int frames = 44100;
+        short[] samples = new short[frames];
+        for (int i = 0; i < frames; i++) {
+            samples[i] = (short) Math.round(16000 * Math.sin(2 * Math.PI * 441.0 * i / 44100));
+        }
+        PcmData resampled = SincResampler.resample(new PcmData(44100, 1, samples), 48000, SincResampler.Quality.HIGH);
+        assertEquals(48000, resampled.getSampleRate());
+        assertEquals(48000, resampled.getFrameCount());
+        for (int i : new int[] {0, 1, 47999, 24000}) {
+            double expected = 16000 * Math.sin(2 * Math.PI * 441.0 * i / 48000);
+            assertEquals("frame " + i, expected, resampled.getSamples().get(i), 2.0);
+        }
+    }
+
+    @Test
+    public void sinkConvertsMixerBufferToNativeRate() throws Exception {
+        NullAudioSink device = new NullAudioSink();
+        ResamplingSink sink = new ResamplingSink(device, 48000, SincResampler.Quality.MEDIUM);
+        sink.open(44100, 2, 1024);
+        float[] buffer = new float[2048];
+        for (int i = 0; i < 441; i++) {
+            sink.write(buffer, 1024);
+        }
+        // 441 × 1024 帧 = 10.24s，减去半个窗长的前瞻
+        long expected = 441L * 1024 * 48000 / 44100;
+        assertTrue(device.getFramesWritten() <= expected);
+        assertTrue(device.getFramesWritten() > expected - 64);
+    }
+
+    // ==================== 测量 ====================
+
+    /**
+     * 以已知频率最小二乘拟合正弦，残差 (谐波、噪声、镜像、混叠) 与基波的功率比
+     */
+    private static double thdPlusNoiseDb(SincResampler.Quality quality, int inputRate, int outputRate,
+                                         double frequency) {
+        float[] input = sine(inputRate, frequency, FRAMES, 2);
+        float[] output = convert(quality, inputRate, outputRate, 2, input, FRAMES);
+        int frames = output.length / 2;
+        int from = 512;
+        int to = frames - 512;
+
+        double w = 2 * Math.PI * frequency / outputRate;
+        double ss = 0;
+        double sc = 0;
+        double cc = 0;
+        double sy = 0;
+        double cy = 0;
+        for (int i = from; i < to; i++) {
+            double s = Math.sin(w * i);
+            double c = Math.cos(w * i);
+            double y = output[i * 2];
+            ss += s * s;
+            sc += s * c;
+            cc += c * c;
+            sy += s * y;
+            cy += c * y;
+        }
+        double det = ss * cc - sc * sc;
+        double a = (sy * cc - cy * sc) / det;
+        double b = (cy * ss - sy * sc) / det;
+
+        double signal = 0;
+        double residual = 0;
+        for (int i = from; i < to; i++) {
+            double fit = a * Math.sin(w * i) + b * Math.cos(w * i);
+            double error = output[i * 2] - fit;
+            signal += fit * fit;
+            residual += error * error;
+        }
+        return 10 * Math.log10(residual / signal);
+    }
+
+    private static float[] convert(SincResampler.Quality quality, int inputRate, int outputRate, int channels,
+                                   float[] input, int frames) {
+        SincResampler resampler = new SincResampler(inputRate, outputRate, channels, quality, frames);
+        float[] output = new float[resampler.getMaxOutputFrames(frames) * channels];
+        int produced = resampler.process(input, frames, output);
+        return Arrays.copyOf(output, produced * channels);
+    }
+
+    private static float[] sine(int sampleRate, double frequency, int frames, int channels) {
+        float[] buffer = new float[frames * channels];
+        for (int i = 0; i < frames; i++) {
+            float value = (float) (0.5 * Math.sin(2 * Math.PI * frequency * i / sampleRate));
+            for (int c = 0; c < channels; c++) {
+                buffer[i * channels + c] = value;
+            }
+        }
+        return buffer;
+    }
+
+    private static double rms(float[] buffer, int from, int to) {
+        double sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += buffer[i] * buffer[i];
+        }
+        return Math.sqrt(sum / (to - from));
+    }
+
+    private static void assertBelow(double limitDb, double actualDb) {
+        assertTrue(actualDb + " dB exceeds " + limitDb + " dB", actualDb < limitDb);
+    }
+}
@@ -0,0 +1,166 @@
+/**
+ * SourcePoolTest.java
+ * 音源池：归还的流式音源按格式重新绑定，复用后从起点播放且与新建的音源输出相同；
+ * 仍关联解码线程的音源不复用，以及名额上限与空闲队列上限
+ */
+
+package com.ambianceapp.audio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SourcePoolTest {
+
+    private static final int BUFFER_FRAMES = 2048;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ByteSource bytes;
+
+    @Before
+    public void setUp() throws Exception {
+        File file = folder.newFile("stream.ogg");
+        try (InputStream in = SourcePoolTest.class.getResourceAsStream("/testVORBIS.ogg")) {
+            assertNotNull(in);
+            Files.copy(in, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        bytes = new FileByteSource(file);
+    }
+
+    @Test
+    public void releasedStreamingSourceIsReboundFromTheStart() throws Exception {
+        SourcePool pool = new SourcePool(4, 2);
+        pool.reserve();
+        StreamingSource first = pool.openStreaming(bytes, true, BUFFER_FRAMES);
+        float[] buffer = new float[700 * 2];
+        for (int i = 0; i < 5; i++) {
+            first.fill();
+            first.read(buffer, 0, 700);
+        }
+        // 留一次欠载与未完成的跳过，复用后都应清除
+        for (int i = 0; i < 3; i++) {
+            first.read(buffer, 0, 700);
+        }
+        assertTrue(first.getUnderrunCount() > 0);
+        first.advance(100_000);
+        pool.release(first);
+        assertEquals(0, pool.getLiveCount());
+        assertEquals(1, pool.getIdleCount());
+
+        pool.reserve();
+        StreamingSource reused = pool.openStreaming(bytes, false, BUFFER_FRAMES);
+        assertSame(first, reused);
+        assertEquals(1, pool.getCreatedCount());
+        assertEquals(1, pool.getReusedCount());
+        assertEquals(0, pool.getIdleCount());
+        assertEquals(0, reused.getUnderrunCount());
+
+        // 与新建的不循环音源逐帧相同，直到流结束
+        StreamingSource fresh = new StreamingSource(bytes, false, BUFFER_FRAMES);
+        float[] expected = new float[300 * 2];
+        float[] actual = new float[300 * 2];
+        while (true) {
+            fresh.fill();
+            reused.fill();
+            int expectedFrames = fresh.read(expected, 0, 300);
+            int actualFrames = reused.read(actual, 0, 300);
+            assertEquals(expectedFrames, actualFrames);
+            for (int i = 0; i < actualFrames * 2; i++) {
+                assertEquals("sample " + i, expected[i], actual[i], 0.0f);
+            }
+            if (actualFrames < 300) {
+                break;
+            }
+        }
+        assertEquals(0, reused.getUnderrunCount());
+        fresh.closeDecoder();
+        reused.closeDecoder();
+    }
+
+    @Test
+    public void sourcesStillAttachedToTheDecoderAreNotReused() throws Exception {
+        SourcePool pool = new SourcePool(4, 2);
+        StreamingDecoderThread decoder = new StreamingDecoderThread(null);
+        try {
+            pool.reserve();
+            StreamingSource first = pool.openStreaming(bytes, true, BUFFER_FRAMES);
+            // 只建立关联不注册，解码线程不会解除
+            first.setOwner(decoder);
+            pool.release(first);
+
+            pool.reserve();
+            StreamingSource second = pool.openStreaming(bytes, true, BUFFER_FRAMES);
+            assertNotSame(first, second);
+            assertEquals(0, pool.getReusedCount());
+            assertEquals(1, pool.getIdleCount());
+
+            first.setOwner(null);
+            pool.reserve();
+            assertSame(first, pool.openStreaming(bytes, true, BUFFER_FRAMES));
+            assertEquals(1, pool.getReusedCount());
+            first.closeDecoder();
+            second.closeDecoder();
+        } finally {
+            decoder.shutdown();
+        }
+    }
+
+    @Test
+    public void poolKeepsOnlyMatchingFormatsUpToTheIdleLimit() throws Exception {
+        SourcePool pool = new SourcePool(8, 1);
+        StreamingSource[] sources = new StreamingSource[2];
+        for (int i = 0; i < sources.length; i++) {
+            pool.reserve();
+            sources[i] = pool.openStreaming(bytes, true, BUFFER_FRAMES);
+        }
+        for (StreamingSource source : sources) {
+            source.closeDecoder();
+            pool.release(source);
+        }
+        assertEquals(1, pool.getIdleCount());
+        assertEquals(1, pool.getDiscardedCount());
+
+        // 缓冲区大小不同视为不同格式
+        pool.reserve();
+        StreamingSource larger = pool.openStreaming(bytes, true, 2 * BUFFER_FRAMES);
+        assertEquals(0, pool.getReusedCount());
+        assertEquals(1, pool.getIdleCount());
+        larger.closeDecoder();
+
+        pool.clear();
+        assertEquals(0, pool.getIdleCount());
+        assertEquals(2, pool.getDiscardedCount());
+    }
+
+    @Test
+    public void reserveFailsAtTheLiveLimit() throws Exception {
+        SourcePool pool = new SourcePool(2, 1);
+        pool.reserve();
+        pool.reserve();
+        try {
+            pool.reserve();
+            fail("Expected ExhaustedException");
+        } catch (SourcePool.ExhaustedException expected) {
+            assertEquals(1, pool.getRejectedCount());
+        }
+        pool.cancel();
+        pool.reserve();
+        assertEquals(2, pool.getLiveCount());
+        assertEquals(2, pool.getPeakLiveCount());
+    }
+}
@@ -0,0 +1,267 @@
+/**
+ * StreamingSourceTest.java
+ * 从磁盘文件流式解码：环形缓冲区回绕、循环到结尾重新打开、重置与跳过的握手、欠载输出静音，
+ * 以及与解码线程并发的单生产者/单消费者压力测试
+ */
+
+package com.ambianceapp.audio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class StreamingSourceTest {
+
+    // vorbis-java-core 测试包中的立体声 44.1kHz 短片段 (1472 帧)
+    private static final String FIXTURE = "/testVORBIS.ogg";
+    private static final int CHANNELS = 2;
+    private static final int SMALL_BUFFER = 2048;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ByteSource bytes;
+    private float[] reference;
+    private int loopFrames;
+
+    @Before
+    public void setUp() throws Exception {
+        File file = folder.newFile("stream.ogg");
+        try (InputStream in = StreamingSourceTest.class.getResourceAsStream(FIXTURE)) {
+            assertNotNull("missing test fixture " + FIXTURE, in);
+            Files.copy(in, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        bytes = new FileByteSource(file);
+        reference = decodeAll(bytes);
+        loopFrames = reference.length / CHANNELS;
+        assertTrue(loopFrames > 0 && loopFrames < SMALL_BUFFER);
+    }
+
+    @Test
+    public void ringWrapsAroundAndLoopReopensAtEndOfStream() throws Exception {
+        StreamingSource source = new StreamingSource(bytes, true, SMALL_BUFFER);
+        float[] buffer = new float[300 * CHANNELS];
+        long position = 0;
+        // 缓冲区回绕十几次，文件循环二十多次
+        while (position < 20L * SMALL_BUFFER) {
+            source.fill();
+            assertEquals(buffer.length / CHANNELS, source.read(buffer, 0, buffer.length / CHANNELS));
+            assertLooped(buffer, position, buffer.length / CHANNELS);
+            position += buffer.length / CHANNELS;
+        }
+        assertEquals(0, source.getUnderrunCount());
+        source.closeDecoder();
+    }
+
+    @Test
+    public void nonLoopingStreamEndsAfterOnePass() throws Exception {
+        StreamingSource source = new StreamingSource(bytes, false, SMALL_BUFFER);
+        float[] buffer = new float[SMALL_BUFFER * CHANNELS];
+        source.fill();
+        assertEquals(1024, source.read(buffer, 0, 1024));
+        assertLooped(buffer, 0, 1024);
+
+        // 空出一个解码块后解码线程才会读到结尾
+        source.fill();
+        assertEquals(loopFrames - 1024, source.read(buffer, 0, SMALL_BUFFER));
+        assertLooped(buffer, 1024, loopFrames - 1024);
+        assertEquals(0, source.read(buffer, 0, 256));
+        assertEquals(0, source.getUnderrunCount());
+        source.closeDecoder();
+    }
+
+    @Test
+    public void underflowOutputsSilenceNotStaleData() throws Exception {
+        StreamingSource source = new StreamingSource(bytes, true, SMALL_BUFFER);
+        source.fill();
+        int buffered = source.getBufferedFrames();
+        float[] buffer = new float[SMALL_BUFFER * CHANNELS];
+        assertEquals(buffered, source.read(buffer, 0, buffered));
+        assertLooped(buffer, 0, buffered);
+
+        // 缓冲区已读空，存储中仍是刚读过的数据，欠载时必须输出静音
+        Arrays.fill(buffer, 7.0f);
+        assertEquals(512, source.read(buffer, 0, 512));
+        assertSilent(buffer, 512);
+        assertEquals(1, source.getUnderrunCount());
+
+        // 欠载不丢数据：补充后从原位置继续
+        source.fill();
+        assertEquals(512, source.read(buffer, 0, 512));
+        assertLooped(buffer, buffered, 512);
+        source.closeDecoder();
+    }
+
+    @Test
+    public void resetWaitsForTheDecoderThenRestartsFromTheBeginning() throws Exception {
+        StreamingSource source = new StreamingSource(bytes, true, SMALL_BUFFER);
+        source.fill();
+        float[] buffer = new float[1000 * CHANNELS];
+        source.read(buffer, 0, 1000);
+
+        source.reset();
+        Arrays.fill(buffer, 7.0f);
+        assertEquals(256, source.read(buffer, 0, 256));
+        assertSilent(buffer, 256);
+
+        source.fill();
+        assertEquals(1000, source.read(buffer, 0, 1000));
+        assertLooped(buffer, 0, 1000);
+        source.closeDecoder();
+    }
+
+    @Test
+    public void advanceWithinTheBufferSkipsDirectly() throws Exception {
+        StreamingSource source = new StreamingSource(bytes, true, SMALL_BUFFER);
+        source.fill();
+        float[] buffer = new float[256 * CHANNELS];
+        source.read(buffer, 0, 100);
+
+        source.advance(500);
+        assertEquals(256, source.read(buffer, 0, 256));
+        assertLooped(buffer, 600, 256);
+        source.closeDecoder();
+    }
+
+    @Test
+    public void advanceBeyondTheBufferIsHandedToTheDecoder() throws Exception {
+        StreamingSource source = new StreamingSource(bytes, true, SMALL_BUFFER);
+        source.fill();
+        float[] buffer = new float[256 * CHANNELS];
+        source.read(buffer, 0, 100);
+
+        // 超出缓冲区的跳过请求解码线程完成，等待期间输出的静音同样计入跳过
+        source.advance(5000);
+        long position = 100 + 5000;
+        Arrays.fill(buffer, 7.0f);
+        assertEquals(256, source.read(buffer, 0, 256));
+        assertSilent(buffer, 256);
+        position += 256;
+
+        for (int attempt = 0; ; attempt++) {
+            assertTrue("skip never completed", attempt < 8);
+            source.fill();
+            assertEquals(256, source.read(buffer, 0, 256));
+            if (!isSilent(buffer, 256)) {
+                assertLooped(buffer, position, 256);
+                break;
+            }
+            position += 256;
+        }
+        assertEquals(0, source.getUnderrunCount());
+        source.closeDecoder();
+    }
+
+    @Test
+    public void decoderThreadKeepsUpWithConcurrentReads() throws Exception {
+        StreamingDecoderThread decoder = new StreamingDecoderThread(null);
+        StreamingSource source = new StreamingSource(bytes, true, 4096);
+        try {
+            decoder.register(source);
+            float[] buffer = new float[441 * CHANNELS];
+            long position = 0;
+            for (int b = 0; b < 2000; b++) {
+                int frames = 1 + (b * 37) % 441;
+                long deadline = System.nanoTime() + 2_000_000_000L;
+                while (source.getBufferedFrames() < frames) {
+                    if (System.nanoTime() > deadline) {
+                        fail("decoder stalled at frame " + position);
+                    }
+                    Thread.yield();
+                }
+                assertEquals(frames, source.read(buffer, 0, frames));
+                assertLooped(buffer, position, frames);
+                position += frames;
+            }
+            assertEquals(0, source.getUnderrunCount());
+        } finally {
+            decoder.unregister(source);
+            decoder.shutdown();
+        }
+        // 解码线程退出前释放解码器并解除关联
+        assertFalse(source.isAttached());
+    }
+
+    @Test
+    public void shutdownLeavesDecodersToTheDecoderThread() throws Exception {
+        StreamingDecoderThread decoder = new StreamingDecoderThread(null);
+        StreamingSource source = new StreamingSource(bytes, true, SMALL_BUFFER);
+        decoder.register(source);
+        decoder.shutdown();
+        assertFalse(source.isAttached());
+    }
+
+    @Test
+    public void invalidHeaderClosesTheInput() throws Exception {
+        final boolean[] closed = new boolean[1];
+        InputStream input = new ByteArrayInputStream(new byte[]{'R', 'I', 'F', 'F', 0, 0, 0, 0}) {
+            @Override
+            public void close() throws IOException {
+                closed[0] = true;
+                super.close();
+            }
+        };
+        try {
+            new VorbisDecoder(input, "bad.ogg").close();
+            fail("Expected IOException");
+        } catch (IOException expected) {
+            assertTrue(closed[0]);
+        }
+    }
+
+    private void assertLooped(float[] buffer, long position, int frames) {
+        for (int i = 0; i < frames; i++) {
+            int frame = (int) ((position + i) % loopFrames);
+            for (int ch = 0; ch < CHANNELS; ch++) {
+                float expected = reference[frame * CHANNELS + ch];
+                float actual = buffer[i * CHANNELS + ch];
+                if (expected != actual) {
+                    fail("frame " + (position + i) + " channel " + ch + ": expected " + expected + " but was " + actual);
+                }
+            }
+        }
+    }
+
+    private static void assertSilent(float[] buffer, int frames) {
+        assertTrue(isSilent(buffer, frames));
+    }
+
+    private static boolean isSilent(float[] buffer, int frames) {
+        for (int i = 0; i < frames * CHANNELS; i++) {
+            if (buffer[i] != 0.0f) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static float[] decodeAll(ByteSource bytes) throws IOException {
+        try (VorbisDecoder decoder = new VorbisDecoder(bytes.open(), bytes.getName())) {
+            assertEquals(CHANNELS, decoder.getChannelCount());
+            float[] chunk = new float[1024 * CHANNELS];
+            float[] all = new float[0];
+            int frames;
+            while ((frames = decoder.read(chunk, 0, 1024)) >= 0) {
+                int length = all.length;
+                all = Arrays.copyOf(all, length + frames * CHANNELS);
+                System.arraycopy(chunk, 0, all, length, frames * CHANNELS);
+            }
+            return all;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/**
+ * TrackBatchLoaderTest.java
+ * 验证批量加载的总耗时：线程池与 AmbianceEngine 相同 (LOADER_THREADS 个线程)，
+ * 总耗时接近按池大小排程的结果，而不是所有音轨之和
+ */
+
+package com.ambianceapp.audio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.ambianceapp.engine.AmbianceEngine;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class TrackBatchLoaderTest {
+
+    private static final String[] PRESET_FILES = {
+        "rain.ogg", "ocean.ogg", "forest.ogg", "fireplace.ogg",
+        "cafe.ogg", "white_noise.ogg", "brown_noise.ogg", "pink_noise.ogg"
+    };
+
+    // 与 AmbianceEngine 构造时相同的有界线程池
+    private final ExecutorService executor = Executors.newFixedThreadPool(AmbianceEngine.LOADER_THREADS);
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void totalTimeFollowsThePoolSize() throws Exception {
+        // 模拟资源：每个文件的加载耗时不同，最慢 200ms，合计 900ms
+        List<TrackBatchLoader.Request> requests = new ArrayList<>();
+        long[] delays = new long[PRESET_FILES.length];
+        for (int i = 0; i < PRESET_FILES.length; i++) {
+            String file = PRESET_FILES[i];
+            requests.add(new TrackBatchLoader.Request(file.replace(".ogg", ""), file));
+            delays[i] = file.equals("rain.ogg") ? 200 : 100;
+        }
+        TrackBatchLoader.TrackFactory fakeAssets = (trackId, audioFile) -> {
+            long delay = audioFile.equals("rain.ogg") ? 200 : 100;
+            Thread.sleep(delay);
+        };
+        // 2 线程 450ms，3~4 线程 300ms
+        long expectedMs = makespan(delays, AmbianceEngine.LOADER_THREADS);
+
+        long start = System.nanoTime();
+        List<TrackBatchLoader.Result> results =
+            new TrackBatchLoader(executor).loadAllBlocking(requests, fakeAssets);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(PRESET_FILES.length, results.size());
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(requests.get(i).trackId, results.get(i).trackId);
+            assertTrue(results.get(i).success);
+        }
+        String timing = "batch took " + elapsedMs + "ms with " + AmbianceEngine.LOADER_THREADS
+            + " threads, expected " + expectedMs + "ms, sequential would take 900ms";
+        // 下限说明确实受池大小约束，上限说明各线程一直在并行加载
+        assertTrue(timing, elapsedMs >= expectedMs - 5);
+        assertTrue(timing, elapsedMs < expectedMs + 150);
+    }
+
+    @Test
+    public void failuresAreReportedPerTrack() throws Exception {
+        List<TrackBatchLoader.Request> requests = new ArrayList<>();
+        requests.add(new TrackBatchLoader.Request("rain", "rain.ogg"));
+        requests.add(new TrackBatchLoader.Request("missing", "missing.ogg"));
+
+        List<TrackBatchLoader.Result> results = new TrackBatchLoader(executor).loadAllBlocking(requests,
+            (trackId, audioFile) -> {
+                if (audioFile.startsWith("missing")) {
+                    throw new IOException("Asset not found: " + audioFile);
+                }
+            });
+
+        assertTrue(results.get(0).success);
+        assertFalse(results.get(1).success);
+        assertEquals("Asset not found: missing.ogg", results.get(1).error.getMessage());
+    }
+
+    /**
+     * 按提交顺序把每个任务交给最早空闲的线程，返回全部完成的时间
+     */
+    private static long makespan(long[] delays, int threads) {
+        long[] freeAt = new long[threads];
+        for (long delay : delays) {
+            Arrays.sort(freeAt);
+            freeAt[0] += delay;
+        }
+        Arrays.sort(freeAt);
+        return freeAt[threads - 1];
+    }
+}
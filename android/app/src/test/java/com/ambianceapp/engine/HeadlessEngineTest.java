@@ -0,0 +1,429 @@
+/**
+ * HeadlessEngineTest.java
+ * 不依赖设备驱动完整的命令接口：音轨、播放、定时器、场景保存与加载、事件发送
+ */
+
+package com.ambianceapp.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.ambianceapp.audio.AudioMixer;
+import com.ambianceapp.audio.MixerTrack;
+import com.ambianceapp.audio.NoiseSource;
+import com.ambianceapp.audio.NullAudioSink;
+import com.ambianceapp.audio.PcmCache;
+import com.ambianceapp.audio.PcmData;
+import com.ambianceapp.audio.PcmFile;
+import com.ambianceapp.audio.SimulatedClock;
+import com.ambianceapp.scene.Scene;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class HeadlessEngineTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File assetsDir;
+    private File filesDir;
+    private HeadlessEngine headless;
+
+    @Before
+    public void setUp() throws Exception {
+        assetsDir = folder.newFolder("assets");
+        filesDir = folder.newFolder("files");
+        // 与 convertPcmAssets 的输出相同：rain.ogg 直接映射 rain.pcm
+        PcmFile.write(sine(AmbianceEngine.SAMPLE_RATE, 220.0), new File(assetsDir, "rain.pcm"));
+        headless = new HeadlessEngine(assetsDir, filesDir, new PcmCache(8L * 1024 * 1024));
+    }
+
+    @After
+    public void tearDown() {
+        headless.close();
+    }
+
+    @Test
+    public void commandsRunAgainstFilesAndNullSink() throws Exception {
+        headless.initialize();
+        headless.addTrack("rain", "rain.ogg");
+        headless.addTrack("noise", "noise://pink");
+        headless.setVolume("rain", 0.8f);
+        headless.setPanning("noise", -0.5f);
+        headless.play();
+
+        Map<String, Object> status = headless.getStatus();
+        assertEquals(true, status.get("isPlaying"));
+        assertEquals(2, status.get("activeTracks"));
+        Map<?, ?> buffer = (Map<?, ?>) status.get("buffer");
+        assertEquals(AmbianceEngine.MIN_OUTPUT_BUFFER_SIZE, buffer.get("frames"));
+        assertTrue(buffer.get("history") instanceof List);
+
+        // 渲染线程按实时节拍向空输出写入
+        NullAudioSink sink = headless.getSink();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (sink.getFramesWritten() < 4 * AmbianceEngine.BUFFER_SIZE && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(sink.getFramesWritten() >= 4 * AmbianceEngine.BUFFER_SIZE);
+
+        String sceneId = headless.saveScene("雨夜");
+        headless.stop();
+
+        Map<String, Object> loaded = headless.loadSceneById(sceneId);
+        assertEquals(true, loaded.get("success"));
+        assertEquals(2, loaded.get("reused"));
+        assertEquals(0, ((List<?>) loaded.get("loaded")).size());
+
+        headless.awaitEvents(2000);
+        assertEquals(1, headless.getEventCount("onInitialized"));
+        assertEquals(2, headless.getEventCount("onTrackAdded"));
+        assertEquals(1, headless.getEventCount("onPlaybackStarted"));
+        assertEquals(1, headless.getEventCount("onPlaybackStopped"));
+    }
+
+    @Test
+    public void savedScenesLoadIntoAFreshEngine() throws Exception {
+        headless.initialize();
+        headless.addTrack("rain", "rain.ogg");
+        headless.setVolume("rain", 0.3f);
+        String sceneId = headless.saveScene("雨夜");
+        headless.close();
+
+        headless = new HeadlessEngine(assetsDir, filesDir);
+        headless.initialize();
+        Map<String, Object> loaded = headless.loadSceneById(sceneId);
+        assertEquals(true, loaded.get("success"));
+        assertEquals(0, loaded.get("reused"));
+        assertEquals("rain", ((List<?>) loaded.get("loaded")).get(0));
+    }
+
+    @Test
+    public void rejectionsCarryTheModuleErrorCodes() throws Exception {
+        assertCode("ENGINE_NOT_INITIALIZED", () -> headless.addTrack("rain", "rain.ogg"));
+
+        headless.initialize();
+        assertCode("TRACK_NOT_FOUND", () -> headless.setVolume("missing", 0.5f));
+        assertCode("TRACK_ADD_FAILED", () -> headless.addTrack("wind", "wind.ogg"));
+        assertCode("SCENE_NOT_FOUND", () -> headless.loadSceneById("scene_missing"));
+    }
+
+    @Test
+    public void removedTracksReturnTheirSourcesToThePool() throws Exception {
+        headless.initialize();
+        headless.addTrack("noise", "noise://brown");
+        headless.play();
+
+        // 试听：反复添加、移除同一个 ID，播放中移除要等淡出结束
+        for (int i = 0; i < 50; i++) {
+            headless.addTrack("audition", i % 2 == 0 ? "rain.ogg" : "noise://pink");
+            headless.removeTrack("audition");
+        }
+        assertCode("TRACK_NOT_FOUND", () -> headless.removeTrack("audition"));
+
+        Map<?, ?> sources = (Map<?, ?>) headless.getStatus().get("sources");
+        assertEquals(1, sources.get("live"));
+        assertEquals(2, sources.get("peakLive"));
+        assertEquals(0, sources.get("retiring"));
+        assertEquals(1, headless.getEngine().getMixer().getTracks().size());
+
+        headless.awaitEvents(2000);
+        assertEquals(50, headless.getEventCount("onTrackRemoved"));
+    }
+
+    @Test
+    public void addingAnExistingIdReplacesTheTrack() throws Exception {
+        headless.initialize();
+        headless.addTrack("rain", "rain.ogg");
+        headless.addTrack("rain", "noise://white");
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        Map<?, ?> sources = (Map<?, ?>) headless.getStatus().get("sources");
+        while (!sources.get("retiring").equals(0) && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+            sources = (Map<?, ?>) headless.getStatus().get("sources");
+        }
+        assertEquals(0, sources.get("retiring"));
+        assertEquals(1, sources.get("live"));
+        assertEquals(1, headless.getEngine().getMixer().getTracks().size());
+    }
+
+    @Test
+    public void sceneDiffReloadsTracksWhoseFileChanged() throws Exception {
+        headless.initialize();
+        headless.addTrack("rain", "rain.ogg");
+        headless.addTrack("wind", "noise://pink");
+        headless.play();
+
+        List<Scene.Track> tracks = new ArrayList<>();
+        tracks.add(new Scene.Track("rain", "rain.ogg", 0.5f, 0.0f));
+        tracks.add(new Scene.Track("wind", "noise://brown", 0.4f, 0.2f));
+        tracks.add(new Scene.Track("fire", "noise://white", 0.3f, 0.0f));
+        Map<String, Object> result = headless.loadScene(tracks);
+        assertEquals(true, result.get("success"));
+        assertEquals(1, result.get("reused"));
+        List<?> loaded = (List<?>) result.get("loaded");
+        assertEquals(2, loaded.size());
+        assertTrue(loaded.contains("wind") && loaded.contains("fire"));
+
+        // 换了文件的 wind 重新加载，旧音轨淡出后回收
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        Map<String, Object> status = headless.getStatus();
+        while (!((Map<?, ?>) status.get("sources")).get("retiring").equals(0) && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+            status = headless.getStatus();
+        }
+        Map<?, ?> sources = (Map<?, ?>) status.get("sources");
+        assertEquals(0, sources.get("retiring"));
+        assertEquals(3, sources.get("live"));
+        assertEquals(3, status.get("activeTracks"));
+        for (MixerTrack track : headless.getEngine().getMixer().getTracks()) {
+            if (track.getId().equals("wind")) {
+                assertEquals(NoiseSource.Color.BROWN, ((NoiseSource) track.getSource()).getColor());
+            }
+        }
+        assertEquals(3, headless.getEngine().getMixer().getTracks().size());
+
+        // 再次加载同一场景全部沿用
+        result = headless.loadScene(tracks);
+        assertEquals(3, result.get("reused"));
+        assertEquals(0, ((List<?>) result.get("loaded")).size());
+    }
+
+    @Test
+    public void sourceLimitRejectsFurtherTracks() throws Exception {
+        headless.initialize();
+        for (int i = 0; i < AmbianceEngine.MAX_LIVE_SOURCES; i++) {
+            headless.addTrack("noise" + i, "noise://white");
+        }
+        assertCode("TRACK_ADD_FAILED", () -> headless.addTrack("extra", "noise://pink"));
+
+        headless.removeTrack("noise0");
+        headless.addTrack("extra", "noise://pink");
+        Map<?, ?> sources = (Map<?, ?>) headless.getStatus().get("sources");
+        assertEquals(AmbianceEngine.MAX_LIVE_SOURCES, sources.get("live"));
+        assertEquals(1.0, sources.get("rejected"));
+
+        // 释放时归还全部音源，没有泄漏
+        headless.close();
+        assertEquals(0, headless.getEngine().getSourcePool().getLiveCount());
+    }
+
+    @Test
+    public void sustainsHundredsOfCommandsPerSecond() throws Exception {
+        headless.initialize();
+        headless.addTrack("rain", "rain.ogg");
+        headless.addTrack("noise", "noise://brown");
+        headless.play();
+
+        final int commands = 3000;
+        List<CompletableFuture<Object>> results = new ArrayList<>(commands);
+        long start = System.nanoTime();
+        for (int i = 0; i < commands; i++) {
+            float value = (i % 100) / 100.0f;
+            switch (i % 3) {
+                case 0:
+                    results.add(headless.submit((engine, promise) -> engine.setVolume("rain", value, promise)));
+                    break;
+                case 1:
+                    results.add(headless.submit((engine, promise) -> engine.setPanning("noise", value - 0.5f, promise)));
+                    break;
+                default:
+                    results.add(headless.submit(AmbianceEngine::getStatus));
+                    break;
+            }
+        }
+        for (CompletableFuture<Object> result : results) {
+            assertNotNull(result.get(HeadlessEngine.COMMAND_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        assertTrue("only " + Math.round(commands / seconds) + " commands/s", commands / seconds >= 500);
+        assertTrue(headless.getEngine().getAudioEngine().getStats().getBufferCount() > 0);
+    }
+
+    @Test
+    public void timerExpiresOnTheSimulatedClock() throws Exception {
+        SimulatedClock clock = new SimulatedClock();
+        SimulatedScheduler scheduler = new SimulatedScheduler(clock);
+        List<String> emitted = new ArrayList<>();
+        AmbianceEngine engine = new AmbianceEngine(new FileAssetProvider(assetsDir), scheduler,
+            (name, batch) -> {
+                for (Map<String, Object> event : batch) {
+                    emitted.add((String) event.get("type"));
+                }
+            },
+            new NullAudioSink(), clock, filesDir, new PcmCache(1024 * 1024));
+        try {
+            engine.initialize(ignore());
+            engine.setTimer(1.0, true, 0.25, ignore());
+            scheduler.advance(100);
+            assertEquals(1, count(emitted, "onInitialized"));
+
+            scheduler.advance(59_000);
+            assertFalse(emitted.contains("onTimerExpired"));
+
+            scheduler.advance(1_000);
+            assertEquals(1, count(emitted, "onPlaybackStopped"));
+            assertEquals(1, count(emitted, "onTimerExpired"));
+            assertEquals(0, scheduler.getPendingCount());
+
+            // 到期前停止会取消定时器
+            engine.setTimer(1.0, false, 0, ignore());
+            engine.stop(ignore());
+            scheduler.advance(120_000);
+            assertEquals(1, count(emitted, "onTimerExpired"));
+            assertEquals(0, scheduler.getPendingCount());
+        } finally {
+            engine.release();
+        }
+    }
+
+    @Test
+    public void cancellingATimerRampsTheMasterVolumeBack() throws Exception {
+        SimulatedClock clock = new SimulatedClock();
+        SimulatedScheduler scheduler = new SimulatedScheduler(clock);
+        List<String> emitted = new ArrayList<>();
+        AmbianceEngine engine = new AmbianceEngine(new FileAssetProvider(assetsDir), scheduler,
+            (name, batch) -> {
+                for (Map<String, Object> event : batch) {
+                    emitted.add((String) event.get("type"));
+                }
+            },
+            new NullAudioSink(), clock, filesDir, new PcmCache(1024 * 1024));
+        // 未播放时渲染线程没有启动，在测试线程上渲染
+        AudioMixer mixer = engine.getMixer();
+        int restoreFrames = AmbianceEngine.SAMPLE_RATE / 100;
+        try {
+            engine.initialize(ignore());
+
+            // 淡出进行到一半时取消：主音量从当前值斜坡回升，而不是一步跳回
+            engine.setTimer(1.0, true, 0.25, ignore());
+            scheduler.advance(45_000);
+            render(mixer, AmbianceEngine.SAMPLE_RATE * 15 / 2);
+            float faded = mixer.getCurrentMasterGain();
+            assertTrue(faded > 0.0f && faded < 0.5f);
+
+            engine.setTimer(1.0, false, 0, ignore());
+            render(mixer, restoreFrames / 2);
+            float restoring = mixer.getCurrentMasterGain();
+            assertTrue(restoring > faded && restoring < 1.0f);
+            render(mixer, restoreFrames - restoreFrames / 2);
+            assertEquals(1.0f, mixer.getCurrentMasterGain(), 1e-6f);
+
+            // 到期时先停止再恢复主音量：下次播放从静音斜坡回升
+            engine.setTimer(1.0, true, 0.25, ignore());
+            scheduler.advance(45_000);
+            render(mixer, AmbianceEngine.SAMPLE_RATE * 15);
+            scheduler.advance(15_100);
+            assertEquals(1, count(emitted, "onTimerExpired"));
+            render(mixer, restoreFrames / 2);
+            assertTrue(mixer.getCurrentMasterGain() < 1.0f);
+            render(mixer, restoreFrames - restoreFrames / 2);
+            assertEquals(1.0f, mixer.getCurrentMasterGain(), 1e-6f);
+        } finally {
+            engine.release();
+        }
+    }
+
+    @Test
+    public void executorSchedulerRemovesPendingTasks() throws Exception {
+        ExecutorScheduler scheduler = new ExecutorScheduler("test");
+        try {
+            List<String> ran = new ArrayList<>();
+            Runnable removed = () -> ran.add("removed");
+            scheduler.postDelayed(removed, 50);
+            scheduler.postDelayed(() -> ran.add("kept"), 50);
+            scheduler.remove(removed);
+            Thread.sleep(150);
+            scheduler.sync();
+            assertEquals(1, ran.size());
+            assertEquals("kept", ran.get(0));
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void parallelExportLeavesCoresForTheCursorAndRenderThreads() {
+        // 调用线程占一个核，至少 4 个工作线程才并行
+        assertEquals(0, AmbianceEngine.parallelExportWorkers(1, false));
+        assertEquals(0, AmbianceEngine.parallelExportWorkers(4, false));
+        assertEquals(4, AmbianceEngine.parallelExportWorkers(5, false));
+        // 播放时再给渲染线程留一个核
+        assertEquals(0, AmbianceEngine.parallelExportWorkers(5, true));
+        assertEquals(4, AmbianceEngine.parallelExportWorkers(6, true));
+        // 游标推进是串行下限，工作线程数封顶
+        assertEquals(5, AmbianceEngine.parallelExportWorkers(8, false));
+        assertEquals(5, AmbianceEngine.parallelExportWorkers(16, true));
+    }
+
+    private interface Call {
+        void run() throws Exception;
+    }
+
+    private static void assertCode(String code, Call call) throws Exception {
+        try {
+            call.run();
+            fail("Expected " + code);
+        } catch (HeadlessEngine.CommandException e) {
+            assertEquals(code, e.getCode());
+        }
+    }
+
+    private static AmbianceEngine.Promise ignore() {
+        return new AmbianceEngine.Promise() {
+            @Override
+            public void resolve(Object value) {
+            }
+
+            @Override
+            public void reject(String code, String message, Throwable error) {
+                fail(code + ": " + message);
+            }
+        };
+    }
+
+    private static void render(AudioMixer mixer, int frames) {
+        float[] output = new float[mixer.getMaxFrames() * AudioMixer.OUTPUT_CHANNELS];
+        while (frames > 0) {
+            int count = Math.min(frames, mixer.getMaxFrames());
+            mixer.render(output, count);
+            frames -= count;
+        }
+    }
+
+    private static int count(List<String> events, String type) {
+        int count = 0;
+        for (String event : events) {
+            if (event.equals(type)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static PcmData sine(int frames, double frequency) {
+        short[] samples = new short[frames * 2];
+        for (int i = 0; i < frames; i++) {
+            short value = (short) (Math.sin(2 * Math.PI * frequency * i / AmbianceEngine.SAMPLE_RATE) * 8000);
+            samples[2 * i] = value;
+            samples[2 * i + 1] = value;
+        }
+        return new PcmData(AmbianceEngine.SAMPLE_RATE, 2, samples);
+    }
+}
@@ -0,0 +1,97 @@
+/**
+ * EventCoalescerTest.java
+ * 事件按窗口成批发送、同键合并、每类限速与积压丢弃
+ */
+
+package com.ambianceapp.events;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.ambianceapp.audio.SimulatedClock;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class EventCoalescerTest {
+
+    private static final long WINDOW = 16_000_000L;
+
+    private final SimulatedClock clock = new SimulatedClock();
+    private final List<List<String>> batches = new ArrayList<>();
+    private final EventCoalescer<Integer> events = new EventCoalescer<>(clock, WINDOW, 4,
+        batch -> {
+            List<String> names = new ArrayList<>();
+            for (EventCoalescer.Event<Integer> event : batch) {
+                names.add(event.getName() + ":" + event.getKey() + "=" + event.getPayload());
+            }
+            batches.add(names);
+        });
+
+    @Test
+    public void eventsInOneWindowArriveAsOneOrderedBatch() {
+        assertTrue(events.post("onPlaybackStarted", null, 1));
+        assertFalse(events.post("onTrackAdded", "rain", 2));
+        assertFalse(events.post("onTrackAdded", "wind", 3));
+
+        assertEquals(-1, events.flush());
+        assertEquals(1, batches.size());
+        assertEquals(Arrays.asList("onPlaybackStarted:null=1", "onTrackAdded:rain=2", "onTrackAdded:wind=3"),
+            batches.get(0));
+        assertEquals(3, events.getDeliveredCount());
+        assertEquals(1, events.getBatchCount());
+
+        // 发送完毕后下一次投递重新安排
+        assertTrue(events.post("onPlaybackPaused", null, 4));
+    }
+
+    @Test
+    public void mergeEventsKeepLatestPerKey() {
+        events.register("onMeters", EventCoalescer.Mode.MERGE, 0);
+        for (int i = 0; i < 10; i++) {
+            events.post("onMeters", "rain", i);
+            events.post("onMeters", "wind", 100 + i);
+        }
+        events.flush();
+        assertEquals(Arrays.asList("onMeters:rain=9", "onMeters:wind=109"), batches.get(0));
+        assertEquals(18, events.getMergedCount());
+        assertEquals(20, events.getPostedCount());
+        assertEquals(0, events.getDroppedCount());
+    }
+
+    @Test
+    public void rateLimitedClassWaitsForItsNextSlot() {
+        events.register("onTimerUpdate", EventCoalescer.Mode.MERGE, 4);
+        events.post("onTimerUpdate", null, 1);
+        events.flush();
+
+        // 250ms 内的更新合并到下一个允许的时刻
+        clock.advance(WINDOW);
+        events.post("onTimerUpdate", null, 2);
+        events.post("onError", null, 3);
+        long next = events.flush();
+        assertEquals(250_000_000L - WINDOW, next);
+        assertEquals(Arrays.asList("onError:null=3"), batches.get(1));
+
+        clock.advance(next);
+        events.post("onTimerUpdate", null, 4);
+        assertEquals(-1, events.flush());
+        assertEquals(Arrays.asList("onTimerUpdate:null=4"), batches.get(2));
+        assertEquals(1, events.getMergedCount());
+    }
+
+    @Test
+    public void queueOverflowDropsOldest() {
+        for (int i = 0; i < 6; i++) {
+            events.post("onError", null, i);
+        }
+        events.flush();
+        assertEquals(Arrays.asList("onError:null=2", "onError:null=3", "onError:null=4", "onError:null=5"),
+            batches.get(0));
+        assertEquals(2, events.getDroppedCount());
+    }
+}
@@ -0,0 +1,122 @@
+/**
+ * SceneStoreTest.java
+ * 场景日志的读写、重新打开、压缩与中断恢复
+ */
+
+package com.ambianceapp.scene;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SceneStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void scenesSurviveReopen() throws Exception {
+        File file = folder.newFile("scenes.log");
+        try (SceneStore store = SceneStore.open(file)) {
+            store.put(scene("a", "雨夜", 0.4f));
+            store.put(scene("b", "海边", 0.7f));
+        }
+
+        try (SceneStore store = SceneStore.open(file)) {
+            assertEquals(2, store.size());
+            Scene a = store.get("a");
+            assertEquals("雨夜", a.getName());
+            assertEquals(1234L, a.getCreatedAt());
+            assertEquals(2, a.getTracks().size());
+            assertEquals("rain", a.getTracks().get(0).getTrackId());
+            assertEquals("rain.ogg", a.getTracks().get(0).getAudioFile());
+            assertEquals(0.4f, a.getTracks().get(0).getVolume(), 0.0f);
+            assertEquals(-0.5f, a.getTracks().get(1).getPan(), 0.0f);
+            assertNull(store.get("missing"));
+        }
+    }
+
+    @Test
+    public void overwriteAndDeleteAreReplayed() throws Exception {
+        File file = folder.newFile("scenes.log");
+        try (SceneStore store = SceneStore.open(file)) {
+            store.put(scene("a", "first", 0.1f));
+            store.put(scene("a", "second", 0.2f));
+            store.put(scene("b", "gone", 0.3f));
+            assertTrue(store.delete("b"));
+            assertFalse(store.delete("b"));
+        }
+
+        try (SceneStore store = SceneStore.open(file)) {
+            assertEquals(1, store.size());
+            assertEquals("second", store.get("a").getName());
+            assertFalse(store.contains("b"));
+        }
+    }
+
+    @Test
+    public void compactionKeepsOnlyLiveRecords() throws Exception {
+        File file = folder.newFile("scenes.log");
+        try (SceneStore store = SceneStore.open(file)) {
+            // 反复覆盖同一批场景，触发自动压缩
+            for (int round = 0; round < 200; round++) {
+                for (int i = 0; i < 10; i++) {
+                    store.put(scene("s" + i, "round " + round, round / 200.0f));
+                }
+            }
+            assertTrue(store.getFileBytes() < 2 * store.getLiveBytes() + 64 * 1024 + 8);
+
+            store.compact();
+            assertEquals(store.getLiveBytes() + 8, store.getFileBytes());
+            assertEquals(file.length(), store.getFileBytes());
+            assertEquals("round 199", store.get("s3").getName());
+        }
+
+        try (SceneStore store = SceneStore.open(file)) {
+            assertEquals(10, store.size());
+            assertEquals("round 199", store.get("s9").getName());
+        }
+    }
+
+    @Test
+    public void tornTailIsTruncated() throws Exception {
+        File file = folder.newFile("scenes.log");
+        long goodLength;
+        try (SceneStore store = SceneStore.open(file)) {
+            store.put(scene("a", "kept", 0.5f));
+            goodLength = store.getFileBytes();
+            store.put(scene("b", "torn", 0.5f));
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 3);
+        }
+
+        try (SceneStore store = SceneStore.open(file)) {
+            assertEquals(1, store.size());
+            assertEquals("kept", store.get("a").getName());
+            assertTrue(store.getRecoveredBytes() > 0);
+            assertEquals(goodLength, file.length());
+
+            store.put(scene("c", "after", 0.5f));
+        }
+        try (SceneStore store = SceneStore.open(file)) {
+            assertEquals(2, store.size());
+            assertEquals("after", store.get("c").getName());
+        }
+    }
+
+    private static Scene scene(String id, String name, float volume) {
+        return new Scene(id, name, 1234L, Arrays.asList(
+            new Scene.Track("rain", "rain.ogg", volume, 0.0f),
+            new Scene.Track("pink_noise", "noise://pink", 0.3f, -0.5f)));
+    }
+}
@@ -0,0 +1,40 @@
+/**
+ * BenchmarkSignals.java
+ * 基准测试使用的合成 PCM 数据
+ */
+
+package com.ambianceapp.audio;
+
+final class BenchmarkSignals {
+
+    static final int SAMPLE_RATE = 44100;
+    static final int BUFFER_SIZE = 1024;   // 与 DEFAULT_AUDIO_CONFIG.bufferSize 一致
+
+    private BenchmarkSignals() {
+    }
+
+    /**
+     * 正弦 PCM，frames 帧，channels 声道
+     */
+    static PcmData sine(int channels, int frames, double frequency) {
+        short[] samples = new short[frames * channels];
+        for (int i = 0; i < frames; i++) {
+            short value = (short) (Math.sin(2 * Math.PI * frequency * i / SAMPLE_RATE) * 16000);
+            for (int c = 0; c < channels; c++) {
+                samples[i * channels + c] = value;
+            }
+        }
+        return new PcmData(SAMPLE_RATE, channels, samples);
+    }
+
+    /**
+     * 交错立体声 float 缓冲区，取值在 ±1.2 之间以覆盖削波分支
+     */
+    static float[] floats(int frames) {
+        float[] buffer = new float[frames * AudioMixer.OUTPUT_CHANNELS];
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i] = (float) (Math.sin(i * 0.01) * 1.2);
+        }
+        return buffer;
+    }
+}
@@ -0,0 +1,52 @@
+/**
+ * GainPanBenchmark.java
+ * 单条音轨的音量/平衡增益叠加内核 (ns/帧)
+ */
+
+package com.ambianceapp.audio;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GainPanBenchmark {
+
+    @Param({"1", "2"})
+    public int channels;
+
+    private float[] input;
+    private float[] output;
+    private float volume = 0.7f;
+    private float pan = -0.3f;
+
+    @Setup
+    public void setup() {
+        input = BenchmarkSignals.floats(BenchmarkSignals.BUFFER_SIZE);
+        output = new float[BenchmarkSignals.BUFFER_SIZE * AudioMixer.OUTPUT_CHANNELS];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkSignals.BUFFER_SIZE)
+    public float[] gainPan() {
+        AudioMixer.mixInto(output, input, BenchmarkSignals.BUFFER_SIZE, channels,
+            AudioMixer.leftGain(volume, pan), AudioMixer.rightGain(volume, pan));
+        return output;
+    }
+}
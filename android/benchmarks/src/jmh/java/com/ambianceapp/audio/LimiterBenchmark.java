@@ -0,0 +1,61 @@
+/**
+ * LimiterBenchmark.java
+ * 主总线前瞻限幅器的开销 (ns/帧)
+ *
+ * 预算：每帧不超过 12ns (含复制输入)，不到 8 条音轨混音 (MixBenchmark, 约 30ns) 的一半，
+ * 不足 1024 帧缓冲区 23ms 时限的 0.05%。
+ * quiet 为低于上限直接通过，loud 为持续限幅 (±1.2 的信号)。
+ */
+
+package com.ambianceapp.audio;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LimiterBenchmark {
+
+    @Param({"quiet", "loud"})
+    public String signal;
+
+    private LookaheadLimiter limiter;
+    private float[] source;
+    private float[] buffer;
+
+    @Setup
+    public void setup() {
+        limiter = new LookaheadLimiter(BenchmarkSignals.SAMPLE_RATE);
+        source = BenchmarkSignals.floats(BenchmarkSignals.BUFFER_SIZE);
+        if (signal.equals("quiet")) {
+            for (int i = 0; i < source.length; i++) {
+                source[i] *= 0.5f;
+            }
+        }
+        buffer = new float[source.length];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkSignals.BUFFER_SIZE)
+    public float[] process() {
+        System.arraycopy(source, 0, buffer, 0, buffer.length);
+        limiter.process(buffer, BenchmarkSignals.BUFFER_SIZE);
+        return buffer;
+    }
+}
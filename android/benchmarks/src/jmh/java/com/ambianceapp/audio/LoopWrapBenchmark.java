@@ -0,0 +1,54 @@
+/**
+ * LoopWrapBenchmark.java
+ * 循环音源读取开销，较短的循环长度意味着每个缓冲区内有更多次回绕 (ns/帧)
+ */
+
+package com.ambianceapp.audio;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoopWrapBenchmark {
+
+    @Param({"64", "1000", "44100"})
+    public int loopFrames;
+
+    // 交叉淡化接缝帧数，接缝预先计算，回绕开销应与无接缝相同
+    @Param({"0", "16"})
+    public int crossfadeFrames;
+
+    private PcmLoopSource source;
+    private float[] buffer;
+
+    @Setup
+    public void setup() {
+        PcmData pcm = BenchmarkSignals.sine(2, loopFrames, 440).withLoopCrossfade(crossfadeFrames);
+        source = new PcmLoopSource(pcm, true);
+        buffer = new float[BenchmarkSignals.BUFFER_SIZE * AudioMixer.OUTPUT_CHANNELS];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkSignals.BUFFER_SIZE)
+    public float[] read() {
+        source.read(buffer, 0, BenchmarkSignals.BUFFER_SIZE);
+        return buffer;
+    }
+}
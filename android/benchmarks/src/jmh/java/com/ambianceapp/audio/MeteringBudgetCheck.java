@@ -0,0 +1,64 @@
+/**
+ * MeteringBudgetCheck.java
+ * 按 MixBenchmark 检查电平表的开销预算
+ *
+ * 在 8 与 16 条音轨下分别运行 metering=false/true，开启后的 ns/帧
+ * 比关闭多出 MixBenchmark.METERING_BUDGET 以上时以非零状态退出。
+ * 同一配置在不同 JVM 进程间的差异可达一成以上，因此每个配置运行 5 个进程取平均。
+ *
+ * 运行: ./gradlew -p benchmarks jmhMeteringCheck
+ */
+
+package com.ambianceapp.audio;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+public final class MeteringBudgetCheck {
+
+    private static final String[] TRACK_COUNTS = {"8", "16"};
+    private static final int FORKS = 5;
+
+    private MeteringBudgetCheck() {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+            .include(MixBenchmark.class.getName() + ".render$")
+            .param("trackCount", TRACK_COUNTS)
+            .forks(FORKS)
+            .build();
+        Collection<RunResult> results = new Runner(options).run();
+
+        // 音轨数 -> {关闭, 开启} 的 ns/帧
+        Map<Integer, double[]> scores = new TreeMap<>();
+        for (RunResult result : results) {
+            int trackCount = Integer.parseInt(result.getParams().getParam("trackCount"));
+            boolean metering = Boolean.parseBoolean(result.getParams().getParam("metering"));
+            double[] pair = scores.computeIfAbsent(trackCount, k -> new double[2]);
+            pair[metering ? 1 : 0] = result.getPrimaryResult().getScore();
+        }
+
+        boolean withinBudget = scores.size() == TRACK_COUNTS.length;
+        for (Map.Entry<Integer, double[]> entry : scores.entrySet()) {
+            double off = entry.getValue()[0];
+            double on = entry.getValue()[1];
+            double overhead = on / off - 1.0;
+            boolean ok = overhead <= MixBenchmark.METERING_BUDGET;
+            System.out.printf("%d tracks: %.1f -> %.1f ns/frame (+%.0f%%) %s%n", entry.getKey(), off, on,
+                overhead * 100, ok ? "ok" : "over budget");
+            withinBudget &= ok;
+        }
+        if (!withinBudget) {
+            System.out.printf("Metering overhead exceeds the %.0f%% budget%n", MixBenchmark.METERING_BUDGET * 100);
+            System.exit(1);
+        }
+    }
+}
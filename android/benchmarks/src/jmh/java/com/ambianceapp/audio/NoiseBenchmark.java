@@ -0,0 +1,49 @@
+/**
+ * NoiseBenchmark.java
+ * 立体声噪音生成开销，可与 LoopWrapBenchmark 的 PCM 循环读取对比 (ns/帧)
+ */
+
+package com.ambianceapp.audio;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NoiseBenchmark {
+
+    @Param({"WHITE", "PINK", "BROWN"})
+    public NoiseSource.Color color;
+
+    private NoiseSource source;
+    private float[] buffer;
+
+    @Setup
+    public void setup() {
+        source = new NoiseSource(color, BenchmarkSignals.SAMPLE_RATE, 2, 1);
+        buffer = new float[BenchmarkSignals.BUFFER_SIZE * AudioMixer.OUTPUT_CHANNELS];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkSignals.BUFFER_SIZE)
+    public float[] generate() {
+        source.read(buffer, 0, BenchmarkSignals.BUFFER_SIZE);
+        return buffer;
+    }
+}
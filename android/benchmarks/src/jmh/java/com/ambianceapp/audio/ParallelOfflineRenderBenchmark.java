@@ -0,0 +1,93 @@
+/**
+ * ParallelOfflineRenderBenchmark.java
+ * 并行离线导出 60 分钟 8 条音轨场景的总耗时 (秒)，按 ForkJoinPool 并行度 1 ~ 16 扫描
+ *
+ * 场景与 OfflineRenderBenchmark 相同，每轮结束时打印实时倍率与重新限幅的段数 (约 2%)。
+ *
+ * 实测 (1 vCPU 的 Xeon 虚拟机，SingleShotTime 3 次，秒):
+ *
+ *   顺序渲染 (OfflineRenderBenchmark)    11.3 ± 5.4
+ *   并行度 1                              17.1 ± 4.0
+ *   并行度 2                              16.8 ± 7.5
+ *   并行度 4                              16.0 ± 14.5
+ *   并行度 8                              16.9 ± 11.2
+ *   并行度 16                             17.8 ± 6.3
+ *
+ * 单核上各并行度的耗时即分段渲染的全部 CPU 工作量：约为顺序渲染的 1.5 倍
+ * (游标 skip() 约 3.7 秒、每段预热限幅器、段缓冲区复制)。
+ * 游标推进在调用线程上串行执行 (噪音的浮点递推只能逐帧步进)，是多核时的耗时下限。
+ * 多核数据尚未实测：在 6 核以上的机器运行
+ * gradle -p benchmarks jmh -Pjmh.includes=OfflineRenderBenchmark 后补入此表，
+ * 并据此复核 AmbianceEngine 的 PARALLEL_EXPORT_MIN_WORKERS 与 PARALLEL_EXPORT_MAX_WORKERS。
+ */
+
+package com.ambianceapp.audio;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class ParallelOfflineRenderBenchmark {
+
+    private static final long FRAMES = BenchmarkSignals.SAMPLE_RATE * 3600L;
+
+    @Param({"1", "2", "4", "8", "16"})
+    public int parallelism;
+
+    private AudioMixer mixer;
+    private ForkJoinPool pool;
+    private File file;
+
+    @Setup(Level.Iteration)
+    public void setup() throws IOException {
+        mixer = new AudioMixer(BenchmarkSignals.BUFFER_SIZE);
+        mixer.setLimiter(new LookaheadLimiter(BenchmarkSignals.SAMPLE_RATE));
+        for (int t = 0; t < 8; t++) {
+            AudioSource source = t % 2 == 0
+                ? new NoiseSource(NoiseSource.Color.values()[t % 3], BenchmarkSignals.SAMPLE_RATE, 2, t)
+                : new PcmLoopSource(BenchmarkSignals.sine(2, BenchmarkSignals.SAMPLE_RATE * 2, 110 * t), true);
+            MixerTrack track = mixer.addTrack("track" + t, source);
+            track.setVolume(0.4f);
+            track.setPan(t / 4.0f - 1.0f);
+            track.setPlaying(true);
+        }
+        pool = new ForkJoinPool(parallelism);
+        file = File.createTempFile("parallel-offline-benchmark", ".wav");
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        pool.shutdown();
+        file.delete();
+    }
+
+    @Benchmark
+    public OfflineRenderer.Result renderHour() throws IOException {
+        OfflineRenderer.Result result = new OfflineRenderer(mixer, BenchmarkSignals.SAMPLE_RATE,
+            BenchmarkSignals.BUFFER_SIZE).renderToWavParallel(file, FRAMES, pool);
+        System.out.printf("realtime factor %.0fx, %d/%d segments relimited%n", result.getRealtimeFactor(),
+            result.getRelimitedSegmentCount(), result.getSegmentCount());
+        return result;
+    }
+}
@@ -0,0 +1,54 @@
+/**
+ * PcmConversionBenchmark.java
+ * float 转 16 位 PCM 的开销 (ns/帧)
+ */
+
+package com.ambianceapp.audio;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PcmConversionBenchmark {
+
+    private float[] input;
+    private short[] pcm;
+    private byte[] bytes;
+
+    @Setup
+    public void setup() {
+        input = BenchmarkSignals.floats(BenchmarkSignals.BUFFER_SIZE);
+        pcm = new short[input.length];
+        bytes = new byte[input.length * 2];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkSignals.BUFFER_SIZE)
+    public short[] floatToPcm16() {
+        PcmConverter.floatToPcm16(input, pcm, input.length);
+        return pcm;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkSignals.BUFFER_SIZE)
+    public byte[] floatToPcm16Le() {
+        PcmConverter.floatToPcm16Le(input, bytes, input.length);
+        return bytes;
+    }
+}
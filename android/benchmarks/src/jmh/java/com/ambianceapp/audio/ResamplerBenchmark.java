@@ -0,0 +1,55 @@
+/**
+ * ResamplerBenchmark.java
+ * 混音总线 44100 -> 48000 立体声转换开销 (ns/输入帧)，各质量等级对比
+ */
+
+package com.ambianceapp.audio;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResamplerBenchmark {
+
+    @Param({"LOW", "MEDIUM", "HIGH"})
+    public SincResampler.Quality quality;
+
+    @Param({"48000"})
+    public int outputRate;
+
+    private SincResampler resampler;
+    private float[] input;
+    private float[] output;
+
+    @Setup
+    public void setup() {
+        resampler = new SincResampler(BenchmarkSignals.SAMPLE_RATE, outputRate,
+            AudioMixer.OUTPUT_CHANNELS, quality, BenchmarkSignals.BUFFER_SIZE);
+        input = BenchmarkSignals.floats(BenchmarkSignals.BUFFER_SIZE);
+        output = new float[resampler.getMaxOutputFrames(BenchmarkSignals.BUFFER_SIZE) * AudioMixer.OUTPUT_CHANNELS];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkSignals.BUFFER_SIZE)
+    public float[] convertBus() {
+        resampler.process(input, BenchmarkSignals.BUFFER_SIZE, output);
+        return output;
+    }
+}
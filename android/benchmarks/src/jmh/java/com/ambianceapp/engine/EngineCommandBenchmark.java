@@ -0,0 +1,86 @@
+/**
+ * EngineCommandBenchmark.java
+ * 无设备引擎上的命令吞吐：音量、平衡、状态查询与一次完整往返 (us/op)
+ * 渲染线程在后台向空输出渲染两条音轨，命令与其争用同一个混音器
+ */
+
+package com.ambianceapp.engine;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EngineCommandBenchmark {
+
+    private File directory;
+    private HeadlessEngine headless;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        directory = Files.createTempDirectory("engine").toFile();
+        headless = new HeadlessEngine(directory, directory);
+        headless.initialize();
+        headless.addTrack("pink", "noise://pink");
+        headless.addTrack("brown", "noise://brown");
+        headless.play();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        headless.close();
+        for (File child : directory.listFiles()) {
+            child.delete();
+        }
+        directory.delete();
+    }
+
+    @Benchmark
+    public Object setVolume() throws Exception {
+        next = (next + 1) % 100;
+        return headless.call((engine, promise) -> engine.setVolume("pink", next / 100.0f, promise));
+    }
+
+    @Benchmark
+    public Object setPanning() throws Exception {
+        next = (next + 1) % 100;
+        return headless.call((engine, promise) -> engine.setPanning("brown", next / 50.0f - 1.0f, promise));
+    }
+
+    /**
+     * 状态查询：读取渲染统计并构建完整的结果 Map
+     */
+    @Benchmark
+    public Object getStatus() throws Exception {
+        return headless.getStatus();
+    }
+
+    /**
+     * 应用侧一次典型交互：调整音量后查询状态
+     */
+    @Benchmark
+    public Object volumeThenStatus() throws Exception {
+        next = (next + 1) % 100;
+        headless.setVolume("pink", next / 100.0f);
+        return headless.getStatus();
+    }
+}
@@ -0,0 +1,84 @@
+/**
+ * TrackChurnBenchmark.java
+ * 试听场景的音轨频繁增删：添加一条音轨再移除的往返耗时 (us/op)
+ * 播放中移除要等渲染线程完成 10ms 淡出；暂停时立即回收
+ */
+
+package com.ambianceapp.engine;
+
+import com.ambianceapp.audio.PcmData;
+import com.ambianceapp.audio.PcmFile;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TrackChurnBenchmark {
+
+    // rain.ogg 映射构建期生成的 rain.pcm，与设备上的短循环相同
+    @Param({"rain.ogg", "noise://pink"})
+    public String audioFile;
+
+    @Param({"false", "true"})
+    public boolean playing;
+
+    private File directory;
+    private HeadlessEngine headless;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        directory = Files.createTempDirectory("churn").toFile();
+        PcmFile.write(sine(AmbianceEngine.SAMPLE_RATE * 10, 220.0), new File(directory, "rain.pcm"));
+        headless = new HeadlessEngine(directory, directory);
+        headless.initialize();
+        headless.addTrack("brown", "noise://brown");
+        if (playing) {
+            headless.play();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        headless.close();
+        for (File child : directory.listFiles()) {
+            child.delete();
+        }
+        directory.delete();
+    }
+
+    @Benchmark
+    public void addThenRemove() throws Exception {
+        headless.addTrack("audition", audioFile);
+        headless.removeTrack("audition");
+    }
+
+    private static PcmData sine(int frames, double frequency) {
+        short[] samples = new short[frames * 2];
+        for (int i = 0; i < frames; i++) {
+            short value = (short) (Math.sin(2 * Math.PI * frequency * i / AmbianceEngine.SAMPLE_RATE) * 8000);
+            samples[2 * i] = value;
+            samples[2 * i + 1] = value;
+        }
+        return new PcmData(AmbianceEngine.SAMPLE_RATE, 2, samples);
+    }
+}
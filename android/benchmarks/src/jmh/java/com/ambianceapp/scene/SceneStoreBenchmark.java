@@ -0,0 +1,96 @@
+/**
+ * SceneStoreBenchmark.java
+ * 10k 场景日志：打开并重建索引、按 ID 读取、保存一条 (ms/op 与 us/op)
+ */
+
+package com.ambianceapp.scene;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SceneStoreBenchmark {
+
+    private static final int SCENES = 10_000;
+
+    private File directory;
+    private File file;
+    private SceneStore store;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("scenes").toFile();
+        file = new File(directory, "scenes.log");
+        try (SceneStore writer = SceneStore.open(file)) {
+            for (int i = 0; i < SCENES; i++) {
+                writer.put(scene("scene_" + i));
+            }
+        }
+        store = SceneStore.open(file);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        store.close();
+        for (File child : directory.listFiles()) {
+            child.delete();
+        }
+        directory.delete();
+    }
+
+    /**
+     * 冷启动：打开日志并扫描 10k 条记录建立索引
+     */
+    @Benchmark
+    public int openAndIndex() throws IOException {
+        try (SceneStore opened = SceneStore.open(file)) {
+            return opened.size();
+        }
+    }
+
+    @Benchmark
+    public Scene get() throws IOException {
+        next = (next + 7919) % SCENES;
+        return store.get("scene_" + next);
+    }
+
+    /**
+     * 覆盖已有场景，包含摊销后的压缩开销
+     */
+    @Benchmark
+    public void put() throws IOException {
+        next = (next + 7919) % SCENES;
+        store.put(scene("scene_" + next));
+    }
+
+    private static Scene scene(String id) {
+        List<Scene.Track> tracks = new ArrayList<>();
+        tracks.add(new Scene.Track("rain", "rain.ogg", 0.6f, -0.2f));
+        tracks.add(new Scene.Track("fireplace", "fireplace.ogg", 0.4f, 0.3f));
+        tracks.add(new Scene.Track("brown_noise", "noise://brown", 0.2f, 0.0f));
+        return new Scene(id, "场景 " + id, System.currentTimeMillis(), tracks);
+    }
+}
@@ -0,0 +1,85 @@
+/**
+ * PcmAssetConverter.java
+ * 《静界》构建期工具：把 .ogg 音频资源转换为可内存映射的 .pcm 文件
+ * 属于 pcmtools 模块，由 app 的 convertPcmAssets 任务运行，不打包进 APK。
+ *
+ * 用法: PcmAssetConverter <输入目录> <输出目录> <采样率> <最大帧数>
+ * 采样率与最大帧数应与运行时的混音器采样率和 PCM 缓存上限一致
+ * (AmbianceEngine.SAMPLE_RATE 与 MAX_CACHED_FRAMES)：转换到混音器采样率后运行时直接映射、无需复制；
+ * 超过最大帧数的文件不转换 (否则以原始 PCM 存放会让 APK 大幅增大)，运行时从 .ogg 流式解码。
+ * 按相对路径输出，输出比输入新且文件头为当前格式、采样率一致时跳过。
+ */
+
+package com.ambianceapp.audio;
+
+import java.io.File;
+import java.io.IOException;
+
+public final class PcmAssetConverter {
+
+    // 构建期不在意耗时，使用最高质量
+    private static final SincResampler.Quality QUALITY = SincResampler.Quality.HIGH;
+
+    private PcmAssetConverter() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 4) {
+            System.err.println("Usage: PcmAssetConverter <inputDir> <outputDir> <sampleRate> <maxFrames>");
+            System.exit(2);
+        }
+        File inputDir = new File(args[0]);
+        File outputDir = new File(args[1]);
+        int converted = convertDirectory(inputDir, outputDir, Integer.parseInt(args[2]), Integer.parseInt(args[3]));
+        System.out.println("Converted " + converted + " asset(s) into " + outputDir);
+    }
+
+    /**
+     * 递归转换目录中的所有 .ogg 文件
+     * @param sampleRate 输出采样率
+     * @param maxFrames 解码后超过该帧数 (按原始采样率) 的文件不转换
+     * @return 实际转换的文件数
+     */
+    public static int convertDirectory(File inputDir, File outputDir, int sampleRate, int maxFrames)
+            throws IOException {
+        int converted = 0;
+        File[] files = inputDir.listFiles();
+        if (files == null) {
+            return 0;
+        }
+        for (File file : files) {
+            if (file.isDirectory()) {
+                converted += convertDirectory(file, new File(outputDir, file.getName()), sampleRate, maxFrames);
+            } else if (file.getName().endsWith(".ogg")) {
+                File output = new File(outputDir, PcmFile.nameFor(file.getName()));
+                if (output.exists() && output.lastModified() >= file.lastModified()
+                        && PcmFile.isCurrent(output, sampleRate)) {
+                    continue;
+                }
+                if (!outputDir.isDirectory() && !outputDir.mkdirs()) {
+                    throw new IOException("Cannot create " + outputDir);
+                }
+                if (convert(file, output, sampleRate, maxFrames)) {
+                    converted++;
+                }
+            }
+        }
+        return converted;
+    }
+
+    /**
+     * 转换单个文件
+     * @return 是否写入了输出；过长时不写入，并删除之前的输出
+     */
+    public static boolean convert(File input, File output, int sampleRate, int maxFrames) throws IOException {
+        PcmData pcm = VorbisDecoder.decodeAll(new FileByteSource(input), maxFrames);
+        if (pcm == null) {
+            if (output.exists() && !output.delete()) {
+                throw new IOException("Cannot delete " + output);
+            }
+            return false;
+        }
+        PcmFile.write(SincResampler.resample(pcm, sampleRate, QUALITY), output);
+        return true;
+    }
+}
@@ -0,0 +1,117 @@
+/**
+ * PcmAssetConverterTest.java
+ * 构建期转换 Ogg 资源：与解码结果逐位相同、过期输出重新转换、转换到混音器采样率，
+ * 以及超过缓存上限的文件留给流式解码
+ */
+
+package com.ambianceapp.audio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ShortBuffer;
+import java.nio.file.Files;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class PcmAssetConverterTest {
+
+    private static final int MAX_FRAMES = 44100 * 60;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void convertedOggMatchesTheDecoder() throws Exception {
+        File input = folder.newFolder("assets", "sounds");
+        File ogg = fixture(input);
+        File output = folder.newFolder("pcm");
+
+        assertEquals(1, PcmAssetConverter.convertDirectory(input.getParentFile(), output, 44100, MAX_FRAMES));
+        File converted = new File(output, "sounds/stream.pcm");
+        assertTrue(converted.isFile());
+
+        PcmData decoded = VorbisDecoder.decodeAll(new FileByteSource(ogg), MAX_FRAMES);
+        assertEquals(44100, decoded.getSampleRate());
+        PcmData mapped = PcmFile.map(converted);
+        assertTrue(mapped.isMapped());
+        assertEquals(decoded.getSampleRate(), mapped.getSampleRate());
+        assertEquals(decoded.getChannelCount(), mapped.getChannelCount());
+        assertEquals(decoded.getFrameCount(), mapped.getFrameCount());
+        assertSamplesEqual(decoded, mapped);
+
+        // 输出比输入新时跳过，文件头不是当前格式时重新转换
+        assertTrue(converted.setLastModified(ogg.lastModified() + 1000));
+        assertEquals(0, PcmAssetConverter.convertDirectory(input.getParentFile(), output, 44100, MAX_FRAMES));
+        try (RandomAccessFile raf = new RandomAccessFile(converted, "rw")) {
+            raf.write(new byte[]{'A', 'B', 'M', 'P'});
+        }
+        assertTrue(converted.setLastModified(ogg.lastModified() + 1000));
+        assertEquals(1, PcmAssetConverter.convertDirectory(input.getParentFile(), output, 44100, MAX_FRAMES));
+        assertSamplesEqual(decoded, PcmFile.map(converted));
+    }
+
+    @Test
+    public void conversionResamplesToTheMixerRate() throws Exception {
+        File input = folder.newFolder("assets");
+        File ogg = fixture(input);
+        File output = folder.newFolder("pcm");
+        assertEquals(1, PcmAssetConverter.convertDirectory(input, output, 44100, MAX_FRAMES));
+
+        // 混音器采样率改变后已有输出不再沿用，按新的采样率重新转换
+        File converted = new File(output, "stream.pcm");
+        assertTrue(converted.setLastModified(ogg.lastModified() + 1000));
+        assertEquals(1, PcmAssetConverter.convertDirectory(input, output, 48000, MAX_FRAMES));
+
+        PcmData decoded = VorbisDecoder.decodeAll(new FileByteSource(ogg), MAX_FRAMES);
+        PcmData expected = SincResampler.resample(decoded, 48000, SincResampler.Quality.HIGH);
+        PcmData mapped = PcmFile.map(converted);
+        assertEquals(48000, mapped.getSampleRate());
+        assertEquals(expected.getFrameCount(), mapped.getFrameCount());
+        assertSamplesEqual(expected, mapped);
+    }
+
+    @Test
+    public void filesLongerThanTheCacheLimitAreLeftToStreaming() throws Exception {
+        File input = folder.newFolder("assets");
+        File ogg = fixture(input);
+        File output = folder.newFolder("pcm");
+        assertEquals(1, PcmAssetConverter.convertDirectory(input, output, 44100, MAX_FRAMES));
+        File converted = new File(output, "stream.pcm");
+        assertTrue(converted.isFile());
+
+        // 固定片段 1472 帧：上限更低时不转换，并删除之前的输出
+        assertTrue(ogg.setLastModified(converted.lastModified() + 1000));
+        assertEquals(0, PcmAssetConverter.convertDirectory(input, output, 44100, 1000));
+        assertFalse(converted.exists());
+    }
+
+    private static File fixture(File dir) throws IOException {
+        File ogg = new File(dir, "stream.ogg");
+        try (InputStream in = PcmAssetConverterTest.class.getResourceAsStream("/testVORBIS.ogg")) {
+            assertNotNull(in);
+            Files.copy(in, ogg.toPath());
+        }
+        return ogg;
+    }
+
+    private static void assertSamplesEqual(PcmData expected, PcmData actual) {
+        ShortBuffer a = expected.getSamples();
+        ShortBuffer b = actual.getSamples();
+        int count = expected.getFrameCount() * expected.getChannelCount();
+        for (int i = 0; i < count; i++) {
+            if (a.get(i) != b.get(i)) {
+                fail("sample " + i + ": expected " + a.get(i) + " but was " + b.get(i));
+            }
+        }
+    }
+}
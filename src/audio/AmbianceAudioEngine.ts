@@ -55,25 +55,27 @@ export interface AmbianceAudioEngine {
   /**
    * 获取引擎状态
    */
-  getStatus(): Promise<{
-    isInitialized: boolean;
-    isPlaying: boolean;
-    activeTracks: number;
-    memoryUsage: number;
-  }>;
+  getStatus(): Promise<EngineStatus>;
 
   // ==================== 音轨管理 ====================
   
   /**
    * 添加音轨到混音器
    * @param trackId 唯一标识符
-   * @param audioFile 音频文件路径
+   * @param audioFile 音频文件路径；Android 原生引擎还支持合成噪音 URI，如 'noise://pink'
    * @returns Promise<boolean> 是否添加成功
    */
   addTrack(trackId: string, audioFile: string): Promise<boolean>;
   
   /**
-   * 移除音轨
+   * 批量添加音轨，原生端并行加载，全部完成后一次性返回
+   * @param tracks 音轨列表
+   * @returns Promise<Record<string, TrackLoadResult>> 以 trackId 为键的加载结果
+   */
+  addTracks(tracks: TrackLoadRequest[]): Promise<Record<string, TrackLoadResult>>;
+  
+  /**
+   * 移除音轨 (Android 原生引擎播放中先做 10ms 淡出，解码器与缓冲区归还音源池复用)
    * @param trackId 音轨ID
    */
   removeTrack(trackId: string): Promise<boolean>;
@@ -109,6 +111,18 @@ export interface AmbianceAudioEngine {
    * @param volume 主音量 (0.0 - 1.0)
    */
   setMasterVolume(volume: number): Promise<boolean>;
+  
+  /**
+   * 设置主总线限幅器
+   * @param ceilingDb 输出峰值上限 (dBFS，-20 ~ 0，默认 -1)
+   * @param releaseMs 增益回升时间 (毫秒，默认 100)
+   */
+  setLimiter(ceilingDb: number, releaseMs: number): Promise<boolean>;
+
+  /**
+   * 开启或关闭电平表，开启后约每 33ms 触发一次 'meters' 事件 (MeterEvent)
+   */
+  setMeteringEnabled(enabled: boolean): Promise<boolean>;
 
   // ==================== 播放控制 ====================
   
@@ -167,8 +181,17 @@ export interface AmbianceAudioEngine {
   /**
    * 加载场景
    * @param sceneId 场景ID或场景配置
+   * @param options 交叉淡化等选项
+   */
+  loadScene(sceneId: string | AudioScene, options?: SceneLoadOptions): Promise<boolean>;
+  
+  /**
+   * 把已保存的场景离线渲染为 WAV 文件 (不影响当前播放)
+   * @param sceneId 场景ID
+   * @param durationMinutes 导出时长 (分钟，最长 240)
+   * @param fileName 文件名，默认使用场景ID
    */
-  loadScene(sceneId: string | AudioScene): Promise<boolean>;
+  exportSceneToWav(sceneId: string, durationMinutes: number, fileName?: string): Promise<SceneExportResult>;
   
   /**
    * 获取当前场景配置
@@ -188,6 +211,134 @@ export interface AmbianceAudioEngine {
   removeEventListener(event: AudioEngineEvent, listener: EventListener): void;
 }
 
+// ==================== 批量加载 ====================
+
+export interface TrackLoadRequest {
+  trackId: string;
+  audioFile: string;
+}
+
+export interface TrackLoadResult {
+  success: boolean;
+  loadTimeMs?: number;
+  error?: string;
+}
+
+// ==================== 引擎状态 ====================
+
+export interface PcmCacheStats {
+  hits: number;
+  misses: number;
+  evictions: number;
+  entries: number;
+  bytes: number;
+  budgetBytes: number;
+}
+
+export interface SceneLoadOptions {
+  crossfadeMs?: number;              // 新旧场景同时渲染的交叉淡化时长，默认只做 10ms 去咔嗒
+}
+
+export interface SceneLoadResult {
+  success: boolean;
+  superseded?: boolean;              // 完成前已有更新的场景请求，本次未应用
+  loaded?: string[];                 // 新加载的音轨
+  reused?: number;                   // 沿用已加载解码器的音轨数
+  failed?: Record<string, string>;   // 加载失败的音轨及原因
+}
+
+export interface SceneExportResult {
+  path: string;                      // WAV 文件的绝对路径
+  frames: number;
+  durationMs: number;
+  elapsedMs: number;                 // 渲染耗时
+  realtimeFactor: number;            // 音频时长 / 渲染耗时
+}
+
+export interface RenderStats {
+  deadlineMs: number;        // 每个缓冲区的交付时限
+  buffers: number;
+  underruns: number;
+  worstRenderMs: number;
+  averageRenderMs: number;
+  histogram: number[];       // 桶宽为时限的 10%，最后一桶为超时
+  transitions: number;       // 场景过渡次数
+  transitionPeakRenderMs: number;  // 最近一次场景过渡期间的最长渲染耗时
+}
+
+export interface OutputBufferChange {
+  atMs: number;              // 调整时已输出的音频时长
+  fromFrames: number;
+  toFrames: number;
+  underruns: number;         // 触发增大时窗口内的欠载次数，减小时为 0
+}
+
+export interface OutputBufferStatus {
+  frames: number;            // 当前每个缓冲区的帧数 (按欠载统计自适应调整)
+  latencyMs: number;
+  minFrames: number;
+  maxFrames: number;
+  changes: number;           // 调整总次数
+  history: OutputBufferChange[];  // 最近的调整记录
+}
+
+export interface LimiterStatus {
+  ceilingDb: number;
+  gainReductionDb: number;   // 上一个缓冲区内的最大增益衰减
+}
+
+export interface MeterLevels {
+  peakLeft: number;          // 线性，峰值保持后按 20 dB/s 回落
+  peakRight: number;
+  rmsLeft: number;           // 线性，时间常数 300ms
+  rmsRight: number;
+}
+
+export interface MeterEvent {
+  master: MeterLevels;       // 主输出 (限幅之后)
+  tracks: { [trackId: string]: MeterLevels };
+}
+
+export interface EventChannelStats {
+  posted: number;
+  delivered: number;
+  merged: number;            // 被同一键的更新覆盖
+  dropped: number;           // 积压超过上限被丢弃
+  batches: number;
+}
+
+export interface TrackActivity {
+  suspended: boolean;        // 有效增益持续为零，已停止解码与混音
+  activeMs: number;          // 播放中实际解码混音的累计时长
+  suspendedMs: number;       // 播放中挂起的累计时长
+}
+
+export interface SourcePoolStats {
+  live: number;              // 在用的音源 (含淡出中的音轨)，引擎释放时仍在用即为泄漏
+  peakLive: number;
+  maxLive: number;           // 上限，达到后 addTrack 被拒绝
+  retiring: number;          // 正在淡出、等待回收的音轨
+  idle: number;              // 可复用的空闲流式音源
+  created: number;
+  reused: number;
+  discarded: number;         // 空闲队列已满时丢弃
+  rejected: number;          // 因达到上限被拒绝的加载
+}
+
+export interface EngineStatus {
+  isInitialized: boolean;
+  isPlaying: boolean;
+  activeTracks: number;
+  memoryUsage: number;       // 字节
+  pcmCache?: PcmCacheStats;  // 仅 Android 原生引擎提供
+  tracks?: { [trackId: string]: TrackActivity }; // 仅 Android 原生引擎提供
+  sources?: SourcePoolStats; // 仅 Android 原生引擎提供
+  render?: RenderStats;      // 仅 Android 原生引擎提供
+  buffer?: OutputBufferStatus; // 仅 Android 原生引擎提供
+  limiter?: LimiterStatus;   // 仅 Android 原生引擎提供
+  events?: EventChannelStats; // 仅 Android 原生引擎提供
+}
+
 // ==================== 事件定义 ====================
 
 export type AudioEngineEvent = 
@@ -201,6 +352,7 @@ export type AudioEngineEvent =
   | 'panningChanged'       // 立体声平衡变化
   | 'timerExpired'         // 定时器结束
   | 'sceneLoaded'          // 场景加载完成
+  | 'meters'               // 电平更新 (MeterEvent)
   | 'error';               // 错误发生
 
 export interface EventListener {
@@ -256,7 +408,7 @@ export class AudioEngineUtils {
  */
 export interface AudioEngineConfig {
   sampleRate: number;           // 采样率 (默认: 44100)
-  bufferSize: number;           // 缓冲区大小 (默认: 1024)
+  bufferSize: number;           // 缓冲区大小 (默认: 1024，Android 原生引擎自适应调整，见 EngineStatus.buffer)
   maxTracks: number;            // 最大音轨数 (默认: 8)
   enableBackgroundPlayback: boolean; // 启用后台播放 (默认: true)
   audioFormat: 'mp3' | 'ogg' | 'wav'; // 音频格式偏好 (默认: 'ogg')
@@ -6,7 +6,7 @@
  */
 
 import { NativeModules, NativeEventEmitter, DeviceEventEmitter, Platform } from 'react-native';
-import { AmbianceAudioEngine, AudioTrack, AudioScene, TimerConfig, AudioEngineEvent, EventListener, AudioEngineError } from './AmbianceAudioEngine';
+import { AmbianceAudioEngine, AudioTrack, AudioScene, TimerConfig, AudioEngineEvent, EventListener, AudioEngineError, EngineStatus, TrackLoadRequest, TrackLoadResult, SceneLoadOptions, SceneLoadResult, SceneExportResult } from './AmbianceAudioEngine';
 
 // 原生模块引用
 const NativeAudioEngine = NativeModules.AmbianceAudioEngine;
@@ -58,12 +58,7 @@ class NativeAudioBridge implements AmbianceAudioEngine {
     }
   }
   
-  async getStatus(): Promise<{
-    isInitialized: boolean;
-    isPlaying: boolean;
-    activeTracks: number;
-    memoryUsage: number;
-  }> {
+  async getStatus(): Promise<EngineStatus> {
     try {
       if (NativeAudioEngine.getStatus) {
         return await NativeAudioEngine.getStatus();
@@ -101,6 +96,30 @@ class NativeAudioBridge implements AmbianceAudioEngine {
     }
   }
   
+  async addTracks(tracks: TrackLoadRequest[]): Promise<Record<string, TrackLoadResult>> {
+    this.validateInitialized();
+    
+    try {
+      if (NativeAudioEngine.addTracks) {
+        return await NativeAudioEngine.addTracks(tracks);
+      }
+      
+      // 如果原生模块没有提供addTracks方法，并发调用addTrack
+      const results: Record<string, TrackLoadResult> = {};
+      await Promise.all(tracks.map(async ({ trackId, audioFile }) => {
+        results[trackId] = { success: await this.addTrack(trackId, audioFile) };
+      }));
+      return results;
+    } catch (error) {
+      console.error('Failed to add tracks:', error);
+      this.emitEvent('error', { 
+        code: AudioEngineError.TRACK_NOT_FOUND, 
+        message: error.message 
+      });
+      return {};
+    }
+  }
+  
   async removeTrack(trackId: string): Promise<boolean> {
     try {
       if (NativeAudioEngine.removeTrack) {
@@ -199,6 +218,38 @@ class NativeAudioBridge implements AmbianceAudioEngine {
     }
   }
   
+  async setLimiter(ceilingDb: number, releaseMs: number): Promise<boolean> {
+    this.validateInitialized();
+    
+    try {
+      if (NativeAudioEngine.setLimiter) {
+        return await NativeAudioEngine.setLimiter(ceilingDb, releaseMs);
+      }
+      
+      // 原生模块没有限幅器时忽略
+      return true;
+    } catch (error) {
+      console.error('Failed to set limiter:', error);
+      return false;
+    }
+  }
+  
+  async setMeteringEnabled(enabled: boolean): Promise<boolean> {
+    this.validateInitialized();
+    
+    try {
+      if (NativeAudioEngine.setMeteringEnabled) {
+        return await NativeAudioEngine.setMeteringEnabled(enabled);
+      }
+      
+      // 原生模块没有电平表时忽略
+      return false;
+    } catch (error) {
+      console.error('Failed to set metering:', error);
+      return false;
+    }
+  }
+  
   // ==================== 播放控制 ====================
   
   async play(): Promise<boolean> {
@@ -336,19 +387,34 @@ class NativeAudioBridge implements AmbianceAudioEngine {
     }
   }
   
-  async loadScene(sceneId: string | AudioScene): Promise<boolean> {
+  async loadScene(sceneId: string | AudioScene, options?: SceneLoadOptions): Promise<boolean> {
     this.validateInitialized();
     
     try {
       if (typeof sceneId === 'string') {
-        if (NativeAudioEngine.loadScene) {
-          const result = await NativeAudioEngine.loadScene(sceneId);
-          if (result) {
+        if (NativeAudioEngine.loadSceneById) {
+          const result: SceneLoadResult = await NativeAudioEngine.loadSceneById(sceneId, options ?? null);
+          if (result.success) {
             this.emitEvent('sceneLoaded', { sceneId });
           }
-          return result;
+          return result.success;
         }
         return false;
+      } else if (NativeAudioEngine.loadScene) {
+        // 原生端比较差异，只加载缺少的音轨，并在一个缓冲区边界上整体切换
+        const result: SceneLoadResult = await NativeAudioEngine.loadScene({
+          tracks: sceneId.tracks.map(track => ({
+            id: track.id,
+            file: track.file,
+            volume: track.volume,
+            pan: track.pan,
+          })),
+          ...(options?.crossfadeMs !== undefined ? { crossfadeMs: options.crossfadeMs } : {}),
+        });
+        if (result.success) {
+          this.emitEvent('sceneLoaded', { scene: sceneId });
+        }
+        return result.success;
       } else {
         // 处理场景对象
         return await this.loadSceneFromObject(sceneId);
@@ -359,6 +425,20 @@ class NativeAudioBridge implements AmbianceAudioEngine {
     }
   }
   
+  async exportSceneToWav(sceneId: string, durationMinutes: number, fileName?: string): Promise<SceneExportResult> {
+    this.validateInitialized();
+    
+    if (!NativeAudioEngine.exportSceneToWav) {
+      throw new Error(AudioEngineError.INVALID_PARAMETER + ': Scene export is not supported on this platform');
+    }
+    try {
+      return await NativeAudioEngine.exportSceneToWav(sceneId, durationMinutes, fileName ?? null);
+    } catch (error) {
+      console.error('Failed to export scene:', error);
+      throw error;
+    }
+  }
+  
   async getCurrentScene(): Promise<AudioScene | null> {
     try {
       if (NativeAudioEngine.getCurrentScene) {
@@ -414,10 +494,21 @@ class NativeAudioBridge implements AmbianceAudioEngine {
   }
   
   private setupEventListeners(): void {
+    // 'onTrackAdded' -> 'trackAdded'
+    const toEngineEvent = (eventName: string) =>
+      (eventName.charAt(2).toLowerCase() + eventName.substring(3)) as AudioEngineEvent;
     const eventHandler = (eventName: string) => (data: any) => {
-      this.emitEvent(eventName as AudioEngineEvent, data);
+      this.emitEvent(toEngineEvent(eventName), data);
     };
     
+    if (Platform.OS === 'android') {
+      // Android 原生端把一帧内的事件合并为一批发送
+      DeviceEventEmitter.addListener('onEventBatch', (batch: Array<{ type: string; data?: any }>) => {
+        batch.forEach(event => this.emitEvent(toEngineEvent(event.type), event.data));
+      });
+      return;
+    }
+    
     const events = [
       'onInitialized',
       'onTrackAdded',
@@ -429,11 +520,7 @@ class NativeAudioBridge implements AmbianceAudioEngine {
     ];
     
     events.forEach(eventName => {
-      if (Platform.OS === 'ios') {
-        this.eventEmitter.addListener(eventName, eventHandler(eventName.substring(2).toLowerCase()));
-      } else {
-        DeviceEventEmitter.addListener(eventName, eventHandler(eventName.substring(2).toLowerCase()));
-      }
+      this.eventEmitter.addListener(eventName, eventHandler(eventName));
     });
   }
   
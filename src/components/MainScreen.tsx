@@ -21,6 +21,7 @@ import {
   StatusBar,
   Animated,
   Dimensions,
+  Platform,
 } from 'react-native';
 import Slider from '@react-native-community/slider';
 import LinearGradient from 'react-native-linear-gradient';
@@ -29,16 +30,16 @@ import { AudioTrack, TimerConfig } from '../audio/AmbianceAudioEngine';
 
 const { width: screenWidth } = Dimensions.get('window');
 
-// 预设音效列表
-const PRESET_SOUNDS = [
+// 预设音效列表 (synth: Android 原生引擎实时生成，不读取音频资源)
+const PRESET_SOUNDS: { id: string; name: string; file: string; synth?: string; category: string }[] = [
   { id: 'rain', name: '雨声', file: 'rain.ogg', category: 'nature' },
   { id: 'ocean', name: '海浪', file: 'ocean.ogg', category: 'nature' },
   { id: 'forest', name: '森林', file: 'forest.ogg', category: 'nature' },
   { id: 'fireplace', name: '壁炉', file: 'fireplace.ogg', category: 'ambient' },
   { id: 'cafe', name: '咖啡馆', file: 'cafe.ogg', category: 'ambient' },
-  { id: 'white_noise', name: '白噪音', file: 'white_noise.ogg', category: 'noise' },
-  { id: 'brown_noise', name: '棕噪音', file: 'brown_noise.ogg', category: 'noise' },
-  { id: 'pink_noise', name: '粉噪音', file: 'pink_noise.ogg', category: 'noise' },
+  { id: 'white_noise', name: '白噪音', file: 'white_noise.ogg', synth: 'noise://white', category: 'noise' },
+  { id: 'brown_noise', name: '棕噪音', file: 'brown_noise.ogg', synth: 'noise://brown', category: 'noise' },
+  { id: 'pink_noise', name: '粉噪音', file: 'pink_noise.ogg', synth: 'noise://pink', category: 'noise' },
 ];
 
 interface TrackState {
@@ -142,20 +143,26 @@ const MainScreen: React.FC = () => {
   const loadPresetSounds = async () => {
     const trackStates: TrackState[] = [];
     
+    // 一次性提交所有预设，原生端并行加载
+    const results = await audioEngine.addTracks(
+      PRESET_SOUNDS.map(sound => ({
+        trackId: sound.id,
+        audioFile: Platform.OS === 'android' && sound.synth ? sound.synth : sound.file,
+      }))
+    );
+    
     for (const sound of PRESET_SOUNDS) {
-      try {
-        const success = await audioEngine.addTrack(sound.id, sound.file);
-        if (success) {
-          trackStates.push({
-            id: sound.id,
-            name: sound.name,
-            volume: 0,
-            pan: 0,
-            isActive: false,
-          });
-        }
-      } catch (error) {
-        console.error(`加载音效失败: ${sound.name}`, error);
+      const result = results[sound.id];
+      if (result?.success) {
+        trackStates.push({
+          id: sound.id,
+          name: sound.name,
+          volume: 0,
+          pan: 0,
+          isActive: false,
+        });
+      } else {
+        console.error(`加载音效失败: ${sound.name}`, result?.error);
       }
     }
     